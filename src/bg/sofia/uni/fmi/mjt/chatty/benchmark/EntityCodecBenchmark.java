@@ -0,0 +1,178 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Entity;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.codec.EntityCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+public class EntityCodecBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int USER_POOL_SIZE = 1_000;
+    private static final int MESSAGES_PER_CHAT = 100;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int[] sizes;
+    private final List<User> pool;
+    private long blackhole;
+
+    public EntityCodecBenchmark(int[] sizes) {
+        this.sizes = sizes;
+        this.pool = new ArrayList<>(USER_POOL_SIZE + 1);
+
+        for (int i = 0; i <= USER_POOL_SIZE; i++) {
+            pool.add(userOf(i));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : DEFAULT_SIZES;
+
+        EntityCodecBenchmark benchmark = new EntityCodecBenchmark(sizes);
+        benchmark.run(benchmark.datasets());
+    }
+
+    public void run(List<Dataset> datasets) throws IOException, ClassNotFoundException {
+        System.out.printf("%-14s %10s %14s %14s %12s %12s %12s %12s%n", "dataset", "entities", "serialized B",
+                "binary B", "ser save ms", "bin save ms", "ser load ms", "bin load ms");
+
+        for (Dataset dataset : datasets) {
+            for (int size : sizes) {
+                List<? extends Entity> entities = dataset.generator().apply(size);
+
+                saveSerialized(entities);
+                long serializedSaveStart = System.nanoTime();
+                byte[] serialized = saveSerialized(entities);
+                long serializedSaveNanos = System.nanoTime() - serializedSaveStart;
+
+                saveBinary(entities);
+                long binarySaveStart = System.nanoTime();
+                byte[] binary = saveBinary(entities);
+                long binarySaveNanos = System.nanoTime() - binarySaveStart;
+
+                loadSerialized(serialized);
+                long serializedLoadStart = System.nanoTime();
+                loadSerialized(serialized);
+                long serializedLoadNanos = System.nanoTime() - serializedLoadStart;
+
+                loadBinary(binary);
+                long binaryLoadStart = System.nanoTime();
+                loadBinary(binary);
+                long binaryLoadNanos = System.nanoTime() - binaryLoadStart;
+
+                System.out.printf("%-14s %10d %14d %14d %12.1f %12.1f %12.1f %12.1f%n", dataset.name(), size,
+                        serialized.length, binary.length, serializedSaveNanos / NANOS_PER_MILLI,
+                        binarySaveNanos / NANOS_PER_MILLI, serializedLoadNanos / NANOS_PER_MILLI,
+                        binaryLoadNanos / NANOS_PER_MILLI);
+            }
+        }
+
+        if (blackhole == 0) {
+            System.out.println();
+        }
+    }
+
+    private static byte[] saveSerialized(List<? extends Entity> entities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (var stream = new ObjectOutputStream(bytes)) {
+            stream.writeInt(entities.size());
+
+            for (Entity entity : entities) {
+                stream.writeObject(entity);
+            }
+
+            stream.writeLong(0);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] saveBinary(List<? extends Entity> entities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EntityCodec.write(entities, new EntityCodec.Header(0, 0), bytes);
+
+        return bytes.toByteArray();
+    }
+
+    private void loadSerialized(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (var stream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            int size = stream.readInt();
+            List<Entity> entities = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                entities.add(Entity.loadFrom(stream));
+            }
+
+            blackhole += entities.size() + stream.readLong();
+        }
+    }
+
+    private void loadBinary(byte[] bytes) throws IOException {
+        List<Entity> entities = new ArrayList<>();
+
+        blackhole += EntityCodec.read(new ByteArrayInputStream(bytes), pool::get, entities::add).sequence()
+                + entities.size();
+    }
+
+    private List<Dataset> datasets() {
+        return List.of(
+                new Dataset("users", size -> {
+                    List<User> users = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        users.add(userOf(i + 1));
+                    }
+
+                    return users;
+                }),
+                new Dataset("notifications", size -> {
+                    List<Notification> notifications = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        notifications.add(new Notification(pool.get(i % USER_POOL_SIZE + 1),
+                                NotificationType.PERSONAL_MESSAGE, "user." + i + " -> Message number " + i));
+                    }
+
+                    return notifications;
+                }),
+                new Dataset("chat messages", size -> {
+                    List<PersonalChat> chats = new ArrayList<>(size / MESSAGES_PER_CHAT);
+                    for (int i = 0; i < size / MESSAGES_PER_CHAT; i++) {
+                        User left = pool.get(i % USER_POOL_SIZE + 1);
+                        User right = pool.get((i + 1) % USER_POOL_SIZE + 1);
+                        List<Message> messages = new ArrayList<>(MESSAGES_PER_CHAT);
+
+                        for (int j = 0; j < MESSAGES_PER_CHAT; j++) {
+                            messages.add(new Message(j % 2 == 0 ? left : right, "Message number " + j + ", hi!"));
+                        }
+
+                        chats.add(new PersonalChat(left, right, messages));
+                    }
+
+                    return chats;
+                })
+        );
+    }
+
+    private static User userOf(int index) {
+        return new User(index, "User", "Number" + index, "user." + index,
+                "3a7306a7751a1079497609b718251c4a4d76a375f3d893280f1e50db" + String.format("%08x", index));
+    }
+
+    public record Dataset(String name, IntFunction<List<? extends Entity>> generator) {
+    }
+
+}
@@ -0,0 +1,306 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class LoadConfig {
+
+    private static final String DEFAULT_HOST = "localhost";
+    private static final int DEFAULT_PORT = 3000;
+    private static final int DEFAULT_USERS = 100;
+    private static final int DEFAULT_GROUP_SIZE = 10;
+    private static final int DEFAULT_MESSAGE_SIZE = 64;
+    private static final int DEFAULT_PIPELINE = 1;
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_WARMUP = Duration.ofSeconds(5);
+    private static final String DEFAULT_MIX = "send:60,open-chat:10,list-friends:15,check-inbox:15";
+
+    private static final Set<CommandType> SUPPORTED_COMMANDS = Set.of(CommandType.SEND_MESSAGE,
+            CommandType.OPEN_CHAT, CommandType.OPEN_GROUP, CommandType.LIST_FRIENDS, CommandType.CHECK_INBOX,
+            CommandType.LIST_GROUPS);
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String OPTION_SEPARATOR = "=";
+    private static final String MIX_SEPARATOR = ",";
+    private static final String WEIGHT_SEPARATOR = ":";
+
+    private final String host;
+    private final int port;
+    private final int userCount;
+    private final int groupSize;
+    private final int messageSize;
+    private final int rate;
+    private final int pipeline;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Map<CommandType, Integer> mix;
+    private final String userPrefix;
+    private final LoadReport.Format reportFormat;
+
+    private LoadConfig(Builder builder) {
+        this.host = builder.host;
+        this.port = builder.port;
+        this.userCount = builder.userCount;
+        this.groupSize = builder.groupSize;
+        this.messageSize = builder.messageSize;
+        this.rate = builder.rate;
+        this.pipeline = builder.pipeline;
+        this.duration = builder.duration;
+        this.warmup = builder.warmup;
+        this.mix = Collections.unmodifiableMap(new EnumMap<>(builder.mix));
+        this.userPrefix = builder.userPrefix;
+        this.reportFormat = builder.reportFormat;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static LoadConfig fromArgs(String[] args) {
+        Builder builder = builder();
+
+        parseOptions(args).forEach((name, value) -> {
+            switch (name) {
+                case "host" -> builder.host(value);
+                case "port" -> builder.port(Integer.parseInt(value));
+                case "users" -> builder.userCount(Integer.parseInt(value));
+                case "group-size" -> builder.groupSize(Integer.parseInt(value));
+                case "message-size" -> builder.messageSize(Integer.parseInt(value));
+                case "rate" -> builder.rate(Integer.parseInt(value));
+                case "pipeline" -> builder.pipeline(Integer.parseInt(value));
+                case "duration" -> builder.duration(Duration.ofSeconds(Long.parseLong(value)));
+                case "warmup" -> builder.warmup(Duration.ofSeconds(Long.parseLong(value)));
+                case "mix" -> builder.mix(parseMix(value));
+                case "user-prefix" -> builder.userPrefix(value);
+                case "report" -> builder.reportFormat(LoadReport.Format.valueOf(value.toUpperCase()));
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        });
+
+        return builder.build();
+    }
+
+    public static Map<CommandType, Integer> parseMix(String value) {
+        Guard.isNotNull(value);
+
+        Map<CommandType, Integer> mix = new EnumMap<>(CommandType.class);
+
+        for (String entry : value.split(MIX_SEPARATOR)) {
+            String[] weighted = entry.trim().split(WEIGHT_SEPARATOR);
+            if (weighted.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be in format command:weight");
+            }
+
+            mix.merge(CommandType.of(weighted[0]), Integer.parseInt(weighted[1]), Integer::sum);
+        }
+
+        return mix;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getGroupSize() {
+        return groupSize;
+    }
+
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public boolean isOpenLoop() {
+        return rate > 0;
+    }
+
+    public int getPipeline() {
+        return pipeline;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Map<CommandType, Integer> getMix() {
+        return mix;
+    }
+
+    public String getUserPrefix() {
+        return userPrefix;
+    }
+
+    public LoadReport.Format getReportFormat() {
+        return reportFormat;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith(OPTION_PREFIX) || !arg.contains(OPTION_SEPARATOR)) {
+                throw new IllegalArgumentException("Options must be in format --name=value");
+            }
+
+            String[] option = arg.substring(OPTION_PREFIX.length()).split(OPTION_SEPARATOR, 2);
+            options.put(option[0], option[1]);
+        }
+
+        return options;
+    }
+
+    public static class Builder {
+
+        private String host = DEFAULT_HOST;
+        private int port = DEFAULT_PORT;
+        private int userCount = DEFAULT_USERS;
+        private int groupSize = DEFAULT_GROUP_SIZE;
+        private int messageSize = DEFAULT_MESSAGE_SIZE;
+        private int rate;
+        private int pipeline = DEFAULT_PIPELINE;
+        private Duration duration = DEFAULT_DURATION;
+        private Duration warmup = DEFAULT_WARMUP;
+        private Map<CommandType, Integer> mix = parseMix(DEFAULT_MIX);
+        private String userPrefix = "load" + Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+        private LoadReport.Format reportFormat = LoadReport.Format.TEXT;
+
+        private Builder() {
+        }
+
+        public Builder host(String host) {
+            Guard.isNotNull(host);
+            this.host = host;
+            return this;
+        }
+
+        public Builder port(int port) {
+            ensurePositive(port);
+            this.port = port;
+            return this;
+        }
+
+        public Builder userCount(int count) {
+            if (count < 2) {
+                throw new IllegalArgumentException("Load needs at least 2 users");
+            }
+
+            this.userCount = count;
+            return this;
+        }
+
+        public Builder groupSize(int size) {
+            ensureNotNegative(size);
+            this.groupSize = size;
+            return this;
+        }
+
+        public Builder messageSize(int bytes) {
+            ensurePositive(bytes);
+            this.messageSize = bytes;
+            return this;
+        }
+
+        public Builder rate(int requestsPerSecond) {
+            ensureNotNegative(requestsPerSecond);
+            this.rate = requestsPerSecond;
+            return this;
+        }
+
+        public Builder pipeline(int requests) {
+            ensurePositive(requests);
+            this.pipeline = requests;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            Guard.isNotNull(duration);
+            if (duration.isZero() || duration.isNegative()) {
+                throw new IllegalArgumentException("Duration must be positive");
+            }
+
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder warmup(Duration warmup) {
+            Guard.isNotNull(warmup);
+            if (warmup.isNegative()) {
+                throw new IllegalArgumentException("Warmup must not be negative");
+            }
+
+            this.warmup = warmup;
+            return this;
+        }
+
+        public Builder mix(Map<CommandType, Integer> mix) {
+            Guard.isNotNull(mix);
+
+            int total = 0;
+            for (Map.Entry<CommandType, Integer> entry : mix.entrySet()) {
+                if (!SUPPORTED_COMMANDS.contains(entry.getKey())) {
+                    throw new IllegalArgumentException("Command " + entry.getKey() + " is not supported in the mix");
+                }
+
+                ensureNotNegative(entry.getValue());
+                total += entry.getValue();
+            }
+
+            ensurePositive(total);
+            this.mix = mix;
+            return this;
+        }
+
+        public Builder userPrefix(String prefix) {
+            Guard.isNotNull(prefix);
+            Guard.isValidUsername(prefix);
+            this.userPrefix = prefix;
+            return this;
+        }
+
+        public Builder reportFormat(LoadReport.Format format) {
+            Guard.isNotNull(format);
+            this.reportFormat = format;
+            return this;
+        }
+
+        public LoadConfig build() {
+            return new LoadConfig(this);
+        }
+
+        private static void ensurePositive(int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("Value must be positive");
+            }
+        }
+
+        private static void ensureNotNegative(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Value must not be negative");
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,370 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.LatencyHistogram;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LoadGenerator {
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long PHASE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+    private static final String MESSAGE_MARKER = "lg";
+    private static final Pattern BROADCAST = Pattern.compile("^\\[([\\w.-]+)] " + MESSAGE_MARKER + " (\\d+) ");
+    private static final char PADDING = 'x';
+
+    private final LoadConfig config;
+    private final SplittableRandom random;
+    private final CommandType[] weightedCommands;
+    private final String padding;
+
+    private final Map<CommandType, LatencyHistogram> latencies;
+    private final Map<CommandType, Long> rejections;
+    private final LatencyHistogram broadcastLag;
+
+    private Selector selector;
+    private List<LoadUser> users;
+    private Map<LoadUser, Deque<String>> scripts;
+    private Predicate<String> isExpectedReply;
+    private int unexpectedReplies;
+    private String firstUnexpectedReply;
+    private boolean isMeasuring;
+
+    public LoadGenerator(LoadConfig config) {
+        Guard.isNotNull(config);
+
+        this.config = config;
+        this.random = new SplittableRandom();
+        this.weightedCommands = weightedCommandsOf(config.getMix());
+        this.padding = String.valueOf(PADDING).repeat(config.getMessageSize());
+        this.latencies = new EnumMap<>(CommandType.class);
+        this.rejections = new EnumMap<>(CommandType.class);
+        this.broadcastLag = new LatencyHistogram();
+
+        for (CommandType type : config.getMix().keySet()) {
+            latencies.put(type, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadConfig config = LoadConfig.fromArgs(args);
+        LoadReport report = new LoadGenerator(config).run();
+
+        System.out.print(report.format(config.getReportFormat()));
+    }
+
+    public LoadReport run() throws IOException {
+        try (Selector selector = Selector.open()) {
+            this.selector = selector;
+
+            connect();
+            prepare();
+
+            return measure();
+        } finally {
+            disconnect();
+        }
+    }
+
+    private void connect() throws IOException {
+        users = new ArrayList<>(config.getUserCount());
+        InetSocketAddress address = new InetSocketAddress(config.getHost(), config.getPort());
+
+        for (int i = 0; i < config.getUserCount(); i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            LoadUser user = new LoadUser(config.getUserPrefix() + "." + i, channel, key);
+            key.attach(user);
+
+            users.add(user);
+        }
+
+        assignFriendsAndGroups();
+    }
+
+    private void assignFriendsAndGroups() {
+        for (int i = 0; i < users.size(); i += 2) {
+            LoadUser first = users.get(i);
+            LoadUser second = users.get(i + 1 < users.size() ? i + 1 : 0);
+
+            first.befriend(second);
+        }
+
+        if (config.getGroupSize() < 2) {
+            return;
+        }
+
+        for (int i = 0; i + 1 < users.size(); i += config.getGroupSize()) {
+            List<LoadUser> block = users.subList(i, Math.min(users.size(), i + config.getGroupSize()));
+            if (block.size() < 2) {
+                continue;
+            }
+
+            String group = config.getUserPrefix() + ".g" + i / config.getGroupSize();
+            List<String> members = block.stream().skip(1).map(LoadUser::getUsername).toList();
+
+            block.getFirst().joinGroup(group, members);
+            block.stream().skip(1).forEach(user -> user.joinGroup(group, List.of()));
+        }
+    }
+
+    private void prepare() throws IOException {
+        runPhase("register", user -> List.of(String.join(" ", "register", "Load", "User", user.getUsername(),
+                user.getPassword())), reply -> reply.equals("Successful registration"));
+        runPhase("login", user -> List.of(String.join(" ", "login", user.getUsername(), user.getPassword())),
+                reply -> reply.startsWith("{"));
+        runPhase("add-friend", user -> user.getFriendRequests().stream().map(friend -> "add-friend " + friend)
+                .toList(), reply -> reply.startsWith("Friend request sent"));
+        runPhase("accept", user -> user.getAcceptedRequests().stream().map(friend -> "accept " + friend)
+                .toList(), reply -> reply.startsWith("You are now friends"));
+        runPhase("create-group", user -> user.isGroupAdmin() ? List.of("create-group " + user.getGroup())
+                : List.of(), reply -> reply.startsWith("Group chat created"));
+        runPhase("add-to-group", user -> user.getMembers().stream()
+                .map(member -> String.join(" ", "add-to-group", member, user.getGroup()))
+                .toList(), reply -> reply.contains(" added to "));
+        runPhase("open", user -> List.of(openCommandOf(user, CommandType.OPEN_GROUP)),
+                reply -> reply.startsWith("{"));
+    }
+
+    private void runPhase(String name, Function<LoadUser, List<String>> script, Predicate<String> isExpected)
+            throws IOException {
+        long start = System.nanoTime();
+
+        scripts = new HashMap<>();
+        isExpectedReply = isExpected;
+        unexpectedReplies = 0;
+        firstUnexpectedReply = null;
+
+        int requests = 0;
+        for (LoadUser user : users) {
+            Deque<String> commands = new ArrayDeque<>(script.apply(user));
+            requests += commands.size();
+
+            if (!commands.isEmpty()) {
+                scripts.put(user, commands);
+                user.send(CommandType.UNKNOWN, commands.poll(), System.nanoTime());
+            }
+        }
+
+        while (users.stream().anyMatch(user -> user.getInFlight() > 0)) {
+            if (System.nanoTime() - start > PHASE_TIMEOUT_NANOS) {
+                throw new IOException("Phase " + name + " did not complete in time");
+            }
+
+            select(SELECT_TIMEOUT_MILLIS);
+        }
+
+        scripts = null;
+        System.err.printf("%-14s %8d requests in %6d ms, %d unexpected replies%s%n", name, requests,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), unexpectedReplies,
+                firstUnexpectedReply == null ? "" : " (first: " + firstUnexpectedReply + ")");
+    }
+
+    private LoadReport measure() throws IOException {
+        long start = System.nanoTime();
+        long measureStart = start + config.getWarmup().toNanos();
+        long end = measureStart + config.getDuration().toNanos();
+
+        PriorityQueue<LoadUser> schedule = new PriorityQueue<>(Comparator.comparingLong(LoadUser::getNextSendNanos));
+        long interval = config.isOpenLoop() ? TimeUnit.SECONDS.toNanos(users.size()) / config.getRate() : 0;
+
+        for (int i = 0; i < users.size(); i++) {
+            LoadUser user = users.get(i);
+
+            if (config.isOpenLoop()) {
+                user.scheduleAt(start + interval * i / users.size());
+                schedule.add(user);
+            } else {
+                for (int j = 0; j < config.getPipeline(); j++) {
+                    sendNext(user, System.nanoTime());
+                }
+            }
+        }
+
+        isMeasuring = true;
+        boolean isWarm = config.getWarmup().isZero();
+
+        for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+            if (!isWarm && now >= measureStart) {
+                latencies.values().forEach(LatencyHistogram::reset);
+                rejections.clear();
+                broadcastLag.reset();
+                isWarm = true;
+            }
+
+            while (!schedule.isEmpty() && schedule.peek().getNextSendNanos() <= now) {
+                LoadUser user = schedule.poll();
+
+                sendNext(user, user.getNextSendNanos());
+                user.scheduleAt(user.getNextSendNanos() + interval);
+                schedule.add(user);
+            }
+
+            long timeout = schedule.isEmpty() ? SELECT_TIMEOUT_MILLIS
+                    : TimeUnit.NANOSECONDS.toMillis(schedule.peek().getNextSendNanos() - now);
+            select(Math.clamp(timeout, 1, SELECT_TIMEOUT_MILLIS));
+        }
+
+        isMeasuring = false;
+        long drainEnd = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+
+        while (System.nanoTime() < drainEnd && users.stream().anyMatch(user -> user.getInFlight() > 0)) {
+            select(SELECT_TIMEOUT_MILLIS);
+        }
+
+        return LoadReport.of(config, end - measureStart, latencies, rejections, broadcastLag);
+    }
+
+    private void sendNext(LoadUser user, long startNanos) throws IOException {
+        CommandType type = weightedCommands[random.nextInt(weightedCommands.length)];
+
+        String command = switch (type) {
+            case SEND_MESSAGE -> "send \"" + MESSAGE_MARKER + " " + System.nanoTime() + " " + padding + "\"";
+            case OPEN_CHAT, OPEN_GROUP -> openCommandOf(user, type);
+            default -> type.toString();
+        };
+
+        if (type == CommandType.OPEN_GROUP && user.getGroup() == null) {
+            type = CommandType.OPEN_CHAT;
+        }
+
+        user.send(type, command, startNanos);
+    }
+
+    private static String openCommandOf(LoadUser user, CommandType type) {
+        if (type == CommandType.OPEN_GROUP && user.getGroup() != null) {
+            return "open-group " + user.getGroup();
+        }
+
+        return "open-chat " + user.getFriend();
+    }
+
+    private void select(long timeoutMillis) throws IOException {
+        try {
+            selectAndProcess(timeoutMillis);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void selectAndProcess(long timeoutMillis) throws IOException {
+        selector.select(key -> {
+            try {
+                process(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, timeoutMillis);
+    }
+
+    private void process(SelectionKey key) throws IOException {
+        LoadUser user = (LoadUser) key.attachment();
+
+        if (key.isWritable()) {
+            user.flush();
+        }
+
+        if (!key.isReadable()) {
+            return;
+        }
+
+        for (String message : user.receive()) {
+            long now = System.nanoTime();
+
+            if (Frames.HEARTBEAT_PING.equals(message)) {
+                user.sendUntracked(Frames.HEARTBEAT_PONG);
+            } else if (!recordBroadcast(user, message, now)) {
+                complete(user, message, now);
+            }
+        }
+    }
+
+    private void complete(LoadUser user, String reply, long now) throws IOException {
+        LoadUser.Request request = user.complete();
+        if (request == null) {
+            return;
+        }
+
+        if (scripts != null) {
+            if (!isExpectedReply.test(reply)) {
+                unexpectedReplies++;
+                firstUnexpectedReply = firstUnexpectedReply == null ? reply : firstUnexpectedReply;
+            }
+
+            Deque<String> commands = scripts.get(user);
+            if (commands != null && !commands.isEmpty()) {
+                user.send(CommandType.UNKNOWN, commands.poll(), System.nanoTime());
+            }
+
+            return;
+        }
+
+        latencies.computeIfAbsent(request.type(), type -> new LatencyHistogram()).record(now - request.startNanos());
+        if (TextCodec.isRateLimited(reply)) {
+            rejections.merge(request.type(), 1L, Long::sum);
+        }
+
+        if (isMeasuring && !config.isOpenLoop()) {
+            sendNext(user, System.nanoTime());
+        }
+    }
+
+    private boolean recordBroadcast(LoadUser user, String message, long now) {
+        Matcher matcher = BROADCAST.matcher(message);
+        if (!matcher.lookingAt() || matcher.group(1).equals(user.getUsername())) {
+            return false;
+        }
+
+        broadcastLag.record(Math.max(0, now - Long.parseLong(matcher.group(2))));
+        return true;
+    }
+
+    private void disconnect() throws IOException {
+        if (users == null) {
+            return;
+        }
+
+        for (LoadUser user : users) {
+            user.close();
+        }
+    }
+
+    private static CommandType[] weightedCommandsOf(Map<CommandType, Integer> mix) {
+        List<CommandType> commands = new ArrayList<>();
+
+        mix.forEach((type, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                commands.add(type);
+            }
+        });
+
+        return commands.toArray(CommandType[]::new);
+    }
+
+}
@@ -0,0 +1,111 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.LatencyHistogram;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public record LoadReport(String mode, int users, double seconds, double throughput,
+                         List<CommandStats> commands, LatencyStats broadcastLag) {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public enum Format {
+        TEXT,
+        JSON
+    }
+
+    public static LoadReport of(LoadConfig config, long nanos, Map<CommandType, LatencyHistogram> latencies,
+                                Map<CommandType, Long> rejections, LatencyHistogram broadcastLag) {
+        Guard.isNotNull(config);
+        Guard.isNotNull(latencies);
+        Guard.isNotNull(rejections);
+        Guard.isNotNull(broadcastLag);
+
+        double seconds = nanos / NANOS_PER_SECOND;
+        List<CommandStats> commands = new ArrayList<>();
+        long total = 0;
+
+        for (Map.Entry<CommandType, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+
+            total += histogram.getCount();
+            commands.add(new CommandStats(entry.getKey().toString(), histogram.getCount() / seconds,
+                    rejections.getOrDefault(entry.getKey(), 0L), LatencyStats.of(histogram)));
+        }
+
+        String mode = config.isOpenLoop()
+                ? "open loop at " + config.getRate() + " req/s"
+                : "closed loop with " + config.getPipeline() + " in flight per connection";
+
+        return new LoadReport(mode, config.getUserCount(), seconds, total / seconds, commands,
+                LatencyStats.of(broadcastLag));
+    }
+
+    public String format(Format format) {
+        Guard.isNotNull(format);
+
+        return switch (format) {
+            case TEXT -> toText();
+            case JSON -> toJson();
+        };
+    }
+
+    public String toJson() {
+        return GSON.toJson(this);
+    }
+
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+
+        text.append(String.format("%d users, %s, %.1f s, %.1f req/s%n", users, mode, seconds, throughput));
+        text.append(String.format("%-14s %10s %10s %10s %10s %10s %10s %10s%n", "command", "count", "req/s",
+                "p50 us", "p99 us", "p999 us", "max us", "rejected"));
+
+        for (CommandStats command : commands) {
+            LatencyStats latency = command.latency();
+
+            text.append(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10d%n", command.command(),
+                    latency.count(), command.throughput(), latency.p50Micros(), latency.p99Micros(),
+                    latency.p999Micros(), latency.maxMicros(), command.rejected()));
+        }
+
+        text.append(String.format("%-14s %10d %10s %10.1f %10.1f %10.1f %10.1f%n", "broadcast lag",
+                broadcastLag.count(), "", broadcastLag.p50Micros(), broadcastLag.p99Micros(),
+                broadcastLag.p999Micros(), broadcastLag.maxMicros()));
+
+        return text.toString();
+    }
+
+    public record CommandStats(String command, double throughput, long rejected, LatencyStats latency) {
+    }
+
+    public record LatencyStats(long count, double meanMicros, double p50Micros, double p99Micros,
+                               double p999Micros, double maxMicros) {
+
+        private static final double P50 = 50;
+        private static final double P99 = 99;
+        private static final double P999 = 99.9;
+
+        public static LatencyStats of(LatencyHistogram histogram) {
+            Guard.isNotNull(histogram);
+
+            return new LatencyStats(histogram.getCount(), histogram.getMean() / NANOS_PER_MICRO,
+                    histogram.getPercentile(P50) / NANOS_PER_MICRO, histogram.getPercentile(P99) / NANOS_PER_MICRO,
+                    histogram.getPercentile(P999) / NANOS_PER_MICRO, histogram.getMax() / NANOS_PER_MICRO);
+        }
+
+    }
+
+}
@@ -0,0 +1,198 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+class LoadUser {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final String PASSWORD = "LoadTest123";
+
+    private final String username;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final Deque<ByteBuffer> outbound;
+    private final Deque<Request> inFlight;
+    private final ByteArrayOutputStream continued;
+    private final List<String> friendRequests;
+    private final List<String> acceptedRequests;
+
+    private ByteBuffer inbound;
+    private String friend;
+    private String group;
+    private List<String> members;
+    private long nextSendNanos;
+
+    LoadUser(String username, SocketChannel channel, SelectionKey key) {
+        this.username = username;
+        this.channel = channel;
+        this.key = key;
+        this.outbound = new ArrayDeque<>();
+        this.inFlight = new ArrayDeque<>();
+        this.continued = new ByteArrayOutputStream();
+        this.friendRequests = new ArrayList<>();
+        this.acceptedRequests = new ArrayList<>();
+        this.inbound = ByteBuffer.allocate(INITIAL_CAPACITY);
+        this.members = List.of();
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    String getPassword() {
+        return PASSWORD;
+    }
+
+    String getFriend() {
+        return friend;
+    }
+
+    List<String> getFriendRequests() {
+        return friendRequests;
+    }
+
+    List<String> getAcceptedRequests() {
+        return acceptedRequests;
+    }
+
+    void befriend(LoadUser other) {
+        friendRequests.add(other.username);
+        other.acceptedRequests.add(username);
+
+        if (friend == null) {
+            friend = other.username;
+        }
+
+        if (other.friend == null) {
+            other.friend = username;
+        }
+    }
+
+    String getGroup() {
+        return group;
+    }
+
+    List<String> getMembers() {
+        return members;
+    }
+
+    void joinGroup(String group, List<String> members) {
+        this.group = group;
+        this.members = members;
+    }
+
+    boolean isGroupAdmin() {
+        return !members.isEmpty();
+    }
+
+    long getNextSendNanos() {
+        return nextSendNanos;
+    }
+
+    void scheduleAt(long nanos) {
+        this.nextSendNanos = nanos;
+    }
+
+    int getInFlight() {
+        return inFlight.size();
+    }
+
+    Request complete() {
+        return inFlight.poll();
+    }
+
+    void send(CommandType type, String command, long startNanos) throws IOException {
+        inFlight.add(new Request(type, startNanos));
+        sendUntracked(command);
+    }
+
+    void sendUntracked(String command) throws IOException {
+        outbound.add(Frames.encode(command));
+        flush();
+    }
+
+    void flush() throws IOException {
+        while (!outbound.isEmpty()) {
+            ByteBuffer frame = outbound.peek();
+            channel.write(frame);
+
+            if (frame.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+
+            outbound.poll();
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    List<String> receive() throws IOException {
+        if (!inbound.hasRemaining()) {
+            inbound = ByteBuffer.allocate(inbound.capacity() * 2).put(inbound.flip());
+        }
+
+        if (channel.read(inbound) < 0) {
+            throw new IOException("Server closed the connection of " + username);
+        }
+
+        List<String> messages = new ArrayList<>();
+        inbound.flip();
+
+        try {
+            while (inbound.remaining() >= Frames.LENGTH_FIELD_SIZE) {
+                int lengthField = inbound.getInt(inbound.position());
+                int length = lengthField & ~Frames.CONTINUATION_FLAG;
+                Frames.ensureValidLength(length);
+
+                if (inbound.remaining() < Frames.LENGTH_FIELD_SIZE + length) {
+                    ensureCapacity(Frames.LENGTH_FIELD_SIZE + length);
+                    break;
+                }
+
+                inbound.position(inbound.position() + Frames.LENGTH_FIELD_SIZE);
+                continued.write(inbound.array(), inbound.arrayOffset() + inbound.position(), length);
+                inbound.position(inbound.position() + length);
+
+                if (!Frames.isContinued(lengthField)) {
+                    messages.add(continued.toString(StandardCharsets.UTF_8));
+                    continued.reset();
+                }
+            }
+        } catch (MalformedFrameException e) {
+            throw new IOException("Server sent a malformed frame to " + username, e);
+        } finally {
+            inbound.compact();
+        }
+
+        return messages;
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (inbound.capacity() < capacity) {
+            inbound = ByteBuffer.allocate(capacity).put(inbound);
+            inbound.flip();
+        }
+    }
+
+    record Request(CommandType type, long startNanos) {
+    }
+
+}
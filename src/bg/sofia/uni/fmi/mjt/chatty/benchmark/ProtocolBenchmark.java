@@ -0,0 +1,148 @@
+package bg.sofia.uni.fmi.mjt.chatty.benchmark;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProtocolBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20_000;
+    private static final int FRIEND_COUNT = 20;
+    private static final int HISTORY_SIZE = 200;
+    private static final int NOTIFICATION_COUNT = 10;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final int iterations;
+    private long blackhole;
+
+    public ProtocolBenchmark(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] args) throws MalformedFrameException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        new ProtocolBenchmark(iterations).run(scenarios());
+    }
+
+    public void run(List<Scenario> scenarios) throws MalformedFrameException {
+        System.out.printf("%-14s %12s %12s %12s %12s %12s %12s%n", "command", "text req B", "binary req B",
+                "text resp B", "binary resp B", "text ns/op", "binary ns/op");
+
+        for (Scenario scenario : scenarios) {
+            measureText(scenario, iterations);
+            long textNanos = measureText(scenario, iterations);
+
+            measureBinary(scenario, iterations);
+            long binaryNanos = measureBinary(scenario, iterations);
+
+            System.out.printf("%-14s %12d %12d %12d %12d %12d %12d%n", scenario.name(),
+                    Frames.encode(scenario.input()).remaining(),
+                    BinaryCodec.encodeCommand(CommandCreator.newCommand(scenario.input())).remaining(),
+                    Frames.encode(TextCodec.encode(scenario.response())).remaining(),
+                    BinaryCodec.encode(scenario.response()).remaining(),
+                    textNanos, binaryNanos);
+        }
+
+        if (blackhole == 0) {
+            System.out.println();
+        }
+    }
+
+    private long measureText(Scenario scenario, int count) {
+        long start = threads.getCurrentThreadCpuTime();
+
+        for (int i = 0; i < count; i++) {
+            ByteBuffer request = Frames.encode(scenario.input());
+            Command command = CommandCreator.newCommand(utf8Payload(request));
+
+            ByteBuffer reply = Frames.encode(TextCodec.encode(scenario.response()));
+            Response response = TextCodec.decodeResponse(command.type(), utf8Payload(reply));
+
+            blackhole += command.argumentCount() + response.hashCode();
+        }
+
+        return (threads.getCurrentThreadCpuTime() - start) / count;
+    }
+
+    private long measureBinary(Scenario scenario, int count) throws MalformedFrameException {
+        long start = threads.getCurrentThreadCpuTime();
+
+        for (int i = 0; i < count; i++) {
+            ByteBuffer request = BinaryCodec.encodeCommand(CommandCreator.newCommand(scenario.input()));
+            Command command = BinaryCodec.decodeCommand(payloadOf(request));
+
+            ByteBuffer reply = BinaryCodec.encode(scenario.response());
+            Response response = BinaryCodec.decodeResponse(payloadOf(reply));
+
+            blackhole += command.argumentCount() + response.hashCode();
+        }
+
+        return (threads.getCurrentThreadCpuTime() - start) / count;
+    }
+
+    private static ByteBuffer payloadOf(ByteBuffer frame) {
+        return frame.position(Frames.LENGTH_FIELD_SIZE).slice();
+    }
+
+    private static String utf8Payload(ByteBuffer frame) {
+        return new String(frame.array(), Frames.LENGTH_FIELD_SIZE, frame.remaining() - Frames.LENGTH_FIELD_SIZE,
+                StandardCharsets.UTF_8);
+    }
+
+    private static List<Scenario> scenarios() {
+        User george = new User("Gorge", "Peterson", "g.peterson", "3a7306a7751a1079497609b718251c4a4d76a375f3d8");
+        User steven = new User("Steven", "Peterson", "s.peterson", "9b718251c4a4d76a375f3d8932803a7306a7751a107");
+
+        List<UserDTO> friends = new ArrayList<>();
+        for (int i = 0; i < FRIEND_COUNT; i++) {
+            friends.add(new UserDTO("Friend Number" + i, "friend." + i));
+        }
+
+        List<Message> history = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            history.add(new Message(i % 2 == 0 ? george : steven, "Message number " + i + ", how are you?"));
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < NOTIFICATION_COUNT; i++) {
+            notifications.add(new Notification(george, NotificationType.PERSONAL_MESSAGE,
+                    "s.peterson -> [s.peterson] Message number " + i));
+        }
+
+        return List.of(
+                new Scenario("login", "login g.peterson Parola123",
+                        new Response.Login(new SessionDTO(new UserDTO("Gorge Peterson", "g.peterson"), List.of()))),
+                new Scenario("send", "send \"Hello there, how are you today?\"",
+                        new Response.ChatMessage("g.peterson", "Hello there, how are you today?")),
+                new Scenario("add-friend", "add-friend s.peterson",
+                        Response.text("Friend request sent to s.peterson")),
+                new Scenario("list-friends", "list-friends", new Response.Users(friends)),
+                new Scenario("open-chat", "open-chat s.peterson",
+                        new Response.PersonalHistory(new PersonalChatDTO("s.peterson", history, 0))),
+                new Scenario("check-inbox", "check-inbox", new Response.Notifications(notifications))
+        );
+    }
+
+    public record Scenario(String name, String input, Response response) {
+    }
+
+}
@@ -1,44 +1,44 @@
 package bg.sofia.uni.fmi.mjt.chatty.client;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
+
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
-import java.nio.charset.StandardCharsets;
 
 public class ChatObserverThread extends Thread {
 
-    private final SocketChannel channel;
+    private static final Response CLOSED_REPLY = Response.text("closed");
 
-    private final ChatState chatState;
+    private final ResponseReader reader;
 
-    private final ByteBuffer buffer;
+    private final ChatState chatState;
 
-    public ChatObserverThread(SocketChannel channel, ChatState chatState, ByteBuffer buffer) {
-        this.channel = channel;
+    public ChatObserverThread(ResponseReader reader, ChatState chatState) {
+        this.reader = reader;
         this.chatState = chatState;
-        this.buffer = buffer;
     }
 
     @Override
     public void run() {
         while (!chatState.equals(ChatState.NOT_IN_CHAT)) {
             try {
-                buffer.clear();
-                channel.read(buffer);
-
-                buffer.flip();
+                Response response = reader.read(CommandType.HISTORY);
 
-                byte[] byteArray = new byte[buffer.remaining()];
-                buffer.get(byteArray);
-
-                String reply = new String(byteArray, StandardCharsets.UTF_8);
-
-                if (reply.equals("closed")) {
+                if (response == null || response.equals(CLOSED_REPLY)) {
                     System.out.println("Chat closed");
                     break;
                 }
 
-                if (!reply.startsWith("[")) {
+                if (response instanceof Response.History(HistoryDTO page)) {
+                    printPage(page);
+                    continue;
+                }
+
+                String reply = TextCodec.encode(response);
+
+                if (!reply.startsWith("[") && !(response instanceof Response.RateLimited)) {
                     continue;
                 }
 
@@ -49,4 +49,13 @@ public class ChatObserverThread extends Thread {
         }
     }
 
+    private void printPage(HistoryDTO page) {
+        System.out.println("*** Older messages ***");
+        page.messages().forEach(m -> System.out.println("[" + m.sender().username() + "] " + m.text()));
+
+        if (page.cursor() > 0) {
+            System.out.println("Type 'history " + page.cursor() + " <count>' to see older messages");
+        }
+    }
+
 }
@@ -1,5 +1,8 @@
 package bg.sofia.uni.fmi.mjt.chatty.client;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandExecutor;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
@@ -8,14 +11,17 @@ import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Compression;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Handshake;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
-import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.Collection;
@@ -26,24 +32,24 @@ public class ChattyClient {
 
     private static final int SERVER_PORT = 3000;
     private static final String SERVER_HOST = "localhost";
-    private static final int BUFFER_SIZE = 2048;
 
-    private final ByteBuffer buffer;
-    private final Gson gson;
     private UserDTO user;
     private ChatState chatState;
     private String chatRelatedName;
+    private Protocol protocol;
+    private ResponseReader reader;
+    private FrameCompressor compressor;
 
     public ChattyClient() {
-        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         chatState = ChatState.NOT_IN_CHAT;
-        gson = new Gson();
+        protocol = Protocol.TEXT;
     }
 
     public void start() {
         try (SocketChannel socketChannel = SocketChannel.open();
              Scanner scanner = new Scanner(System.in)) {
             socketChannel.connect(new InetSocketAddress(SERVER_HOST, SERVER_PORT));
+            negotiateProtocol(socketChannel);
 
             while (true) {
                 String input = scanner.nextLine();
@@ -63,11 +69,21 @@ public class ChattyClient {
                     continue;
                 }
 
-                sendRequest(socketChannel, processInputForServer(input));
+                try {
+                    sendRequest(input);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(CommandExecutor.INCORRECT_FORMAT_MESSAGE);
+                    continue;
+                }
+
                 processAfter(type, socketChannel);
             }
         } catch (IOException e) {
             throw new RuntimeException("There is a problem with the network communication", e);
+        } finally {
+            if (compressor != null) {
+                compressor.release();
+            }
         }
     }
 
@@ -77,8 +93,8 @@ public class ChattyClient {
         }
 
         if (chatState.equals(ChatState.NOT_IN_CHAT)) {
-            String reply = getResponse(socketChannel);
-            processResponse(type, reply, socketChannel);
+            Response reply = getResponse(type);
+            processResponse(type, reply);
         }
     }
 
@@ -96,6 +112,10 @@ public class ChattyClient {
             return false;
         }
 
+        if (!checkInChatForHistory(type)) {
+            return false;
+        }
+
         if (type.equals(CommandType.CLOSE_CHAT)) {
             if (chatState.equals(ChatState.NOT_IN_CHAT)) {
                 System.out.println("You are not in chat");
@@ -106,21 +126,47 @@ public class ChattyClient {
         return true;
     }
 
-    private void sendRequest(SocketChannel socketChannel, String input) throws IOException {
-        buffer.clear();
-        buffer.put(input.getBytes());
-        buffer.flip();
-        socketChannel.write(buffer);
+    private void negotiateProtocol(SocketChannel socketChannel) throws IOException {
+        Frames.write(socketChannel, new Handshake(Protocol.BINARY, Compression.DEFLATE).toString());
+
+        String reply = new ResponseReader(socketChannel, Protocol.TEXT, null).readText();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+
+        Handshake accepted = Handshake.isHandshake(reply)
+                ? Handshake.parse(reply)
+                : new Handshake(Protocol.TEXT, Compression.NONE);
+
+        protocol = accepted.protocol();
+        if (accepted.compression() == Compression.DEFLATE) {
+            compressor = new FrameCompressor();
+        }
+
+        reader = new ResponseReader(socketChannel, protocol, compressor);
+        reader.start();
+    }
+
+    private void sendRequest(String input) throws IOException {
+        if (protocol == Protocol.BINARY) {
+            reader.write(BinaryCodec.encodeCommand(CommandCreator.newCommand(input)));
+        } else {
+            reader.write(input);
+        }
     }
 
-    private String getResponse(SocketChannel socketChannel) throws IOException {
-        buffer.clear();
-        socketChannel.read(buffer);
-        buffer.flip();
+    private Response getResponse(CommandType type) throws IOException {
+        Response response = reader.read(type);
+
+        if (response == null) {
+            throw new IOException("Server closed the connection");
+        }
+
+        return response;
+    }
 
-        byte[] byteArray = new byte[buffer.remaining()];
-        buffer.get(byteArray);
-        return new String(byteArray, StandardCharsets.UTF_8);
+    private void printReply(Response reply) {
+        System.out.println(TextCodec.encode(reply));
     }
 
     private boolean checkAuthorization(CommandType type) {
@@ -154,11 +200,21 @@ public class ChattyClient {
         return true;
     }
 
+    private boolean checkInChatForHistory(CommandType type) {
+        if (type.equals(CommandType.HISTORY)) {
+            if (chatState.equals(ChatState.NOT_IN_CHAT)) {
+                System.out.println("You need to be in chat to see its history");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private boolean isLocalCommand(CommandType commandType) {
         return Set.of(
                 CommandType.UNKNOWN,
-                CommandType.HELP,
-                CommandType.LOGOUT
+                CommandType.HELP
         ).contains(commandType);
     }
 
@@ -166,7 +222,6 @@ public class ChattyClient {
         switch (type) {
             case UNKNOWN -> System.out.println("Unknown command. Type 'help' to see available commands");
             case HELP -> processHelp();
-            case LOGOUT -> processLogout();
         }
     }
 
@@ -188,6 +243,7 @@ public class ChattyClient {
                 - list-blocked
                 - open-chat <username>
                 - send "<message>"
+                - history <cursor> <count>
                 - close-chat
                 - create-group <group-name>
                 - delete-group <group-name>
@@ -197,27 +253,19 @@ public class ChattyClient {
                 - list-groups
                 - open-group <group-name>
                 - close-chat
-                - check-inbox""");
+                - check-inbox
+                - stats""");
     }
 
-    private void processLogout() {
+    private void processLogout(Response reply) {
         user = null;
         chatState = ChatState.NOT_IN_CHAT;
         chatRelatedName = null;
 
-        System.out.println("Logged out");
-    }
-
-    private String processInputForServer(String input) {
-        if (!input.startsWith(CommandType.SEND_MESSAGE.toString()) &&
-                !input.startsWith(CommandType.CLOSE_CHAT.toString())) {
-            return user == null ? input : input + " " + user.username();
-        }
-
-        return input + " " + user.username() + " " + chatRelatedName + " " + chatState.getIntValue();
+        printReply(reply);
     }
 
-    private void processResponse(CommandType type, String reply, SocketChannel channel) {
+    private void processResponse(CommandType type, Response reply) {
         switch (type) {
             case REGISTER,
                     ADD_FRIEND,
@@ -230,31 +278,31 @@ public class ChattyClient {
                     DELETE_GROUP,
                     ADD_TO_GROUP,
                     REMOVE_FROM_GROUP,
-                    LEAVE_GROUP -> System.out.println(reply);
+                    LEAVE_GROUP -> printReply(reply);
             case LOGIN -> processLogin(reply);
+            case LOGOUT -> processLogout(reply);
             case CHECK_REQUESTS -> processCheckRequests(reply);
             case LIST_FRIENDS -> processListFriends(reply);
-            case OPEN_CHAT -> processOpenChat(reply, channel);
+            case OPEN_CHAT -> processOpenChat(reply);
             case CLOSE_CHAT -> processCloseChat();
-            case OPEN_GROUP -> processOpenGroup(reply, channel);
+            case OPEN_GROUP -> processOpenGroup(reply);
             case CHECK_INBOX -> processCheckInbox(reply);
             case LIST_BLOCKED -> processListBlocked(reply);
             case LIST_GROUPS -> processListGroups(reply);
         }
     }
 
-    private void processLogin(String reply) {
-        try {
-            SessionDTO session = gson.fromJson(reply, SessionDTO.class);
-            user = session.user();
+    private void processLogin(Response reply) {
+        if (!(reply instanceof Response.Login(SessionDTO session))) {
+            printReply(reply);
+            return;
+        }
 
-            System.out.println("Hello, " + user.fullName() + "\n");
-            printNotifications(session.notifications());
-            System.out.println();
+        user = session.user();
 
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
-        }
+        System.out.println("Hello, " + user.fullName() + "\n");
+        printNotifications(session.notifications());
+        System.out.println();
     }
 
     private void printNotifications(Collection<Notification> notifications) {
@@ -291,63 +339,61 @@ public class ChattyClient {
         System.out.println(String.join("\n", notifications));
     }
 
-    private void processListFriends(String reply) {
-        try {
-            UserDTO[] friendsArr = gson.fromJson(reply, UserDTO[].class);
-            Collection<UserDTO> friends = Set.of(friendsArr);
-
-            System.out.println("Friends:");
-            friends.forEach(f -> System.out.println(f.fullName() + " [" + f.username() + "]"));
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
+    private void processListFriends(Response reply) {
+        if (!(reply instanceof Response.Users(Collection<UserDTO> friends))) {
+            printReply(reply);
+            return;
         }
-    }
 
-    private void processCheckRequests(String reply) {
-        try {
-            UserDTO[] requestersArr = gson.fromJson(reply, UserDTO[].class);
-            Collection<UserDTO> requesters = Set.of(requestersArr);
+        System.out.println("Friends:");
+        friends.forEach(f -> System.out.println(f.fullName() + " [" + f.username() + "]"));
+    }
 
-            System.out.println("Friend requests:");
-            requesters.forEach(f -> System.out.println("From " + f.fullName() + " [" + f.username() + "]"));
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
+    private void processCheckRequests(Response reply) {
+        if (!(reply instanceof Response.Users(Collection<UserDTO> requesters))) {
+            printReply(reply);
+            return;
         }
+
+        System.out.println("Friend requests:");
+        requesters.forEach(f -> System.out.println("From " + f.fullName() + " [" + f.username() + "]"));
     }
 
-    private void processOpenChat(String reply, SocketChannel channel) {
-        try {
-            PersonalChatDTO chat = gson.fromJson(reply, PersonalChatDTO.class);
+    private void processOpenChat(Response reply) {
+        if (!(reply instanceof Response.PersonalHistory(PersonalChatDTO chat))) {
+            printReply(reply);
+            return;
+        }
 
-            chatState = ChatState.PERSONAL;
-            chatRelatedName = chat.friend();
+        chatState = ChatState.PERSONAL;
+        chatRelatedName = chat.friend();
 
-            printChat(chat.messages());
+        printChat(chat.messages(), chat.cursor());
 
-            new ChatObserverThread(channel, chatState, buffer).start();
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
-        }
+        new ChatObserverThread(reader, chatState).start();
     }
 
-    private void processOpenGroup(String reply, SocketChannel channel) {
-        try {
-            GroupChatDTO chat = gson.fromJson(reply, GroupChatDTO.class);
+    private void processOpenGroup(Response reply) {
+        if (!(reply instanceof Response.GroupHistory(GroupChatDTO chat))) {
+            printReply(reply);
+            return;
+        }
 
-            chatState = ChatState.GROUP;
-            chatRelatedName = chat.name();
+        chatState = ChatState.GROUP;
+        chatRelatedName = chat.name();
 
-            printChat(chat.messages());
+        printChat(chat.messages(), chat.cursor());
 
-            new ChatObserverThread(channel, chatState, buffer).start();
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
-        }
+        new ChatObserverThread(reader, chatState).start();
     }
 
-    private void printChat(SequencedCollection<Message> messages) {
+    private void printChat(SequencedCollection<Message> messages, int cursor) {
         System.out.println("*** Chat ***");
 
+        if (cursor > 0) {
+            System.out.println("Type 'history " + cursor + " <count>' to see older messages");
+        }
+
         if (messages.isEmpty()) {
             System.out.println("There are no messages in this chat yet. Say Hi!");
         } else {
@@ -362,39 +408,33 @@ public class ChattyClient {
         chatRelatedName = null;
     }
 
-    private void processCheckInbox(String reply) {
-        try {
-            Notification[] notificationsArr = gson.fromJson(reply, Notification[].class);
-            Collection<Notification> notifications = Set.of(notificationsArr);
-
-            printNotifications(notifications);
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
+    private void processCheckInbox(Response reply) {
+        if (!(reply instanceof Response.Notifications(Collection<Notification> notifications))) {
+            printReply(reply);
+            return;
         }
-    }
 
-    private void processListGroups(String reply) {
-        try {
-            String[] groupsArr = gson.fromJson(reply, String[].class);
-            Collection<String> groups = Set.of(groupsArr);
+        printNotifications(notifications);
+    }
 
-            System.out.println("Groups:");
-            groups.forEach(System.out::println);
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
+    private void processListGroups(Response reply) {
+        if (!(reply instanceof Response.Groups(Collection<String> groups))) {
+            printReply(reply);
+            return;
         }
-    }
 
-    private void processListBlocked(String reply) {
-        try {
-            UserDTO[] usersArr = gson.fromJson(reply, UserDTO[].class);
-            Collection<UserDTO> users = Set.of(usersArr);
+        System.out.println("Groups:");
+        groups.forEach(System.out::println);
+    }
 
-            System.out.println("Blocked users:");
-            users.forEach(u -> System.out.println(u.fullName() + " [" + u.username() + "]"));
-        } catch (JsonSyntaxException e) {
-            System.out.println(reply);
+    private void processListBlocked(Response reply) {
+        if (!(reply instanceof Response.Users(Collection<UserDTO> users))) {
+            printReply(reply);
+            return;
         }
+
+        System.out.println("Blocked users:");
+        users.forEach(u -> System.out.println(u.fullName() + " [" + u.username() + "]"));
     }
 
 }
\ No newline at end of file
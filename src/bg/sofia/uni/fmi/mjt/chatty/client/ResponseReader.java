@@ -0,0 +1,129 @@
+package bg.sofia.uni.fmi.mjt.chatty.client;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class ResponseReader {
+
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+    private final SocketChannel channel;
+    private final Protocol protocol;
+    private final FrameCompressor compressor;
+    private final BlockingQueue<ByteBuffer> payloads;
+
+    private volatile Thread backgroundReader;
+
+    public ResponseReader(SocketChannel channel, Protocol protocol, FrameCompressor compressor) {
+        this.channel = channel;
+        this.protocol = protocol;
+        this.compressor = compressor;
+        this.payloads = new LinkedBlockingQueue<>();
+    }
+
+    public synchronized void start() {
+        if (backgroundReader == null) {
+            backgroundReader = Thread.ofPlatform()
+                    .name("chatty-response-reader")
+                    .daemon()
+                    .start(this::readInBackground);
+        }
+    }
+
+    public Response read(CommandType type) throws IOException {
+        ByteBuffer payload = readPayload();
+        if (payload == null) {
+            return null;
+        }
+
+        if (protocol == Protocol.BINARY) {
+            return BinaryCodec.decodeResponse(payload);
+        }
+
+        return TextCodec.decodeResponse(type, toText(payload));
+    }
+
+    public String readText() throws IOException {
+        ByteBuffer payload = readPayload();
+
+        return payload == null ? null : toText(payload);
+    }
+
+    public void write(ByteBuffer frame) throws IOException {
+        synchronized (channel) {
+            Frames.write(channel, frame);
+        }
+    }
+
+    public void write(String payload) throws IOException {
+        synchronized (channel) {
+            Frames.write(channel, payload);
+        }
+    }
+
+    private ByteBuffer readPayload() throws IOException {
+        if (backgroundReader == null) {
+            return readSkippingPings();
+        }
+
+        try {
+            ByteBuffer payload = payloads.take();
+
+            if (payload == END_OF_STREAM) {
+                payloads.add(END_OF_STREAM);
+                return null;
+            }
+
+            return payload;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a response");
+        }
+    }
+
+    private void readInBackground() {
+        try {
+            ByteBuffer payload;
+            while ((payload = readSkippingPings()) != null) {
+                payloads.add(payload);
+            }
+        } catch (ClosedChannelException e) {
+            // the client closed the connection while the reader was waiting for a frame
+        } catch (IOException e) {
+            System.out.println("Stopped reading server responses: " + e.getMessage());
+        } finally {
+            payloads.add(END_OF_STREAM);
+        }
+    }
+
+    private ByteBuffer readSkippingPings() throws IOException {
+        ByteBuffer payload = Frames.readPayload(channel, compressor);
+
+        while (payload != null && Frames.isHeartbeat(payload, Frames.HEARTBEAT_PING)) {
+            write(Frames.HEARTBEAT_PONG);
+            payload = Frames.readPayload(channel, compressor);
+        }
+
+        return payload;
+    }
+
+    private static String toText(ByteBuffer payload) {
+        return new String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(),
+                StandardCharsets.UTF_8);
+    }
+
+}
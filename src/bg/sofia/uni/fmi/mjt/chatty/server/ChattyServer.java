@@ -1,256 +1,710 @@
 package bg.sofia.uni.fmi.mjt.chatty.server;
 
-import bg.sofia.uni.fmi.mjt.chatty.client.ChatState;
-import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.ClusterMessage;
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.MessageBus;
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.TcpMessageBus;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
 import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandExecutor;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandResult;
 import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
-
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.jfr.BroadcastEvent;
+import bg.sofia.uni.fmi.mjt.chatty.server.jfr.CommandEvent;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.BroadcastMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.CommandMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.CommandPhase;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.CompressionMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.PersistenceTimer;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.RateLimitMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.BlockingClientConnection;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.BufferPool;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Connection;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.ConnectionHandler;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.EventLoop;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.FrameSource;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.IdlePolicy;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Compression;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Handshake;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.ratelimit.RateLimiter;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.Flusher;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.PersistenceMode;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.Repository;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.Snapshotter;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.BlockService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.ChatService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.FriendshipService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.NotificationService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.UserService;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.SubscriptionRegistry;
+
+import javax.management.JMException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.nio.charset.StandardCharsets;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class ChattyServer {
-
-    private static final int CHAT_STATE_INDEX_DIFF = 1;
-    private static final int LEFT_VALUE_INDEX_DIFF = 3;
-    private static final int RIGHT_VALUE_INDEX_DIFF = 2;
+public class ChattyServer implements ConnectionHandler {
 
-    private static final int BUFFER_SIZE = 2048;
     private static final String HOST = "localhost";
+    private static final String NOT_ADMIN_MESSAGE = "You need to be an admin to see server stats";
 
     private final CommandExecutor commandExecutor;
+    private final ReadWriteLock executionLock;
+
+    private final SubscriptionRegistry subscriptions;
+    private final MessageBus messageBus;
 
-    private final Map<Map.Entry<String, String>, Set<SelectionKey>> openedPersonalChats;
-    private final Map<String, Set<SelectionKey>> openedGroupChats;
+    private final CommandMetrics commandMetrics;
+    private final BroadcastMetrics broadcastMetrics;
+    private final CompressionMetrics compressionMetrics;
+    private final RateLimitMetrics rateLimitMetrics;
+    private final RateLimiter rateLimiter;
+    private final BufferPool bufferPool;
+    private final Set<Connection> blockingConnections;
 
-    private final int port;
-    private boolean isServerWorking;
+    private final ServerConfig config;
+    private volatile boolean isServerWorking;
 
-    private ByteBuffer buffer;
-    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] eventLoops;
+    private Executor commandWorkers;
 
     public ChattyServer(int port, CommandExecutor commandExecutor) {
-        openedPersonalChats = new LinkedHashMap<>();
-        openedGroupChats = new LinkedHashMap<>();
+        this(ServerConfig.builder(port).build(), commandExecutor);
+    }
+
+    public ChattyServer(ServerConfig config, CommandExecutor commandExecutor) {
+        this(config, commandExecutor, config.isClusterEnabled()
+                ? new TcpMessageBus(new InetSocketAddress(HOST, config.getClusterPort()), config.getPeers())
+                : MessageBus.disabled());
+    }
 
-        this.port = port;
+    public ChattyServer(ServerConfig config, CommandExecutor commandExecutor, MessageBus messageBus) {
+        this.messageBus = messageBus;
+        this.subscriptions = new SubscriptionRegistry();
+        this.config = config;
         this.commandExecutor = commandExecutor;
+        this.executionLock = new ReentrantReadWriteLock();
+        this.commandMetrics = new CommandMetrics();
+        this.broadcastMetrics = new BroadcastMetrics();
+        this.compressionMetrics = new CompressionMetrics();
+        this.rateLimitMetrics = new RateLimitMetrics();
+        this.rateLimiter = new RateLimiter(config.getRateLimitPolicy(), rateLimitMetrics);
+        this.bufferPool = new BufferPool();
+        this.blockingConnections = ConcurrentHashMap.newKeySet();
+    }
+
+    public static void main(String[] args) {
+        ServerConfig config = ServerConfig.fromArgs(args);
+        Repository.usePersistenceMode(config.getPersistenceMode());
+
+        if (config.getPersistenceMode().equals(PersistenceMode.WAL)) {
+            Snapshotter.getInstance().start(config.getSnapshotPolicy());
+        }
+
+        Flusher.getInstance().start(config.getFlushPolicy());
+        Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(Flusher.getInstance()::stop));
+
+        CommandExecutor commandExecutor = new CommandExecutor(
+                UserService.getInstance(),
+                FriendshipService.getInstance(),
+                ChatService.getInstance(),
+                BlockService.getInstance(),
+                NotificationService.getInstance()
+        );
+
+        new ChattyServer(config, commandExecutor).start();
     }
 
     public void start() {
         try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
             configureServer(serverSocketChannel);
+            registerMetrics();
+            messageBus.start(this::onClusterMessage);
 
-            while (isServerWorking) {
-                try {
-                    int readyChannels = selector.select();
-                    if (readyChannels == 0) {
-                        continue;
-                    }
-
-                    Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
-                    while (keyIterator.hasNext()) {
-                        processClientRequest(keyIterator);
-                    }
-                } catch (IllegalArgumentException e) {
-                    System.out.println(CommandExecutor.INCORRECT_FORMAT_MESSAGE);
-                } catch (IOException e) {
-                    System.out.println("Error occurred while processing client request: " + e.getMessage());
-                }
+            if (config.getNetworkMode().equals(NetworkMode.SELECTOR)) {
+                startEventLoops();
+                acceptClients(serverSocketChannel);
+            } else {
+                startTimer();
+                acceptClientsOnVirtualThreads(serverSocketChannel);
             }
         } catch (IOException e) {
             throw new UncheckedIOException("failed to start server", e);
+        } finally {
+            closeBlockingConnections();
+            messageBus.close();
+            stopEventLoops();
+            stopCommandWorkers();
+            unregisterMetrics();
+            reportCompression();
+            reportRateLimits();
         }
     }
 
     public void stop() {
         this.isServerWorking = false;
-        if (selector.isOpen()) {
-            selector.wakeup();
+
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error occurred while stopping server: " + e.getMessage());
+        }
+    }
+
+    public CommandMetrics getCommandMetrics() {
+        return commandMetrics;
+    }
+
+    public BroadcastMetrics getBroadcastMetrics() {
+        return broadcastMetrics;
+    }
+
+    public CompressionMetrics getCompressionMetrics() {
+        return compressionMetrics;
+    }
+
+    public RateLimitMetrics getRateLimitMetrics() {
+        return rateLimitMetrics;
+    }
+
+    public SubscriptionRegistry getSubscriptions() {
+        return subscriptions;
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    @Override
+    public void onFrame(Connection connection, String clientInput) {
+        if (Frames.HEARTBEAT_PONG.equals(clientInput)) {
+            return;
+        }
+
+        if (Handshake.isHandshake(clientInput)) {
+            negotiate(connection, Handshake.parse(clientInput));
+            return;
         }
+
+        long start = System.nanoTime();
+        Command command;
+
+        try {
+            command = TextCodec.decodeCommand(clientInput);
+        } catch (IllegalArgumentException e) {
+            connection.send(Frames.encode(CommandExecutor.INCORRECT_FORMAT_MESSAGE));
+            recordMalformed(start);
+            return;
+        }
+
+        commandMetrics.record(command.type(), CommandPhase.PARSE, System.nanoTime() - start);
+        process(command, connection, start);
     }
 
-    private void processClientRequest(Iterator<SelectionKey> keyIterator) throws IOException {
-        SelectionKey key = keyIterator.next();
-        if (key.isReadable()) {
-            SocketChannel clientChannel = (SocketChannel) key.channel();
-            String clientInput = getClientInput(clientChannel);
+    @Override
+    public void onBinaryFrame(Connection connection, ByteBuffer payload) {
+        if (Frames.isHeartbeat(payload, Frames.HEARTBEAT_PONG)) {
+            return;
+        }
 
-            if (clientInput == null) {
-                return;
+        long start = System.nanoTime();
+        Command command;
+
+        try {
+            command = BinaryCodec.decodeCommand(payload);
+        } catch (MalformedFrameException | IllegalArgumentException e) {
+            connection.send(BinaryCodec.encode(Response.text(CommandExecutor.INCORRECT_FORMAT_MESSAGE)));
+            recordMalformed(start);
+            return;
+        }
+
+        commandMetrics.record(command.type(), CommandPhase.PARSE, System.nanoTime() - start);
+        process(command, connection, start);
+    }
+
+    private void acceptClients(ServerSocketChannel channel) {
+        int nextLoop = 0;
+
+        while (isServerWorking) {
+            try {
+                SocketChannel client = channel.accept();
+
+                eventLoops[nextLoop].register(client);
+                nextLoop = (nextLoop + 1) % eventLoops.length;
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                System.out.println("Error occurred while accepting client: " + e.getMessage());
             }
+        }
+    }
 
-            processClientInput(clientInput, key, clientChannel);
+    private void acceptClientsOnVirtualThreads(ServerSocketChannel channel) {
+        Thread.Builder threadBuilder = Thread.ofVirtual().name("chatty-connection-", 0);
 
-        } else if (key.isAcceptable()) {
-            accept(selector, key);
+        while (isServerWorking) {
+            try {
+                SocketChannel client = channel.accept();
+                BlockingClientConnection connection = new BlockingClientConnection(client, this, bufferPool,
+                        eventLoops[0], config.getIdlePolicy(), config.getWriteHighWaterMark());
+
+                blockingConnections.add(connection);
+                threadBuilder.start(connection);
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                System.out.println("Error occurred while accepting client: " + e.getMessage());
+            }
         }
+    }
 
-        keyIterator.remove();
+    @Override
+    public void onClose(Connection connection) {
+        blockingConnections.remove(connection);
+        subscriptions.unsubscribeAll(connection);
+        connection.getSession().release();
     }
 
-    private void processClientInput(String clientInput, SelectionKey key, SocketChannel clientChannel)
-            throws IOException {
-        String[] inputTokens = clientInput.split(" ");
+    private void negotiate(Connection connection, Handshake requested) {
+        Session session = connection.getSession();
+        if (session.isNegotiated()) {
+            return;
+        }
+
+        Protocol protocol = config.isBinaryProtocolEnabled() ? requested.protocol() : Protocol.TEXT;
+        Compression compression = config.isCompressionEnabled() ? requested.compression() : Compression.NONE;
 
-        switch (CommandType.of(inputTokens[0])) {
-            case OPEN_CHAT -> registerChannelToChat(key, inputTokens);
-            case OPEN_GROUP -> registerChannelToGroup(key, inputTokens);
-            case CLOSE_CHAT -> removeChannelFromOpened(key, inputTokens);
+        session.markNegotiated();
+        session.useProtocol(protocol);
+        if (compression == Compression.DEFLATE) {
+            session.useCompressor(new FrameCompressor(config.getCompressionThreshold()));
         }
 
-        String output = commandExecutor.execute(CommandCreator.newCommand(clientInput));
-        writeClientOutput(clientChannel, output);
+        connection.send(Frames.encode(new Handshake(protocol, compression).toString()));
+    }
 
-        if (CommandType.of(inputTokens[0]).equals(CommandType.SEND_MESSAGE)) {
-            updateChannelsInChat(inputTokens, output, key);
+    private void process(Command command, Connection connection, long start) {
+        CommandType type = command.type();
+        Session session = connection.getSession();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        long retryAfterNanos = rateLimiter.acquire(session, type);
+
+        Response response;
+        if (retryAfterNanos > 0) {
+            response = new Response.RateLimited(toMillisRoundedUp(retryAfterNanos));
+        } else if (type == CommandType.STATS) {
+            response = stats(session);
+        } else {
+            response = execute(command, connection);
         }
+
+        if (isError(response)) {
+            commandMetrics.recordError(type);
+        }
+
+        Protocol protocol = session.getProtocol();
+        ChatKey openChat = session.getOpenChat();
+
+        if (response instanceof Response.ChatMessage && openChat != null) {
+            SharedFrames frames = new SharedFrames(response);
+
+            long serializationStart = System.nanoTime();
+            ByteBuffer frame = frames.of(protocol);
+            commandMetrics.record(type, CommandPhase.SERIALIZATION, System.nanoTime() - serializationStart);
+            event.complete(type, usernameOf(session), frame.remaining());
+
+            connection.send(frame);
+            updateChannelsInChat(openChat, frames, connection);
+        } else if (protocol == Protocol.BINARY) {
+            long serializationStart = System.nanoTime();
+            ByteBuffer frame = BinaryCodec.encode(response);
+            commandMetrics.record(type, CommandPhase.SERIALIZATION, System.nanoTime() - serializationStart);
+            event.complete(type, usernameOf(session), frame.remaining());
+
+            connection.send(compress(type, frame, session.getCompressor()));
+        } else {
+            connection.send(stream(type, response, session, event));
+        }
+
+        commandMetrics.record(type, System.nanoTime() - start);
     }
 
-    private void configureServer(ServerSocketChannel channel) throws IOException {
-        selector = Selector.open();
-        configureServerSocketChannel(channel, selector);
-        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
-        isServerWorking = true;
+    private FrameSource stream(CommandType type, Response response, Session session, CommandEvent event) {
+        long start = System.nanoTime();
+        FrameSource encoded = TextCodec.stream(response, config.getStreamChunkSize());
+        FrameSource frames = new TimedFrames(type, encoded, System.nanoTime() - start, usernameOf(session), event);
+        FrameCompressor compressor = session.getCompressor();
 
-        System.out.println("Chatty Server is listening on port " + port + ".");
+        return compressor == null ? frames : frames.map(frame -> compress(type, frame, compressor));
     }
 
-    private void configureServerSocketChannel(ServerSocketChannel channel, Selector selector) throws IOException {
-        channel.bind(new InetSocketAddress(HOST, this.port));
-        channel.configureBlocking(false);
-        channel.register(selector, SelectionKey.OP_ACCEPT);
+    private Response stats(Session session) {
+        if (!session.isAuthenticated()) {
+            return Response.text(CommandExecutor.NOT_LOGGED_IN_MESSAGE);
+        }
+
+        if (!config.isAdmin(session.getUser().username())) {
+            return Response.text(NOT_ADMIN_MESSAGE);
+        }
+
+        String report = commandMetrics.report();
+
+        return Response.text(report.isEmpty() ? "No commands executed yet" : report.stripTrailing());
     }
 
-    private String getClientInput(SocketChannel clientChannel) throws IOException {
-        buffer.clear();
+    private static String usernameOf(Session session) {
+        return session.isAuthenticated() ? session.getUser().username() : null;
+    }
+
+    private static boolean isError(Response response) {
+        return response instanceof Response.Text(String message)
+                && (CommandExecutor.INCORRECT_FORMAT_MESSAGE.equals(message)
+                || CommandExecutor.NOT_LOGGED_IN_MESSAGE.equals(message)
+                || NOT_ADMIN_MESSAGE.equals(message));
+    }
+
+    private void recordMalformed(long start) {
+        commandMetrics.recordError(CommandType.UNKNOWN);
+        commandMetrics.record(CommandType.UNKNOWN, System.nanoTime() - start);
+    }
 
-        int readBytes = clientChannel.read(buffer);
-        if (readBytes < 0) {
-            clientChannel.close();
-            return null;
+    private ByteBuffer compress(CommandType type, ByteBuffer frame, FrameCompressor compressor) {
+        if (compressor == null) {
+            return frame;
         }
 
-        buffer.flip();
+        long start = System.nanoTime();
+        ByteBuffer compressed = compressor.compress(frame);
+        compressionMetrics.record(type, frame.remaining(), compressed.remaining(), System.nanoTime() - start);
 
-        byte[] clientInputBytes = new byte[buffer.remaining()];
-        buffer.get(clientInputBytes);
+        return compressed;
+    }
+
+    private Response execute(Command command, Connection connection) {
+        Flusher flusher = Flusher.getInstance();
+        Response response;
+
+        PersistenceTimer.reset();
+        flusher.deferFlushes();
+        try {
+            response = executeLocked(command, connection);
+        } finally {
+            flusher.flushDeferred();
+            commandMetrics.record(command.type(), CommandPhase.PERSISTENCE, PersistenceTimer.reset());
+        }
 
-        return new String(clientInputBytes, StandardCharsets.UTF_8);
+        if (!command.type().isReadOnly()) {
+            flusher.awaitFlush();
+        }
+
+        return response;
     }
 
-    private void writeClientOutput(SocketChannel clientChannel, String output) throws IOException {
-        buffer.clear();
-        buffer.put(output.getBytes());
-        buffer.flip();
+    private Response executeLocked(Command command, Connection connection) {
+        Lock lock = command.type().isReadOnly() ? executionLock.readLock() : executionLock.writeLock();
+        Session session = connection.getSession();
+
+        lock.lock();
+        try {
+            String username = usernameOf(session);
+            ChatKey chatBefore = session.getOpenChat();
+            CommandResult result = executeTimed(command, session);
+            ChatKey chatAfter = session.getOpenChat();
 
-        clientChannel.write(buffer);
+            if (!Objects.equals(chatBefore, chatAfter)) {
+                updateSubscription(connection, chatBefore, chatAfter);
+            }
+
+            if (result.isApplied()) {
+                messageBus.publish(replicationOf(result, username, session, chatBefore, command));
+            }
+
+            return result.response();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    private void accept(Selector selector, SelectionKey key) throws IOException {
-        ServerSocketChannel sockChannel = (ServerSocketChannel) key.channel();
-        SocketChannel accept = sockChannel.accept();
+    private ClusterMessage replicationOf(CommandResult result, String username, Session session, ChatKey chat,
+                                        Command command) {
+        if (result.registeredUser() != null) {
+            return new ClusterMessage.Registered(config.getNodeId(), result.registeredUser());
+        }
+
+        if (result.replicatedCommand() != null) {
+            return new ClusterMessage.Executed(config.getNodeId(), usernameOf(session), chat,
+                    result.replicatedCommand());
+        }
 
-        accept.configureBlocking(false);
-        accept.register(selector, SelectionKey.OP_READ);
+        return new ClusterMessage.Executed(config.getNodeId(), username, chat, command);
     }
 
-    private void registerChannelToChat(SelectionKey key, String[] tokens) {
-        if (openedPersonalChats.containsKey(Map.entry(tokens[1], tokens[2]))) {
-            openedPersonalChats.get(Map.entry(tokens[1], tokens[2])).add(key);
-        } else if (openedPersonalChats.containsKey(Map.entry(tokens[2], tokens[1]))) {
-            openedPersonalChats.get(Map.entry(tokens[2], tokens[1])).add(key);
-        } else {
-            openedPersonalChats.put(Map.entry(tokens[1], tokens[2]), new LinkedHashSet<>(Set.of(key)));
+    private CommandResult executeTimed(Command command, Session session) {
+        CommandType type = command.type();
+
+        long start = System.nanoTime();
+
+        try {
+            return commandExecutor.run(command, session);
+        } catch (RuntimeException e) {
+            commandMetrics.recordError(type);
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+
+            commandMetrics.record(type, CommandPhase.SERVICE, Math.max(0, elapsed - PersistenceTimer.elapsed()));
         }
     }
 
-    private void registerChannelToGroup(SelectionKey key, String[] tokens) {
-        if (openedGroupChats.containsKey(tokens[1])) {
-            openedGroupChats.get(tokens[1]).add(key);
-        } else {
-            openedGroupChats.put(tokens[1], new LinkedHashSet<>(Set.of(key)));
+    private void onClusterMessage(ClusterMessage message) {
+        if (config.getNodeId().equals(message.origin())) {
+            return;
+        }
+
+        Flusher flusher = Flusher.getInstance();
+        Response response;
+        Lock lock = executionLock.writeLock();
+
+        flusher.deferFlushes();
+        lock.lock();
+        try {
+            response = commandExecutor.replay(message);
+        } finally {
+            lock.unlock();
+            flusher.flushDeferred();
+        }
+
+        if (response instanceof Response.ChatMessage && message instanceof ClusterMessage.Executed executed
+                && executed.chat() != null) {
+            updateChannelsInChat(executed.chat(), new SharedFrames(response), null);
         }
     }
 
-    private void removeChannelFromOpened(SelectionKey key, String[] tokens) {
-        if (Integer.parseInt(tokens[tokens.length - 1]) == 1) {
-            removeChannelFromChat(key, tokens);
-        } else {
-            removeChannelFromGroup(key, tokens);
+    private void registerMetrics() {
+        try {
+            commandMetrics.register(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            System.out.println("Error occurred while registering metrics: " + e.getMessage());
         }
     }
 
-    private void removeChannelFromChat(SelectionKey key, String[] tokens) {
-        Map.Entry<String, String> chatKey;
+    private void unregisterMetrics() {
+        try {
+            commandMetrics.unregister(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            System.out.println("Error occurred while unregistering metrics: " + e.getMessage());
+        }
+    }
 
-        if (openedPersonalChats.containsKey(Map.entry(tokens[1], tokens[2]))) {
-            chatKey = Map.entry(tokens[1], tokens[2]);
-        } else {
-            chatKey = Map.entry(tokens[2], tokens[1]);
+    private void configureServer(ServerSocketChannel channel) throws IOException {
+        channel.bind(new InetSocketAddress(HOST, config.getPort()));
+        serverChannel = channel;
+        isServerWorking = true;
+
+        System.out.println("Chatty Server is listening on port " + config.getPort() + ".");
+    }
+
+    private void startEventLoops() throws IOException {
+        commandWorkers = config.getCommandExecutionMode().newExecutor();
+        eventLoops = new EventLoop[config.getWorkerCount()];
+
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(this, commandWorkers, bufferPool, config.getIdlePolicy(),
+                    config.getWriteHighWaterMark());
+            eventLoops[i].start("chatty-event-loop-" + i);
+        }
+    }
+
+    private void startTimer() throws IOException {
+        eventLoops = new EventLoop[] {
+            new EventLoop(this, Runnable::run, bufferPool, IdlePolicy.disabled(), config.getWriteHighWaterMark())
+        };
+        eventLoops[0].start("chatty-timer");
+    }
+
+    private void stopEventLoops() {
+        if (eventLoops == null) {
+            return;
+        }
+
+        for (EventLoop eventLoop : eventLoops) {
+            if (eventLoop != null) {
+                eventLoop.shutdown();
+            }
         }
 
-        openedPersonalChats.get(chatKey).remove(key);
+        try {
+            for (EventLoop eventLoop : eventLoops) {
+                if (eventLoop != null) {
+                    eventLoop.awaitTermination();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeBlockingConnections() {
+        for (Connection connection : blockingConnections) {
+            connection.closeQuietly();
+        }
+
+        blockingConnections.clear();
+    }
+
+    private void stopCommandWorkers() {
+        if (commandWorkers instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void reportCompression() {
+        String report = compressionMetrics.report();
+
+        if (!report.isEmpty()) {
+            System.out.print("Compression per command type:" + System.lineSeparator() + report);
+        }
     }
 
-    private void removeChannelFromGroup(SelectionKey key, String[] tokens) {
-        if (openedGroupChats.containsKey(tokens[1])) {
-            openedGroupChats.get(tokens[1]).remove(key);
+    private void reportRateLimits() {
+        String report = rateLimitMetrics.report();
+
+        if (!report.isEmpty()) {
+            System.out.print("Rate limited requests per command type:" + System.lineSeparator() + report);
+        }
+    }
+
+    private static long toMillisRoundedUp(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    private void updateSubscription(Connection connection, ChatKey previous, ChatKey current) {
+        if (previous != null) {
+            subscriptions.unsubscribe(previous, connection);
+        }
+
+        if (current != null) {
+            subscriptions.subscribe(current, connection);
         }
     }
 
-    private void updateChannelsInChat(String[] tokens, String message, SelectionKey currentKey) {
-        Set<SelectionKey> channels = getChannelsToBeUpdated(tokens);
+    private void updateChannelsInChat(ChatKey chat, SharedFrames frames, Connection current) {
+        List<Connection> channels = subscriptions.subscribersOf(chat);
 
         if (channels.isEmpty()) {
             return;
         }
 
-        channels.stream().filter(c -> !c.equals(currentKey)).forEach(key -> {
-            try {
-                writeClientOutput((SocketChannel) key.channel(), message);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+
+        long start = System.nanoTime();
+        int recipients = 0;
+
+        for (Connection channel : channels) {
+            if (channel != current && channel.isOpen()) {
+                channel.send(frames.of(channel.getSession().getProtocol()));
+                recipients++;
             }
-        });
+        }
+
+        broadcastMetrics.record(recipients, frames.getEncodedBytes(), System.nanoTime() - start);
+        event.complete(chat.id(), recipients, frames.getEncodedBytes());
     }
 
-    private Set<SelectionKey> getChannelsToBeUpdated(String[] tokens) {
-        Set<SelectionKey> channels;
+    private final class TimedFrames implements FrameSource {
+
+        private final CommandType type;
+        private final FrameSource frames;
+        private final String username;
+        private final CommandEvent event;
+        private long nanos;
+        private long bytes;
+        private boolean isRecorded;
+
+        TimedFrames(CommandType type, FrameSource frames, long nanos, String username, CommandEvent event) {
+            this.type = type;
+            this.frames = frames;
+            this.nanos = nanos;
+            this.username = username;
+            this.event = event;
+        }
 
-        String chatStateValue = tokens[tokens.length - CHAT_STATE_INDEX_DIFF];
+        @Override
+        public ByteBuffer next() {
+            long start = System.nanoTime();
+            ByteBuffer frame = frames.next();
+            nanos += System.nanoTime() - start;
+
+            if (frame != null) {
+                bytes += frame.remaining();
+            } else if (!isRecorded) {
+                commandMetrics.record(type, CommandPhase.SERIALIZATION, nanos);
+                event.complete(type, username, bytes);
+                isRecorded = true;
+            }
 
-        if (Integer.parseInt(chatStateValue) == ChatState.PERSONAL.getIntValue()) {
-            String leftUsername = tokens[tokens.length - LEFT_VALUE_INDEX_DIFF];
-            String rightUsername = tokens[tokens.length - RIGHT_VALUE_INDEX_DIFF];
+            return frame;
+        }
 
-            Map.Entry<String, String> chatKey;
+    }
 
-            if (openedPersonalChats.containsKey(Map.entry(leftUsername, rightUsername))) {
-                chatKey = Map.entry(leftUsername, rightUsername);
-            } else {
-                chatKey = Map.entry(rightUsername, leftUsername);
+    private static final class SharedFrames {
+
+        private final Response response;
+        private ByteBuffer text;
+        private ByteBuffer binary;
+
+        SharedFrames(Response response) {
+            this.response = response;
+        }
+
+        int getEncodedBytes() {
+            return (text == null ? 0 : text.capacity()) + (binary == null ? 0 : binary.capacity());
+        }
+
+        ByteBuffer of(Protocol protocol) {
+            if (protocol == Protocol.BINARY) {
+                if (binary == null) {
+                    binary = BinaryCodec.encode(response).asReadOnlyBuffer();
+                }
+
+                return binary.duplicate();
             }
 
-            channels = openedPersonalChats.get(chatKey);
-        } else {
-            String groupName = tokens[tokens.length - RIGHT_VALUE_INDEX_DIFF];
+            if (text == null) {
+                text = Frames.encodeShared(TextCodec.encode(response));
+            }
 
-            channels = openedGroupChats.get(groupName);
+            return text.duplicate();
         }
 
-        return channels;
     }
 
 }
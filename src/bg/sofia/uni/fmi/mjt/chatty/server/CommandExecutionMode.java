@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.chatty.server;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+public enum CommandExecutionMode {
+
+    INLINE,
+    THREAD_POOL,
+    VIRTUAL_THREADS;
+
+    public Executor newExecutor() {
+        return switch (this) {
+            case INLINE -> Runnable::run;
+            case THREAD_POOL -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+    }
+
+}
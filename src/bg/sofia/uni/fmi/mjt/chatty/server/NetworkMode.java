@@ -0,0 +1,8 @@
+package bg.sofia.uni.fmi.mjt.chatty.server;
+
+public enum NetworkMode {
+
+    SELECTOR,
+    VIRTUAL_THREAD_PER_CONNECTION
+
+}
@@ -0,0 +1,483 @@
+package bg.sofia.uni.fmi.mjt.chatty.server;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.IdlePolicy;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+import bg.sofia.uni.fmi.mjt.chatty.server.ratelimit.RateLimitPolicy;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.Durability;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.FlushPolicy;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.PersistenceMode;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.SnapshotPolicy;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ServerConfig {
+
+    private static final int DEFAULT_PORT = 3000;
+    private static final int DEFAULT_WRITE_HIGH_WATER_MARK = 1 << 20;
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 16 * 1024;
+    private static final int MIN_STREAM_CHUNK_SIZE = 4;
+    private static final int DEFAULT_CONNECTION_BURST = 50;
+    private static final int DEFAULT_USER_BURST = 100;
+    private static final int DEFAULT_HEAVY_COMMAND_COST = 5;
+    private static final int MAX_PORT = 65535;
+    private static final long DEFAULT_SNAPSHOT_LOG_BYTES = 64L << 20;
+    private static final long DEFAULT_SNAPSHOT_LOG_RECORDS = 100_000;
+    private static final Duration DEFAULT_SNAPSHOT_INTERVAL = Duration.ofSeconds(1);
+    private static final int DEFAULT_FLUSH_BATCH_SIZE = 1000;
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String OPTION_SEPARATOR = "=";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String PORT_SEPARATOR = ":";
+
+    private final int port;
+    private final NetworkMode networkMode;
+    private final int workerCount;
+    private final int writeHighWaterMark;
+    private final CommandExecutionMode commandExecutionMode;
+    private final Duration idleTimeout;
+    private final Duration heartbeatInterval;
+    private final boolean isBinaryProtocolEnabled;
+    private final boolean isCompressionEnabled;
+    private final int compressionThreshold;
+    private final int streamChunkSize;
+    private final RateLimitPolicy rateLimitPolicy;
+    private final Set<String> admins;
+    private final String nodeId;
+    private final int clusterPort;
+    private final List<InetSocketAddress> peers;
+    private final PersistenceMode persistenceMode;
+    private final SnapshotPolicy snapshotPolicy;
+    private final FlushPolicy flushPolicy;
+
+    private ServerConfig(Builder builder) {
+        this.port = builder.port;
+        this.networkMode = builder.networkMode;
+        this.workerCount = builder.workerCount;
+        this.writeHighWaterMark = builder.writeHighWaterMark;
+        this.commandExecutionMode = builder.commandExecutionMode;
+        this.idleTimeout = builder.idleTimeout;
+        this.heartbeatInterval = builder.heartbeatInterval;
+        this.isBinaryProtocolEnabled = builder.isBinaryProtocolEnabled;
+        this.isCompressionEnabled = builder.isCompressionEnabled;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.streamChunkSize = builder.streamChunkSize;
+        this.rateLimitPolicy = new RateLimitPolicy(builder.connectionRate, builder.connectionBurst,
+                builder.userRate, builder.userBurst, builder.heavyCommandCost);
+        this.admins = builder.admins;
+        this.nodeId = builder.nodeId == null ? "node-" + builder.port : builder.nodeId;
+        this.clusterPort = builder.clusterPort;
+        this.peers = builder.peers;
+        this.persistenceMode = builder.persistenceMode;
+        this.snapshotPolicy = new SnapshotPolicy(builder.snapshotLogBytes, builder.snapshotLogRecords,
+                builder.snapshotInterval);
+        this.flushPolicy = new FlushPolicy(builder.flushInterval, builder.flushBatchSize, builder.durability);
+    }
+
+    public static Builder builder(int port) {
+        return new Builder(port);
+    }
+
+    public static ServerConfig fromArgs(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        Builder builder = builder(Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT))));
+
+        options.forEach((name, value) -> {
+            switch (name) {
+                case "port" -> {
+                }
+                case "network-mode" -> builder.networkMode(NetworkMode.valueOf(toConstantName(value)));
+                case "workers" -> builder.workerCount(Integer.parseInt(value));
+                case "write-high-water-mark" -> builder.writeHighWaterMark(Integer.parseInt(value));
+                case "command-execution" ->
+                        builder.commandExecutionMode(CommandExecutionMode.valueOf(toConstantName(value)));
+                case "idle-timeout" -> builder.idleTimeout(Duration.ofSeconds(Long.parseLong(value)));
+                case "heartbeat-interval" -> builder.heartbeatInterval(Duration.ofSeconds(Long.parseLong(value)));
+                case "binary-protocol" -> builder.binaryProtocolEnabled(Boolean.parseBoolean(value));
+                case "compression" -> builder.compressionEnabled(Boolean.parseBoolean(value));
+                case "compression-threshold" -> builder.compressionThreshold(Integer.parseInt(value));
+                case "stream-chunk-size" -> builder.streamChunkSize(Integer.parseInt(value));
+                case "connection-rate" -> builder.connectionRate(Integer.parseInt(value));
+                case "connection-burst" -> builder.connectionBurst(Integer.parseInt(value));
+                case "user-rate" -> builder.userRate(Integer.parseInt(value));
+                case "user-burst" -> builder.userBurst(Integer.parseInt(value));
+                case "heavy-command-cost" -> builder.heavyCommandCost(Integer.parseInt(value));
+                case "admins" -> builder.admins(Arrays.stream(value.split(LIST_SEPARATOR))
+                        .map(String::trim)
+                        .filter(admin -> !admin.isEmpty())
+                        .collect(Collectors.toSet()));
+                case "node-id" -> builder.nodeId(value);
+                case "cluster-port" -> builder.clusterPort(Integer.parseInt(value));
+                case "peers" -> builder.peers(Arrays.stream(value.split(LIST_SEPARATOR))
+                        .map(String::trim)
+                        .filter(peer -> !peer.isEmpty())
+                        .map(ServerConfig::parseAddress)
+                        .toList());
+                case "persistence" -> builder.persistenceMode(PersistenceMode.valueOf(toConstantName(value)));
+                case "snapshot-log-bytes" -> builder.snapshotLogBytes(Long.parseLong(value));
+                case "snapshot-log-records" -> builder.snapshotLogRecords(Long.parseLong(value));
+                case "snapshot-interval" -> builder.snapshotInterval(Duration.ofMillis(Long.parseLong(value)));
+                case "flush-interval" -> builder.flushInterval(Duration.ofMillis(Long.parseLong(value)));
+                case "flush-batch-size" -> builder.flushBatchSize(Integer.parseInt(value));
+                case "durability" -> builder.durability(Durability.valueOf(toConstantName(value)));
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        });
+
+        return builder.build();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public NetworkMode getNetworkMode() {
+        return networkMode;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getWriteHighWaterMark() {
+        return writeHighWaterMark;
+    }
+
+    public CommandExecutionMode getCommandExecutionMode() {
+        return commandExecutionMode;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public boolean isBinaryProtocolEnabled() {
+        return isBinaryProtocolEnabled;
+    }
+
+    public boolean isCompressionEnabled() {
+        return isCompressionEnabled;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public int getStreamChunkSize() {
+        return streamChunkSize;
+    }
+
+    public RateLimitPolicy getRateLimitPolicy() {
+        return rateLimitPolicy;
+    }
+
+    public Set<String> getAdmins() {
+        return admins;
+    }
+
+    public boolean isAdmin(String username) {
+        return username != null && admins.contains(username);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getClusterPort() {
+        return clusterPort;
+    }
+
+    public List<InetSocketAddress> getPeers() {
+        return peers;
+    }
+
+    public boolean isClusterEnabled() {
+        return clusterPort > 0;
+    }
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public SnapshotPolicy getSnapshotPolicy() {
+        return snapshotPolicy;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public IdlePolicy getIdlePolicy() {
+        return new IdlePolicy(idleTimeout, heartbeatInterval);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith(OPTION_PREFIX) || !arg.contains(OPTION_SEPARATOR)) {
+                throw new IllegalArgumentException("Options must be in format --name=value");
+            }
+
+            String[] option = arg.substring(OPTION_PREFIX.length()).split(OPTION_SEPARATOR, 2);
+            options.put(option[0], option[1]);
+        }
+
+        return options;
+    }
+
+    private static InetSocketAddress parseAddress(String value) {
+        int separator = value.lastIndexOf(PORT_SEPARATOR);
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Peers must be in format host:port");
+        }
+
+        return InetSocketAddress.createUnresolved(value.substring(0, separator),
+                Integer.parseInt(value.substring(separator + 1)));
+    }
+
+    private static String toConstantName(String value) {
+        return value.toUpperCase().replace('-', '_');
+    }
+
+    public static class Builder {
+
+        private final int port;
+        private NetworkMode networkMode = NetworkMode.SELECTOR;
+        private int workerCount = Runtime.getRuntime().availableProcessors();
+        private int writeHighWaterMark = DEFAULT_WRITE_HIGH_WATER_MARK;
+        private CommandExecutionMode commandExecutionMode = CommandExecutionMode.VIRTUAL_THREADS;
+        private Duration idleTimeout = Duration.ZERO;
+        private Duration heartbeatInterval = Duration.ZERO;
+        private boolean isBinaryProtocolEnabled = true;
+        private boolean isCompressionEnabled = true;
+        private int compressionThreshold = FrameCompressor.DEFAULT_THRESHOLD;
+        private int streamChunkSize = DEFAULT_STREAM_CHUNK_SIZE;
+        private int connectionRate;
+        private int connectionBurst = DEFAULT_CONNECTION_BURST;
+        private int userRate;
+        private int userBurst = DEFAULT_USER_BURST;
+        private int heavyCommandCost = DEFAULT_HEAVY_COMMAND_COST;
+        private Set<String> admins = Set.of();
+        private String nodeId;
+        private int clusterPort;
+        private List<InetSocketAddress> peers = List.of();
+        private PersistenceMode persistenceMode = PersistenceMode.SNAPSHOT;
+        private long snapshotLogBytes = DEFAULT_SNAPSHOT_LOG_BYTES;
+        private long snapshotLogRecords = DEFAULT_SNAPSHOT_LOG_RECORDS;
+        private Duration snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        private Duration flushInterval = Duration.ZERO;
+        private int flushBatchSize = DEFAULT_FLUSH_BATCH_SIZE;
+        private Durability durability = Durability.SYNC;
+
+        private Builder(int port) {
+            this.port = port;
+        }
+
+        public Builder networkMode(NetworkMode mode) {
+            Guard.isNotNull(mode);
+            this.networkMode = mode;
+            return this;
+        }
+
+        public Builder workerCount(int count) {
+            ensurePositive(count);
+            this.workerCount = count;
+            return this;
+        }
+
+        public Builder writeHighWaterMark(int bytes) {
+            ensurePositive(bytes);
+            this.writeHighWaterMark = bytes;
+            return this;
+        }
+
+        public Builder commandExecutionMode(CommandExecutionMode mode) {
+            Guard.isNotNull(mode);
+            this.commandExecutionMode = mode;
+            return this;
+        }
+
+        public Builder idleTimeout(Duration timeout) {
+            ensureNotNegative(timeout);
+            this.idleTimeout = timeout;
+            return this;
+        }
+
+        public Builder heartbeatInterval(Duration interval) {
+            ensureNotNegative(interval);
+            this.heartbeatInterval = interval;
+            return this;
+        }
+
+        public Builder binaryProtocolEnabled(boolean isEnabled) {
+            this.isBinaryProtocolEnabled = isEnabled;
+            return this;
+        }
+
+        public Builder compressionEnabled(boolean isEnabled) {
+            this.isCompressionEnabled = isEnabled;
+            return this;
+        }
+
+        public Builder compressionThreshold(int bytes) {
+            ensurePositive(bytes);
+            this.compressionThreshold = bytes;
+            return this;
+        }
+
+        public Builder streamChunkSize(int bytes) {
+            if (bytes < MIN_STREAM_CHUNK_SIZE || bytes > Frames.MAX_FRAME_SIZE) {
+                throw new IllegalArgumentException("Stream chunk size must be between " + MIN_STREAM_CHUNK_SIZE
+                        + " and " + Frames.MAX_FRAME_SIZE + " bytes");
+            }
+
+            this.streamChunkSize = bytes;
+            return this;
+        }
+
+        public Builder connectionRate(int tokensPerSecond) {
+            ensureNotNegative(tokensPerSecond);
+            this.connectionRate = tokensPerSecond;
+            return this;
+        }
+
+        public Builder connectionBurst(int tokens) {
+            ensurePositive(tokens);
+            this.connectionBurst = tokens;
+            return this;
+        }
+
+        public Builder userRate(int tokensPerSecond) {
+            ensureNotNegative(tokensPerSecond);
+            this.userRate = tokensPerSecond;
+            return this;
+        }
+
+        public Builder userBurst(int tokens) {
+            ensurePositive(tokens);
+            this.userBurst = tokens;
+            return this;
+        }
+
+        public Builder heavyCommandCost(int tokens) {
+            ensurePositive(tokens);
+            this.heavyCommandCost = tokens;
+            return this;
+        }
+
+        public Builder admins(Set<String> usernames) {
+            Guard.isNotNull(usernames);
+            this.admins = Set.copyOf(usernames);
+            return this;
+        }
+
+        public Builder nodeId(String id) {
+            Guard.isNotNull(id);
+
+            if (id.isBlank()) {
+                throw new IllegalArgumentException("Node id must not be blank");
+            }
+
+            this.nodeId = id;
+            return this;
+        }
+
+        public Builder clusterPort(int port) {
+            if (port < 0 || port > MAX_PORT) {
+                throw new IllegalArgumentException("Cluster port must be between 0 and " + MAX_PORT);
+            }
+
+            this.clusterPort = port;
+            return this;
+        }
+
+        public Builder peers(List<InetSocketAddress> addresses) {
+            Guard.isNotNull(addresses);
+            this.peers = List.copyOf(addresses);
+            return this;
+        }
+
+        public Builder persistenceMode(PersistenceMode mode) {
+            Guard.isNotNull(mode);
+            this.persistenceMode = mode;
+            return this;
+        }
+
+        public Builder snapshotLogBytes(long bytes) {
+            ensureNotNegative(bytes);
+            this.snapshotLogBytes = bytes;
+            return this;
+        }
+
+        public Builder snapshotLogRecords(long records) {
+            ensureNotNegative(records);
+            this.snapshotLogRecords = records;
+            return this;
+        }
+
+        public Builder snapshotInterval(Duration interval) {
+            Guard.isNotNull(interval);
+            ensurePositive(interval.toMillis());
+            this.snapshotInterval = interval;
+            return this;
+        }
+
+        public Builder flushInterval(Duration interval) {
+            ensureNotNegative(interval);
+            this.flushInterval = interval;
+            return this;
+        }
+
+        public Builder flushBatchSize(int size) {
+            ensurePositive(size);
+            this.flushBatchSize = size;
+            return this;
+        }
+
+        public Builder durability(Durability durability) {
+            Guard.isNotNull(durability);
+            this.durability = durability;
+            return this;
+        }
+
+        public ServerConfig build() {
+            return new ServerConfig(this);
+        }
+
+        private static void ensurePositive(long value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("Value must be positive");
+            }
+        }
+
+        private static void ensureNotNegative(long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Value must not be negative");
+            }
+        }
+
+        private static void ensureNotNegative(Duration value) {
+            Guard.isNotNull(value);
+
+            if (value.isNegative()) {
+                throw new IllegalArgumentException("Duration must not be negative");
+            }
+        }
+
+    }
+
+}
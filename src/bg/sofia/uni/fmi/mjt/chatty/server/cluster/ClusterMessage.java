@@ -0,0 +1,30 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.cluster;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+
+public sealed interface ClusterMessage {
+
+    String origin();
+
+    record Executed(String origin, String username, ChatKey chat, Command command) implements ClusterMessage {
+
+        public Executed {
+            Guard.isNotNull(origin);
+            Guard.isNotNull(command);
+        }
+
+    }
+
+    record Registered(String origin, User user) implements ClusterMessage {
+
+        public Registered {
+            Guard.isNotNull(origin);
+            Guard.isNotNull(user);
+        }
+
+    }
+
+}
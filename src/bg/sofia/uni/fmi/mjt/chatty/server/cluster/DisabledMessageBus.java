@@ -0,0 +1,24 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.cluster;
+
+import java.util.function.Consumer;
+
+final class DisabledMessageBus implements MessageBus {
+
+    static final DisabledMessageBus INSTANCE = new DisabledMessageBus();
+
+    private DisabledMessageBus() {
+    }
+
+    @Override
+    public void start(Consumer<ClusterMessage> listener) {
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
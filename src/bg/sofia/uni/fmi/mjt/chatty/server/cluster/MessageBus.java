@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.cluster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+public interface MessageBus extends Closeable {
+
+    void start(Consumer<ClusterMessage> listener) throws IOException;
+
+    void publish(ClusterMessage message);
+
+    @Override
+    void close();
+
+    static MessageBus disabled() {
+        return DisabledMessageBus.INSTANCE;
+    }
+
+}
@@ -0,0 +1,215 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.cluster;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class TcpMessageBus implements MessageBus {
+
+    private static final int MAX_PENDING_MESSAGES = 100_000;
+    private static final long RECONNECT_DELAY_MILLIS = 500;
+
+    private final InetSocketAddress address;
+    private final List<Peer> peers;
+    private final Set<SocketChannel> inbound;
+    private final LongAdder dropped;
+
+    private volatile boolean isRunning;
+    private ServerSocketChannel serverChannel;
+
+    public TcpMessageBus(InetSocketAddress address, List<InetSocketAddress> peers) {
+        Guard.isNotNull(address);
+        Guard.isNotNull(peers);
+
+        this.address = address;
+        this.peers = peers.stream().map(Peer::new).toList();
+        this.inbound = ConcurrentHashMap.newKeySet();
+        this.dropped = new LongAdder();
+    }
+
+    @Override
+    public synchronized void start(Consumer<ClusterMessage> listener) throws IOException {
+        Guard.isNotNull(listener);
+
+        if (isRunning) {
+            throw new IllegalStateException("Message bus is already started");
+        }
+
+        serverChannel = ServerSocketChannel.open().bind(address);
+        isRunning = true;
+
+        Thread.ofVirtual().name("chatty-bus-acceptor").start(() -> accept(listener));
+        peers.forEach(Peer::start);
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        Guard.isNotNull(message);
+
+        if (!isRunning || peers.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer frame = BinaryCodec.encode(message).asReadOnlyBuffer();
+
+        for (Peer peer : peers) {
+            peer.offer(frame.duplicate());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!isRunning) {
+            return;
+        }
+
+        isRunning = false;
+        peers.forEach(Peer::stop);
+        closeQuietly(serverChannel);
+        inbound.forEach(TcpMessageBus::closeQuietly);
+        inbound.clear();
+    }
+
+    public int getLocalPort() {
+        return serverChannel == null ? 0 : serverChannel.socket().getLocalPort();
+    }
+
+    public long getDroppedMessages() {
+        return dropped.sum();
+    }
+
+    private void accept(Consumer<ClusterMessage> listener) {
+        Thread.Builder receivers = Thread.ofVirtual().name("chatty-bus-receiver-", 0);
+
+        while (isRunning) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+
+                inbound.add(channel);
+                receivers.start(() -> receive(channel, listener));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.out.println("Error occurred while accepting cluster peer: " + e.getMessage());
+            }
+        }
+    }
+
+    private void receive(SocketChannel channel, Consumer<ClusterMessage> listener) {
+        try (channel) {
+            ByteBuffer payload;
+
+            while ((payload = Frames.readPayload(channel)) != null) {
+                deliver(BinaryCodec.decodeClusterMessage(payload), listener);
+            }
+        } catch (MalformedFrameException e) {
+            System.out.println("Cluster peer sent a malformed message: " + e.getMessage());
+        } catch (IOException e) {
+            if (isRunning) {
+                System.out.println("Cluster peer connection failed: " + e.getMessage());
+            }
+        } finally {
+            inbound.remove(channel);
+        }
+    }
+
+    private static void deliver(ClusterMessage message, Consumer<ClusterMessage> listener) {
+        try {
+            listener.accept(message);
+        } catch (RuntimeException e) {
+            System.out.println("Error occurred while applying cluster message: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error occurred while closing cluster channel: " + e.getMessage());
+        }
+    }
+
+    private final class Peer {
+
+        private final InetSocketAddress address;
+        private final BlockingQueue<ByteBuffer> pending;
+
+        private Thread sender;
+        private SocketChannel channel;
+
+        private Peer(InetSocketAddress address) {
+            this.address = address;
+            this.pending = new LinkedBlockingQueue<>(MAX_PENDING_MESSAGES);
+        }
+
+        private void start() {
+            sender = Thread.ofVirtual().name("chatty-bus-sender-" + address).start(this::run);
+        }
+
+        private void stop() {
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+
+        private void offer(ByteBuffer frame) {
+            // there is no catch-up path: a peer that misses a message stays diverged until its data is copied over
+            if (!pending.offer(frame)) {
+                dropped.increment();
+            }
+        }
+
+        private void run() {
+            try {
+                while (isRunning) {
+                    send(pending.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeQuietly(channel);
+            }
+        }
+
+        private void send(ByteBuffer frame) throws InterruptedException {
+            while (isRunning) {
+                try {
+                    if (channel == null) {
+                        channel = SocketChannel.open(new InetSocketAddress(address.getHostString(),
+                                address.getPort()));
+                    }
+
+                    Frames.write(channel, frame.duplicate());
+                    return;
+                } catch (IOException e) {
+                    // frames written before the failure was noticed may never reach the peer and are not resent
+                    closeQuietly(channel);
+                    channel = null;
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                }
+            }
+        }
+
+    }
+
+}
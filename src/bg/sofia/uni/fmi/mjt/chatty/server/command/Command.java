@@ -1,4 +1,72 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.command;
 
-public record Command(String command, String[] arguments) {
-}
\ No newline at end of file
+public final class Command {
+
+    private final String source;
+    private final CommandType type;
+
+    private final int[] bounds;
+    private final int tokenCount;
+    private String[] arguments;
+
+    Command(String source, CommandType type, int[] bounds, int tokenCount) {
+        this.source = source;
+        this.type = type;
+        this.bounds = bounds;
+        this.tokenCount = tokenCount;
+    }
+
+    Command(CommandType type, String[] arguments) {
+        this.source = null;
+        this.type = type;
+        this.bounds = null;
+        this.tokenCount = arguments.length + 1;
+        this.arguments = arguments;
+    }
+
+    public CommandType type() {
+        return type;
+    }
+
+    public String command() {
+        return tokenCount == 0 ? "" : token(0);
+    }
+
+    public int argumentCount() {
+        return Math.max(0, tokenCount - 1);
+    }
+
+    public String argument(int index) {
+        if (index < 0 || index >= argumentCount()) {
+            throw new IllegalArgumentException("Incorrect command format");
+        }
+
+        return token(index + 1);
+    }
+
+    public String argumentFromEnd(int index) {
+        return argument(argumentCount() - 1 - index);
+    }
+
+    public String[] arguments() {
+        if (arguments == null) {
+            String[] result = new String[argumentCount()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = token(i + 1);
+            }
+
+            arguments = result;
+        }
+
+        return arguments;
+    }
+
+    private String token(int index) {
+        if (source == null) {
+            return index == 0 ? type.toString() : arguments[index - 1];
+        }
+
+        return source.substring(bounds[2 * index], bounds[2 * index + 1]);
+    }
+
+}
@@ -1,39 +1,82 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.command;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 
 public class CommandCreator {
 
-    private static final int MAX_SPLIT_BY_QUOTE_TOKENS_COUNT = 3;
+    private static final int INITIAL_TOKENS_CAPACITY = 8;
+    private static final char SEPARATOR = ' ';
+    private static final char QUOTE = '"';
 
     public static Command newCommand(String input) {
-        List<String> tokens = getTokens(input);
-        String[] args = tokens.subList(1, tokens.size()).toArray(new String[0]);
+        Guard.isNotNull(input);
 
-        return new Command(tokens.getFirst(), args);
-    }
+        int[] bounds = new int[2 * INITIAL_TOKENS_CAPACITY];
+        int tokenCount = 0;
+        CommandType type = CommandType.UNKNOWN;
+        boolean isQuoteSeen = false;
 
-    private static List<String> getTokens(String input) {
-        if (!input.startsWith(CommandType.SEND_MESSAGE.toString())) {
-            return Arrays.stream(input.split(" ")).toList();
-        }
+        int position = 0;
+        while (position < input.length()) {
+            if (input.charAt(position) == SEPARATOR) {
+                position++;
+                continue;
+            }
+
+            int start;
+            int end;
+
+            if (input.charAt(position) == QUOTE && tokenCount == 1 && type == CommandType.SEND_MESSAGE) {
+                start = position + 1;
+                end = input.indexOf(QUOTE, start);
+
+                if (end < 0) {
+                    throw new IllegalArgumentException("Incorrect command format");
+                }
 
-        String[] tokensByQuote = input.split("\"");
+                isQuoteSeen = true;
+                position = end + 1;
+            } else {
+                start = position;
+                while (position < input.length() && input.charAt(position) != SEPARATOR) {
+                    if (input.charAt(position) == QUOTE && type == CommandType.SEND_MESSAGE) {
+                        throw new IllegalArgumentException("Incorrect command format");
+                    }
+                    position++;
+                }
+                end = position;
+            }
 
-        if (tokensByQuote.length != MAX_SPLIT_BY_QUOTE_TOKENS_COUNT) {
+            if (2 * tokenCount == bounds.length) {
+                bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+            }
+
+            bounds[2 * tokenCount] = start;
+            bounds[2 * tokenCount + 1] = end;
+
+            if (tokenCount++ == 0) {
+                type = CommandType.of(input.substring(start, end));
+            }
+        }
+
+        if (type == CommandType.SEND_MESSAGE && !isQuoteSeen) {
             throw new IllegalArgumentException("Incorrect command format");
         }
 
-        String message = tokensByQuote[1];
+        return new Command(input, type, bounds, tokenCount);
+    }
 
-        String[] noMessageTokens = input.replace(" \"" + message + "\"", "").split(" ");
+    public static Command newCommand(CommandType type, String... arguments) {
+        Guard.isNotNull(type);
+        Guard.isNotNull(arguments);
 
-        List<String> result = new LinkedList<>(List.of(noMessageTokens));
-        result.add(1, message);
+        for (String argument : arguments) {
+            Guard.isNotNull(argument);
+        }
 
-        return result;
+        return new Command(type, arguments.clone());
     }
 
 }
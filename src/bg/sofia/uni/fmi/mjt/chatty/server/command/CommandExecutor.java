@@ -1,6 +1,8 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.command;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.ClusterMessage;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
@@ -11,28 +13,36 @@ import bg.sofia.uni.fmi.mjt.chatty.server.exception.UserBlockedException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.FriendRequestAlreadySentException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.FriendshipAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.UserAlreadyExistsException;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.GroupChatAlreadyExistsException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Chat;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.BlockServiceAPI;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.ChatServiceAPI;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.FriendshipServiceAPI;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.NotificationServiceAPI;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.UserServiceAPI;
-import com.google.gson.Gson;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
 
 import java.util.Collection;
+import java.util.List;
 
 public class CommandExecutor {
 
-    private static final int CHAT_STATE_ARG_INDEX = 3;
     private static final int PASSWORD_ARG_INDEX = 3;
+    private static final int NO_ARG_MAX_ALLOWED_ARG_COUNT = 0;
     private static final int ONE_ARG_MAX_ALLOWED_ARG_COUNT = 1;
     private static final int TWO_ARG_MAX_ALLOWED_ARG_COUNT = 2;
-    private static final int THREE_ARG_MAX_ALLOWED_ARG_COUNT = 3;
     private static final int FOUR_ARG_MAX_ALLOWED_ARG_COUNT = 4;
+    public static final int HISTORY_PAGE_SIZE = 50;
+    public static final int MAX_HISTORY_PAGE_SIZE = 500;
     public static final String INCORRECT_FORMAT_MESSAGE = "Input is not in correct format";
+    public static final String NOT_LOGGED_IN_MESSAGE = "You need to log into your account for this command";
 
     private final UserServiceAPI userService;
     private final FriendshipServiceAPI friendshipService;
@@ -40,8 +50,6 @@ public class CommandExecutor {
     private final BlockServiceAPI blockService;
     private final NotificationServiceAPI notificationService;
 
-    private final Gson gson;
-
     public CommandExecutor(
             UserServiceAPI userService,
             FriendshipServiceAPI friendshipService,
@@ -53,43 +61,109 @@ public class CommandExecutor {
         this.chatService = chatService;
         this.blockService = blockService;
         this.notificationService = notificationService;
-
-        this.gson = new Gson();
     }
 
-    public String execute(Command cmd) {
-        CommandType cmdType = CommandType.of(cmd.command());
+    public Response execute(Command cmd, Session session) {
+        return run(cmd, session).response();
+    }
 
-        return switch (cmdType) {
+    public CommandResult run(Command cmd, Session session) {
+        return switch (cmd.type()) {
             case REGISTER -> register(cmd.arguments());
-            case LOGIN -> login(cmd.arguments());
-            case ADD_FRIEND -> addFriend(cmd.arguments());
-            case REMOVE_FRIEND -> removeFriend(cmd.arguments());
-            case CHECK_REQUESTS -> checkRequests(cmd.arguments());
-            case ACCEPT_REQUEST -> acceptRequest(cmd.arguments());
-            case DECLINE_REQUEST -> declineRequest(cmd.arguments());
-            case LIST_FRIENDS -> listFriends(cmd.arguments());
-            case BLOCK -> block(cmd.arguments());
-            case UNBLOCK -> unblock(cmd.arguments());
-            case LIST_BLOCKED -> listBlocked(cmd.arguments());
-            case OPEN_CHAT -> openChat(cmd.arguments());
-            case CLOSE_CHAT -> closeChat();
-            case SEND_MESSAGE -> sendMessage(cmd.arguments());
-            case CREATE_GROUP -> createGroup(cmd.arguments());
-            case DELETE_GROUP -> deleteGroup(cmd.arguments());
-            case ADD_TO_GROUP -> addToGroup(cmd.arguments());
-            case REMOVE_FROM_GROUP -> removeFromGroup(cmd.arguments());
-            case LEAVE_GROUP -> leaveGroup(cmd.arguments());
-            case OPEN_GROUP -> openGroup(cmd.arguments());
-            case LIST_GROUPS -> listGroups(cmd.arguments());
-            case CHECK_INBOX -> checkInbox(cmd.arguments());
-            default -> "Unknown command";
+            case LOGIN -> login(cmd.arguments(), session);
+            case HELP, UNKNOWN -> rejected("Unknown command");
+            default -> session.isAuthenticated()
+                    ? executeAuthenticated(cmd, session)
+                    : rejected(NOT_LOGGED_IN_MESSAGE);
+        };
+    }
+
+    public Response replay(ClusterMessage message) {
+        Guard.isNotNull(message);
+
+        return switch (message) {
+            case ClusterMessage.Executed executed -> replay(executed);
+            case ClusterMessage.Registered registered -> replay(registered);
+        };
+    }
+
+    private Response replay(ClusterMessage.Registered message) {
+        try {
+            userService.register(message.user());
+
+            return Response.text("Successful registration");
+        } catch (UserAlreadyExistsException | IllegalArgumentException e) {
+            return Response.text(e.getMessage());
+        }
+    }
+
+    private Response replay(ClusterMessage.Executed message) {
+        if (message.command().type() == CommandType.REGISTER || message.command().type() == CommandType.LOGIN) {
+            return Response.text("Command is not replicated");
+        }
+
+        Session session = new Session();
+
+        try {
+            if (message.username() != null) {
+                session.bind(userService.ensureUserExists(message.username()));
+            }
+        } catch (ValueNotFoundException e) {
+            return Response.text(e.getMessage());
+        }
+
+        if (message.chat() != null) {
+            session.openChat(message.chat());
+        }
+
+        return execute(message.command(), session);
+    }
+
+    private CommandResult executeAuthenticated(Command cmd, Session session) {
+        User user = session.getUser();
+
+        return switch (cmd.type()) {
+            case ADD_FRIEND -> addFriend(cmd.arguments(), user);
+            case REMOVE_FRIEND -> removeFriend(cmd.arguments(), user);
+            case ACCEPT_REQUEST -> acceptRequest(cmd.arguments(), user);
+            case DECLINE_REQUEST -> declineRequest(cmd.arguments(), user);
+            case BLOCK -> block(cmd.arguments(), user);
+            case UNBLOCK -> unblock(cmd.arguments(), user);
+            case SEND_MESSAGE -> sendMessage(cmd.arguments(), session);
+            case CREATE_GROUP -> createGroup(cmd.arguments(), user);
+            case DELETE_GROUP -> deleteGroup(cmd.arguments(), user);
+            case ADD_TO_GROUP -> addToGroup(cmd.arguments(), user);
+            case REMOVE_FROM_GROUP -> removeFromGroup(cmd.arguments(), user);
+            case LEAVE_GROUP -> leaveGroup(cmd.arguments(), user);
+            case CHECK_INBOX -> checkInbox(cmd.arguments(), user);
+            default -> CommandResult.unchanged(query(cmd, session));
         };
     }
 
-    private String register(String[] args) {
+    private Response query(Command cmd, Session session) {
+        User user = session.getUser();
+
+        return switch (cmd.type()) {
+            case LOGOUT -> logout(cmd.arguments(), session);
+            case CHECK_REQUESTS -> checkRequests(cmd.arguments(), user);
+            case LIST_FRIENDS -> listFriends(cmd.arguments(), user);
+            case LIST_BLOCKED -> listBlocked(cmd.arguments(), user);
+            case OPEN_CHAT -> openChat(cmd.arguments(), session);
+            case CLOSE_CHAT -> closeChat(session);
+            case OPEN_GROUP -> openGroup(cmd.arguments(), session);
+            case LIST_GROUPS -> listGroups(cmd.arguments(), user);
+            case HISTORY -> history(cmd.arguments(), session);
+            default -> Response.text("Unknown command");
+        };
+    }
+
+    private static CommandResult rejected(String message) {
+        return CommandResult.unchanged(Response.text(message));
+    }
+
+    private CommandResult register(String[] args) {
         if (args.length != FOUR_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
@@ -98,18 +172,22 @@ public class CommandExecutor {
             String username = args[2];
             String password = args[PASSWORD_ARG_INDEX];
 
-            userService.register(firstName, lastName, username, password);
+            User user = userService.register(firstName, lastName, username, password);
 
-            return "Successful registration";
+            return CommandResult.registered(user, Response.text("Successful registration"));
 
         } catch (UserAlreadyExistsException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String login(String[] args) {
+    private CommandResult login(String[] args, Session session) {
         if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+            return rejected(INCORRECT_FORMAT_MESSAGE);
+        }
+
+        if (session.isAuthenticated()) {
+            return rejected("You are already in your account");
         }
 
         try {
@@ -117,359 +195,392 @@ public class CommandExecutor {
             String password = args[1];
 
             SessionDTO result = userService.login(username, password);
-            String json = gson.toJson(result);
+
+            session.bind(userService.ensureUserExists(username));
+            if (result.notifications().isEmpty()) {
+                return CommandResult.unchanged(new Response.Login(result));
+            }
 
             notificationService.removeNotificationsOf(username);
 
-            return json;
+            return CommandResult.appliedAs(CommandCreator.newCommand(CommandType.CHECK_INBOX),
+                    new Response.Login(result));
         } catch (IllegalArgumentException | ValueNotFoundException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String addFriend(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private Response logout(String[] args, Session session) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
+        }
+
+        session.clear();
+        return Response.text("Logged out");
+    }
+
+    private CommandResult addFriend(String[] args, User sender) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String sender = args[1];
             String target = args[0];
 
             friendshipService.addFriend(sender, target);
-            return "Friend request sent to " + target;
+            return CommandResult.applied(Response.text("Friend request sent to " + target));
         } catch (ValueNotFoundException e) {
-            return "No such user exists";
+            return rejected("No such user exists");
         } catch (UserBlockedException | FriendshipAlreadyExistsException | FriendRequestAlreadySentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String removeFriend(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult removeFriend(String[] args, User remover) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String remover = args[1];
             String target = args[0];
 
             friendshipService.removeFriend(remover, target);
-            return "Friend removed successfully";
+            return CommandResult.applied(Response.text("Friend removed successfully"));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String checkRequests(String[] args) {
-        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private Response checkRequests(String[] args, User user) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         }
 
-        try {
-            String username = args[0];
-
-            Collection<UserDTO> requesters = friendshipService.getRequests(username);
+        Collection<UserDTO> requesters = friendshipService.getRequests(user);
 
-            if (requesters.isEmpty()) {
-                return "You have no requests at this moment";
-            }
-
-            return gson.toJson(requesters);
-        } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+        if (requesters.isEmpty()) {
+            return Response.text("You have no requests at this moment");
         }
+
+        return new Response.Users(requesters);
     }
 
-    private String acceptRequest(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult acceptRequest(String[] args, User acceptor) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String acceptor = args[1];
             String target = args[0];
 
             friendshipService.acceptRequest(acceptor, target);
-            return "You are now friends with " + target;
+            return CommandResult.applied(Response.text("You are now friends with " + target));
 
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String listFriends(String[] args) {
-        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private Response listFriends(String[] args, User user) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         }
 
-        try {
-            String username = args[0];
-
-            Collection<UserDTO> friends = friendshipService.getFriendsOf(username);
+        Collection<UserDTO> friends = friendshipService.getFriendsOf(user);
 
-            if (friends.isEmpty()) {
-                return "You have no friends at this moment";
-            }
-
-            return gson.toJson(friends);
-        } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+        if (friends.isEmpty()) {
+            return Response.text("You have no friends at this moment");
         }
+
+        return new Response.Users(friends);
     }
 
-    private String declineRequest(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult declineRequest(String[] args, User decliner) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String decliner = args[1];
             String target = args[0];
 
             friendshipService.declineRequest(decliner, target);
-            return "Request declined";
+            return CommandResult.applied(Response.text("Request declined"));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String block(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult block(String[] args, User blocker) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String blocker = args[1];
             String blocked = args[0];
 
             blockService.block(blocker, blocked);
-            return blocked + " blocked";
+            return CommandResult.applied(Response.text(blocked + " blocked"));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         } catch (UserBlockedException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private String unblock(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult unblock(String[] args, User unblocker) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String unblocker = args[1];
             String unblocked = args[0];
 
             blockService.unblock(unblocker, unblocked);
-            return unblocked + " unblocked";
+            return CommandResult.applied(Response.text(unblocked + " unblocked"));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String listBlocked(String[] args) {
+    private Response listBlocked(String[] args, User user) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
+        }
+
+        Collection<UserDTO> blockedUsers = blockService.getBlockedBy(user);
+
+        if (blockedUsers.isEmpty()) {
+            return Response.text("You haven't blocked anybody");
+        }
+
+        return new Response.Users(blockedUsers);
+    }
+
+    private Response openChat(String[] args, Session session) {
         if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String username = args[0];
+            String friend = args[0];
+            User user = session.getUser();
 
-            Collection<UserDTO> blockedUsers = blockService.getBlockedBy(username);
+            PersonalChat chat = chatService.getPersonalChat(user, friend);
+            session.openChat(ChatKey.personal(user.username(), friend));
 
-            if (blockedUsers.isEmpty()) {
-                return "You haven't blocked anybody";
-            }
+            HistoryDTO page = latestPageOf(chat);
 
-            return gson.toJson(blockedUsers);
-        } catch (ValueNotFoundException e) {
-            return e.getMessage();
+            return new Response.PersonalHistory(new PersonalChatDTO(friend, page.messages(), page.cursor()));
+        } catch (ValueNotFoundException | IllegalArgumentException e) {
+            return Response.text(e.getMessage());
         }
     }
 
-    private String openChat(String[] args) {
+    private Response history(String[] args, Session session) {
         if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
+        }
+
+        ChatKey key = session.getOpenChat();
+        if (key == null) {
+            return Response.text("You need to be in chat to see its history");
         }
 
         try {
-            String left = args[0];
-            String right = args[1];
+            int cursor = Integer.parseInt(args[0]);
+            int count = Integer.parseInt(args[1]);
+
+            if (count <= 0 || count > MAX_HISTORY_PAGE_SIZE) {
+                return Response.text(INCORRECT_FORMAT_MESSAGE);
+            }
 
-            PersonalChat chat = chatService.getPersonalChat(left, right);
-            return gson.toJson(new PersonalChatDTO(left, chat.getMessages()));
+            return new Response.History(pageOf(chatOf(key, session.getUser()), cursor, count));
+        } catch (NumberFormatException e) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return Response.text(e.getMessage());
         }
     }
 
-    private String closeChat() {
-        return "closed";
+    private Chat chatOf(ChatKey key, User user) throws ValueNotFoundException {
+        return switch (key.kind()) {
+            case PERSONAL -> chatService.getPersonalChat(user, key.otherParticipant(user.username()));
+            case GROUP -> chatService.getGroupChat(key.first(), user);
+        };
     }
 
-    private String sendMessage(String[] args) {
-        if (args.length != FOUR_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private static HistoryDTO latestPageOf(Chat chat) {
+        return pageOf(chat, chat.getMessageCount(), HISTORY_PAGE_SIZE);
+    }
+
+    private static HistoryDTO pageOf(Chat chat, int before, int count) {
+        List<Message> messages = chat.getMessages(before, count);
+
+        return new HistoryDTO(messages, before - messages.size());
+    }
+
+    private Response closeChat(Session session) {
+        session.closeChat();
+        return Response.text("closed");
+    }
+
+    private CommandResult sendMessage(String[] args, Session session) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
+        }
+
+        ChatKey chat = session.getOpenChat();
+        if (chat == null) {
+            return rejected("You need to be in chat to send message");
         }
 
         try {
             String message = args[0];
-            String sender = args[1];
-            String target = args[2];
-            String chatState = args[CHAT_STATE_ARG_INDEX];
+            User sender = session.getUser();
 
-            switch (Integer.parseInt(chatState)) {
-                case 1 -> chatService.sendPersonalMessage(sender, target, message);
-                case 2 -> chatService.sendGroupMessage(target, sender, message);
+            switch (chat.kind()) {
+                case PERSONAL -> chatService.sendPersonalMessage(sender,
+                        chat.otherParticipant(sender.username()), message);
+                case GROUP -> chatService.sendGroupMessage(chat.first(), sender, message);
             }
 
-            return "[" + args[1] + "] " + args[0];
+            return CommandResult.applied(new Response.ChatMessage(sender.username(), message));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String createGroup(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult createGroup(String[] args, User user) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[0];
-            String username = args[1];
 
-            chatService.createGroupChat(groupName, username);
-            return "Group chat created with admin " + username;
-        } catch (ValueNotFoundException | UserAlreadyInGroupException | IllegalArgumentException e) {
-            return e.getMessage();
+            chatService.createGroupChat(groupName, user);
+            return CommandResult.applied(Response.text("Group chat created with admin " + user.username()));
+        } catch (UserAlreadyInGroupException | GroupChatAlreadyExistsException | IllegalArgumentException e) {
+            return rejected(e.getMessage());
         }
     }
 
-    private String deleteGroup(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult deleteGroup(String[] args, User user) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[0];
-            String username = args[1];
 
-            chatService.deleteGroupChat(groupName, username);
-            return "Group chat deleted";
+            chatService.deleteGroupChat(groupName, user);
+            return CommandResult.applied(Response.text("Group chat deleted"));
         } catch (ValueNotFoundException | AccessDeniedException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String addToGroup(String[] args) {
-        if (args.length != THREE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult addToGroup(String[] args, User adder) {
+        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[1];
-            String adder = args[2];
             String added = args[0];
 
             chatService.addToGroupChat(groupName, adder, added);
-            return added + " added to " + groupName;
+            return CommandResult.applied(Response.text(added + " added to " + groupName));
 
         } catch (ValueNotFoundException |
                  AccessDeniedException |
                  UserAlreadyInGroupException |
                  IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String removeFromGroup(String[] args) {
-        if (args.length != THREE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult removeFromGroup(String[] args, User remover) {
+        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[1];
-            String remover = args[2];
             String removed = args[0];
 
             chatService.removeFromGroupChat(groupName, remover, removed);
-            return removed + " kicked from " + groupName;
+            return CommandResult.applied(Response.text(removed + " kicked from " + groupName));
         } catch (ValueNotFoundException | AccessDeniedException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String leaveGroup(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult leaveGroup(String[] args, User user) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[0];
-            String username = args[1];
 
-            chatService.leaveGroupChat(groupName, username);
-            return "You left from " + groupName;
+            chatService.leaveGroupChat(groupName, user);
+            return CommandResult.applied(Response.text("You left from " + groupName));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
-    private String openGroup(String[] args) {
-        if (args.length != TWO_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private Response openGroup(String[] args, Session session) {
+        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
             String groupName = args[0];
-            String username = args[1];
 
-            GroupChat chat = chatService.getGroupChat(groupName, username);
+            GroupChat chat = chatService.getGroupChat(groupName, session.getUser());
             String[] usernames = chat.getUsers().stream().map(User::username).toArray(String[]::new);
+            session.openChat(ChatKey.group(groupName));
+
+            HistoryDTO page = latestPageOf(chat);
 
-            return gson.toJson(new GroupChatDTO(chat.getName(), usernames, chat.getMessages()));
+            return new Response.GroupHistory(new GroupChatDTO(chat.getName(), usernames, page.messages(),
+                    page.cursor()));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return Response.text(e.getMessage());
         }
     }
 
-    private String listGroups(String[] args) {
-        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private Response listGroups(String[] args, User user) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return Response.text(INCORRECT_FORMAT_MESSAGE);
         }
 
-        try {
-            String username = args[0];
-
-            Collection<String> groups = chatService.getGroupChatsForUser(username);
-
-            if (groups.isEmpty()) {
-                return "You are not part of any group chats";
-            }
+        Collection<String> groups = chatService.getGroupChatsForUser(user);
 
-            return gson.toJson(groups);
-        } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+        if (groups.isEmpty()) {
+            return Response.text("You are not part of any group chats");
         }
+
+        return new Response.Groups(groups);
     }
 
-    private String checkInbox(String[] args) {
-        if (args.length != ONE_ARG_MAX_ALLOWED_ARG_COUNT) {
-            return INCORRECT_FORMAT_MESSAGE;
+    private CommandResult checkInbox(String[] args, User user) {
+        if (args.length != NO_ARG_MAX_ALLOWED_ARG_COUNT) {
+            return rejected(INCORRECT_FORMAT_MESSAGE);
         }
 
         try {
-            String username = args[0];
+            String username = user.username();
 
             Collection<Notification> notifications = notificationService.getNotificationsOf(username);
-            String json = gson.toJson(notifications);
 
             notificationService.removeNotificationsOf(username);
 
-            return json;
+            return CommandResult.applied(new Response.Notifications(notifications));
         } catch (ValueNotFoundException | IllegalArgumentException e) {
-            return e.getMessage();
+            return rejected(e.getMessage());
         }
     }
 
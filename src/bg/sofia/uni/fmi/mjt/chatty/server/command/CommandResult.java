@@ -0,0 +1,32 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.command;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public record CommandResult(Response response, boolean isApplied, User registeredUser, Command replicatedCommand) {
+
+    public CommandResult {
+        Guard.isNotNull(response);
+    }
+
+    public static CommandResult unchanged(Response response) {
+        return new CommandResult(response, false, null, null);
+    }
+
+    public static CommandResult applied(Response response) {
+        return new CommandResult(response, true, null, null);
+    }
+
+    public static CommandResult registered(User user, Response response) {
+        Guard.isNotNull(user);
+
+        return new CommandResult(response, true, user, null);
+    }
+
+    public static CommandResult appliedAs(Command replicatedCommand, Response response) {
+        Guard.isNotNull(replicatedCommand);
+
+        return new CommandResult(response, true, null, replicatedCommand);
+    }
+
+}
@@ -3,52 +3,87 @@ package bg.sofia.uni.fmi.mjt.chatty.server.command;
 import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum CommandType {
 
-    REGISTER("register"),
-    LOGIN("login"),
-    LOGOUT("logout"),
-    ADD_FRIEND("add-friend"),
-    REMOVE_FRIEND("remove-friend"),
-    CHECK_REQUESTS("check-requests"),
-    ACCEPT_REQUEST("accept"),
-    DECLINE_REQUEST("decline"),
-    LIST_FRIENDS("list-friends"),
-    BLOCK("block"),
-    UNBLOCK("unblock"),
-    LIST_BLOCKED("list-blocked"),
-    OPEN_CHAT("open-chat"),
-    CLOSE_CHAT("close-chat"),
-    SEND_MESSAGE("send"),
-    CREATE_GROUP("create-group"),
-    DELETE_GROUP("delete-group"),
-    ADD_TO_GROUP("add-to-group"),
-    REMOVE_FROM_GROUP("remove-from-group"),
-    LEAVE_GROUP("leave"),
-    OPEN_GROUP("open-group"),
-    LIST_GROUPS("list-groups"),
-    CHECK_INBOX("check-inbox"),
-    HELP("help"),
-    UNKNOWN("unknown");
+    REGISTER("register", 0x01),
+    LOGIN("login", 0x02),
+    LOGOUT("logout", 0x03),
+    ADD_FRIEND("add-friend", 0x04),
+    REMOVE_FRIEND("remove-friend", 0x05),
+    CHECK_REQUESTS("check-requests", 0x06),
+    ACCEPT_REQUEST("accept", 0x07),
+    DECLINE_REQUEST("decline", 0x08),
+    LIST_FRIENDS("list-friends", 0x09),
+    BLOCK("block", 0x0A),
+    UNBLOCK("unblock", 0x0B),
+    LIST_BLOCKED("list-blocked", 0x0C),
+    OPEN_CHAT("open-chat", 0x0D),
+    CLOSE_CHAT("close-chat", 0x0E),
+    SEND_MESSAGE("send", 0x0F),
+    CREATE_GROUP("create-group", 0x10),
+    DELETE_GROUP("delete-group", 0x11),
+    ADD_TO_GROUP("add-to-group", 0x12),
+    REMOVE_FROM_GROUP("remove-from-group", 0x13),
+    LEAVE_GROUP("leave", 0x14),
+    OPEN_GROUP("open-group", 0x15),
+    LIST_GROUPS("list-groups", 0x16),
+    CHECK_INBOX("check-inbox", 0x17),
+    HELP("help", 0x18),
+    HISTORY("history", 0x19),
+    STATS("stats", 0x1A),
+    UNKNOWN("unknown", 0x00);
+
+    private static final Map<String, CommandType> BY_VALUE = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(CommandType::toString, Function.identity()));
+
+    private static final CommandType[] BY_OPCODE = new CommandType[Byte.MAX_VALUE + 1];
+
+    static {
+        for (CommandType type : values()) {
+            BY_OPCODE[type.opcode] = type;
+        }
+    }
 
     private final String value;
+    private final int opcode;
 
-    CommandType(String value) {
+    CommandType(String value, int opcode) {
         this.value = value;
+        this.opcode = opcode;
     }
 
     public String toString() {
         return value;
     }
 
+    public int opcode() {
+        return opcode;
+    }
+
+    public boolean isReadOnly() {
+        return switch (this) {
+            case CHECK_REQUESTS, LIST_FRIENDS, LIST_BLOCKED, OPEN_CHAT, CLOSE_CHAT, OPEN_GROUP, LIST_GROUPS,
+                 HISTORY, STATS, LOGOUT, HELP, UNKNOWN -> true;
+            default -> false;
+        };
+    }
+
     public static CommandType of(String value) {
         Guard.isNotNull(value);
 
-        return Arrays.stream(values())
-                .filter(v -> v.toString().equals(value))
-                .findFirst()
-                .orElse(UNKNOWN);
+        return BY_VALUE.getOrDefault(value, UNKNOWN);
+    }
+
+    public static CommandType ofOpcode(int opcode) {
+        if (opcode < 0 || opcode >= BY_OPCODE.length || BY_OPCODE[opcode] == null) {
+            return UNKNOWN;
+        }
+
+        return BY_OPCODE[opcode];
     }
 
 }
@@ -0,0 +1,48 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.command;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+
+import java.util.Collection;
+
+public sealed interface Response {
+
+    static Response text(String message) {
+        return new Text(message);
+    }
+
+    record Text(String message) implements Response {
+    }
+
+    record Login(SessionDTO session) implements Response {
+    }
+
+    record Users(Collection<UserDTO> users) implements Response {
+    }
+
+    record PersonalHistory(PersonalChatDTO chat) implements Response {
+    }
+
+    record GroupHistory(GroupChatDTO chat) implements Response {
+    }
+
+    record History(HistoryDTO page) implements Response {
+    }
+
+    record Groups(Collection<String> names) implements Response {
+    }
+
+    record Notifications(Collection<Notification> notifications) implements Response {
+    }
+
+    record ChatMessage(String sender, String text) implements Response {
+    }
+
+    record RateLimited(long retryAfterMillis) implements Response {
+    }
+
+}
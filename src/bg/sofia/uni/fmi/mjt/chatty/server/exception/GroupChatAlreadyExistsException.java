@@ -0,0 +1,16 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.exception;
+
+public class GroupChatAlreadyExistsException extends Exception {
+
+    public GroupChatAlreadyExistsException() {
+    }
+
+    public GroupChatAlreadyExistsException(String message) {
+        super(message);
+    }
+
+    public GroupChatAlreadyExistsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,22 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.exception;
+
+import java.io.IOException;
+import java.io.Serial;
+
+public class MalformedFrameException extends IOException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public MalformedFrameException() {
+    }
+
+    public MalformedFrameException(String message) {
+        super(message);
+    }
+
+    public MalformedFrameException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
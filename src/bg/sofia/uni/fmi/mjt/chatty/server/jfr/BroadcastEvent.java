@@ -0,0 +1,39 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("bg.sofia.uni.fmi.mjt.chatty.Broadcast")
+@Label("Broadcast")
+@Category({"Chatty", "Chats"})
+@Description("Fan-out of a chat message to the other subscribers of the chat")
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+    @Label("Chat")
+    private String chat;
+
+    @Label("Subscriber Count")
+    private int subscribers;
+
+    @Label("Frame Size")
+    @DataAmount
+    private long bytes;
+
+    public void complete(String chatId, int recipients, long frameBytes) {
+        end();
+
+        if (shouldCommit()) {
+            chat = chatId;
+            subscribers = recipients;
+            bytes = frameBytes;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.jfr;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("bg.sofia.uni.fmi.mjt.chatty.Command")
+@Label("Command")
+@Category({"Chatty", "Commands"})
+@Description("Execution of a client command until its whole response is encoded")
+@StackTrace(false)
+public class CommandEvent extends Event {
+
+    @Label("Command")
+    private String command;
+
+    @Label("User")
+    private String user;
+
+    @Label("Response Size")
+    @DataAmount
+    private long responseBytes;
+
+    public void complete(CommandType type, String username, long bytes) {
+        end();
+
+        if (shouldCommit()) {
+            command = type.toString();
+            user = username;
+            responseBytes = bytes;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("bg.sofia.uni.fmi.mjt.chatty.RepositoryLoad")
+@Label("Repository Load")
+@Category({"Chatty", "Persistence"})
+@Description("Load of a repository file at startup")
+@StackTrace(false)
+public class RepositoryLoadEvent extends Event {
+
+    @Label("Repository")
+    private String repository;
+
+    @Label("Entity Count")
+    private int entityCount;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+
+    public void complete(String name, int entities, long fileBytes) {
+        end();
+
+        if (shouldCommit()) {
+            repository = name;
+            entityCount = entities;
+            bytes = fileBytes;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("bg.sofia.uni.fmi.mjt.chatty.RepositorySave")
+@Label("Repository Save")
+@Category({"Chatty", "Persistence"})
+@Description("Rewrite of a repository file with all of its entities")
+public class RepositorySaveEvent extends Event {
+
+    @Label("Repository")
+    private String repository;
+
+    @Label("Entity Count")
+    private int entityCount;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+
+    public void complete(String name, int entities, long fileBytes) {
+        end();
+
+        if (shouldCommit()) {
+            repository = name;
+            entityCount = entities;
+            bytes = fileBytes;
+            commit();
+        }
+    }
+
+}
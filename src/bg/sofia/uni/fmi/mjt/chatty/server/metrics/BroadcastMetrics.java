@@ -0,0 +1,47 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class BroadcastMetrics {
+
+    private final LongAdder broadcasts;
+    private final LongAdder deliveries;
+    private final LongAdder encodedBytes;
+    private final LongAdder fanOutNanos;
+
+    public BroadcastMetrics() {
+        broadcasts = new LongAdder();
+        deliveries = new LongAdder();
+        encodedBytes = new LongAdder();
+        fanOutNanos = new LongAdder();
+    }
+
+    public void record(int recipients, int frameBytes, long nanos) {
+        broadcasts.increment();
+        deliveries.add(recipients);
+        encodedBytes.add(frameBytes);
+        fanOutNanos.add(nanos);
+    }
+
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    public long getDeliveries() {
+        return deliveries.sum();
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    public long getFanOutNanos() {
+        return fanOutNanos.sum();
+    }
+
+    public double getAverageFanOutNanos() {
+        long count = getBroadcasts();
+        return count == 0 ? 0 : (double) getFanOutNanos() / count;
+    }
+
+}
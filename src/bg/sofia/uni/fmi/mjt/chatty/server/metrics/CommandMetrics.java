@@ -0,0 +1,135 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CommandMetrics {
+
+    private static final String OBJECT_NAME = "bg.sofia.uni.fmi.mjt.chatty:type=CommandStats,command=";
+
+    private final Map<CommandType, Counters> counters;
+    private final Set<ObjectName> registeredNames;
+
+    public CommandMetrics() {
+        counters = new EnumMap<>(CommandType.class);
+        registeredNames = new LinkedHashSet<>();
+
+        for (CommandType type : CommandType.values()) {
+            counters.put(type, new Counters());
+        }
+    }
+
+    public void record(CommandType type, long nanos) {
+        Counters current = counters.get(type);
+
+        current.count.increment();
+        current.latency.record(nanos);
+    }
+
+    public void record(CommandType type, CommandPhase phase, long nanos) {
+        counters.get(type).phases.get(phase).record(nanos);
+    }
+
+    public void recordError(CommandType type) {
+        counters.get(type).errors.increment();
+    }
+
+    public long getCount(CommandType type) {
+        return counters.get(type).count.sum();
+    }
+
+    public long getErrors(CommandType type) {
+        return counters.get(type).errors.sum();
+    }
+
+    public LatencyHistogram getLatency(CommandType type) {
+        return counters.get(type).latency;
+    }
+
+    public LatencyHistogram getLatency(CommandType type, CommandPhase phase) {
+        return counters.get(type).phases.get(phase);
+    }
+
+    public void reset(CommandType type) {
+        Counters current = counters.get(type);
+
+        current.count.reset();
+        current.errors.reset();
+        current.latency.reset();
+        current.phases.values().forEach(LatencyHistogram::reset);
+    }
+
+    public synchronized void register(MBeanServer server) throws JMException {
+        Guard.isNotNull(server);
+
+        for (CommandType type : CommandType.values()) {
+            ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(type.toString()));
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(new CommandStats(type, this), name);
+            registeredNames.add(name);
+        }
+    }
+
+    public synchronized void unregister(MBeanServer server) throws JMException {
+        Guard.isNotNull(server);
+
+        for (ObjectName name : registeredNames) {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+
+        registeredNames.clear();
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+
+        for (CommandType type : CommandType.values()) {
+            long count = getCount(type);
+            if (count == 0) {
+                continue;
+            }
+
+            CommandStats stats = new CommandStats(type, this);
+
+            report.append(String.format("%s: %d requests, %d errors, p50 %.1f us, p99 %.1f us, p999 %.1f us, "
+                            + "max %.1f us; p99 parse %.1f us, service %.1f us, persistence %.1f us, "
+                            + "serialization %.1f us%n", type, count, getErrors(type), stats.getP50Micros(),
+                    stats.getP99Micros(), stats.getP999Micros(), stats.getMaxMicros(), stats.getParseP99Micros(),
+                    stats.getServiceP99Micros(), stats.getPersistenceP99Micros(),
+                    stats.getSerializationP99Micros()));
+        }
+
+        return report.toString();
+    }
+
+    private static final class Counters {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<CommandPhase, LatencyHistogram> phases = new EnumMap<>(CommandPhase.class);
+
+        private Counters() {
+            for (CommandPhase phase : CommandPhase.values()) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+public enum CommandPhase {
+
+    PARSE("parse"),
+    SERVICE("service"),
+    PERSISTENCE("persistence"),
+    SERIALIZATION("serialization");
+
+    private final String value;
+
+    CommandPhase(String value) {
+        this.value = value;
+    }
+
+    public String toString() {
+        return value;
+    }
+
+}
@@ -0,0 +1,91 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+
+import java.util.concurrent.TimeUnit;
+
+public class CommandStats implements CommandStatsMBean {
+
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+
+    private final CommandType type;
+    private final CommandMetrics metrics;
+
+    CommandStats(CommandType type, CommandMetrics metrics) {
+        this.type = type;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getCommand() {
+        return type.toString();
+    }
+
+    @Override
+    public long getCount() {
+        return metrics.getCount(type);
+    }
+
+    @Override
+    public long getErrors() {
+        return metrics.getErrors(type);
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return metrics.getLatency(type).getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return metrics.getLatency(type).getPercentile(P50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return metrics.getLatency(type).getPercentile(P99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return metrics.getLatency(type).getPercentile(P999) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return metrics.getLatency(type).getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getParseP99Micros() {
+        return p99Of(CommandPhase.PARSE);
+    }
+
+    @Override
+    public double getServiceP99Micros() {
+        return p99Of(CommandPhase.SERVICE);
+    }
+
+    @Override
+    public double getPersistenceP99Micros() {
+        return p99Of(CommandPhase.PERSISTENCE);
+    }
+
+    @Override
+    public double getSerializationP99Micros() {
+        return p99Of(CommandPhase.SERIALIZATION);
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset(type);
+    }
+
+    private double p99Of(CommandPhase phase) {
+        return metrics.getLatency(type, phase).getPercentile(P99) / NANOS_PER_MICRO;
+    }
+
+}
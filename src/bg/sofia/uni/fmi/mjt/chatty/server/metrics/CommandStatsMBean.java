@@ -0,0 +1,31 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+public interface CommandStatsMBean {
+
+    String getCommand();
+
+    long getCount();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    double getParseP99Micros();
+
+    double getServiceP99Micros();
+
+    double getPersistenceP99Micros();
+
+    double getSerializationP99Micros();
+
+    void reset();
+
+}
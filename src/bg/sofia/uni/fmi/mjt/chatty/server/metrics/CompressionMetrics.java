@@ -0,0 +1,92 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CompressionMetrics {
+
+    private final Map<CommandType, Counters> counters;
+
+    public CompressionMetrics() {
+        counters = new EnumMap<>(CommandType.class);
+
+        for (CommandType type : CommandType.values()) {
+            counters.put(type, new Counters());
+        }
+    }
+
+    public void record(CommandType type, int originalBytes, int sentBytes, long nanos) {
+        Counters current = counters.get(type);
+
+        current.frames.increment();
+        if (sentBytes < originalBytes) {
+            current.compressedFrames.increment();
+        }
+
+        current.originalBytes.add(originalBytes);
+        current.sentBytes.add(sentBytes);
+        current.nanos.add(nanos);
+    }
+
+    public long getFrames(CommandType type) {
+        return counters.get(type).frames.sum();
+    }
+
+    public long getCompressedFrames(CommandType type) {
+        return counters.get(type).compressedFrames.sum();
+    }
+
+    public long getOriginalBytes(CommandType type) {
+        return counters.get(type).originalBytes.sum();
+    }
+
+    public long getSentBytes(CommandType type) {
+        return counters.get(type).sentBytes.sum();
+    }
+
+    public long getNanos(CommandType type) {
+        return counters.get(type).nanos.sum();
+    }
+
+    public double getRatio(CommandType type) {
+        long original = getOriginalBytes(type);
+        return original == 0 ? 1 : (double) getSentBytes(type) / original;
+    }
+
+    public double getAverageNanos(CommandType type) {
+        long frames = getFrames(type);
+        return frames == 0 ? 0 : (double) getNanos(type) / frames;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+
+        for (CommandType type : CommandType.values()) {
+            long frames = getFrames(type);
+            if (frames == 0) {
+                continue;
+            }
+
+            report.append(String.format("%s: %d frames, %d compressed, %d -> %d bytes, ratio %.3f, %.1f us/frame%n",
+                    type, frames, getCompressedFrames(type), getOriginalBytes(type), getSentBytes(type),
+                    getRatio(type), getAverageNanos(type) / TimeUnit.MICROSECONDS.toNanos(1)));
+        }
+
+        return report.toString();
+    }
+
+    private static final class Counters {
+
+        private final LongAdder frames = new LongAdder();
+        private final LongAdder compressedFrames = new LongAdder();
+        private final LongAdder originalBytes = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+public final class PersistenceTimer {
+
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private PersistenceTimer() {
+    }
+
+    public static void add(long nanos) {
+        NANOS.get()[0] += nanos;
+    }
+
+    public static long elapsed() {
+        return NANOS.get()[0];
+    }
+
+    public static long reset() {
+        long[] nanos = NANOS.get();
+        long elapsed = nanos[0];
+        nanos[0] = 0;
+
+        return elapsed;
+    }
+
+}
@@ -0,0 +1,66 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.ratelimit.RateLimitScope;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RateLimitMetrics {
+
+    private final Map<CommandType, Map<RateLimitScope, LongAdder>> rejections;
+
+    public RateLimitMetrics() {
+        rejections = new EnumMap<>(CommandType.class);
+
+        for (CommandType type : CommandType.values()) {
+            Map<RateLimitScope, LongAdder> counters = new EnumMap<>(RateLimitScope.class);
+
+            for (RateLimitScope scope : RateLimitScope.values()) {
+                counters.put(scope, new LongAdder());
+            }
+
+            rejections.put(type, counters);
+        }
+    }
+
+    public void record(CommandType type, RateLimitScope scope) {
+        rejections.get(type).get(scope).increment();
+    }
+
+    public long getRejections(CommandType type, RateLimitScope scope) {
+        return rejections.get(type).get(scope).sum();
+    }
+
+    public long getRejections(CommandType type) {
+        return rejections.get(type).values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getRejections() {
+        long total = 0;
+
+        for (CommandType type : CommandType.values()) {
+            total += getRejections(type);
+        }
+
+        return total;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+
+        for (CommandType type : CommandType.values()) {
+            long total = getRejections(type);
+            if (total == 0) {
+                continue;
+            }
+
+            report.append(String.format("%s: %d rejected, %d per connection, %d per user%n", type, total,
+                    getRejections(type, RateLimitScope.CONNECTION), getRejections(type, RateLimitScope.USER)));
+        }
+
+        return report.toString();
+    }
+
+}
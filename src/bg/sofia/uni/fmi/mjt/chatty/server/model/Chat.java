@@ -1,17 +1,25 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.SequencedCollection;
 
 public abstract class Chat implements Entity {
 
+    @Serial
+    private static final long serialVersionUID = -2895058026627120167L;
+
     private final Collection<User> users;
 
-    private final SequencedCollection<Message> messages;
+    private SequencedCollection<Message> messages;
 
     public Chat(Collection<User> users, SequencedCollection<Message> messages) {
         this.users = users;
-        this.messages = messages;
+        this.messages = indexed(messages);
     }
 
     public Collection<User> getUsers() {
@@ -22,6 +30,22 @@ public abstract class Chat implements Entity {
         return messages;
     }
 
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    public List<Message> getMessages(int before, int limit) {
+        if (before < 0 || before > messages.size()) {
+            throw new IllegalArgumentException("Position is out of range");
+        }
+
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit is negative");
+        }
+
+        return List.copyOf(((List<Message>) messages).subList(Math.max(0, before - limit), before));
+    }
+
     public void addMessage(Message message) {
         if (message == null) {
             throw new IllegalArgumentException("Message is null");
@@ -30,4 +54,15 @@ public abstract class Chat implements Entity {
         messages.add(message);
     }
 
-}
\ No newline at end of file
+    @Serial
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+
+        messages = indexed(messages);
+    }
+
+    private static SequencedCollection<Message> indexed(SequencedCollection<Message> messages) {
+        return messages instanceof ArrayList<Message> ? messages : new ArrayList<>(messages);
+    }
+
+}
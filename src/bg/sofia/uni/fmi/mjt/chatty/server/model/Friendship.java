@@ -1,11 +1,15 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.model;
 
+import java.io.Serial;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 
 public class Friendship implements Entity {
 
+    @Serial
+    private static final long serialVersionUID = 4701647327152604214L;
+
     private final Collection<User> users;
 
     public Friendship(User left, User right) {
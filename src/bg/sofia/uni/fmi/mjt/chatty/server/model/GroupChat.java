@@ -2,18 +2,28 @@ package bg.sofia.uni.fmi.mjt.chatty.server.model;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
 
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
+import java.util.SequencedCollection;
 import java.util.Set;
 
 public class GroupChat extends Chat implements Entity {
 
+    @Serial
+    private static final long serialVersionUID = 5607450147913043562L;
+
     private final User admin;
 
     private final String name;
 
     public GroupChat(String name, User admin) {
-        super(new LinkedHashSet<>(Set.of(admin)), new LinkedList<>());
+        this(name, admin, Set.of(admin), new ArrayList<>());
+    }
+
+    public GroupChat(String name, User admin, Collection<User> users, SequencedCollection<Message> messages) {
+        super(new LinkedHashSet<>(users), messages);
 
         this.admin = admin;
         this.name = name;
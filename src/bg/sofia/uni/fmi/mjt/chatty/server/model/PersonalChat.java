@@ -1,14 +1,18 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.model;
 
+import java.io.Serial;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.SequencedCollection;
 import java.util.Set;
 
 public class PersonalChat extends Chat implements Entity {
 
+    @Serial
+    private static final long serialVersionUID = -8820275946040619060L;
+
     public PersonalChat(User left, User right) {
-        super(new HashSet<>(Set.of(left, right)), new LinkedList<>());
+        super(new HashSet<>(Set.of(left, right)), new ArrayList<>());
     }
 
     public PersonalChat(User left, User right, SequencedCollection<Message> messages) {
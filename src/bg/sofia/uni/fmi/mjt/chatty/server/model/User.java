@@ -1,9 +1,32 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.model;
 
-public record User(String firstName, String lastName, String username, String passwordHash) implements Entity {
+import java.util.Objects;
+
+public record User(int id, String firstName, String lastName, String username, String passwordHash)
+        implements Entity {
+
+    public static final int NO_ID = 0;
+
+    public User(String firstName, String lastName, String username, String passwordHash) {
+        this(NO_ID, firstName, lastName, username, passwordHash);
+    }
+
+    public User withId(int id) {
+        return new User(id, firstName, lastName, username, passwordHash);
+    }
 
     public String getFullName() {
         return firstName() + " " + lastName();
     }
 
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof User user && Objects.equals(username, user.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(username);
+    }
+
 }
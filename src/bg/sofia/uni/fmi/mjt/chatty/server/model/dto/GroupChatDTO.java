@@ -4,5 +4,5 @@ import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
 
 import java.util.SequencedCollection;
 
-public record GroupChatDTO(String name, String[] users, SequencedCollection<Message> messages) {
+public record GroupChatDTO(String name, String[] users, SequencedCollection<Message> messages, int cursor) {
 }
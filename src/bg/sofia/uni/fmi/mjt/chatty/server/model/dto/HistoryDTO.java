@@ -0,0 +1,8 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.model.dto;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+
+import java.util.SequencedCollection;
+
+public record HistoryDTO(SequencedCollection<Message> messages, int cursor) {
+}
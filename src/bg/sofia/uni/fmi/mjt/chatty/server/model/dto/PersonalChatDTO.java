@@ -4,6 +4,6 @@ import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
 
 import java.util.SequencedCollection;
 
-public record PersonalChatDTO(String friend, SequencedCollection<Message> messages) {
+public record PersonalChatDTO(String friend, SequencedCollection<Message> messages, int cursor) {
 
 }
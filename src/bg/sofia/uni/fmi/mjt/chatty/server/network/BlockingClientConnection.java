@@ -0,0 +1,237 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class BlockingClientConnection implements Connection, Runnable {
+
+    private static final ByteBuffer CLOSE_SIGNAL = ByteBuffer.allocate(0);
+    private static final ByteBuffer STREAM_SIGNAL = ByteBuffer.allocate(0);
+    private static final int MAX_GATHERED_BUFFERS = 64;
+
+    private final SocketChannel channel;
+    private final ConnectionHandler handler;
+    private final FrameDecoder decoder;
+    private final Session session;
+    private final EventLoop timer;
+    private final IdlePolicy idlePolicy;
+
+    private final BlockingQueue<ByteBuffer> outbound;
+    private final Queue<FrameSource> streams;
+    private final int writeHighWaterMark;
+    private final Lock queueLock;
+    private final Condition drained;
+    private long queuedBytes;
+
+    public BlockingClientConnection(SocketChannel channel, ConnectionHandler handler, BufferPool bufferPool,
+                                    EventLoop timer, IdlePolicy idlePolicy, int writeHighWaterMark) {
+        this.channel = channel;
+        this.handler = handler;
+        this.decoder = new FrameDecoder(bufferPool);
+        this.session = new Session();
+        this.timer = timer;
+        this.idlePolicy = idlePolicy;
+
+        this.outbound = new LinkedBlockingQueue<>();
+        this.streams = new ConcurrentLinkedQueue<>();
+        this.writeHighWaterMark = writeHighWaterMark;
+        this.queueLock = new ReentrantLock();
+        this.drained = queueLock.newCondition();
+    }
+
+    @Override
+    public void run() {
+        Thread writer = Thread.ofVirtual().start(this::writeOutbound);
+        IdleMonitor idleMonitor = idlePolicy.isEnabled() ? new IdleMonitor(this, timer, idlePolicy) : null;
+
+        if (idleMonitor != null) {
+            idleMonitor.start();
+        }
+
+        try {
+            int read;
+            while (awaitDrained() && (read = decoder.readFrom(channel)) >= 0) {
+                if (read > 0 && idleMonitor != null) {
+                    idleMonitor.touch();
+                }
+
+                dispatchFrames();
+            }
+        } catch (IOException e) {
+            System.out.println("Closing client connection: " + e.getMessage());
+        } finally {
+            if (idleMonitor != null) {
+                idleMonitor.stop();
+            }
+
+            decoder.release();
+            closeQuietly();
+            outbound.add(CLOSE_SIGNAL);
+            handler.onClose(this);
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer frame) {
+        queueLock.lock();
+        try {
+            queuedBytes += frame.remaining();
+        } finally {
+            queueLock.unlock();
+        }
+
+        outbound.add(frame);
+    }
+
+    @Override
+    public void send(FrameSource frames) {
+        queueLock.lock();
+        try {
+            streams.add(frames);
+            outbound.add(STREAM_SIGNAL);
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    @Override
+    public Session getSession() {
+        return session;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error occurred while closing client connection: " + e.getMessage());
+        }
+    }
+
+    private void dispatchFrames() throws IOException {
+        if (session.getProtocol() == Protocol.BINARY) {
+            for (ByteBuffer frame : decoder.decodeBinary()) {
+                handler.onBinaryFrame(this, frame);
+            }
+        } else {
+            for (String frame : decoder.decode()) {
+                handler.onFrame(this, frame);
+            }
+        }
+    }
+
+    private boolean awaitDrained() {
+        queueLock.lock();
+        try {
+            while (queuedBytes >= writeHighWaterMark && channel.isOpen()) {
+                drained.await();
+            }
+
+            return channel.isOpen();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private void writeOutbound() {
+        List<ByteBuffer> batch = new ArrayList<>();
+
+        try {
+            while (true) {
+                batch.add(outbound.take());
+                outbound.drainTo(batch, MAX_GATHERED_BUFFERS - 1);
+
+                if (batch.removeIf(buffer -> buffer == CLOSE_SIGNAL)) {
+                    return;
+                }
+
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streams.clear();
+            queueLock.lock();
+            try {
+                drained.signalAll();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+    }
+
+    private void writeBatch(List<ByteBuffer> batch) throws IOException {
+        int start = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) == STREAM_SIGNAL) {
+                write(batch.subList(start, i));
+                writeStream(streams.poll());
+                start = i + 1;
+            }
+        }
+
+        write(batch.subList(start, batch.size()));
+    }
+
+    private void writeStream(FrameSource frames) throws IOException {
+        for (ByteBuffer frame = frames.next(); frame != null; frame = frames.next()) {
+            Frames.write(channel, frame);
+        }
+    }
+
+    private void write(List<ByteBuffer> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+
+        long written = 0;
+        while (buffers[buffers.length - 1].hasRemaining()) {
+            written += channel.write(buffers);
+        }
+
+        queueLock.lock();
+        try {
+            queuedBytes -= written;
+
+            if (queuedBytes <= writeHighWaterMark / 2) {
+                drained.signalAll();
+            }
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+}
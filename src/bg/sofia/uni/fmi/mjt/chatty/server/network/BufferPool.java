@@ -0,0 +1,129 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BufferPool {
+
+    private static final int[] SIZE_CLASSES = {
+        2 * 1024,
+        16 * 1024,
+        128 * 1024,
+        Frames.LENGTH_FIELD_SIZE + Frames.MAX_FRAME_SIZE
+    };
+    private static final int DEFAULT_MAX_POOLED_PER_CLASS = 1024;
+    private static final long DEFAULT_MAX_POOLED_BYTES_PER_CLASS = 16L * 1024 * 1024;
+
+    private final List<Queue<ByteBuffer>> freeBuffers;
+    private final AtomicInteger[] pooledCounts;
+    private final int[] maxPooled;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final AtomicLong outstandingLeases;
+
+    public BufferPool() {
+        this(DEFAULT_MAX_POOLED_PER_CLASS);
+    }
+
+    public BufferPool(int maxPooledPerClass) {
+        this(maxPooledPerClass, DEFAULT_MAX_POOLED_BYTES_PER_CLASS);
+    }
+
+    public BufferPool(int maxPooledPerClass, long maxPooledBytesPerClass) {
+        this.freeBuffers = new ArrayList<>(SIZE_CLASSES.length);
+        this.pooledCounts = new AtomicInteger[SIZE_CLASSES.length];
+        this.maxPooled = new int[SIZE_CLASSES.length];
+
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            freeBuffers.add(new ConcurrentLinkedQueue<>());
+            pooledCounts[i] = new AtomicInteger();
+            maxPooled[i] = (int) Math.min(maxPooledPerClass, Math.max(1, maxPooledBytesPerClass / SIZE_CLASSES[i]));
+        }
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.outstandingLeases = new AtomicLong();
+    }
+
+    public ByteBuffer acquire(int minCapacity) {
+        int sizeClass = sizeClassOf(minCapacity);
+        if (sizeClass < 0) {
+            throw new IllegalArgumentException("Buffer of " + minCapacity + " bytes is larger than any size class");
+        }
+
+        ByteBuffer buffer = freeBuffers.get(sizeClass).poll();
+
+        if (buffer == null) {
+            misses.increment();
+            buffer = ByteBuffer.allocateDirect(SIZE_CLASSES[sizeClass]);
+        } else {
+            hits.increment();
+            pooledCounts[sizeClass].decrementAndGet();
+        }
+
+        outstandingLeases.incrementAndGet();
+        return buffer.clear();
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        outstandingLeases.decrementAndGet();
+
+        int sizeClass = sizeClassOf(buffer.capacity());
+        if (sizeClass < 0 || SIZE_CLASSES[sizeClass] != buffer.capacity() || !buffer.isDirect()) {
+            return;
+        }
+
+        if (pooledCounts[sizeClass].incrementAndGet() <= maxPooled[sizeClass]) {
+            freeBuffers.get(sizeClass).offer(buffer);
+        } else {
+            pooledCounts[sizeClass].decrementAndGet();
+        }
+    }
+
+    public int getMaxCapacity() {
+        return SIZE_CLASSES[SIZE_CLASSES.length - 1];
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getOutstandingLeases() {
+        return outstandingLeases.get();
+    }
+
+    public int getPooledBuffers() {
+        int total = 0;
+        for (AtomicInteger count : pooledCounts) {
+            total += count.get();
+        }
+
+        return total;
+    }
+
+    private static int sizeClassOf(int capacity) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (capacity <= SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+}
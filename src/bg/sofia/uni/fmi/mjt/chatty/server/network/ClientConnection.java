@@ -0,0 +1,276 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ClientConnection implements Connection {
+
+    private static final int MAX_GATHERED_BUFFERS = 64;
+
+    private final SelectionKey key;
+    private final SocketChannel channel;
+    private final EventLoop eventLoop;
+    private final ConnectionHandler handler;
+    private final SerialExecutor commandQueue;
+
+    private final FrameDecoder decoder;
+    private final Session session;
+
+    private final Deque<ByteBuffer> outbound;
+    private final Deque<FrameSource> streams;
+    private final ByteBuffer[] gathered;
+    private final int writeHighWaterMark;
+    private long queuedBytes;
+    private boolean isReadingPaused;
+    private boolean isReleased;
+    private IdleMonitor idleMonitor;
+
+    public ClientConnection(SelectionKey key, EventLoop eventLoop, ConnectionHandler handler,
+                            Executor commandWorkers, BufferPool bufferPool, int writeHighWaterMark) {
+        this.key = key;
+        this.channel = (SocketChannel) key.channel();
+        this.eventLoop = eventLoop;
+        this.handler = handler;
+        this.commandQueue = new SerialExecutor(commandWorkers);
+        this.decoder = new FrameDecoder(bufferPool);
+        this.session = new Session();
+
+        this.outbound = new ArrayDeque<>();
+        this.streams = new ArrayDeque<>();
+        this.gathered = new ByteBuffer[MAX_GATHERED_BUFFERS];
+        this.writeHighWaterMark = writeHighWaterMark;
+    }
+
+    public SelectionKey getKey() {
+        return key;
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    public Executor getCommandQueue() {
+        return commandQueue;
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public void monitorIdleness(IdlePolicy policy) {
+        idleMonitor = new IdleMonitor(this, eventLoop, policy);
+        idleMonitor.start();
+    }
+
+    public boolean readFrames() throws IOException {
+        int read = decoder.readFrom(channel);
+        if (read < 0) {
+            return false;
+        }
+
+        if (read > 0 && idleMonitor != null) {
+            idleMonitor.touch();
+        }
+
+        if (session.getProtocol() == Protocol.BINARY) {
+            for (ByteBuffer frame : decoder.decodeBinary()) {
+                commandQueue.execute(() -> handler.onBinaryFrame(this, frame));
+            }
+        } else {
+            for (String frame : decoder.decode()) {
+                commandQueue.execute(() -> handler.onFrame(this, frame));
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void send(ByteBuffer frame) {
+        eventLoop.execute(() -> {
+            try {
+                enqueue(frame);
+            } catch (IOException e) {
+                closeQuietly();
+            }
+        });
+    }
+
+    @Override
+    public void send(FrameSource frames) {
+        eventLoop.execute(() -> {
+            try {
+                enqueue(frames);
+            } catch (IOException e) {
+                closeQuietly();
+            }
+        });
+    }
+
+    public void enqueue(FrameSource frames) throws IOException {
+        streams.addLast(frames);
+
+        if (outbound.isEmpty()) {
+            flush();
+        } else {
+            updateInterestOps();
+        }
+    }
+
+    public void enqueue(ByteBuffer frame) throws IOException {
+        if (!streams.isEmpty()) {
+            streams.addLast(FrameSource.of(frame));
+            return;
+        }
+
+        boolean wasEmpty = outbound.isEmpty();
+
+        outbound.addLast(frame);
+        queuedBytes += frame.remaining();
+
+        if (wasEmpty) {
+            flush();
+        } else {
+            updateInterestOps();
+        }
+    }
+
+    public void flush() throws IOException {
+        boolean isDrained = writeOutbound();
+        while (isDrained && pullStream()) {
+            isDrained = writeOutbound();
+        }
+
+        Arrays.fill(gathered, null);
+        updateInterestOps();
+    }
+
+    private boolean writeOutbound() throws IOException {
+        while (!outbound.isEmpty()) {
+            int count = 0;
+            for (ByteBuffer buffer : outbound) {
+                if (count == gathered.length) {
+                    break;
+                }
+                gathered[count++] = buffer;
+            }
+
+            long written = channel.write(gathered, 0, count);
+            queuedBytes -= written;
+
+            while (!outbound.isEmpty() && !outbound.peekFirst().hasRemaining()) {
+                outbound.pollFirst();
+            }
+
+            if (written == 0) {
+                break;
+            }
+        }
+
+        return outbound.isEmpty();
+    }
+
+    private boolean pullStream() throws IOException {
+        while (!streams.isEmpty()) {
+            ByteBuffer frame;
+            try {
+                frame = streams.peekFirst().next();
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to produce the next frame", e);
+            }
+
+            if (frame != null) {
+                outbound.addLast(frame);
+                queuedBytes += frame.remaining();
+                return true;
+            }
+
+            streams.pollFirst();
+        }
+
+        return false;
+    }
+
+    public void close() throws IOException {
+        key.cancel();
+        channel.close();
+
+        eventLoop.execute(this::release);
+    }
+
+    @Override
+    public Session getSession() {
+        return session;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return key.isValid();
+    }
+
+    @Override
+    public void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.out.println("Error occurred while closing client connection: " + e.getMessage());
+        }
+    }
+
+    private void release() {
+        if (isReleased) {
+            return;
+        }
+
+        isReleased = true;
+
+        if (idleMonitor != null) {
+            idleMonitor.stop();
+        }
+
+        outbound.clear();
+        streams.clear();
+        queuedBytes = 0;
+        decoder.release();
+
+        try {
+            commandQueue.execute(() -> handler.onClose(this));
+        } catch (RejectedExecutionException e) {
+            handler.onClose(this);
+        }
+    }
+
+    private void updateInterestOps() {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (queuedBytes >= writeHighWaterMark) {
+            isReadingPaused = true;
+        } else if (queuedBytes <= writeHighWaterMark / 2) {
+            isReadingPaused = false;
+        }
+
+        int ops = isReadingPaused ? 0 : SelectionKey.OP_READ;
+        if (!outbound.isEmpty() || !streams.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+
+        key.interestOps(ops);
+    }
+
+}
@@ -0,0 +1,23 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+
+import java.nio.ByteBuffer;
+
+public interface Connection {
+
+    void send(ByteBuffer frame);
+
+    default void send(FrameSource frames) {
+        for (ByteBuffer frame = frames.next(); frame != null; frame = frames.next()) {
+            send(frame);
+        }
+    }
+
+    boolean isOpen();
+
+    void closeQuietly();
+
+    Session getSession();
+
+}
@@ -0,0 +1,13 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import java.nio.ByteBuffer;
+
+public interface ConnectionHandler {
+
+    void onFrame(Connection connection, String frame);
+
+    void onBinaryFrame(Connection connection, ByteBuffer payload);
+
+    void onClose(Connection connection);
+
+}
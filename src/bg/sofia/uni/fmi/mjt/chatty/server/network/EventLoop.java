@@ -0,0 +1,203 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final TimingWheel timers;
+
+    private final ConnectionHandler handler;
+    private final Executor commandWorkers;
+    private final BufferPool bufferPool;
+    private final IdlePolicy idlePolicy;
+    private final int writeHighWaterMark;
+
+    private volatile boolean isRunning;
+    private Thread thread;
+
+    public EventLoop(ConnectionHandler handler, Executor commandWorkers, BufferPool bufferPool,
+                     IdlePolicy idlePolicy, int writeHighWaterMark) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.timers = new TimingWheel();
+
+        this.handler = handler;
+        this.commandWorkers = commandWorkers;
+        this.bufferPool = bufferPool;
+        this.idlePolicy = idlePolicy;
+        this.writeHighWaterMark = writeHighWaterMark;
+    }
+
+    public void start(String name) {
+        isRunning = true;
+
+        thread = new Thread(this, name);
+        thread.start();
+    }
+
+    public void shutdown() {
+        isRunning = false;
+        selector.wakeup();
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        if (thread != null && !inEventLoop()) {
+            thread.join();
+        }
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+            return;
+        }
+
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    public TimingWheel.Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout(task, timers.nanoTime() + unit.toNanos(delay), 0);
+        execute(() -> timers.schedule(timeout));
+
+        return timeout;
+    }
+
+    public TimingWheel.Timeout scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        long periodNanos = unit.toNanos(period);
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout(task, timers.nanoTime() + periodNanos, periodNanos);
+        execute(() -> timers.schedule(timeout));
+
+        return timeout;
+    }
+
+    public void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                ClientConnection connection =
+                        new ClientConnection(key, this, handler, commandWorkers, bufferPool, writeHighWaterMark);
+                key.attach(connection);
+
+                if (idlePolicy.isEnabled()) {
+                    connection.monitorIdleness(idlePolicy);
+                }
+            } catch (IOException e) {
+                System.out.println("Error occurred while registering client: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (isRunning) {
+                select();
+
+                runTasks();
+                timers.advance();
+                processSelectedKeys();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.out.println("Event loop stopped unexpectedly: " + e.getMessage());
+        } finally {
+            closeSelector();
+        }
+    }
+
+    private void select() throws IOException {
+        if (timers.pending() == 0) {
+            selector.select();
+            return;
+        }
+
+        long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(timers.nanosUntilNextTick());
+        if (timeoutMillis > 0) {
+            selector.select(timeoutMillis);
+        } else {
+            selector.selectNow();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+
+        while (keyIterator.hasNext()) {
+            SelectionKey key = keyIterator.next();
+            keyIterator.remove();
+
+            ClientConnection connection = (ClientConnection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+
+                if (key.isValid() && key.isReadable()) {
+                    read(connection);
+                }
+            } catch (IOException e) {
+                System.out.println("Error occurred while processing client request: " + e.getMessage());
+                connection.closeQuietly();
+            }
+        }
+    }
+
+    private void read(ClientConnection connection) throws IOException {
+        boolean isOpen;
+        try {
+            isOpen = connection.readFrames();
+        } catch (MalformedFrameException e) {
+            System.out.println("Closing client connection: " + e.getMessage());
+            isOpen = false;
+        }
+
+        if (!isOpen) {
+            connection.close();
+        }
+    }
+
+    private void closeSelector() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof ClientConnection connection) {
+                connection.closeQuietly();
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.out.println("Error occurred while closing selector: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class FrameDecoder {
+
+    private static final int INITIAL_CAPACITY = 2048;
+    private static final int MAX_RETAINED_CHARS = 16 * 1024;
+
+    private final BufferPool pool;
+    private final CharsetDecoder charsetDecoder;
+
+    private ByteBuffer buffer;
+    private CharBuffer chars;
+
+    public FrameDecoder() {
+        this(new BufferPool());
+    }
+
+    public FrameDecoder(BufferPool pool) {
+        this.pool = pool;
+        this.charsetDecoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        this.buffer = pool.acquire(INITIAL_CAPACITY);
+        this.chars = CharBuffer.allocate(INITIAL_CAPACITY);
+    }
+
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        if (buffer == null) {
+            return -1;
+        }
+
+        if (!buffer.hasRemaining()) {
+            ensureCapacity(buffer.capacity() * 2);
+        }
+
+        return channel.read(buffer);
+    }
+
+    public List<String> decode() throws MalformedFrameException {
+        return decode(this::decodePayload);
+    }
+
+    public List<ByteBuffer> decodeBinary() throws MalformedFrameException {
+        return decode(this::copyPayload);
+    }
+
+    public void release() {
+        pool.release(buffer);
+        buffer = null;
+    }
+
+    private <T> List<T> decode(IntFunction<T> payloadReader) throws MalformedFrameException {
+        List<T> frames = new ArrayList<>();
+        if (buffer == null) {
+            return frames;
+        }
+
+        buffer.flip();
+
+        try {
+            while (buffer.remaining() >= Frames.LENGTH_FIELD_SIZE) {
+                int length = buffer.getInt(buffer.position());
+                Frames.ensureValidLength(length);
+
+                if (buffer.remaining() < Frames.LENGTH_FIELD_SIZE + length) {
+                    break;
+                }
+
+                buffer.position(buffer.position() + Frames.LENGTH_FIELD_SIZE);
+                frames.add(payloadReader.apply(length));
+            }
+        } finally {
+            buffer.compact();
+            shrinkIfConsumed();
+        }
+
+        return frames;
+    }
+
+    int getCapacity() {
+        return buffer == null ? 0 : buffer.capacity();
+    }
+
+    private ByteBuffer copyPayload(int length) {
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+
+        return ByteBuffer.wrap(payload);
+    }
+
+    private String decodePayload(int length) {
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+
+        CharBuffer target = chars;
+        if (target.capacity() < length) {
+            target = CharBuffer.allocate(length);
+
+            if (length <= MAX_RETAINED_CHARS) {
+                chars = target;
+            }
+        }
+
+        target.clear();
+        charsetDecoder.reset();
+        charsetDecoder.decode(buffer, target, true);
+        charsetDecoder.flush(target);
+
+        buffer.limit(limit);
+
+        return target.flip().toString();
+    }
+
+    private void shrinkIfConsumed() {
+        if (buffer.capacity() <= INITIAL_CAPACITY || buffer.position() > INITIAL_CAPACITY) {
+            return;
+        }
+
+        ByteBuffer shrunk = pool.acquire(INITIAL_CAPACITY);
+        buffer.flip();
+        shrunk.put(buffer);
+
+        pool.release(buffer);
+        buffer = shrunk;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int newCapacity = Math.min(capacity, pool.getMaxCapacity());
+        if (newCapacity <= buffer.capacity()) {
+            return;
+        }
+
+        ByteBuffer grown = pool.acquire(newCapacity);
+        buffer.flip();
+        grown.put(buffer);
+
+        pool.release(buffer);
+        buffer = grown;
+    }
+
+}
@@ -0,0 +1,82 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+final class FrameEncoder {
+
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTES_LIMIT = 0x800;
+    private static final int THREE_BYTES = 3;
+    private static final int SURROGATE_PAIR_BYTES = 4;
+
+    private static final Queue<CharsetEncoder> ENCODERS = new ConcurrentLinkedQueue<>();
+
+    private FrameEncoder() {
+    }
+
+    static ByteBuffer encode(String payload, boolean isDirect) {
+        Guard.isNotNull(payload);
+
+        int length = utf8Length(payload);
+
+        ByteBuffer frame = isDirect
+                ? ByteBuffer.allocateDirect(Frames.LENGTH_FIELD_SIZE + length)
+                : ByteBuffer.allocate(Frames.LENGTH_FIELD_SIZE + length);
+        frame.position(Frames.LENGTH_FIELD_SIZE);
+
+        CharsetEncoder encoder = borrowEncoder();
+        try {
+            encoder.encode(CharBuffer.wrap(payload), frame, true);
+            encoder.flush(frame);
+        } finally {
+            ENCODERS.offer(encoder.reset());
+        }
+
+        frame.putInt(0, frame.position() - Frames.LENGTH_FIELD_SIZE);
+
+        return frame.flip();
+    }
+
+    private static CharsetEncoder borrowEncoder() {
+        CharsetEncoder encoder = ENCODERS.poll();
+
+        if (encoder == null) {
+            encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        return encoder;
+    }
+
+    private static int utf8Length(String payload) {
+        int length = 0;
+
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+
+            if (c < ONE_BYTE_LIMIT) {
+                length++;
+            } else if (c < TWO_BYTES_LIMIT) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < payload.length()
+                    && Character.isLowSurrogate(payload.charAt(i + 1))) {
+                length += SURROGATE_PAIR_BYTES;
+                i++;
+            } else {
+                length += THREE_BYTES;
+            }
+        }
+
+        return length;
+    }
+
+}
@@ -0,0 +1,39 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.nio.ByteBuffer;
+import java.util.function.UnaryOperator;
+
+public interface FrameSource {
+
+    ByteBuffer next();
+
+    default FrameSource map(UnaryOperator<ByteBuffer> mapper) {
+        Guard.isNotNull(mapper);
+
+        return () -> {
+            ByteBuffer frame = next();
+            return frame == null ? null : mapper.apply(frame);
+        };
+    }
+
+    static FrameSource of(ByteBuffer frame) {
+        Guard.isNotNull(frame);
+
+        return new FrameSource() {
+            private boolean isSent;
+
+            @Override
+            public ByteBuffer next() {
+                if (isSent) {
+                    return null;
+                }
+
+                isSent = true;
+                return frame;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,164 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+public final class FrameWriter extends Writer {
+
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTES_LIMIT = 0x800;
+    private static final int THREE_BYTES_LIMIT = 0x10000;
+    private static final int CONTINUATION_BYTE = 0x80;
+    private static final int CONTINUATION_MASK = 0x3F;
+    private static final int TWO_BYTES_PREFIX = 0xC0;
+    private static final int THREE_BYTES_PREFIX = 0xE0;
+    private static final int FOUR_BYTES_PREFIX = 0xF0;
+    private static final int BITS_PER_CONTINUATION = 6;
+    private static final int TWO_BYTES = 2;
+    private static final int THREE_BYTES = 3;
+    private static final int FOUR_BYTES = 4;
+    private static final byte REPLACEMENT = '?';
+
+    private final int chunkSize;
+    private final Queue<ByteBuffer> frames;
+
+    private ByteBuffer chunk;
+    private char highSurrogate;
+    private boolean isClosed;
+
+    public FrameWriter(int chunkSize) {
+        if (chunkSize < FOUR_BYTES || chunkSize > Frames.MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between " + FOUR_BYTES + " and "
+                    + Frames.MAX_FRAME_SIZE);
+        }
+
+        this.chunkSize = chunkSize;
+        this.frames = new ArrayDeque<>();
+        this.chunk = newChunk();
+    }
+
+    public ByteBuffer poll() {
+        return frames.poll();
+    }
+
+    public boolean hasFrames() {
+        return !frames.isEmpty();
+    }
+
+    @Override
+    public void write(int c) {
+        put((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            put(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String value, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            put(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            putReplacement();
+        }
+
+        isClosed = true;
+        emit(false);
+        chunk = null;
+    }
+
+    private void put(char c) {
+        if (isClosed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+
+            if (Character.isLowSurrogate(c)) {
+                putCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+
+            putReplacement();
+        }
+
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            putReplacement();
+        } else {
+            putCodePoint(c);
+        }
+    }
+
+    private void putCodePoint(int codePoint) {
+        if (codePoint < ONE_BYTE_LIMIT) {
+            ensureRoom(1);
+            chunk.put((byte) codePoint);
+        } else if (codePoint < TWO_BYTES_LIMIT) {
+            ensureRoom(TWO_BYTES);
+            chunk.put((byte) (TWO_BYTES_PREFIX | codePoint >> BITS_PER_CONTINUATION))
+                    .put(continuation(codePoint, 0));
+        } else if (codePoint < THREE_BYTES_LIMIT) {
+            ensureRoom(THREE_BYTES);
+            chunk.put((byte) (THREE_BYTES_PREFIX | codePoint >> 2 * BITS_PER_CONTINUATION))
+                    .put(continuation(codePoint, 1))
+                    .put(continuation(codePoint, 0));
+        } else {
+            ensureRoom(FOUR_BYTES);
+            chunk.put((byte) (FOUR_BYTES_PREFIX | codePoint >> THREE_BYTES * BITS_PER_CONTINUATION))
+                    .put(continuation(codePoint, 2))
+                    .put(continuation(codePoint, 1))
+                    .put(continuation(codePoint, 0));
+        }
+    }
+
+    private static byte continuation(int codePoint, int index) {
+        return (byte) (CONTINUATION_BYTE | codePoint >> index * BITS_PER_CONTINUATION & CONTINUATION_MASK);
+    }
+
+    private void putReplacement() {
+        ensureRoom(1);
+        chunk.put(REPLACEMENT);
+    }
+
+    private void ensureRoom(int bytes) {
+        if (chunk.remaining() < bytes) {
+            emit(true);
+            chunk = newChunk();
+        }
+    }
+
+    private void emit(boolean isContinued) {
+        int length = chunk.position() - Frames.LENGTH_FIELD_SIZE;
+
+        chunk.putInt(0, isContinued ? length | Frames.CONTINUATION_FLAG : length);
+        frames.add(chunk.flip());
+    }
+
+    private ByteBuffer newChunk() {
+        return ByteBuffer.allocate(Frames.LENGTH_FIELD_SIZE + chunkSize).position(Frames.LENGTH_FIELD_SIZE);
+    }
+
+}
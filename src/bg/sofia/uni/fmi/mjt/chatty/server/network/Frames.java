@@ -0,0 +1,151 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public interface Frames {
+
+    int LENGTH_FIELD_SIZE = Integer.BYTES;
+    int MAX_FRAME_SIZE = 1 << 20;
+    int MAX_MESSAGE_SIZE = 1 << 26;
+    int CONTINUATION_FLAG = 1 << 29;
+
+    String HEARTBEAT_PING = "ping";
+    String HEARTBEAT_PONG = "pong";
+
+    static ByteBuffer encode(String payload) {
+        return FrameEncoder.encode(payload, false);
+    }
+
+    static ByteBuffer encodeShared(String payload) {
+        return FrameEncoder.encode(payload, true).asReadOnlyBuffer();
+    }
+
+    static void write(WritableByteChannel channel, String payload) throws IOException {
+        write(channel, encode(payload));
+    }
+
+    static void write(WritableByteChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    static String read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer payload = readPayload(channel);
+        if (payload == null) {
+            return null;
+        }
+
+        return new String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(),
+                StandardCharsets.UTF_8);
+    }
+
+    static ByteBuffer readPayload(ReadableByteChannel channel) throws IOException {
+        return readPayload(channel, null);
+    }
+
+    static ByteBuffer readPayload(ReadableByteChannel channel, FrameCompressor compressor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LENGTH_FIELD_SIZE);
+        ByteBuffer message = null;
+
+        while (true) {
+            if (!readFully(channel, header.clear())) {
+                return null;
+            }
+
+            int lengthField = header.flip().getInt();
+            boolean isContinued = isContinued(lengthField);
+
+            ByteBuffer chunk = readChunk(channel, lengthField & ~CONTINUATION_FLAG, compressor);
+            if (chunk == null) {
+                return null;
+            }
+
+            if (message == null && !isContinued) {
+                return chunk;
+            }
+
+            message = append(message, chunk);
+            if (!isContinued) {
+                return message.flip();
+            }
+        }
+    }
+
+    static boolean isContinued(int lengthField) {
+        return (lengthField & CONTINUATION_FLAG) != 0;
+    }
+
+    static boolean isHeartbeat(ByteBuffer payload, String heartbeat) {
+        if (payload.remaining() != heartbeat.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < heartbeat.length(); i++) {
+            if (payload.get(payload.position() + i) != heartbeat.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static void ensureValidLength(int length) throws MalformedFrameException {
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new MalformedFrameException("Invalid frame length " + length);
+        }
+    }
+
+    private static ByteBuffer readChunk(ReadableByteChannel channel, int lengthField, FrameCompressor compressor)
+            throws IOException {
+        boolean isCompressed = compressor != null && FrameCompressor.isCompressed(lengthField);
+
+        int length = isCompressed ? FrameCompressor.payloadLength(lengthField) : lengthField;
+        ensureValidLength(length);
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload)) {
+            return null;
+        }
+
+        return isCompressed ? compressor.decompress(payload.flip()) : payload.flip();
+    }
+
+    private static ByteBuffer append(ByteBuffer message, ByteBuffer chunk) throws MalformedFrameException {
+        int position = message == null ? 0 : message.position();
+        if ((long) position + chunk.remaining() > MAX_MESSAGE_SIZE) {
+            throw new MalformedFrameException("Message exceeds " + MAX_MESSAGE_SIZE + " bytes");
+        }
+
+        if (message == null || message.remaining() < chunk.remaining()) {
+            int capacity = Math.min(MAX_MESSAGE_SIZE, Math.max(position + chunk.remaining(), 2 * position));
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+
+            if (message != null) {
+                grown.put(message.flip());
+            }
+
+            message = grown;
+        }
+
+        return message.put(chunk);
+    }
+
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,86 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+public class IdleMonitor implements Runnable {
+
+    private static final ByteBuffer PING_FRAME = Frames.encodeShared(Frames.HEARTBEAT_PING);
+
+    private final Connection connection;
+    private final EventLoop timer;
+    private final long idleTimeoutNanos;
+    private final long heartbeatNanos;
+
+    private volatile long lastReadNanos;
+    private volatile TimingWheel.Timeout timeout;
+    private volatile boolean isStopped;
+
+    public IdleMonitor(Connection connection, EventLoop timer, IdlePolicy policy) {
+        this.connection = connection;
+        this.timer = timer;
+        this.idleTimeoutNanos = policy.idleTimeout().toNanos();
+        this.heartbeatNanos = policy.heartbeatInterval().toNanos();
+    }
+
+    public void start() {
+        lastReadNanos = System.nanoTime();
+
+        if (idleTimeoutNanos > 0 || heartbeatNanos > 0) {
+            scheduleCheck(Math.min(positiveOrMax(idleTimeoutNanos), positiveOrMax(heartbeatNanos)));
+        }
+    }
+
+    public void touch() {
+        lastReadNanos = System.nanoTime();
+    }
+
+    public void stop() {
+        isStopped = true;
+
+        TimingWheel.Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (isStopped || !connection.isOpen()) {
+            return;
+        }
+
+        long idleNanos = System.nanoTime() - lastReadNanos;
+
+        if (idleTimeoutNanos > 0 && idleNanos >= idleTimeoutNanos) {
+            System.out.println("Closing idle client connection after " + TimeUnit.NANOSECONDS.toMillis(idleNanos)
+                    + " ms");
+            connection.closeQuietly();
+            return;
+        }
+
+        long nextCheckNanos = idleTimeoutNanos > 0 ? idleTimeoutNanos - idleNanos : Long.MAX_VALUE;
+
+        if (heartbeatNanos > 0) {
+            if (idleNanos >= heartbeatNanos) {
+                connection.send(PING_FRAME.duplicate());
+                nextCheckNanos = Math.min(nextCheckNanos, heartbeatNanos);
+            } else {
+                nextCheckNanos = Math.min(nextCheckNanos, heartbeatNanos - idleNanos);
+            }
+        }
+
+        scheduleCheck(nextCheckNanos);
+    }
+
+    private void scheduleCheck(long delayNanos) {
+        if (!isStopped) {
+            timeout = timer.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static long positiveOrMax(long nanos) {
+        return nanos > 0 ? nanos : Long.MAX_VALUE;
+    }
+
+}
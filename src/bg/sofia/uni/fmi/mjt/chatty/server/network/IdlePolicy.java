@@ -0,0 +1,26 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.time.Duration;
+
+public record IdlePolicy(Duration idleTimeout, Duration heartbeatInterval) {
+
+    public IdlePolicy {
+        Guard.isNotNull(idleTimeout);
+        Guard.isNotNull(heartbeatInterval);
+
+        if (idleTimeout.isNegative() || heartbeatInterval.isNegative()) {
+            throw new IllegalArgumentException("Idle timeout and heartbeat interval must not be negative");
+        }
+    }
+
+    public static IdlePolicy disabled() {
+        return new IdlePolicy(Duration.ZERO, Duration.ZERO);
+    }
+
+    public boolean isEnabled() {
+        return !idleTimeout.isZero() || !heartbeatInterval.isZero();
+    }
+
+}
@@ -0,0 +1,56 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class SerialExecutor implements Executor {
+
+    private final Queue<Runnable> tasks;
+    private final Executor delegate;
+    private Runnable active;
+
+    public SerialExecutor(Executor delegate) {
+        this.tasks = new ArrayDeque<>();
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+        tasks.add(() -> {
+            try {
+                task.run();
+            } finally {
+                scheduleNextQuietly();
+            }
+        });
+
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+
+        if (active != null) {
+            try {
+                delegate.execute(active);
+            } catch (RejectedExecutionException e) {
+                active = null;
+                tasks.clear();
+                throw e;
+            }
+        }
+    }
+
+    private void scheduleNextQuietly() {
+        try {
+            scheduleNext();
+        } catch (RejectedExecutionException e) {
+            // the delegate was shut down, so the queued tasks will never run and are dropped
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class TimingWheel {
+
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickNanos;
+    private final List<List<Timeout>> wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startNanos;
+
+    private final List<Timeout> expired;
+    private long currentTick;
+    private int pending;
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE, System::nanoTime);
+    }
+
+    public TimingWheel(long tickNanos, int wheelSize, LongSupplier clock) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two greater than one");
+        }
+
+        Guard.isNotNull(clock);
+
+        this.tickNanos = tickNanos;
+        this.wheel = new ArrayList<>(wheelSize);
+        this.mask = wheelSize - 1;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ArrayList<>());
+        }
+
+        this.expired = new ArrayList<>();
+    }
+
+    public long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, nanoTime() + unit.toNanos(delay), 0);
+        schedule(timeout);
+
+        return timeout;
+    }
+
+    public Timeout scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        long periodNanos = unit.toNanos(period);
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+
+        Timeout timeout = new Timeout(task, nanoTime() + periodNanos, periodNanos);
+        schedule(timeout);
+
+        return timeout;
+    }
+
+    public void schedule(Timeout timeout) {
+        Guard.isNotNull(timeout);
+
+        if (timeout.isCancelled()) {
+            return;
+        }
+
+        long deadlineTick = Math.max(currentTick + 1, ceilDiv(timeout.deadlineNanos - startNanos, tickNanos));
+
+        timeout.remainingRounds = (deadlineTick - currentTick - 1) / wheel.size();
+        wheel.get((int) (deadlineTick & mask)).add(timeout);
+        pending++;
+    }
+
+    public void advance() {
+        long targetTick = (nanoTime() - startNanos) / tickNanos;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            expire(wheel.get((int) (currentTick & mask)));
+        }
+    }
+
+    public long nanosUntilNextTick() {
+        return Math.max(0, startNanos + (currentTick + 1) * tickNanos - nanoTime());
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    private void expire(List<Timeout> bucket) {
+        int kept = 0;
+
+        for (Timeout timeout : bucket) {
+            if (timeout.isCancelled()) {
+                pending--;
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.set(kept++, timeout);
+            } else {
+                pending--;
+                expired.add(timeout);
+            }
+        }
+
+        bucket.subList(kept, bucket.size()).clear();
+
+        try {
+            for (Timeout timeout : expired) {
+                run(timeout);
+            }
+        } finally {
+            expired.clear();
+        }
+    }
+
+    private void run(Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            System.out.println("Scheduled task failed: " + e.getMessage());
+        }
+
+        if (timeout.periodNanos > 0) {
+            timeout.deadlineNanos += timeout.periodNanos;
+            schedule(timeout);
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    public static class Timeout {
+
+        private final Runnable task;
+        private final long periodNanos;
+        private long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean isCancelled;
+
+        public Timeout(Runnable task, long deadlineNanos, long periodNanos) {
+            Guard.isNotNull(task);
+
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        public void cancel() {
+            isCancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+    }
+
+}
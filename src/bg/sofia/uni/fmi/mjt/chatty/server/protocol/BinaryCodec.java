@@ -0,0 +1,315 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.ClusterMessage;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class BinaryCodec {
+
+    private static final int TEXT = 0x01;
+    private static final int LOGIN = 0x02;
+    private static final int USERS = 0x03;
+    private static final int PERSONAL_HISTORY = 0x04;
+    private static final int GROUP_HISTORY = 0x05;
+    private static final int GROUPS = 0x06;
+    private static final int NOTIFICATIONS = 0x07;
+    private static final int CHAT_MESSAGE = 0x08;
+    private static final int HISTORY = 0x09;
+    private static final int RATE_LIMITED = 0x0A;
+
+    private static final int EXECUTED = 0x01;
+    private static final int REGISTERED = 0x02;
+
+    private static final int NO_CHAT = 0x00;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final NotificationType[] NOTIFICATION_TYPES = NotificationType.values();
+
+    private BinaryCodec() {
+    }
+
+    public static ByteBuffer encodeCommand(Command command) {
+        Guard.isNotNull(command);
+
+        return encodeCommand(command.type(), command.arguments());
+    }
+
+    public static ByteBuffer encodeCommand(CommandType type, String... arguments) {
+        Guard.isNotNull(type);
+        Guard.isNotNull(arguments);
+
+        BinaryWriter writer = new BinaryWriter(INITIAL_CAPACITY)
+                .writeByte(type.opcode())
+                .writeVarint(arguments.length);
+
+        for (String argument : arguments) {
+            writer.writeString(argument);
+        }
+
+        return writer.toFrame();
+    }
+
+    public static Command decodeCommand(ByteBuffer payload) throws MalformedFrameException {
+        Guard.isNotNull(payload);
+
+        BinaryReader reader = new BinaryReader(payload);
+        Command command = readCommand(reader);
+
+        reader.ensureFullyRead();
+
+        return command;
+    }
+
+    public static ByteBuffer encode(ClusterMessage message) {
+        Guard.isNotNull(message);
+
+        BinaryWriter writer = new BinaryWriter(INITIAL_CAPACITY).writeString(message.origin());
+
+        switch (message) {
+            case ClusterMessage.Executed executed -> {
+                writer.writeByte(EXECUTED).writeString(executed.username() == null ? "" : executed.username());
+                writeChat(writer, executed.chat());
+
+                String[] arguments = executed.command().arguments();
+                writer.writeByte(executed.command().type().opcode()).writeVarint(arguments.length);
+                for (String argument : arguments) {
+                    writer.writeString(argument);
+                }
+            }
+            case ClusterMessage.Registered registered -> writer.writeByte(REGISTERED)
+                    .writeString(registered.user().firstName())
+                    .writeString(registered.user().lastName())
+                    .writeString(registered.user().username())
+                    .writeString(registered.user().passwordHash());
+        }
+
+        return writer.toFrame();
+    }
+
+    public static ClusterMessage decodeClusterMessage(ByteBuffer payload) throws MalformedFrameException {
+        Guard.isNotNull(payload);
+
+        BinaryReader reader = new BinaryReader(payload);
+        String origin = reader.readString();
+        int tag = reader.readByte();
+
+        ClusterMessage message = switch (tag) {
+            case EXECUTED -> {
+                String username = reader.readString();
+                ChatKey chat = readChat(reader);
+
+                yield new ClusterMessage.Executed(origin, username.isEmpty() ? null : username, chat,
+                        readCommand(reader));
+            }
+            case REGISTERED -> new ClusterMessage.Registered(origin, new User(reader.readString(),
+                    reader.readString(), reader.readString(), reader.readString()));
+            default -> throw new MalformedFrameException("Unknown cluster message tag " + tag);
+        };
+
+        reader.ensureFullyRead();
+
+        return message;
+    }
+
+    public static ByteBuffer encode(Response response) {
+        Guard.isNotNull(response);
+
+        BinaryWriter writer = new BinaryWriter(INITIAL_CAPACITY);
+
+        switch (response) {
+            case Response.Text text -> writer.writeByte(TEXT).writeString(text.message());
+            case Response.Login login -> {
+                writer.writeByte(LOGIN);
+                writeUser(writer, login.session().user());
+                writeNotifications(writer, login.session().notifications());
+            }
+            case Response.Users users -> {
+                writer.writeByte(USERS).writeVarint(users.users().size());
+                users.users().forEach(user -> writeUser(writer, user));
+            }
+            case Response.PersonalHistory history -> {
+                writer.writeByte(PERSONAL_HISTORY).writeString(history.chat().friend());
+                writeMessages(writer, history.chat().messages());
+                writer.writeVarint(history.chat().cursor());
+            }
+            case Response.GroupHistory history -> {
+                writer.writeByte(GROUP_HISTORY).writeString(history.chat().name());
+                writeStrings(writer, List.of(history.chat().users()));
+                writeMessages(writer, history.chat().messages());
+                writer.writeVarint(history.chat().cursor());
+            }
+            case Response.History history -> {
+                writer.writeByte(HISTORY);
+                writeMessages(writer, history.page().messages());
+                writer.writeVarint(history.page().cursor());
+            }
+            case Response.Groups groups -> {
+                writer.writeByte(GROUPS);
+                writeStrings(writer, groups.names());
+            }
+            case Response.Notifications notifications -> {
+                writer.writeByte(NOTIFICATIONS);
+                writeNotifications(writer, notifications.notifications());
+            }
+            case Response.ChatMessage message ->
+                    writer.writeByte(CHAT_MESSAGE).writeString(message.sender()).writeString(message.text());
+            case Response.RateLimited limited -> writer.writeByte(RATE_LIMITED)
+                    .writeVarint((int) Math.min(Integer.MAX_VALUE, limited.retryAfterMillis()));
+        }
+
+        return writer.toFrame();
+    }
+
+    public static Response decodeResponse(ByteBuffer payload) throws MalformedFrameException {
+        Guard.isNotNull(payload);
+
+        BinaryReader reader = new BinaryReader(payload);
+        int tag = reader.readByte();
+
+        Response response = switch (tag) {
+            case TEXT -> Response.text(reader.readString());
+            case LOGIN -> new Response.Login(new SessionDTO(readUser(reader), readNotifications(reader)));
+            case USERS -> new Response.Users(readUsers(reader));
+            case PERSONAL_HISTORY -> new Response.PersonalHistory(new PersonalChatDTO(reader.readString(),
+                    readMessages(reader), reader.readVarint()));
+            case GROUP_HISTORY -> new Response.GroupHistory(new GroupChatDTO(reader.readString(),
+                    readStrings(reader).toArray(String[]::new), readMessages(reader), reader.readVarint()));
+            case HISTORY -> new Response.History(new HistoryDTO(readMessages(reader), reader.readVarint()));
+            case GROUPS -> new Response.Groups(readStrings(reader));
+            case NOTIFICATIONS -> new Response.Notifications(readNotifications(reader));
+            case CHAT_MESSAGE -> new Response.ChatMessage(reader.readString(), reader.readString());
+            case RATE_LIMITED -> new Response.RateLimited(reader.readVarint());
+            default -> throw new MalformedFrameException("Unknown response tag " + tag);
+        };
+
+        reader.ensureFullyRead();
+
+        return response;
+    }
+
+    private static Command readCommand(BinaryReader reader) throws MalformedFrameException {
+        CommandType type = CommandType.ofOpcode(reader.readByte());
+
+        String[] arguments = new String[reader.readCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = reader.readString();
+        }
+
+        return CommandCreator.newCommand(type, arguments);
+    }
+
+    private static void writeChat(BinaryWriter writer, ChatKey chat) {
+        if (chat == null) {
+            writer.writeByte(NO_CHAT);
+        } else {
+            writer.writeByte(chat.kind().ordinal() + 1).writeString(chat.first()).writeString(chat.second());
+        }
+    }
+
+    private static ChatKey readChat(BinaryReader reader) throws MalformedFrameException {
+        int kind = reader.readByte();
+        if (kind == NO_CHAT) {
+            return null;
+        }
+
+        ChatKey.Kind[] kinds = ChatKey.Kind.values();
+        if (kind > kinds.length) {
+            throw new MalformedFrameException("Unknown chat kind " + kind);
+        }
+
+        return new ChatKey(kinds[kind - 1], reader.readString(), reader.readString());
+    }
+
+    private static void writeUser(BinaryWriter writer, UserDTO user) {
+        writer.writeString(user.fullName()).writeString(user.username());
+    }
+
+    private static void writeStrings(BinaryWriter writer, Collection<String> values) {
+        writer.writeVarint(values.size());
+        values.forEach(writer::writeString);
+    }
+
+    private static void writeMessages(BinaryWriter writer, Collection<Message> messages) {
+        writer.writeVarint(messages.size());
+        messages.forEach(m -> writer.writeString(m.sender().username()).writeString(m.text()));
+    }
+
+    private static void writeNotifications(BinaryWriter writer, Collection<Notification> notifications) {
+        writer.writeVarint(notifications.size());
+        notifications.forEach(n -> writer.writeByte(n.type().ordinal()).writeString(n.content()));
+    }
+
+    private static UserDTO readUser(BinaryReader reader) throws MalformedFrameException {
+        return new UserDTO(reader.readString(), reader.readString());
+    }
+
+    private static List<UserDTO> readUsers(BinaryReader reader) throws MalformedFrameException {
+        int count = reader.readCount();
+
+        List<UserDTO> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(readUser(reader));
+        }
+
+        return users;
+    }
+
+    private static List<String> readStrings(BinaryReader reader) throws MalformedFrameException {
+        int count = reader.readCount();
+
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(reader.readString());
+        }
+
+        return values;
+    }
+
+    private static List<Message> readMessages(BinaryReader reader) throws MalformedFrameException {
+        int count = reader.readCount();
+
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User sender = new User(null, null, reader.readString(), null);
+            messages.add(new Message(sender, reader.readString()));
+        }
+
+        return messages;
+    }
+
+    private static List<Notification> readNotifications(BinaryReader reader) throws MalformedFrameException {
+        int count = reader.readCount();
+
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int type = reader.readByte();
+            if (type >= NOTIFICATION_TYPES.length) {
+                throw new MalformedFrameException("Unknown notification type " + type);
+            }
+
+            notifications.add(new Notification(null, NOTIFICATION_TYPES[type], reader.readString()));
+        }
+
+        return notifications;
+    }
+
+}
@@ -0,0 +1,85 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class BinaryReader {
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int MAX_VARINT_SHIFT = 28;
+    private static final int UNSIGNED_BYTE_MASK = 0xFF;
+
+    private final ByteBuffer buffer;
+
+    BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() throws MalformedFrameException {
+        ensureRemaining(1);
+
+        return buffer.get() & UNSIGNED_BYTE_MASK;
+    }
+
+    int readVarint() throws MalformedFrameException {
+        int value = 0;
+
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int current = readByte();
+            value |= (current & VARINT_PAYLOAD_MASK) << shift;
+
+            if ((current & VARINT_CONTINUATION_BIT) == 0) {
+                if (value < 0) {
+                    throw new MalformedFrameException("Varint is out of range");
+                }
+
+                return value;
+            }
+        }
+
+        throw new MalformedFrameException("Varint is too long");
+    }
+
+    int readCount() throws MalformedFrameException {
+        int count = readVarint();
+        ensureRemaining(count);
+
+        return count;
+    }
+
+    String readString() throws MalformedFrameException {
+        int length = readVarint();
+        ensureRemaining(length);
+
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        buffer.position(buffer.position() + length);
+
+        return value;
+    }
+
+    void ensureFullyRead() throws MalformedFrameException {
+        if (buffer.hasRemaining()) {
+            throw new MalformedFrameException(buffer.remaining() + " unexpected trailing bytes");
+        }
+    }
+
+    private void ensureRemaining(int count) throws MalformedFrameException {
+        if (buffer.remaining() < count) {
+            throw new MalformedFrameException("Payload ended unexpectedly");
+        }
+    }
+
+}
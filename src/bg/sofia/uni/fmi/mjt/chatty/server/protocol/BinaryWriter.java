@@ -0,0 +1,72 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+final class BinaryWriter {
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private byte[] bytes;
+    private int position;
+
+    BinaryWriter(int initialCapacity) {
+        this.bytes = new byte[Frames.LENGTH_FIELD_SIZE + initialCapacity];
+        this.position = Frames.LENGTH_FIELD_SIZE;
+    }
+
+    BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        bytes[position++] = (byte) value;
+
+        return this;
+    }
+
+    BinaryWriter writeVarint(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint value must not be negative");
+        }
+
+        ensureCapacity(MAX_VARINT_BYTES);
+
+        while ((value & ~VARINT_PAYLOAD_MASK) != 0) {
+            bytes[position++] = (byte) ((value & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            value >>>= VARINT_PAYLOAD_BITS;
+        }
+
+        bytes[position++] = (byte) value;
+
+        return this;
+    }
+
+    BinaryWriter writeString(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarint(encoded.length);
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, bytes, position, encoded.length);
+        position += encoded.length;
+
+        return this;
+    }
+
+    ByteBuffer toFrame() {
+        ByteBuffer frame = ByteBuffer.wrap(bytes, 0, position).slice();
+        frame.putInt(0, position - Frames.LENGTH_FIELD_SIZE);
+
+        return frame;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, position + extra));
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public enum Compression {
+
+    NONE("none"),
+    DEFLATE("deflate");
+
+    private final String value;
+
+    Compression(String value) {
+        this.value = value;
+    }
+
+    public String toString() {
+        return value;
+    }
+
+    public static Compression of(String value) {
+        Guard.isNotNull(value);
+
+        for (Compression compression : values()) {
+            if (compression.value.equals(value)) {
+                return compression;
+            }
+        }
+
+        return NONE;
+    }
+
+}
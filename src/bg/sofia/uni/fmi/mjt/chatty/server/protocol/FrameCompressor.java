@@ -0,0 +1,144 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class FrameCompressor {
+
+    public static final int COMPRESSED_FLAG = 1 << 30;
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private static final int HEADER_SIZE = Frames.LENGTH_FIELD_SIZE + Integer.BYTES;
+    private static final int MIN_OUTPUT_CAPACITY = 256;
+
+    private final int threshold;
+
+    private Deflater deflater;
+    private Inflater inflater;
+    private boolean isReleased;
+
+    public FrameCompressor() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public FrameCompressor(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+
+        this.threshold = threshold;
+    }
+
+    public static boolean isCompressed(int lengthField) {
+        return (lengthField & COMPRESSED_FLAG) != 0;
+    }
+
+    public static int payloadLength(int lengthField) {
+        return lengthField & ~COMPRESSED_FLAG;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public synchronized ByteBuffer compress(ByteBuffer frame) {
+        int length = frame.remaining() - Frames.LENGTH_FIELD_SIZE;
+        if (length < threshold || isReleased) {
+            return frame;
+        }
+
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+
+        deflater.reset();
+        deflater.setInput(frame.slice(frame.position() + Frames.LENGTH_FIELD_SIZE, length));
+        deflater.finish();
+
+        ByteBuffer output = ByteBuffer.allocate(HEADER_SIZE + Math.max(MIN_OUTPUT_CAPACITY, length / 2));
+        output.position(HEADER_SIZE);
+
+        while (!deflater.finished()) {
+            if (!output.hasRemaining()) {
+                if (output.capacity() >= frame.remaining()) {
+                    return frame;
+                }
+
+                output = ByteBuffer.allocate(Math.min(2 * output.capacity(), frame.remaining()))
+                        .put(output.flip());
+            }
+
+            deflater.deflate(output);
+        }
+
+        int compressedLength = output.position() - Frames.LENGTH_FIELD_SIZE;
+        if (output.position() >= frame.remaining()) {
+            return frame;
+        }
+
+        int continuation = frame.getInt(frame.position()) & Frames.CONTINUATION_FLAG;
+        output.putInt(0, compressedLength | COMPRESSED_FLAG | continuation);
+        output.putInt(Frames.LENGTH_FIELD_SIZE, length);
+
+        return output.flip();
+    }
+
+    public synchronized ByteBuffer decompress(ByteBuffer payload) throws MalformedFrameException {
+        if (payload.remaining() < Integer.BYTES) {
+            throw new MalformedFrameException("Compressed frame is missing its length");
+        }
+
+        int length = payload.getInt();
+        Frames.ensureValidLength(length);
+
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+
+        inflater.reset();
+        inflater.setInput(payload);
+
+        byte[] output = new byte[length + 1];
+        int inflated = 0;
+
+        try {
+            while (inflated < output.length && !inflater.finished()) {
+                int count = inflater.inflate(output, inflated, output.length - inflated);
+
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                inflated += count;
+            }
+        } catch (DataFormatException e) {
+            throw new MalformedFrameException("Compressed frame is corrupted", e);
+        }
+
+        if (inflated != length || !inflater.finished()) {
+            throw new MalformedFrameException("Compressed frame does not match its length " + length);
+        }
+
+        return ByteBuffer.wrap(output, 0, length);
+    }
+
+    public synchronized void release() {
+        isReleased = true;
+
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+
+}
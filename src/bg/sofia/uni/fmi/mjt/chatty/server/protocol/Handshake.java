@@ -0,0 +1,44 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public record Handshake(Protocol protocol, Compression compression) {
+
+    private static final String COMMAND = "protocol";
+    private static final String SEPARATOR = " ";
+
+    public Handshake {
+        Guard.isNotNull(protocol);
+        Guard.isNotNull(compression);
+    }
+
+    public static boolean isHandshake(String frame) {
+        Guard.isNotNull(frame);
+
+        return frame.startsWith(COMMAND + SEPARATOR);
+    }
+
+    public static Handshake parse(String frame) {
+        Guard.isNotNull(frame);
+
+        String[] tokens = frame.split(SEPARATOR);
+        if (!COMMAND.equals(tokens[0])) {
+            return null;
+        }
+
+        Protocol protocol = tokens.length > 1 ? Protocol.of(tokens[1]) : Protocol.TEXT;
+        Compression compression = tokens.length > 2 ? Compression.of(tokens[2]) : Compression.NONE;
+
+        return new Handshake(protocol, compression);
+    }
+
+    @Override
+    public String toString() {
+        if (compression == Compression.NONE) {
+            return COMMAND + SEPARATOR + protocol;
+        }
+
+        return COMMAND + SEPARATOR + protocol + SEPARATOR + compression;
+    }
+
+}
@@ -0,0 +1,82 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.network.FrameSource;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.FrameWriter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+final class JsonFrameSource implements FrameSource {
+
+    private final Gson gson;
+    private final FrameWriter frames;
+    private final JsonWriter json;
+
+    private final Step header;
+    private final Iterator<?> elements;
+    private final Class<?> elementType;
+    private final Step trailer;
+
+    private boolean isStarted;
+    private boolean isFinished;
+
+    JsonFrameSource(Gson gson, int chunkSize, Step header, Collection<?> elements, Class<?> elementType,
+                    Step trailer) {
+        this.gson = gson;
+        this.frames = new FrameWriter(chunkSize);
+        this.json = newJsonWriter(gson, frames);
+
+        this.header = header;
+        this.elements = elements == null ? Collections.emptyIterator() : elements.iterator();
+        this.elementType = elementType;
+        this.trailer = trailer;
+    }
+
+    @Override
+    public ByteBuffer next() {
+        try {
+            while (!frames.hasFrames() && !isFinished) {
+                writeStep();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return frames.poll();
+    }
+
+    private void writeStep() throws IOException {
+        if (!isStarted) {
+            isStarted = true;
+            header.writeTo(json);
+        } else if (elements.hasNext()) {
+            gson.toJson(elements.next(), elementType, json);
+        } else {
+            isFinished = true;
+            trailer.writeTo(json);
+            json.close();
+        }
+    }
+
+    private static JsonWriter newJsonWriter(Gson gson, FrameWriter frames) {
+        try {
+            return gson.newJsonWriter(frames);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface Step {
+
+        void writeTo(JsonWriter json) throws IOException;
+
+    }
+
+}
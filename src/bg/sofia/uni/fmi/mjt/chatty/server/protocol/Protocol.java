@@ -0,0 +1,32 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public enum Protocol {
+
+    TEXT("text"),
+    BINARY("binary");
+
+    private final String value;
+
+    Protocol(String value) {
+        this.value = value;
+    }
+
+    public String toString() {
+        return value;
+    }
+
+    public static Protocol of(String value) {
+        Guard.isNotNull(value);
+
+        for (Protocol protocol : values()) {
+            if (protocol.value.equals(value)) {
+                return protocol;
+            }
+        }
+
+        return TEXT;
+    }
+
+}
@@ -0,0 +1,173 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.FrameSource;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class TextCodec {
+
+    private static final String USER_ID_FIELD = "id";
+    private static final Gson GSON = new GsonBuilder()
+            .addSerializationExclusionStrategy(new UserIdExclusionStrategy())
+            .create();
+    private static final String RATE_LIMITED_PREFIX = "Too many requests, retry after ";
+    private static final String RATE_LIMITED_SUFFIX = " ms";
+
+    private TextCodec() {
+    }
+
+    public static Command decodeCommand(String frame) {
+        return CommandCreator.newCommand(frame);
+    }
+
+    public static String encode(Response response) {
+        Guard.isNotNull(response);
+
+        return switch (response) {
+            case Response.Text text -> text.message();
+            case Response.Login login -> GSON.toJson(login.session());
+            case Response.Users users -> GSON.toJson(users.users());
+            case Response.PersonalHistory history -> GSON.toJson(history.chat());
+            case Response.GroupHistory history -> GSON.toJson(history.chat());
+            case Response.History history -> GSON.toJson(history.page());
+            case Response.Groups groups -> GSON.toJson(groups.names());
+            case Response.Notifications notifications -> GSON.toJson(notifications.notifications());
+            case Response.ChatMessage message -> "[" + message.sender() + "] " + message.text();
+            case Response.RateLimited limited -> RATE_LIMITED_PREFIX + limited.retryAfterMillis() + RATE_LIMITED_SUFFIX;
+        };
+    }
+
+    public static FrameSource stream(Response response, int chunkSize) {
+        Guard.isNotNull(response);
+
+        return switch (response) {
+            case Response.Login login -> new JsonFrameSource(GSON, chunkSize, json -> {
+                json.beginObject().name("user");
+                GSON.toJson(login.session().user(), UserDTO.class, json);
+                json.name("notifications").beginArray();
+            }, login.session().notifications(), Notification.class, json -> json.endArray().endObject());
+            case Response.Users users -> new JsonFrameSource(GSON, chunkSize, JsonWriter::beginArray,
+                    users.users(), UserDTO.class, JsonWriter::endArray);
+            case Response.PersonalHistory history -> new JsonFrameSource(GSON, chunkSize,
+                    json -> json.beginObject().name("friend").value(history.chat().friend())
+                            .name("messages").beginArray(),
+                    history.chat().messages(), Message.class,
+                    json -> json.endArray().name("cursor").value(history.chat().cursor()).endObject());
+            case Response.GroupHistory history -> new JsonFrameSource(GSON, chunkSize, json -> {
+                json.beginObject().name("name").value(history.chat().name()).name("users");
+                GSON.toJson(history.chat().users(), String[].class, json);
+                json.name("messages").beginArray();
+            }, history.chat().messages(), Message.class,
+                    json -> json.endArray().name("cursor").value(history.chat().cursor()).endObject());
+            case Response.History history -> new JsonFrameSource(GSON, chunkSize,
+                    json -> json.beginObject().name("messages").beginArray(),
+                    history.page().messages(), Message.class,
+                    json -> json.endArray().name("cursor").value(history.page().cursor()).endObject());
+            case Response.Groups groups -> new JsonFrameSource(GSON, chunkSize, JsonWriter::beginArray,
+                    groups.names(), String.class, JsonWriter::endArray);
+            case Response.Notifications notifications -> new JsonFrameSource(GSON, chunkSize, JsonWriter::beginArray,
+                    notifications.notifications(), Notification.class, JsonWriter::endArray);
+            case Response.Text text -> FrameSource.of(Frames.encode(encode(text)));
+            case Response.ChatMessage message -> FrameSource.of(Frames.encode(encode(message)));
+            case Response.RateLimited limited -> FrameSource.of(Frames.encode(encode(limited)));
+        };
+    }
+
+    public static Response decodeResponse(CommandType type, String frame) {
+        Guard.isNotNull(type);
+        Guard.isNotNull(frame);
+
+        if (isRateLimited(frame)) {
+            return decodeRateLimited(frame);
+        }
+
+        try {
+            Response response = switch (type) {
+                case LOGIN -> new Response.Login(GSON.fromJson(frame, SessionDTO.class));
+                case CHECK_REQUESTS, LIST_FRIENDS, LIST_BLOCKED ->
+                        new Response.Users(listFromJson(frame, UserDTO[].class));
+                case OPEN_CHAT -> new Response.PersonalHistory(GSON.fromJson(frame, PersonalChatDTO.class));
+                case OPEN_GROUP -> new Response.GroupHistory(GSON.fromJson(frame, GroupChatDTO.class));
+                case HISTORY -> new Response.History(GSON.fromJson(frame, HistoryDTO.class));
+                case LIST_GROUPS -> new Response.Groups(listFromJson(frame, String[].class));
+                case CHECK_INBOX -> new Response.Notifications(listFromJson(frame, Notification[].class));
+                default -> Response.text(frame);
+            };
+
+            return isComplete(response) ? response : Response.text(frame);
+        } catch (JsonParseException e) {
+            return Response.text(frame);
+        }
+    }
+
+    public static boolean isRateLimited(String frame) {
+        Guard.isNotNull(frame);
+
+        return frame.startsWith(RATE_LIMITED_PREFIX) && frame.endsWith(RATE_LIMITED_SUFFIX);
+    }
+
+    private static Response decodeRateLimited(String frame) {
+        try {
+            return new Response.RateLimited(Long.parseLong(
+                    frame.substring(RATE_LIMITED_PREFIX.length(), frame.length() - RATE_LIMITED_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return Response.text(frame);
+        }
+    }
+
+    private static boolean isComplete(Response response) {
+        return switch (response) {
+            case Response.Login login -> login.session() != null && login.session().user() != null
+                    && login.session().notifications() != null;
+            case Response.Users users -> users.users() != null;
+            case Response.Groups groups -> groups.names() != null;
+            case Response.Notifications notifications -> notifications.notifications() != null;
+            case Response.PersonalHistory history -> history.chat() != null && history.chat().messages() != null;
+            case Response.GroupHistory history -> history.chat() != null && history.chat().messages() != null;
+            case Response.History history -> history.page() != null && history.page().messages() != null;
+            default -> true;
+        };
+    }
+
+    private static <T> List<T> listFromJson(String frame, Class<T[]> type) {
+        T[] values = GSON.fromJson(frame, type);
+
+        return values == null ? null : Arrays.asList(values);
+    }
+
+    private static final class UserIdExclusionStrategy implements ExclusionStrategy {
+
+        @Override
+        public boolean shouldSkipField(FieldAttributes field) {
+            return field.getDeclaringClass() == User.class && field.getName().equals(USER_ID_FIELD);
+        }
+
+        @Override
+        public boolean shouldSkipClass(Class<?> type) {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public record RateLimitPolicy(int connectionRate, int connectionBurst, int userRate, int userBurst,
+                              int heavyCommandCost) {
+
+    public static final int CHEAP_COMMAND_COST = 1;
+
+    public RateLimitPolicy {
+        if (connectionRate < 0 || userRate < 0) {
+            throw new IllegalArgumentException("Rates must not be negative");
+        }
+
+        if (heavyCommandCost < CHEAP_COMMAND_COST) {
+            throw new IllegalArgumentException("Heavy command cost must be at least " + CHEAP_COMMAND_COST);
+        }
+
+        if (connectionBurst < heavyCommandCost || userBurst < heavyCommandCost) {
+            throw new IllegalArgumentException("Bursts must fit at least one heavy command");
+        }
+    }
+
+    public static RateLimitPolicy disabled() {
+        return new RateLimitPolicy(0, CHEAP_COMMAND_COST, 0, CHEAP_COMMAND_COST, CHEAP_COMMAND_COST);
+    }
+
+    public boolean isEnabled() {
+        return isConnectionLimited() || isUserLimited();
+    }
+
+    public boolean isConnectionLimited() {
+        return connectionRate > 0;
+    }
+
+    public boolean isUserLimited() {
+        return userRate > 0;
+    }
+
+    public int costOf(CommandType type) {
+        Guard.isNotNull(type);
+
+        return isHeavy(type) ? heavyCommandCost : CHEAP_COMMAND_COST;
+    }
+
+    private static boolean isHeavy(CommandType type) {
+        return switch (type) {
+            case OPEN_CHAT, OPEN_GROUP, HISTORY -> true;
+            default -> !type.isReadOnly();
+        };
+    }
+
+}
@@ -0,0 +1,8 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+public enum RateLimitScope {
+
+    CONNECTION,
+    USER
+
+}
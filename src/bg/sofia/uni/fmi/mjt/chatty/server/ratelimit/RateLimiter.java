@@ -0,0 +1,90 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.RateLimitMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+public class RateLimiter {
+
+    private final RateLimitPolicy policy;
+    private final RateLimitMetrics metrics;
+    private final LongSupplier clock;
+
+    private final Map<String, TokenBucket> userBuckets;
+
+    public RateLimiter(RateLimitPolicy policy, RateLimitMetrics metrics) {
+        this(policy, metrics, System::nanoTime);
+    }
+
+    public RateLimiter(RateLimitPolicy policy, RateLimitMetrics metrics, LongSupplier clock) {
+        Guard.isNotNull(policy);
+        Guard.isNotNull(metrics);
+        Guard.isNotNull(clock);
+
+        this.policy = policy;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.userBuckets = new ConcurrentHashMap<>();
+    }
+
+    public long acquire(Session session, CommandType type) {
+        Guard.isNotNull(session);
+        Guard.isNotNull(type);
+
+        if (!policy.isEnabled()) {
+            return 0;
+        }
+
+        int cost = policy.costOf(type);
+        long now = clock.getAsLong();
+
+        TokenBucket connectionBucket = connectionBucketOf(session, now);
+        long wait = connectionBucket == null ? 0 : connectionBucket.tryAcquire(cost, now);
+        if (wait > 0) {
+            metrics.record(type, RateLimitScope.CONNECTION);
+            return wait;
+        }
+
+        TokenBucket userBucket = userBucketOf(session.getUser(), now);
+        wait = userBucket == null ? 0 : userBucket.tryAcquire(cost, now);
+        if (wait > 0) {
+            if (connectionBucket != null) {
+                connectionBucket.refund(cost);
+            }
+
+            metrics.record(type, RateLimitScope.USER);
+        }
+
+        return wait;
+    }
+
+    private TokenBucket connectionBucketOf(Session session, long now) {
+        if (!policy.isConnectionLimited()) {
+            return null;
+        }
+
+        TokenBucket bucket = session.getTokenBucket();
+        if (bucket == null) {
+            bucket = new TokenBucket(policy.connectionBurst(), policy.connectionRate(), now);
+            session.useTokenBucket(bucket);
+        }
+
+        return bucket;
+    }
+
+    private TokenBucket userBucketOf(User user, long now) {
+        if (!policy.isUserLimited() || user == null) {
+            return null;
+        }
+
+        return userBuckets.computeIfAbsent(user.username(),
+                username -> new TokenBucket(policy.userBurst(), policy.userRate(), now));
+    }
+
+}
@@ -0,0 +1,64 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, int tokensPerSecond, long nanoTime) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefill = nanoTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized double getTokens(long nanoTime) {
+        refill(nanoTime);
+        return tokens;
+    }
+
+    public synchronized long tryAcquire(int cost, long nanoTime) {
+        if (cost <= 0 || cost > capacity) {
+            throw new IllegalArgumentException("Cost must be between 1 and " + capacity);
+        }
+
+        refill(nanoTime);
+
+        if (tokens >= cost) {
+            tokens -= cost;
+            return 0;
+        }
+
+        return Math.max(1, (long) Math.ceil((cost - tokens) / tokensPerNano));
+    }
+
+    public synchronized void refund(int cost) {
+        tokens = Math.min(capacity, tokens + cost);
+    }
+
+    private void refill(long nanoTime) {
+        long elapsed = nanoTime - lastRefill;
+        if (elapsed <= 0) {
+            return;
+        }
+
+        tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+        lastRefill = nanoTime;
+    }
+
+}
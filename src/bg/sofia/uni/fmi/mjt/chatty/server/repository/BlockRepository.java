@@ -18,7 +18,7 @@ public class BlockRepository extends Repository<Block> {
         super(stream);
     }
 
-    public static BlockRepository getInstance() {
+    public static synchronized BlockRepository getInstance() {
         if (instance == null) {
             instance = new BlockRepository(DB_PATH);
         }
@@ -26,7 +26,7 @@ public class BlockRepository extends Repository<Block> {
         return instance;
     }
 
-    public static BlockRepository getInstance(InputStream stream) {
+    public static synchronized BlockRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new BlockRepository(stream);
         }
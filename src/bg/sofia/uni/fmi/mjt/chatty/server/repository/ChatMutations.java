@@ -0,0 +1,59 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Chat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public final class ChatMutations {
+
+    private ChatMutations() {
+    }
+
+    public static Mutation<Chat> addMessage(Message message) {
+        Guard.isNotNull(message);
+
+        return new AddMessage(message);
+    }
+
+    public static Mutation<GroupChat> addUser(User user) {
+        Guard.isNotNull(user);
+
+        return new AddUser(user);
+    }
+
+    public static Mutation<GroupChat> removeUser(User user) {
+        Guard.isNotNull(user);
+
+        return new RemoveUser(user);
+    }
+
+    private record AddMessage(Message message) implements Mutation<Chat> {
+
+        @Override
+        public void applyTo(Chat chat) {
+            chat.addMessage(message);
+        }
+
+    }
+
+    private record AddUser(User user) implements Mutation<GroupChat> {
+
+        @Override
+        public void applyTo(GroupChat chat) {
+            chat.addUser(user);
+        }
+
+    }
+
+    private record RemoveUser(User user) implements Mutation<GroupChat> {
+
+        @Override
+        public void applyTo(GroupChat chat) {
+            chat.removeUser(user);
+        }
+
+    }
+
+}
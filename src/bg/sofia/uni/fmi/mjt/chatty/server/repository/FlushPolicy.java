@@ -0,0 +1,30 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.time.Duration;
+
+public record FlushPolicy(Duration interval, int batchSize, Durability durability) {
+
+    public FlushPolicy {
+        Guard.isNotNull(interval);
+        Guard.isNotNull(durability);
+
+        if (interval.isNegative()) {
+            throw new IllegalArgumentException("Flush interval must not be negative");
+        }
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+    }
+
+    public boolean isEnabled() {
+        return !interval.isZero();
+    }
+
+    public boolean isSynchronous() {
+        return durability.equals(Durability.SYNC);
+    }
+
+}
@@ -0,0 +1,217 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class Flusher {
+
+    private static Flusher instance;
+
+    private final Lock lock;
+    private final Condition flushRequested;
+    private final Condition flushCompleted;
+    private final Set<Repository<?>> dirty;
+    private final ThreadLocal<Set<Repository<?>>> deferred;
+
+    private FlushPolicy policy;
+    private Thread thread;
+    private long pendingMutations;
+    private long markedMutations;
+    private long flushedMutations;
+
+    Flusher() {
+        this.lock = new ReentrantLock();
+        this.flushRequested = lock.newCondition();
+        this.flushCompleted = lock.newCondition();
+        this.dirty = new LinkedHashSet<>();
+        this.deferred = new ThreadLocal<>();
+    }
+
+    public static synchronized Flusher getInstance() {
+        if (instance == null) {
+            instance = new Flusher();
+        }
+
+        return instance;
+    }
+
+    public void start(FlushPolicy policy) {
+        Guard.isNotNull(policy);
+
+        lock.lock();
+        try {
+            if (thread != null) {
+                throw new IllegalStateException("Flusher is already started");
+            }
+
+            if (!policy.isEnabled()) {
+                return;
+            }
+
+            this.policy = policy;
+            thread = Thread.ofPlatform()
+                    .name("chatty-flusher")
+                    .daemon(true)
+                    .start(this::run);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        Thread current;
+
+        lock.lock();
+        try {
+            current = thread;
+            thread = null;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void awaitFlush() {
+        lock.lock();
+        try {
+            if (thread == null || !policy.isSynchronous()) {
+                return;
+            }
+
+            long checkpoint = markedMutations;
+
+            while (flushedMutations < checkpoint) {
+                flushCompleted.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deferFlushes() {
+        deferred.set(new LinkedHashSet<>());
+    }
+
+    public void flushDeferred() {
+        Set<Repository<?>> batch = deferred.get();
+        deferred.remove();
+
+        if (batch != null) {
+            flush(List.copyOf(batch), Durability.ASYNC);
+        }
+    }
+
+    boolean markDirty(Repository<?> repository) {
+        lock.lock();
+        try {
+            if (thread == null) {
+                return defer(repository);
+            }
+
+            boolean wasClean = dirty.isEmpty();
+
+            dirty.add(repository);
+            markedMutations++;
+            pendingMutations++;
+
+            if (wasClean || pendingMutations >= policy.batchSize()) {
+                flushRequested.signal();
+            }
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        boolean isRunning = true;
+
+        while (isRunning) {
+            List<Repository<?>> batch;
+            Durability durability;
+            long checkpoint;
+
+            lock.lock();
+            try {
+                while (thread != null && dirty.isEmpty()) {
+                    flushRequested.awaitUninterruptibly();
+                }
+
+                awaitBatch();
+
+                batch = List.copyOf(dirty);
+                durability = policy.durability();
+                checkpoint = markedMutations;
+                isRunning = thread != null || !batch.isEmpty();
+
+                dirty.clear();
+                pendingMutations = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            flush(batch, durability);
+
+            lock.lock();
+            try {
+                flushedMutations = checkpoint;
+                flushCompleted.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void awaitBatch() {
+        long deadline = System.nanoTime() + policy.interval().toNanos();
+        long remaining = deadline - System.nanoTime();
+
+        try {
+            while (thread != null && pendingMutations < policy.batchSize() && remaining > 0) {
+                remaining = flushRequested.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean defer(Repository<?> repository) {
+        Set<Repository<?>> pending = deferred.get();
+        if (pending == null) {
+            return false;
+        }
+
+        pending.add(repository);
+
+        return true;
+    }
+
+    private void flush(List<Repository<?>> batch, Durability durability) {
+        for (Repository<?> repository : batch) {
+            try {
+                repository.flush(durability);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error occurred while flushing repository: " + e.getMessage());
+            }
+        }
+    }
+
+}
@@ -18,7 +18,7 @@ public class FriendRequestRepository extends Repository<FriendRequest> {
         super(stream);
     }
 
-    public static FriendRequestRepository getInstance() {
+    public static synchronized FriendRequestRepository getInstance() {
         if (instance == null) {
             instance = new FriendRequestRepository(DB_PATH);
         }
@@ -26,7 +26,7 @@ public class FriendRequestRepository extends Repository<FriendRequest> {
         return instance;
     }
 
-    public static FriendRequestRepository getInstance(InputStream stream) {
+    public static synchronized FriendRequestRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new FriendRequestRepository(stream);
         }
@@ -1,8 +1,12 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Friendship;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
 
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.stream.Collectors;
 
 public class FriendshipRepository extends Repository<Friendship> {
 
@@ -11,14 +15,14 @@ public class FriendshipRepository extends Repository<Friendship> {
     private static FriendshipRepository instance;
 
     private FriendshipRepository(String path) {
-        super(path);
+        super(path, FriendshipRepository::keyOf);
     }
 
     private FriendshipRepository(InputStream stream) {
-        super(stream);
+        super(stream, FriendshipRepository::keyOf);
     }
 
-    public static FriendshipRepository getInstance() {
+    public static synchronized FriendshipRepository getInstance() {
         if (instance == null) {
             instance = new FriendshipRepository(DB_PATH);
         }
@@ -26,7 +30,7 @@ public class FriendshipRepository extends Repository<Friendship> {
         return instance;
     }
 
-    public static FriendshipRepository getInstance(InputStream stream) {
+    public static synchronized FriendshipRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new FriendshipRepository(stream);
         }
@@ -34,4 +38,10 @@ public class FriendshipRepository extends Repository<Friendship> {
         return instance;
     }
 
+    private static Serializable keyOf(Friendship value) {
+        return value.getUsers().stream()
+                .map(User::username)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
 }
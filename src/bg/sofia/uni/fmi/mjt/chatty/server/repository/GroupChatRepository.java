@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
 
 import java.io.InputStream;
+import java.io.Serializable;
 
 public class GroupChatRepository extends Repository<GroupChat> {
 
@@ -11,14 +12,14 @@ public class GroupChatRepository extends Repository<GroupChat> {
     private static GroupChatRepository instance;
 
     private GroupChatRepository(String path) {
-        super(path);
+        super(path, GroupChatRepository::keyOf);
     }
 
     private GroupChatRepository(InputStream stream) {
-        super(stream);
+        super(stream, GroupChatRepository::keyOf);
     }
 
-    public static GroupChatRepository getInstance() {
+    public static synchronized GroupChatRepository getInstance() {
         if (instance == null) {
             instance = new GroupChatRepository(DB_PATH);
         }
@@ -26,7 +27,7 @@ public class GroupChatRepository extends Repository<GroupChat> {
         return instance;
     }
 
-    public static GroupChatRepository getInstance(InputStream stream) {
+    public static synchronized GroupChatRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new GroupChatRepository(stream);
         }
@@ -34,4 +35,8 @@ public class GroupChatRepository extends Repository<GroupChat> {
         return instance;
     }
 
+    private static Serializable keyOf(GroupChat value) {
+        return value.getName();
+    }
+
 }
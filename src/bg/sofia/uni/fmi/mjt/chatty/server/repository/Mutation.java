@@ -0,0 +1,11 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Entity;
+
+import java.io.Serializable;
+
+public interface Mutation<T extends Entity> extends Serializable {
+
+    void applyTo(T entity);
+
+}
@@ -18,7 +18,7 @@ public class NotificationRepository extends Repository<Notification> {
         super(stream);
     }
 
-    public static NotificationRepository getInstance() {
+    public static synchronized NotificationRepository getInstance() {
         if (instance == null) {
             instance = new NotificationRepository(DB_PATH);
         }
@@ -26,7 +26,7 @@ public class NotificationRepository extends Repository<Notification> {
         return instance;
     }
 
-    public static NotificationRepository getInstance(InputStream stream) {
+    public static synchronized NotificationRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new NotificationRepository(stream);
         }
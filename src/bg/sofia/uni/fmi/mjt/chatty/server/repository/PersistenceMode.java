@@ -0,0 +1,8 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+public enum PersistenceMode {
+
+    SNAPSHOT,
+    WAL
+
+}
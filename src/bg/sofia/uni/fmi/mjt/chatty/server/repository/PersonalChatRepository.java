@@ -1,8 +1,12 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
 
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.stream.Collectors;
 
 public class PersonalChatRepository extends Repository<PersonalChat> {
 
@@ -11,14 +15,14 @@ public class PersonalChatRepository extends Repository<PersonalChat> {
     private static PersonalChatRepository instance;
 
     private PersonalChatRepository(String path) {
-        super(path);
+        super(path, PersonalChatRepository::keyOf);
     }
 
     private PersonalChatRepository(InputStream stream) {
-        super(stream);
+        super(stream, PersonalChatRepository::keyOf);
     }
 
-    public static PersonalChatRepository getInstance() {
+    public static synchronized PersonalChatRepository getInstance() {
         if (instance == null) {
             instance = new PersonalChatRepository(DB_PATH);
         }
@@ -26,7 +30,7 @@ public class PersonalChatRepository extends Repository<PersonalChat> {
         return instance;
     }
 
-    public static PersonalChatRepository getInstance(InputStream stream) {
+    public static synchronized PersonalChatRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new PersonalChatRepository(stream);
         }
@@ -34,4 +38,10 @@ public class PersonalChatRepository extends Repository<PersonalChat> {
         return instance;
     }
 
+    private static Serializable keyOf(PersonalChat value) {
+        return value.getUsers().stream()
+                .map(User::username)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
 }
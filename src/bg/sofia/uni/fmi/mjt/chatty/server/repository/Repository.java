@@ -1,8 +1,19 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
+import bg.sofia.uni.fmi.mjt.chatty.server.jfr.RepositoryLoadEvent;
+import bg.sofia.uni.fmi.mjt.chatty.server.jfr.RepositorySaveEvent;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.PersistenceTimer;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Entity;
-
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.WriteAheadLog.LogRecord;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.WriteAheadLog.RecordType;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.codec.EntityCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.codec.StorageFormat;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -10,39 +21,118 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public abstract class Repository<T extends Entity> implements RepositoryAPI<T> {
 
     private static final String BASE_PATH = "./src/bg/sofia/uni/fmi/mjt/chatty/server/db/";
+    private static final String LOG_EXTENSION = ".wal";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final int FIRST_ID = 1;
+
+    private static volatile PersistenceMode persistenceMode = PersistenceMode.SNAPSHOT;
+
     private String dbPath;
+    private String name;
+    private WriteAheadLog log;
+    private boolean isRegistered;
+    private volatile long snapshotSequence;
+
+    private final Object snapshotLock = new Object();
+    private final ReadWriteLock entitiesLock = new ReentrantReadWriteLock();
+    private final Lock readLock = entitiesLock.readLock();
+    private final Lock mutationLock = entitiesLock.writeLock();
+    private final Function<T, Serializable> keyFunction;
+    private final AtomicInteger nextId = new AtomicInteger(FIRST_ID);
 
     protected Collection<T> entities;
 
-    private Repository() {
+    private Repository(Function<T, Serializable> keyFunction) {
+        Guard.isNotNull(keyFunction);
+
+        this.keyFunction = keyFunction;
         entities = new LinkedHashSet<>();
     }
 
     public Repository(String path) {
-        this();
+        this(path, value -> value);
+    }
+
+    protected Repository(String path, Function<T, Serializable> keyFunction) {
+        this(Path.of(BASE_PATH + path), persistenceMode, keyFunction);
+    }
+
+    protected Repository(Path file, PersistenceMode mode) {
+        this(file, mode, value -> value);
+    }
+
+    protected Repository(Path file, PersistenceMode mode, Function<T, Serializable> keyFunction) {
+        this(keyFunction);
+
+        Guard.isNotNull(file);
+        Guard.isNotNull(mode);
 
-        dbPath = BASE_PATH + path;
+        dbPath = file.toString();
+        name = file.getFileName().toString();
 
-        try (var fileStream = new FileInputStream(dbPath)) {
-            readEntities(fileStream);
+        RepositoryLoadEvent event = new RepositoryLoadEvent();
+        event.begin();
+
+        StorageFormat format;
+
+        try (var fileStream = new FileInputStream(dbPath); var input = new BufferedInputStream(fileStream)) {
+            long bytes = fileStream.getChannel().size();
+            format = StorageFormat.of(input);
+
+            snapshotSequence = restore(readEntities(input, entities));
+            event.complete(name, entities.size(), bytes);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+
+        if (format == StorageFormat.SERIALIZED) {
+            migrate();
+        }
+
+        openLog(mode);
     }
 
     public Repository(InputStream stream) {
-        this();
+        this(stream, value -> value);
+    }
+
+    protected Repository(InputStream stream, Function<T, Serializable> keyFunction) {
+        this(keyFunction);
+
+        snapshotSequence = restore(readEntities(stream, entities));
+    }
+
+    public static PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public static void usePersistenceMode(PersistenceMode mode) {
+        Guard.isNotNull(mode);
 
-        readEntities(stream);
+        persistenceMode = mode;
     }
 
     @Override
@@ -51,14 +141,24 @@ public abstract class Repository<T extends Entity> implements RepositoryAPI<T> {
             throw new IllegalArgumentException("Value is null");
         }
 
-        entities.add(value);
+        mutationLock.lock();
+        try {
+            entities.add(value);
 
-        saveEntities();
+            persist(RecordType.ADD, value);
+        } finally {
+            mutationLock.unlock();
+        }
     }
 
     @Override
-    public synchronized Collection<T> getAll() {
-        return Collections.unmodifiableCollection(entities);
+    public Collection<T> getAll() {
+        readLock.lock();
+        try {
+            return List.copyOf(entities);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
@@ -67,9 +167,14 @@ public abstract class Repository<T extends Entity> implements RepositoryAPI<T> {
             throw new IllegalArgumentException("Criteria is null");
         }
 
-        return entities.stream()
-                .filter(criteria)
-                .collect(Collectors.toSet());
+        readLock.lock();
+        try {
+            return entities.stream()
+                    .filter(criteria)
+                    .collect(Collectors.toSet());
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
@@ -78,7 +183,12 @@ public abstract class Repository<T extends Entity> implements RepositoryAPI<T> {
             throw new IllegalArgumentException("Criteria is null");
         }
 
-        return entities.stream().anyMatch(criteria);
+        readLock.lock();
+        try {
+            return entities.stream().anyMatch(criteria);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
@@ -87,66 +197,384 @@ public abstract class Repository<T extends Entity> implements RepositoryAPI<T> {
             throw new IllegalArgumentException("Element is null");
         }
 
-        return entities.contains(value);
+        readLock.lock();
+        try {
+            return entities.contains(value);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
-    public void remove(T value) throws ValueNotFoundException {
+    public void update(T value, Mutation<? super T> mutation) {
         if (value == null) {
             throw new IllegalArgumentException("Element is null");
         }
 
-        if (!entities.contains(value)) {
-            throw new ValueNotFoundException("Value not found");
+        if (mutation == null) {
+            throw new IllegalArgumentException("Mutation is null");
+        }
+
+        mutationLock.lock();
+        try {
+            mutation.applyTo(value);
+
+            persist(RecordType.UPDATE, keyOf(value), mutation);
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(T value) throws ValueNotFoundException {
+        if (value == null) {
+            throw new IllegalArgumentException("Element is null");
         }
 
-        entities.remove(value);
+        mutationLock.lock();
+        try {
+            if (!entities.remove(value)) {
+                throw new ValueNotFoundException("Value not found");
+            }
 
-        saveEntities();
+            persist(RecordType.REMOVE, keyOf(value));
+        } finally {
+            mutationLock.unlock();
+        }
     }
 
     @Override
     public void remove(Predicate<T> criteria) throws ValueNotFoundException {
-        if (!contains(criteria)) {
-            throw new ValueNotFoundException("Value not found");
+        if (criteria == null) {
+            throw new IllegalArgumentException("Criteria is null");
         }
 
-        entities.removeAll(entities.stream().filter(criteria).toList());
+        mutationLock.lock();
+        try {
+            List<T> removed = entities.stream().filter(criteria).toList();
+            if (removed.isEmpty()) {
+                throw new ValueNotFoundException("Value not found");
+            }
+
+            entities.removeAll(removed);
+
+            if (log == null) {
+                requestSave();
+                return;
+            }
+
+            for (T value : removed) {
+                append(RecordType.REMOVE, keyOf(value));
+            }
 
-        saveEntities();
+            requestFlush();
+        } finally {
+            mutationLock.unlock();
+        }
     }
 
     public void saveEntities() {
+        saveEntities(log != null);
+    }
+
+    private void saveEntities(boolean isDurable) {
         if (dbPath == null) {
             return;
         }
 
-        try (var stream = new ObjectOutputStream(new FileOutputStream(dbPath))) {
-            if (entities.isEmpty()) {
-                stream.flush();
+        long start = System.nanoTime();
+
+        readLock.lock();
+        try {
+            synchronized (snapshotLock) {
+                long sequence = log == null ? snapshotSequence : log.getLastSequence();
+
+                writeSnapshot(entities, sequence, isDurable || log != null);
+                snapshotSequence = sequence;
+
+                if (log != null) {
+                    log.truncate();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            readLock.unlock();
+            PersistenceTimer.add(System.nanoTime() - start);
+        }
+    }
+
+    boolean needsSnapshot(SnapshotPolicy policy) throws IOException {
+        return log != null && policy.isExceeded(log.size(), log.getRecordCount());
+    }
+
+    void flush(Durability durability) throws IOException {
+        if (log == null) {
+            saveEntities(durability == Durability.SYNC);
+        } else {
+            log.force();
+        }
+    }
+
+    void snapshot() throws IOException {
+        if (log == null) {
+            return;
+        }
+
+        synchronized (snapshotLock) {
+            long sequence = log.rotate();
+            if (sequence <= snapshotSequence) {
+                return;
+            }
+
+            Collection<T> state = new LinkedHashSet<>();
+            long baseSequence;
+
+            try (var fileStream = new FileInputStream(dbPath)) {
+                baseSequence = readEntities(fileStream, state).sequence();
+            }
+
+            WriteAheadLog.replaySealed(log.sealedSegments(), baseSequence, applyingTo(state));
+
+            writeSnapshot(state, sequence, true);
+            snapshotSequence = sequence;
+            log.deleteSealedSegments(sequence);
+        }
+    }
+
+    protected int assignId() {
+        return nextId.getAndIncrement();
+    }
+
+    protected void reserveId(int id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private Serializable keyOf(T value) {
+        return keyFunction.apply(value);
+    }
+
+    private void persist(RecordType type, Serializable... values) {
+        if (log == null) {
+            requestSave();
+            return;
+        }
+
+        append(type, values);
+        requestFlush();
+    }
+
+    private void requestSave() {
+        if (!Flusher.getInstance().markDirty(this)) {
+            saveEntities();
+        }
+    }
+
+    private void requestFlush() {
+        if (Flusher.getInstance().markDirty(this)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            log.force();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            PersistenceTimer.add(System.nanoTime() - start);
+        }
+    }
+
+    private void append(RecordType type, Serializable... values) {
+        if (!isRegistered) {
+            Snapshotter.getInstance().register(this);
+            isRegistered = true;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            log.append(type, serialize(values));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            PersistenceTimer.add(System.nanoTime() - start);
+        }
+    }
+
+    private void writeSnapshot(Collection<T> state, long sequence, boolean isDurable) throws IOException {
+        RepositorySaveEvent event = new RepositorySaveEvent();
+        event.begin();
+
+        Path target = Path.of(dbPath);
+        Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_EXTENSION);
+
+        try (var file = new FileOutputStream(temporary.toFile())) {
+            EntityCodec.write(state, new EntityCodec.Header(sequence, nextId.get()), file);
+
+            if (isDurable) {
+                file.getFD().sync();
+            }
+
+            event.complete(name, state.size(), file.getChannel().position());
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        if (isDurable) {
+            syncDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // some platforms do not allow opening a directory, the rename is as durable as they make it
+        }
+    }
+
+    private void openLog(PersistenceMode mode) {
+        Path logFile = Path.of(dbPath + LOG_EXTENSION);
+
+        if (mode == PersistenceMode.SNAPSHOT && !Files.exists(logFile)) {
+            return;
+        }
+
+        try {
+            WriteAheadLog existing = new WriteAheadLog(logFile);
+            existing.replay(snapshotSequence, applyingTo(entities));
+
+            if (mode == PersistenceMode.WAL) {
+                log = existing;
+                return;
             }
 
-            stream.writeInt(entities.size());
-            entities.forEach(e -> e.saveTo(stream));
+            snapshotSequence = existing.getLastSequence();
+            writeSnapshot(entities, snapshotSequence, true);
+            existing.truncate();
+            existing.close();
+            Files.delete(logFile);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private void readEntities(InputStream stream) {
+    private Consumer<LogRecord> applyingTo(Collection<T> target) {
+        Map<Object, T> index = new HashMap<>();
+        for (T value : target) {
+            index.putIfAbsent(keyOf(value), value);
+        }
+
+        return record -> apply(record, target, index);
+    }
+
+    private void apply(LogRecord record, Collection<T> target, Map<Object, T> index) {
+        try (var reader = new ObjectInputStream(new ByteArrayInputStream(record.payload()))) {
+            switch (record.type()) {
+                case ADD -> {
+                    T value = Entity.loadFrom(reader);
+
+                    if (target.add(value)) {
+                        index.putIfAbsent(keyOf(value), value);
+                    }
+                }
+                case REMOVE -> {
+                    T value = index.remove(reader.readObject());
+
+                    if (value != null) {
+                        target.remove(value);
+                    }
+                }
+                case UPDATE -> {
+                    T value = index.get(reader.readObject());
+                    Mutation<? super T> mutation = cast(reader.readObject());
+
+                    if (value != null) {
+                        mutation.applyTo(value);
+                    }
+                }
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new RuntimeException("Incorrect log format in " + name, e);
+        }
+    }
+
+    private void migrate() {
+        try {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            EntityCodec.write(entities, new EntityCodec.Header(snapshotSequence, nextId.get()), encoded);
+
+            entities.clear();
+            readEntities(new ByteArrayInputStream(encoded.toByteArray()), entities);
+
+            writeSnapshot(entities, snapshotSequence, true);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long restore(EntityCodec.Header header) {
+        nextId.accumulateAndGet(header.nextId(), Math::max);
+
+        return header.sequence();
+    }
+
+    private EntityCodec.Header readEntities(InputStream stream, Collection<T> target) {
+        try (var input = new BufferedInputStream(stream)) {
+            return switch (StorageFormat.of(input)) {
+                case EMPTY -> new EntityCodec.Header(0, FIRST_ID);
+                case SERIALIZED -> new EntityCodec.Header(readSerialized(input, target), FIRST_ID);
+                case BINARY -> EntityCodec.read(input, UserRepository.lazyResolver(), target::add);
+            };
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Incorrect data format");
+        }
+    }
+
+    private static <T extends Entity> long readSerialized(InputStream stream, Collection<T> target)
+            throws IOException, ClassNotFoundException {
         try (var reader = new ObjectInputStream(stream)) {
             if (reader.available() > 0) {
                 int size = reader.readInt();
 
                 for (int i = 0; i < size; i++) {
-                    entities.add(Entity.loadFrom(reader));
+                    target.add(Entity.loadFrom(reader));
                 }
+
+                return readSequence(reader);
             }
         } catch (EOFException ignored) {
-            // if the db files are empty
-        } catch (IOException | ClassNotFoundException e) {
-            throw new RuntimeException("Incorrect data format");
+            // if the db files contain only the stream header
         }
+
+        return 0;
+    }
+
+    private static long readSequence(ObjectInputStream reader) throws IOException {
+        try {
+            return reader.readLong();
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] serialize(Serializable... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (var stream = new ObjectOutputStream(bytes)) {
+            for (Serializable value : values) {
+                stream.writeObject(value);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M> M cast(Object object) {
+        return (M) object;
     }
 
 }
@@ -18,6 +18,8 @@ public interface RepositoryAPI<T extends Entity> {
 
     boolean contains(T value);
 
+    void update(T value, Mutation<? super T> mutation);
+
     void remove(T value) throws ValueNotFoundException;
 
     void remove(Predicate<T> criteria) throws ValueNotFoundException;
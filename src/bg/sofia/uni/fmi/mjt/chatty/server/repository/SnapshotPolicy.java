@@ -0,0 +1,29 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.time.Duration;
+
+public record SnapshotPolicy(long maxLogBytes, long maxLogRecords, Duration checkInterval) {
+
+    public SnapshotPolicy {
+        Guard.isNotNull(checkInterval);
+
+        if (maxLogBytes < 0 || maxLogRecords < 0) {
+            throw new IllegalArgumentException("Log limits must not be negative");
+        }
+
+        if (checkInterval.isNegative() || checkInterval.isZero()) {
+            throw new IllegalArgumentException("Check interval must be positive");
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxLogBytes > 0 || maxLogRecords > 0;
+    }
+
+    public boolean isExceeded(long logBytes, long logRecords) {
+        return maxLogBytes > 0 && logBytes >= maxLogBytes || maxLogRecords > 0 && logRecords >= maxLogRecords;
+    }
+
+}
@@ -0,0 +1,76 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class Snapshotter {
+
+    private static Snapshotter instance;
+
+    private final List<Repository<?>> repositories;
+    private ScheduledExecutorService scheduler;
+
+    Snapshotter() {
+        this.repositories = new CopyOnWriteArrayList<>();
+    }
+
+    public static synchronized Snapshotter getInstance() {
+        if (instance == null) {
+            instance = new Snapshotter();
+        }
+
+        return instance;
+    }
+
+    public synchronized void start(SnapshotPolicy policy) {
+        Guard.isNotNull(policy);
+
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshotter is already started");
+        }
+
+        if (!policy.isEnabled()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("chatty-snapshotter")
+                .daemon(true)
+                .factory());
+
+        long interval = policy.checkInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> snapshotIfNeeded(policy), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    void register(Repository<?> repository) {
+        Guard.isNotNull(repository);
+
+        repositories.add(repository);
+    }
+
+    void snapshotIfNeeded(SnapshotPolicy policy) {
+        for (Repository<?> repository : repositories) {
+            try {
+                if (repository.needsSnapshot(policy)) {
+                    repository.snapshot();
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error occurred while writing snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+}
@@ -1,24 +1,50 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.codec.UserResolver;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
-public class UserRepository extends Repository<User> {
+public class UserRepository extends Repository<User> implements UserResolver {
 
     private static final String DB_PATH = "users.dat";
 
     private static UserRepository instance;
 
+    private final Map<Integer, User> usersById = new ConcurrentHashMap<>();
+    private final Map<String, User> usersByUsername = new ConcurrentHashMap<>();
+
     private UserRepository(String path) {
         super(path);
+
+        if (assignMissingIds()) {
+            saveEntities();
+        }
+    }
+
+    UserRepository(Path file, PersistenceMode mode) {
+        super(file, mode);
+
+        if (assignMissingIds()) {
+            saveEntities();
+        }
     }
 
     private UserRepository(InputStream stream) {
         super(stream);
+
+        assignMissingIds();
     }
 
-    public static UserRepository getInstance() {
+    public static synchronized UserRepository getInstance() {
         if (instance == null) {
             instance = new UserRepository(DB_PATH);
         }
@@ -26,7 +52,7 @@ public class UserRepository extends Repository<User> {
         return instance;
     }
 
-    public static UserRepository getInstance(InputStream stream) {
+    public static synchronized UserRepository getInstance(InputStream stream) {
         if (instance == null) {
             instance = new UserRepository(stream);
         }
@@ -34,4 +60,126 @@ public class UserRepository extends Repository<User> {
         return instance;
     }
 
+    static UserResolver lazyResolver() {
+        return new UserResolver() {
+            private UserRepository users;
+
+            @Override
+            public User resolve(int id) {
+                return users().resolve(id);
+            }
+
+            @Override
+            public User canonicalOf(User user) {
+                return users().canonicalOf(user);
+            }
+
+            private UserRepository users() {
+                if (users == null) {
+                    users = getInstance();
+                }
+
+                return users;
+            }
+        };
+    }
+
+    @Override
+    public void add(User value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value is null");
+        }
+
+        if (value.username() != null && usersByUsername.containsKey(value.username())) {
+            return;
+        }
+
+        User user = value.id() == User.NO_ID ? value.withId(assignId()) : value;
+        reserveId(user.id());
+
+        super.add(user);
+        index(user);
+    }
+
+    @Override
+    public void remove(User value) throws ValueNotFoundException {
+        super.remove(value);
+
+        reindex();
+    }
+
+    @Override
+    public void remove(Predicate<User> criteria) throws ValueNotFoundException {
+        super.remove(criteria);
+
+        reindex();
+    }
+
+    public Optional<User> getById(int id) {
+        return Optional.ofNullable(usersById.get(id));
+    }
+
+    public Optional<User> getByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("Username is null");
+        }
+
+        return Optional.ofNullable(usersByUsername.get(username));
+    }
+
+    @Override
+    public User resolve(int id) {
+        return usersById.get(id);
+    }
+
+    @Override
+    public User canonicalOf(User user) {
+        User stored = user.id() == User.NO_ID ? null : usersById.get(user.id());
+
+        if (stored == null && user.username() != null) {
+            stored = usersByUsername.get(user.username());
+        }
+
+        return stored == null ? user : stored;
+    }
+
+    private boolean assignMissingIds() {
+        List<User> users = new ArrayList<>(entities);
+        boolean isAssigned = false;
+
+        for (User user : users) {
+            reserveId(user.id());
+        }
+
+        entities.clear();
+
+        for (User user : users) {
+            if (user.id() == User.NO_ID) {
+                user = user.withId(assignId());
+                isAssigned = true;
+            }
+
+            entities.add(user);
+        }
+
+        reindex();
+
+        return isAssigned;
+    }
+
+    private void reindex() {
+        usersById.clear();
+        usersByUsername.clear();
+
+        entities.forEach(this::index);
+    }
+
+    private void index(User user) {
+        usersById.put(user.id(), user);
+
+        if (user.username() != null) {
+            usersByUsername.put(user.username(), user);
+        }
+    }
+
 }
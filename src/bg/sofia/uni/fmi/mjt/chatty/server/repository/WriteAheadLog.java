@@ -0,0 +1,282 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+class WriteAheadLog implements Closeable {
+
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int TRAILER_SIZE = Integer.BYTES;
+    static final int MAX_RECORD_SIZE = 1 << 26;
+
+    private static final int BODY_HEADER_SIZE = Long.BYTES + Byte.BYTES;
+    private static final String SEGMENT_SEPARATOR = ".";
+
+    private final Path file;
+    private FileChannel channel;
+
+    private long lastSequence;
+    private long recordCount;
+
+    enum RecordType {
+        ADD,
+        REMOVE,
+        UPDATE;
+
+        private static final RecordType[] VALUES = values();
+
+        static RecordType of(int code) {
+            return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+        }
+    }
+
+    record LogRecord(long sequence, RecordType type, byte[] payload) {
+    }
+
+    private record Segment(long validBytes, long lastSequence, long recordCount, boolean isCorrupt) {
+    }
+
+    WriteAheadLog(Path file) throws IOException {
+        Guard.isNotNull(file);
+
+        this.file = file;
+        this.channel = open(file);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    synchronized void replay(long afterSequence, Consumer<LogRecord> consumer) throws IOException {
+        Guard.isNotNull(consumer);
+
+        lastSequence = replaySealed(sealedSegments(), afterSequence, consumer);
+
+        Segment current = read(channel, lastSequence, consumer);
+        if (current.isCorrupt()) {
+            throw corruptionAt(file, current.validBytes());
+        }
+
+        lastSequence = Math.max(lastSequence, current.lastSequence());
+        recordCount = current.recordCount();
+
+        if (current.validBytes() < channel.size()) {
+            channel.truncate(current.validBytes());
+        }
+
+        channel.position(current.validBytes());
+    }
+
+    synchronized long append(RecordType type, byte[] payload) throws IOException {
+        Guard.isNotNull(type);
+        Guard.isNotNull(payload);
+
+        int length = BODY_HEADER_SIZE + payload.length;
+        if (length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Log record is too large");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + length + TRAILER_SIZE)
+                .putInt(length)
+                .putLong(lastSequence + 1)
+                .put((byte) type.ordinal())
+                .put(payload);
+        record.putInt(checksumOf(record.array(), HEADER_SIZE, length));
+
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+
+        recordCount++;
+        return ++lastSequence;
+    }
+
+    synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    synchronized long rotate() throws IOException {
+        if (recordCount == 0) {
+            return lastSequence;
+        }
+
+        channel.force(false);
+        channel.close();
+
+        Files.move(file, segmentOf(lastSequence));
+
+        channel = open(file);
+        recordCount = 0;
+
+        return lastSequence;
+    }
+
+    synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        recordCount = 0;
+
+        deleteSealedSegments(lastSequence);
+    }
+
+    List<Path> sealedSegments() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName() + SEGMENT_SEPARATOR;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> isSegment(path.getFileName().toString(), prefix))
+                    .sorted(Comparator.comparingLong(this::lastSequenceOf))
+                    .toList();
+        }
+    }
+
+    void deleteSealedSegments(long upToSequence) throws IOException {
+        for (Path segment : sealedSegments()) {
+            if (lastSequenceOf(segment) <= upToSequence) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    static long replaySealed(List<Path> segments, long afterSequence, Consumer<LogRecord> consumer)
+            throws IOException {
+        long sequence = afterSequence;
+
+        for (Path segment : segments) {
+            try (FileChannel sealed = FileChannel.open(segment, StandardOpenOption.READ)) {
+                Segment replayed = read(sealed, sequence, consumer);
+
+                if (replayed.validBytes() < sealed.size()) {
+                    throw corruptionAt(segment, replayed.validBytes());
+                }
+
+                sequence = Math.max(sequence, replayed.lastSequence());
+            }
+        }
+
+        return sequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private Path segmentOf(long sequence) {
+        return file.resolveSibling(file.getFileName() + SEGMENT_SEPARATOR + sequence);
+    }
+
+    private long lastSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+
+        return Long.parseLong(name.substring(name.lastIndexOf(SEGMENT_SEPARATOR) + 1));
+    }
+
+    private static boolean isSegment(String name, String prefix) {
+        if (!name.startsWith(prefix) || name.length() == prefix.length()) {
+            return false;
+        }
+
+        return name.substring(prefix.length()).chars().allMatch(Character::isDigit);
+    }
+
+    private static Segment read(FileChannel channel, long afterSequence, Consumer<LogRecord> consumer)
+            throws IOException {
+        long position = 0;
+        long sequence = afterSequence;
+        long count = 0;
+        long size = channel.size();
+        boolean isCorrupt = false;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE <= size) {
+            readFully(channel, header.clear(), position);
+            int length = header.flip().getInt();
+
+            if (length < BODY_HEADER_SIZE || length > MAX_RECORD_SIZE) {
+                isCorrupt = true;
+                break;
+            }
+
+            long end = position + HEADER_SIZE + length + TRAILER_SIZE;
+            if (end > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(length + TRAILER_SIZE);
+            readFully(channel, body, position + HEADER_SIZE);
+            body.flip();
+
+            long recordSequence = body.getLong();
+            RecordType type = RecordType.of(body.get());
+
+            if (checksumOf(body.array(), 0, length) != body.getInt(length) || type == null) {
+                isCorrupt = end < size;
+                break;
+            }
+
+            if (recordSequence > sequence) {
+                byte[] payload = new byte[length - BODY_HEADER_SIZE];
+                body.get(payload);
+
+                consumer.accept(new LogRecord(recordSequence, type, payload));
+                sequence = recordSequence;
+            }
+
+            count++;
+            position = end;
+        }
+
+        return new Segment(position, sequence, count, isCorrupt);
+    }
+
+    private static StreamCorruptedException corruptionAt(Path file, long position) {
+        return new StreamCorruptedException("Corrupt log record at byte " + position + " of " + file);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int checksumOf(byte[] bytes, int offset, int length) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, offset, length);
+
+        return (int) checksum.getValue();
+    }
+
+}
@@ -0,0 +1,286 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Block;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Chat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Entity;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.FriendRequest;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Friendship;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+public final class EntityCodec {
+
+    private static final int FIRST_FORMAT_VERSION = 1;
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int NO_ENTITIES = 0x00;
+    private static final int USER = 0x01;
+    private static final int MESSAGE = 0x02;
+    private static final int PERSONAL_CHAT = 0x03;
+    private static final int GROUP_CHAT = 0x04;
+    private static final int FRIENDSHIP = 0x05;
+    private static final int FRIEND_REQUEST = 0x06;
+    private static final int BLOCK = 0x07;
+    private static final int NOTIFICATION = 0x08;
+
+    private static final int FIRST_ENTITY_VERSION = 1;
+
+    private static final int USER_VERSION = 2;
+    private static final int MESSAGE_VERSION = 2;
+    private static final int PERSONAL_CHAT_VERSION = 2;
+    private static final int GROUP_CHAT_VERSION = 2;
+    private static final int FRIENDSHIP_VERSION = 2;
+    private static final int FRIEND_REQUEST_VERSION = 2;
+    private static final int BLOCK_VERSION = 2;
+    private static final int NOTIFICATION_VERSION = 2;
+
+    private static final NotificationType[] NOTIFICATION_TYPES = NotificationType.values();
+
+    private EntityCodec() {
+    }
+
+    public record Header(long sequence, int nextId) {
+    }
+
+    public static void write(Collection<? extends Entity> entities, Header header, OutputStream stream)
+            throws IOException {
+        Guard.isNotNull(entities);
+        Guard.isNotNull(header);
+        Guard.isNotNull(stream);
+
+        EntityWriter writer = new EntityWriter(new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE)));
+        int type = entities.isEmpty() ? NO_ENTITIES : typeOf(entities.iterator().next());
+
+        writer.writeInt(StorageFormat.MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeLong(header.sequence());
+        writer.writeVarint(header.nextId());
+        writer.writeVarint(entities.size());
+        writer.writeByte(type);
+        writer.writeByte(versionOf(type));
+
+        for (Entity entity : entities) {
+            if (typeOf(entity) != type) {
+                throw new IllegalArgumentException("All entities must be of the same type");
+            }
+
+            writeEntity(writer, entity);
+        }
+
+        writer.flush();
+    }
+
+    public static <T extends Entity> Header read(InputStream stream, UserResolver users, Consumer<? super T> consumer)
+            throws IOException {
+        Guard.isNotNull(stream);
+        Guard.isNotNull(users);
+        Guard.isNotNull(consumer);
+
+        EntityReader reader =
+                new EntityReader(new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE)), users);
+
+        if (reader.readInt() != StorageFormat.MAGIC) {
+            throw new StreamCorruptedException("Not a binary entity file");
+        }
+
+        int formatVersion = reader.readByte();
+        if (formatVersion < FIRST_FORMAT_VERSION || formatVersion > FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported format version " + formatVersion);
+        }
+
+        long sequence = reader.readLong();
+        int nextId = formatVersion == FIRST_FORMAT_VERSION ? 0 : reader.readVarint();
+        int count = reader.readVarint();
+        int type = reader.readByte();
+        int version = reader.readByte();
+
+        if (count > 0 && (version < FIRST_ENTITY_VERSION || version > versionOf(type))) {
+            throw new StreamCorruptedException("Unsupported version " + version + " of entity type " + type);
+        }
+
+        reader.useVersion(version);
+
+        for (int i = 0; i < count; i++) {
+            consumer.accept(cast(readEntity(reader, type)));
+        }
+
+        return new Header(sequence, nextId);
+    }
+
+    private static int typeOf(Entity entity) {
+        return switch (entity) {
+            case User user -> USER;
+            case Message message -> MESSAGE;
+            case PersonalChat chat -> PERSONAL_CHAT;
+            case GroupChat chat -> GROUP_CHAT;
+            case Friendship friendship -> FRIENDSHIP;
+            case FriendRequest request -> FRIEND_REQUEST;
+            case Block block -> BLOCK;
+            case Notification notification -> NOTIFICATION;
+            default -> throw new IllegalArgumentException("Unsupported entity " + entity.getClass().getName());
+        };
+    }
+
+    private static int versionOf(int type) {
+        return switch (type) {
+            case NO_ENTITIES -> 0;
+            case USER -> USER_VERSION;
+            case MESSAGE -> MESSAGE_VERSION;
+            case PERSONAL_CHAT -> PERSONAL_CHAT_VERSION;
+            case GROUP_CHAT -> GROUP_CHAT_VERSION;
+            case FRIENDSHIP -> FRIENDSHIP_VERSION;
+            case FRIEND_REQUEST -> FRIEND_REQUEST_VERSION;
+            case BLOCK -> BLOCK_VERSION;
+            case NOTIFICATION -> NOTIFICATION_VERSION;
+            default -> -1;
+        };
+    }
+
+    private static void writeEntity(EntityWriter writer, Entity entity) throws IOException {
+        switch (entity) {
+            case User user -> writer.writeUser(user);
+            case Message message -> writeMessage(writer, message);
+            case PersonalChat chat -> {
+                writeUsers(writer, chat.getUsers());
+                writeMessages(writer, chat);
+            }
+            case GroupChat chat -> {
+                writer.writeString(chat.getName());
+                writer.writeUserReference(chat.getAdmin());
+                writeUsers(writer, chat.getUsers());
+                writeMessages(writer, chat);
+            }
+            case Friendship friendship -> writeUsers(writer, friendship.getUsers());
+            case FriendRequest request -> {
+                writer.writeUserReference(request.sender());
+                writer.writeUserReference(request.receiver());
+            }
+            case Block block -> {
+                writer.writeUserReference(block.blocker());
+                writer.writeUserReference(block.blocked());
+            }
+            case Notification notification -> {
+                writer.writeUserReference(notification.user());
+                writer.writeByte(notification.type().ordinal());
+                writer.writeString(notification.content());
+            }
+            default -> throw new IllegalArgumentException("Unsupported entity " + entity.getClass().getName());
+        }
+    }
+
+    private static Entity readEntity(EntityReader reader, int type) throws IOException {
+        return switch (type) {
+            case USER -> reader.readUser();
+            case MESSAGE -> readMessage(reader);
+            case PERSONAL_CHAT -> {
+                Iterator<User> users = readPair(reader).iterator();
+                yield new PersonalChat(users.next(), users.next(), readMessages(reader));
+            }
+            case GROUP_CHAT -> new GroupChat(reader.readString(), reader.readUserReference(), readUsers(reader),
+                    readMessages(reader));
+            case FRIENDSHIP -> {
+                Iterator<User> users = readPair(reader).iterator();
+                yield new Friendship(users.next(), users.next());
+            }
+            case FRIEND_REQUEST -> new FriendRequest(reader.readUserReference(), reader.readUserReference());
+            case BLOCK -> new Block(reader.readUserReference(), reader.readUserReference());
+            case NOTIFICATION -> new Notification(reader.readUserReference(), readNotificationType(reader),
+                    reader.readString());
+            default -> throw new StreamCorruptedException("Unknown entity type " + type);
+        };
+    }
+
+    private static void writeMessage(EntityWriter writer, Message message) throws IOException {
+        writer.writeUserReference(message.sender());
+        writer.writeString(message.text());
+    }
+
+    private static Message readMessage(EntityReader reader) throws IOException {
+        return new Message(reader.readUserReference(), reader.readString());
+    }
+
+    private static void writeUsers(EntityWriter writer, Collection<User> users) throws IOException {
+        writer.writeVarint(users.size());
+
+        for (User user : users) {
+            writer.writeUserReference(user);
+        }
+    }
+
+    private static Collection<User> readUsers(EntityReader reader) throws IOException {
+        int count = reader.readVarint();
+        Collection<User> users = new LinkedHashSet<>();
+
+        for (int i = 0; i < count; i++) {
+            users.add(reader.readUserReference());
+        }
+
+        return users;
+    }
+
+    private static Collection<User> readPair(EntityReader reader) throws IOException {
+        Collection<User> users = readUsers(reader);
+
+        if (users.size() != 2) {
+            throw new StreamCorruptedException("Expected two users but found " + users.size());
+        }
+
+        return users;
+    }
+
+    private static void writeMessages(EntityWriter writer, Chat chat) throws IOException {
+        writer.writeVarint(chat.getMessageCount());
+
+        for (Message message : chat.getMessages()) {
+            writeMessage(writer, message);
+        }
+    }
+
+    private static List<Message> readMessages(EntityReader reader) throws IOException {
+        int count = reader.readVarint();
+        List<Message> messages = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            messages.add(readMessage(reader));
+        }
+
+        return messages;
+    }
+
+    private static NotificationType readNotificationType(EntityReader reader) throws IOException {
+        int type = reader.readByte();
+
+        if (type >= NOTIFICATION_TYPES.length) {
+            throw new StreamCorruptedException("Unknown notification type " + type);
+        }
+
+        return NOTIFICATION_TYPES[type];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Entity> T cast(Entity entity) {
+        return (T) entity;
+    }
+
+}
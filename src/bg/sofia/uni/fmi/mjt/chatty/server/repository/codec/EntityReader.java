@@ -0,0 +1,130 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class EntityReader {
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int MAX_VARINT_SHIFT = 28;
+
+    private static final int SHARED_USERS_VERSION = 1;
+
+    private final DataInputStream stream;
+    private final UserResolver resolver;
+    private final List<User> users;
+
+    private int version;
+
+    EntityReader(DataInputStream stream, UserResolver resolver) {
+        this.stream = stream;
+        this.resolver = resolver;
+        this.users = new ArrayList<>();
+    }
+
+    int readByte() throws IOException {
+        return stream.readUnsignedByte();
+    }
+
+    int readInt() throws IOException {
+        return stream.readInt();
+    }
+
+    long readLong() throws IOException {
+        return stream.readLong();
+    }
+
+    int readVarint() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int current = readByte();
+            value |= (current & VARINT_PAYLOAD_MASK) << shift;
+
+            if ((current & VARINT_CONTINUATION_BIT) == 0) {
+                if (value < 0) {
+                    throw new StreamCorruptedException("Varint is out of range");
+                }
+
+                return value;
+            }
+        }
+
+        throw new StreamCorruptedException("Varint is too long");
+    }
+
+    String readString() throws IOException {
+        int length = readVarint();
+
+        if (length == 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length - 1];
+        stream.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void useVersion(int version) {
+        this.version = version;
+    }
+
+    User readUser() throws IOException {
+        if (version == SHARED_USERS_VERSION) {
+            return readSharedUser();
+        }
+
+        return readUserFields(readVarint());
+    }
+
+    User readUserReference() throws IOException {
+        if (version == SHARED_USERS_VERSION) {
+            return resolver.canonicalOf(readSharedUser());
+        }
+
+        int id = readVarint();
+
+        if (id == User.NO_ID) {
+            return resolver.canonicalOf(readUserFields(id));
+        }
+
+        User user = resolver.resolve(id);
+
+        if (user == null) {
+            throw new StreamCorruptedException("Unknown user id " + id);
+        }
+
+        return user;
+    }
+
+    private User readSharedUser() throws IOException {
+        int reference = readVarint();
+
+        if (reference > users.size()) {
+            throw new StreamCorruptedException("Unknown user reference " + reference);
+        }
+
+        if (reference > 0) {
+            return users.get(reference - 1);
+        }
+
+        User user = readUserFields(User.NO_ID);
+        users.add(user);
+
+        return user;
+    }
+
+    private User readUserFields(int id) throws IOException {
+        return new User(id, readString(), readString(), readString(), readString());
+    }
+
+}
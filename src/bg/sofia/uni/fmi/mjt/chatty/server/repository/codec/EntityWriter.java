@@ -0,0 +1,82 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+final class EntityWriter {
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+
+    private final DataOutputStream stream;
+
+    EntityWriter(DataOutputStream stream) {
+        this.stream = stream;
+    }
+
+    void writeByte(int value) throws IOException {
+        stream.writeByte(value);
+    }
+
+    void writeInt(int value) throws IOException {
+        stream.writeInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        stream.writeLong(value);
+    }
+
+    void writeVarint(int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint value must not be negative");
+        }
+
+        while ((value & ~VARINT_PAYLOAD_MASK) != 0) {
+            stream.writeByte((value & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            value >>>= VARINT_PAYLOAD_BITS;
+        }
+
+        stream.writeByte(value);
+    }
+
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarint(encoded.length + 1);
+        stream.write(encoded);
+    }
+
+    void writeUser(User user) throws IOException {
+        writeVarint(user.id());
+        writeUserFields(user);
+    }
+
+    void writeUserReference(User user) throws IOException {
+        writeVarint(user.id());
+
+        if (user.id() == User.NO_ID) {
+            writeUserFields(user);
+        }
+    }
+
+    private void writeUserFields(User user) throws IOException {
+        writeString(user.firstName());
+        writeString(user.lastName());
+        writeString(user.username());
+        writeString(user.passwordHash());
+    }
+
+    void flush() throws IOException {
+        stream.flush();
+    }
+
+}
@@ -0,0 +1,51 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamConstants;
+import java.io.StreamCorruptedException;
+
+public enum StorageFormat {
+
+    EMPTY,
+    SERIALIZED,
+    BINARY;
+
+    static final int MAGIC = 0x43485459;
+
+    private static final int SERIALIZED_MAGIC = (ObjectStreamConstants.STREAM_MAGIC & 0xFFFF) << Short.SIZE
+            | ObjectStreamConstants.STREAM_VERSION;
+
+    public static StorageFormat of(InputStream stream) throws IOException {
+        Guard.isNotNull(stream);
+
+        if (!stream.markSupported()) {
+            throw new IllegalArgumentException("Stream must support mark");
+        }
+
+        stream.mark(Integer.BYTES);
+
+        try {
+            int magic = new DataInputStream(stream).readInt();
+
+            if (magic == MAGIC) {
+                return BINARY;
+            }
+
+            if (magic == SERIALIZED_MAGIC) {
+                return SERIALIZED;
+            }
+
+            throw new StreamCorruptedException("Unknown storage format");
+        } catch (EOFException e) {
+            return EMPTY;
+        } finally {
+            stream.reset();
+        }
+    }
+
+}
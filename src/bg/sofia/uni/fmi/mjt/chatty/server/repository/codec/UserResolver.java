@@ -0,0 +1,14 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+
+@FunctionalInterface
+public interface UserResolver {
+
+    User resolve(int id);
+
+    default User canonicalOf(User user) {
+        return user;
+    }
+
+}
@@ -28,20 +28,19 @@ public class BlockService implements BlockServiceAPI {
     }
 
     @Override
-    public void block(String blocker, String blocked) throws ValueNotFoundException, UserBlockedException {
-        Guard.isNotNull(blocker);
+    public void block(User blockerUser, String blocked) throws ValueNotFoundException, UserBlockedException {
+        Guard.isNotNull(blockerUser);
         Guard.isNotNull(blocked);
 
-        User blockerUser = UserService.getInstance().ensureUserExists(blocker);
         User blockedUser = UserService.getInstance().ensureUserExists(blocked);
 
         if (checkBlock(blockerUser, blockedUser)) {
             throw new UserBlockedException("You have already blocked " + blocked);
         }
 
-        FriendshipService.getInstance().removeFriend(blocker, blocked);
+        FriendshipService.getInstance().removeFriend(blockerUser, blocked);
 
-        ChatService.getInstance().deletePersonalChat(blockerUser.username(), blocked);
+        ChatService.getInstance().deletePersonalChat(blockerUser, blocked);
 
         BlockRepository.getInstance().add(new Block(blockerUser, blockedUser));
 
@@ -51,11 +50,10 @@ public class BlockService implements BlockServiceAPI {
     }
 
     @Override
-    public void unblock(String unblocker, String unblocked) throws ValueNotFoundException {
-        Guard.isNotNull(unblocker);
+    public void unblock(User unblockerUser, String unblocked) throws ValueNotFoundException {
+        Guard.isNotNull(unblockerUser);
         Guard.isNotNull(unblocked);
 
-        User unblockerUser = UserService.getInstance().ensureUserExists(unblocker);
         User unblockedUser = UserService.getInstance().ensureUserExists(unblocked);
 
         if (!checkBlock(unblockerUser, unblockedUser)) {
@@ -71,10 +69,8 @@ public class BlockService implements BlockServiceAPI {
     }
 
     @Override
-    public Collection<UserDTO> getBlockedBy(String blocker) throws ValueNotFoundException {
-        Guard.isNotNull(blocker);
-
-        User blockerUser = UserService.getInstance().ensureUserExists(blocker);
+    public Collection<UserDTO> getBlockedBy(User blockerUser) {
+        Guard.isNotNull(blockerUser);
 
         return BlockRepository.getInstance()
                 .get(b -> b.blocker().equals(blockerUser))
@@ -9,11 +9,11 @@ import java.util.Collection;
 
 public interface BlockServiceAPI {
 
-    void block(String blocker, String blocked) throws ValueNotFoundException, UserBlockedException;
+    void block(User blocker, String blocked) throws ValueNotFoundException, UserBlockedException;
 
-    void unblock(String unblocker, String unblocked) throws ValueNotFoundException;
+    void unblock(User unblocker, String unblocked) throws ValueNotFoundException;
 
-    Collection<UserDTO> getBlockedBy(String blocker) throws ValueNotFoundException;
+    Collection<UserDTO> getBlockedBy(User blocker);
 
     boolean checkBlock(User blocker, User blocked);
 
@@ -1,6 +1,7 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.service;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.AccessDeniedException;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.GroupChatAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.UserAlreadyInGroupException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
@@ -8,6 +9,7 @@ import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.ChatMutations;
 import bg.sofia.uni.fmi.mjt.chatty.server.repository.GroupChatRepository;
 import bg.sofia.uni.fmi.mjt.chatty.server.repository.PersonalChatRepository;
 import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
@@ -33,11 +35,10 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public PersonalChat getPersonalChat(String left, String right) throws ValueNotFoundException {
-        Guard.isNotNull(left);
+    public PersonalChat getPersonalChat(User leftUser, String right) throws ValueNotFoundException {
+        Guard.isNotNull(leftUser);
         Guard.isNotNull(right);
 
-        User leftUser = UserService.getInstance().ensureUserExists(left);
         User rightUser = UserService.getInstance().ensureUserExists(right);
 
         FriendshipService.getInstance().ensureFriendshipExists(leftUser, rightUser);
@@ -50,11 +51,10 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public void deletePersonalChat(String left, String right) throws ValueNotFoundException {
-        Guard.isNotNull(left);
+    public void deletePersonalChat(User leftUser, String right) throws ValueNotFoundException {
+        Guard.isNotNull(leftUser);
         Guard.isNotNull(right);
 
-        User leftUser = UserService.getInstance().ensureUserExists(left);
         User rightUser = UserService.getInstance().ensureUserExists(right);
 
         Predicate<PersonalChat> criteria = c -> c.getUsers().containsAll(Set.of(leftUser, rightUser));
@@ -67,41 +67,37 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public void sendPersonalMessage(String sender, String reciever, String text) throws ValueNotFoundException {
-        Guard.isNotNull(sender);
+    public void sendPersonalMessage(User senderUser, String reciever, String text) throws ValueNotFoundException {
+        Guard.isNotNull(senderUser);
         Guard.isNotNull(reciever);
 
-        User senderUser = UserService.getInstance().ensureUserExists(sender);
         User recieverUser = UserService.getInstance().ensureUserExists(reciever);
 
-        ensurePersonalChatExists(senderUser, recieverUser).addMessage(new Message(senderUser, text));
-        PersonalChatRepository.getInstance().saveEntities();
+        PersonalChatRepository.getInstance().update(ensurePersonalChatExists(senderUser, recieverUser),
+                ChatMutations.addMessage(new Message(senderUser, text)));
 
         NotificationService.getInstance()
-                .addNotification(recieverUser, NotificationType.PERSONAL_MESSAGE, "[" + sender + "] " + text);
+                .addNotification(recieverUser, NotificationType.PERSONAL_MESSAGE,
+                        "[" + senderUser.username() + "] " + text);
     }
 
     @Override
-    public void createGroupChat(String name, String username)
-            throws ValueNotFoundException, UserAlreadyInGroupException {
-
+    public void createGroupChat(String name, User user)
+            throws UserAlreadyInGroupException, GroupChatAlreadyExistsException {
         Guard.isNotNull(name);
-        Guard.isNotNull(username);
-
-        User user = UserService.getInstance().ensureUserExists(username);
+        Guard.isNotNull(user);
 
         ensureNoGroupChatForUser(name, user);
+        ensureNoGroupChatNamed(name);
 
         GroupChatRepository.getInstance().add(new GroupChat(name, user));
-
     }
 
     @Override
-    public void deleteGroupChat(String name, String deleter) throws ValueNotFoundException, AccessDeniedException {
+    public void deleteGroupChat(String name, User deleterUser) throws ValueNotFoundException, AccessDeniedException {
         Guard.isNotNull(name);
-        Guard.isNotNull(deleter);
+        Guard.isNotNull(deleterUser);
 
-        User deleterUser = UserService.getInstance().ensureUserExists(deleter);
         GroupChat chat = ensureGroupChatExists(name);
 
         ensureUserIsAdmin(deleterUser, chat);
@@ -110,11 +106,10 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public GroupChat getGroupChat(String name, String username) throws ValueNotFoundException {
+    public GroupChat getGroupChat(String name, User user) throws ValueNotFoundException {
         Guard.isNotNull(name);
-        Guard.isNotNull(username);
+        Guard.isNotNull(user);
 
-        User user = UserService.getInstance().ensureUserExists(username);
         GroupChat chat = ensureGroupChatExists(name);
         ensureUserInGroupChat(chat, user);
 
@@ -122,10 +117,8 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public Collection<String> getGroupChatsForUser(String username) throws ValueNotFoundException {
-        Guard.isNotNull(username);
-
-        User user = UserService.getInstance().ensureUserExists(username);
+    public Collection<String> getGroupChatsForUser(User user) {
+        Guard.isNotNull(user);
 
         return GroupChatRepository.getInstance()
                 .get(c -> c.getUsers().contains(user))
@@ -135,87 +128,69 @@ public class ChatService implements ChatServiceAPI {
     }
 
     @Override
-    public void addToGroupChat(String name, String adder, String added)
+    public void addToGroupChat(String name, User adderUser, String added)
             throws ValueNotFoundException, AccessDeniedException, UserAlreadyInGroupException {
 
         Guard.isNotNull(name);
-        Guard.isNotNull(adder);
+        Guard.isNotNull(adderUser);
         Guard.isNotNull(added);
 
-        User adderUser = UserService.getInstance().ensureUserExists(adder);
         User addedUser = UserService.getInstance().ensureUserExists(added);
         GroupChat chat = ensureGroupChatExists(name);
 
         ensureUserIsAdmin(adderUser, chat);
         ensureUserNotInGroupChat(chat, addedUser);
 
-        GroupChatRepository.getInstance()
-                .get(c -> c.equals(chat))
-                .stream()
-                .findFirst()
-                .ifPresent(c -> c.addUser(addedUser));
-
-        GroupChatRepository.getInstance().saveEntities();
+        GroupChatRepository.getInstance().update(chat, ChatMutations.addUser(addedUser));
 
         NotificationService.getInstance()
-                .addNotification(addedUser, NotificationType.OTHER, adder + " added you to group " + name);
+                .addNotification(addedUser, NotificationType.OTHER,
+                        adderUser.username() + " added you to group " + name);
     }
 
     @Override
-    public void removeFromGroupChat(String name, String remover, String removed)
+    public void removeFromGroupChat(String name, User removerUser, String removed)
             throws ValueNotFoundException, AccessDeniedException {
 
         Guard.isNotNull(name);
-        Guard.isNotNull(remover);
+        Guard.isNotNull(removerUser);
         Guard.isNotNull(removed);
 
-        User removerUser = UserService.getInstance().ensureUserExists(remover);
         User removedUser = UserService.getInstance().ensureUserExists(removed);
         GroupChat chat = ensureGroupChatExists(name);
 
         ensureUserIsAdmin(removerUser, chat);
         ensureUserInGroupChat(chat, removedUser);
 
-        GroupChatRepository.getInstance()
-                .get(c -> c.equals(chat))
-                .stream()
-                .findFirst()
-                .ifPresent(c -> c.removeUser(removedUser));
-
-        GroupChatRepository.getInstance().saveEntities();
+        GroupChatRepository.getInstance().update(chat, ChatMutations.removeUser(removedUser));
 
         NotificationService.getInstance()
                 .addNotification(removedUser, NotificationType.OTHER, "You have been kicked from " + name);
-
     }
 
     @Override
-    public void leaveGroupChat(String name, String username) throws ValueNotFoundException {
+    public void leaveGroupChat(String name, User user) throws ValueNotFoundException {
         Guard.isNotNull(name);
-        Guard.isNotNull(username);
+        Guard.isNotNull(user);
 
-        User user = UserService.getInstance().ensureUserExists(username);
         GroupChat chat = ensureGroupChatExists(name);
 
         ensureUserInGroupChat(chat, user);
 
-        chat.removeUser(user);
-        GroupChatRepository.getInstance().saveEntities();
+        GroupChatRepository.getInstance().update(chat, ChatMutations.removeUser(user));
     }
 
     @Override
-    public void sendGroupMessage(String chatName, String sender, String text) throws ValueNotFoundException {
+    public void sendGroupMessage(String chatName, User senderUser, String text) throws ValueNotFoundException {
         Guard.isNotNull(chatName);
-        Guard.isNotNull(sender);
+        Guard.isNotNull(senderUser);
         Guard.isNotNull(text);
 
-        User senderUser = UserService.getInstance().ensureUserExists(sender);
         GroupChat chat = ensureGroupChatExists(chatName);
 
         ensureUserInGroupChat(chat, senderUser);
 
-        chat.addMessage(new Message(senderUser, text));
-        GroupChatRepository.getInstance().saveEntities();
+        GroupChatRepository.getInstance().update(chat, ChatMutations.addMessage(new Message(senderUser, text)));
 
         var receivers = chat.getUsers()
                 .stream()
@@ -223,7 +198,8 @@ public class ChatService implements ChatServiceAPI {
                 .collect(Collectors.toSet());
 
         receivers.forEach(r -> NotificationService.getInstance()
-                .addNotification(r, NotificationType.GROUP_MESSAGE, chatName + " -> [" + sender + "] " + text));
+                .addNotification(r, NotificationType.GROUP_MESSAGE,
+                        chatName + " -> [" + senderUser.username() + "] " + text));
     }
 
     private PersonalChat ensurePersonalChatExists(User left, User right) throws ValueNotFoundException {
@@ -261,6 +237,12 @@ public class ChatService implements ChatServiceAPI {
         }
     }
 
+    private void ensureNoGroupChatNamed(String name) throws GroupChatAlreadyExistsException {
+        if (GroupChatRepository.getInstance().contains(c -> c.getName().equals(name))) {
+            throw new GroupChatAlreadyExistsException("Group chat named " + name + " already exists");
+        }
+    }
+
     private void ensureUserIsAdmin(User user, GroupChat group) throws AccessDeniedException {
         if (!group.getAdmin().equals(user)) {
             throw new AccessDeniedException("You do not have permissions to delete " + group.getName());
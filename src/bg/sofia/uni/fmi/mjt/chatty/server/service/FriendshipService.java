@@ -35,10 +35,8 @@ public class FriendshipService implements FriendshipServiceAPI {
     }
 
     @Override
-    public Collection<UserDTO> getFriendsOf(String username) throws ValueNotFoundException {
-        Guard.isNotNull(username);
-
-        User user = UserService.getInstance().ensureUserExists(username);
+    public Collection<UserDTO> getFriendsOf(User user) {
+        Guard.isNotNull(user);
 
         return UserService.getInstance().getByCriteria(
                         u -> FriendshipRepository.getInstance()
@@ -49,13 +47,12 @@ public class FriendshipService implements FriendshipServiceAPI {
     }
 
     @Override
-    public void addFriend(String sender, String target)
+    public void addFriend(User senderUser, String target)
             throws ValueNotFoundException, UserBlockedException, FriendshipAlreadyExistsException,
             FriendRequestAlreadySentException {
-        Guard.isNotNull(sender);
+        Guard.isNotNull(senderUser);
         Guard.isNotNull(target);
 
-        User senderUser = UserService.getInstance().ensureUserExists(sender);
         User targetUser = UserService.getInstance().ensureUserExists(target);
 
         ensureNoFriendship(senderUser, targetUser);
@@ -74,17 +71,16 @@ public class FriendshipService implements FriendshipServiceAPI {
         FriendRequestRepository.getInstance()
                 .add(new FriendRequest(senderUser, targetUser));
 
-        String notificationContent = "From " + senderUser.getFullName() + " [" + sender + "]";
+        String notificationContent = "From " + senderUser.getFullName() + " [" + senderUser.username() + "]";
         NotificationService.getInstance()
                 .addNotification(targetUser, NotificationType.FRIEND_REQUEST, notificationContent);
     }
 
     @Override
-    public void removeFriend(String remover, String target) throws ValueNotFoundException {
-        Guard.isNotNull(remover);
+    public void removeFriend(User removerUser, String target) throws ValueNotFoundException {
+        Guard.isNotNull(removerUser);
         Guard.isNotNull(target);
 
-        User removerUser = UserService.getInstance().ensureUserExists(remover);
         User targetUser = UserService.getInstance().ensureUserExists(target);
 
         ensureFriendshipExists(removerUser, targetUser);
@@ -95,10 +91,8 @@ public class FriendshipService implements FriendshipServiceAPI {
     }
 
     @Override
-    public Collection<UserDTO> getRequests(String username) throws ValueNotFoundException {
-        Guard.isNotNull(username);
-
-        User user = UserService.getInstance().ensureUserExists(username);
+    public Collection<UserDTO> getRequests(User user) {
+        Guard.isNotNull(user);
 
         return FriendRequestRepository.getInstance()
                 .get(r -> r.receiver().equals(user))
@@ -108,7 +102,7 @@ public class FriendshipService implements FriendshipServiceAPI {
     }
 
     @Override
-    public void acceptRequest(String accepter, String target) throws ValueNotFoundException {
+    public void acceptRequest(User accepter, String target) throws ValueNotFoundException {
         var userPair = validateRequestOperation(accepter, target);
 
         User accepterUser = userPair.getKey();
@@ -126,7 +120,7 @@ public class FriendshipService implements FriendshipServiceAPI {
     }
 
     @Override
-    public void declineRequest(String decliner, String target) throws ValueNotFoundException {
+    public void declineRequest(User decliner, String target) throws ValueNotFoundException {
         var userPair = validateRequestOperation(decliner, target);
 
         User declinerUser = userPair.getKey();
@@ -159,11 +153,11 @@ public class FriendshipService implements FriendshipServiceAPI {
         }
     }
 
-    private Map.Entry<User, User> validateRequestOperation(String actor, String target) throws ValueNotFoundException {
-        Guard.isNotNull(actor);
+    private Map.Entry<User, User> validateRequestOperation(User actorUser, String target)
+            throws ValueNotFoundException {
+        Guard.isNotNull(actorUser);
         Guard.isNotNull(target);
 
-        User actorUser = UserService.getInstance().ensureUserExists(actor);
         User targetUser = UserService.getInstance().ensureUserExists(target);
 
         if (!FriendRequestRepository.getInstance()
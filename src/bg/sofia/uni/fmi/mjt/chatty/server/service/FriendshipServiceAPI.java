@@ -11,18 +11,18 @@ import java.util.Collection;
 
 public interface FriendshipServiceAPI {
 
-    Collection<UserDTO> getFriendsOf(String username) throws ValueNotFoundException;
+    Collection<UserDTO> getFriendsOf(User user);
 
-    void addFriend(String sender, String target) throws ValueNotFoundException, UserBlockedException,
+    void addFriend(User sender, String target) throws ValueNotFoundException, UserBlockedException,
             FriendshipAlreadyExistsException, FriendRequestAlreadySentException;
 
-    void removeFriend(String remover, String target) throws ValueNotFoundException;
+    void removeFriend(User remover, String target) throws ValueNotFoundException;
 
-    Collection<UserDTO> getRequests(String username) throws ValueNotFoundException;
+    Collection<UserDTO> getRequests(User user);
 
-    void acceptRequest(String accepter, String target) throws ValueNotFoundException;
+    void acceptRequest(User accepter, String target) throws ValueNotFoundException;
 
-    void declineRequest(String decliner, String target) throws ValueNotFoundException;
+    void declineRequest(User decliner, String target) throws ValueNotFoundException;
 
     void ensureFriendshipExists(User left, User right) throws ValueNotFoundException;
 
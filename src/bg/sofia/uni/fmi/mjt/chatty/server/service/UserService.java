@@ -29,7 +29,7 @@ public class UserService implements UserServiceAPI {
     }
 
     @Override
-    public void register(String firstName, String lastName, String username, String password)
+    public User register(String firstName, String lastName, String username, String password)
             throws UserAlreadyExistsException {
         Guard.isNotNull(firstName);
         Guard.isNotNull(lastName);
@@ -41,12 +41,21 @@ public class UserService implements UserServiceAPI {
         Guard.isValidUsername(username);
         Guard.isValidPassword(password);
 
-        if (UserRepository.getInstance().contains(u -> u.username().equals(username))) {
+        return register(new User(firstName, lastName, username, SHA256.hashPassword(password)));
+    }
+
+    @Override
+    public User register(User user) throws UserAlreadyExistsException {
+        Guard.isNotNull(user);
+
+        if (UserRepository.getInstance().contains(u -> u.username().equals(user.username()))) {
             throw new UserAlreadyExistsException("User with this username already exists");
         }
 
         UserRepository.getInstance()
-                .add(new User(firstName, lastName, username, SHA256.hashPassword(password)));
+                .add(new User(user.firstName(), user.lastName(), user.username(), user.passwordHash()));
+
+        return UserRepository.getInstance().getByUsername(user.username()).orElseThrow();
     }
 
     @Override
@@ -70,9 +79,7 @@ public class UserService implements UserServiceAPI {
 
     @Override
     public User ensureUserExists(String username) throws ValueNotFoundException {
-        return getByCriteria(u -> u.username().equals(username))
-                .stream()
-                .findFirst()
+        return UserRepository.getInstance().getByUsername(username)
                 .orElseThrow(() -> new ValueNotFoundException("User not found"));
     }
 
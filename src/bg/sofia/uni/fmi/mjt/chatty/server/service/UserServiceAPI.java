@@ -10,9 +10,11 @@ import java.util.function.Predicate;
 
 public interface UserServiceAPI {
 
-    void register(String firstName, String lastName, String username, String password)
+    User register(String firstName, String lastName, String username, String password)
         throws UserAlreadyExistsException;
 
+    User register(User user) throws UserAlreadyExistsException;
+
     SessionDTO login(String username, String password) throws ValueNotFoundException;
 
     User ensureUserExists(String username) throws ValueNotFoundException;
@@ -0,0 +1,99 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.session;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.FrameCompressor;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.ratelimit.TokenBucket;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+
+public class Session {
+
+    private volatile User user;
+    private volatile ChatKey openChat;
+    private volatile Protocol protocol = Protocol.TEXT;
+    private volatile FrameCompressor compressor;
+    private volatile boolean isNegotiated;
+    private volatile TokenBucket tokenBucket;
+
+    public User getUser() {
+        return user;
+    }
+
+    public boolean isAuthenticated() {
+        return user != null;
+    }
+
+    public void bind(User user) {
+        Guard.isNotNull(user);
+
+        this.user = user;
+        this.openChat = null;
+    }
+
+    public void clear() {
+        this.user = null;
+        this.openChat = null;
+    }
+
+    public ChatKey getOpenChat() {
+        return openChat;
+    }
+
+    public void openChat(ChatKey chat) {
+        Guard.isNotNull(chat);
+
+        this.openChat = chat;
+    }
+
+    public void closeChat() {
+        this.openChat = null;
+    }
+
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    public void useProtocol(Protocol protocol) {
+        Guard.isNotNull(protocol);
+
+        this.protocol = protocol;
+    }
+
+    public FrameCompressor getCompressor() {
+        return compressor;
+    }
+
+    public void useCompressor(FrameCompressor compressor) {
+        Guard.isNotNull(compressor);
+
+        this.compressor = compressor;
+    }
+
+    public boolean isNegotiated() {
+        return isNegotiated;
+    }
+
+    public void markNegotiated() {
+        this.isNegotiated = true;
+    }
+
+    public TokenBucket getTokenBucket() {
+        return tokenBucket;
+    }
+
+    public void useTokenBucket(TokenBucket tokenBucket) {
+        Guard.isNotNull(tokenBucket);
+
+        this.tokenBucket = tokenBucket;
+    }
+
+    public void release() {
+        FrameCompressor current = compressor;
+
+        if (current != null) {
+            current.release();
+        }
+    }
+
+}
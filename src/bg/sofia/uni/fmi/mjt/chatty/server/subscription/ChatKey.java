@@ -0,0 +1,35 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.subscription;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+public record ChatKey(Kind kind, String first, String second) {
+
+    public enum Kind {
+        PERSONAL,
+        GROUP
+    }
+
+    public static ChatKey personal(String username, String otherUsername) {
+        Guard.isNotNull(username);
+        Guard.isNotNull(otherUsername);
+
+        return username.compareTo(otherUsername) <= 0
+                ? new ChatKey(Kind.PERSONAL, username, otherUsername)
+                : new ChatKey(Kind.PERSONAL, otherUsername, username);
+    }
+
+    public static ChatKey group(String groupName) {
+        Guard.isNotNull(groupName);
+
+        return new ChatKey(Kind.GROUP, groupName, "");
+    }
+
+    public String id() {
+        return kind == Kind.GROUP ? "group:" + first : "personal:" + first + ":" + second;
+    }
+
+    public String otherParticipant(String username) {
+        return first.equals(username) ? second : first;
+    }
+
+}
@@ -0,0 +1,107 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.subscription;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Connection;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.Guard;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SubscriptionRegistry {
+
+    private static final Connection[] NO_SUBSCRIBERS = new Connection[0];
+
+    private final Map<ChatKey, Connection[]> subscribers;
+    private final Map<Connection, Set<ChatKey>> subscriptions;
+
+    public SubscriptionRegistry() {
+        this.subscribers = new ConcurrentHashMap<>();
+        this.subscriptions = new ConcurrentHashMap<>();
+    }
+
+    public void subscribe(ChatKey key, Connection connection) {
+        Guard.isNotNull(key);
+        Guard.isNotNull(connection);
+
+        subscriptions.computeIfAbsent(connection, c -> ConcurrentHashMap.newKeySet()).add(key);
+        subscribers.compute(key, (k, current) -> add(current, connection));
+    }
+
+    public void unsubscribe(ChatKey key, Connection connection) {
+        Guard.isNotNull(key);
+        Guard.isNotNull(connection);
+
+        Set<ChatKey> keys = subscriptions.get(connection);
+        if (keys != null) {
+            keys.remove(key);
+        }
+
+        subscribers.computeIfPresent(key, (k, current) -> remove(current, connection));
+    }
+
+    public void unsubscribeAll(Connection connection) {
+        Guard.isNotNull(connection);
+
+        Set<ChatKey> keys = subscriptions.remove(connection);
+        if (keys == null) {
+            return;
+        }
+
+        for (ChatKey key : keys) {
+            subscribers.computeIfPresent(key, (k, current) -> remove(current, connection));
+        }
+    }
+
+    public List<Connection> subscribersOf(ChatKey key) {
+        Guard.isNotNull(key);
+
+        return Collections.unmodifiableList(Arrays.asList(subscribers.getOrDefault(key, NO_SUBSCRIBERS)));
+    }
+
+    public Set<ChatKey> subscriptionsOf(Connection connection) {
+        Guard.isNotNull(connection);
+
+        Set<ChatKey> keys = subscriptions.get(connection);
+        return keys == null ? Set.of() : Set.copyOf(keys);
+    }
+
+    public int chatCount() {
+        return subscribers.size();
+    }
+
+    private static Connection[] add(Connection[] current, Connection connection) {
+        if (current == null) {
+            return new Connection[] {connection};
+        }
+
+        if (List.of(current).contains(connection)) {
+            return current;
+        }
+
+        Connection[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = connection;
+
+        return updated;
+    }
+
+    private static Connection[] remove(Connection[] current, Connection connection) {
+        int index = List.of(current).indexOf(connection);
+        if (index < 0) {
+            return current;
+        }
+
+        if (current.length == 1) {
+            return null;
+        }
+
+        Connection[] updated = new Connection[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+
+        return updated;
+    }
+
+}
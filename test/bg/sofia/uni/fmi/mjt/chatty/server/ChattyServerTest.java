@@ -0,0 +1,114 @@
+package bg.sofia.uni.fmi.mjt.chatty.server;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandExecutor;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Compression;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Handshake;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.BlockService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.ChatService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.FriendshipService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.NotificationService;
+import bg.sofia.uni.fmi.mjt.chatty.server.service.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class ChattyServerTest {
+
+    private static final int CONNECTIONS = 50;
+
+    @Test
+    void testBinaryCommandRightAfterHandshakeWithSelector() throws IOException {
+        assertBinaryCommandAfterHandshake(NetworkMode.SELECTOR);
+    }
+
+    @Test
+    void testBinaryCommandRightAfterHandshakeWithVirtualThreads() throws IOException {
+        assertBinaryCommandAfterHandshake(NetworkMode.VIRTUAL_THREAD_PER_CONNECTION);
+    }
+
+    private static void assertBinaryCommandAfterHandshake(NetworkMode mode) throws IOException {
+        int port = freePort();
+        ChattyServer server = new ChattyServer(ServerConfig.builder(port).networkMode(mode).build(), newExecutor());
+        Thread serverThread = Thread.ofPlatform().daemon().start(server::start);
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    try (SocketChannel channel = connect(port)) {
+                        Frames.write(channel, new Handshake(Protocol.BINARY, Compression.NONE).toString());
+                        assertEquals(new Handshake(Protocol.BINARY, Compression.NONE).toString(),
+                                Frames.read(channel), "Server should accept the binary protocol");
+
+                        Frames.write(channel, BinaryCodec.encodeCommand(CommandCreator.newCommand("list-friends")));
+
+                        assertEquals(Response.text(CommandExecutor.NOT_LOGGED_IN_MESSAGE),
+                                BinaryCodec.decodeResponse(Frames.readPayload(channel)),
+                                "A binary command sent right after the handshake should be decoded as binary");
+                    }
+                }
+            });
+        } finally {
+            server.stop();
+            serverThread.interrupt();
+        }
+    }
+
+    @Test
+    void testStopWithConnectedClientOnVirtualThreads() throws IOException {
+        int port = freePort();
+        ChattyServer server = new ChattyServer(ServerConfig.builder(port)
+                .networkMode(NetworkMode.VIRTUAL_THREAD_PER_CONNECTION).build(), newExecutor());
+        Thread serverThread = Thread.ofPlatform().daemon().start(server::start);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            try (SocketChannel channel = connect(port)) {
+                Frames.write(channel, new Handshake(Protocol.TEXT, Compression.NONE).toString());
+                Frames.read(channel);
+
+                server.stop();
+                serverThread.join();
+
+                assertNull(Frames.read(channel), "Stopping the server should close the connected clients");
+            }
+        });
+    }
+
+    private static CommandExecutor newExecutor() {
+        return new CommandExecutor(UserService.getInstance(), FriendshipService.getInstance(),
+                ChatService.getInstance(), BlockService.getInstance(), NotificationService.getInstance());
+    }
+
+    private static SocketChannel connect(int port) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return SocketChannel.open(new InetSocketAddress("localhost", port));
+            } catch (IOException e) {
+                if (attempt == CONNECTIONS) {
+                    throw new IllegalStateException("Server did not start", e);
+                }
+
+                Thread.sleep(Duration.ofMillis(100));
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
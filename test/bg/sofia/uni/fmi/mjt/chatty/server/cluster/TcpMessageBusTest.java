@@ -0,0 +1,88 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.cluster;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class TcpMessageBusTest {
+
+    private static final String HOST = "localhost";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static ClusterMessage sendFrom(String origin, String text) {
+        return new ClusterMessage.Executed(origin, "g.peterson", ChatKey.group("mjt-chat"),
+                CommandCreator.newCommand("send \"" + text + "\""));
+    }
+
+    private static ClusterMessage.Executed executedOf(ClusterMessage message) {
+        return assertInstanceOf(ClusterMessage.Executed.class, message,
+                "Published messages should reach the peer node");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void testPublishWithTwoNodes() throws IOException, InterruptedException {
+        BlockingQueue<ClusterMessage> received = new LinkedBlockingQueue<>();
+
+        try (TcpMessageBus first = new TcpMessageBus(new InetSocketAddress(HOST, 0), List.of())) {
+            first.start(received::add);
+
+            try (TcpMessageBus second = new TcpMessageBus(new InetSocketAddress(HOST, 0),
+                    List.of(InetSocketAddress.createUnresolved(HOST, first.getLocalPort())))) {
+                second.start(message -> { });
+
+                second.publish(sendFrom("node-2", "first"));
+                second.publish(sendFrom("node-2", "second"));
+
+                ClusterMessage.Executed firstMessage = executedOf(received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                ClusterMessage.Executed secondMessage = executedOf(received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+                assertEquals(CommandType.SEND_MESSAGE, firstMessage.command().type(),
+                        "Published messages should keep their command");
+                assertEquals(List.of("first", "second"),
+                        List.of(firstMessage.command().argument(0), secondMessage.command().argument(0)),
+                        "Published messages should reach the peer in publish order");
+            }
+        }
+    }
+
+    @Test
+    void testPublishWithPeerStartedLater() throws IOException, InterruptedException {
+        BlockingQueue<ClusterMessage> received = new LinkedBlockingQueue<>();
+        int port = freePort();
+
+        try (TcpMessageBus sender = new TcpMessageBus(new InetSocketAddress(HOST, 0),
+                List.of(InetSocketAddress.createUnresolved(HOST, port)))) {
+            sender.start(message -> { });
+            sender.publish(sendFrom("node-1", "queued"));
+
+            try (TcpMessageBus late = new TcpMessageBus(new InetSocketAddress(HOST, port), List.of())) {
+                late.start(received::add);
+
+                ClusterMessage message = received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+                assertNotNull(message, "Messages published before the peer starts should be delivered once it is up");
+                assertEquals("node-1", message.origin(), "Delivered messages should keep their origin node");
+            }
+        }
+    }
+
+}
@@ -1,5 +1,81 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.command;
 
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class CommandCreatorTest {
 
-}
\ No newline at end of file
+    @Test
+    void testNewCommandWithNullInput() {
+        assertThrows(IllegalArgumentException.class, () -> CommandCreator.newCommand(null),
+                "New command should throw for null input");
+    }
+
+    @Test
+    void testNewCommandWithPlainArguments() {
+        Command command = CommandCreator.newCommand("add-to-group s.peterson mjt-chat g.peterson");
+
+        assertEquals(CommandType.ADD_TO_GROUP, command.type(), "New command should resolve the command type");
+        assertArrayEquals(new String[] {"s.peterson", "mjt-chat", "g.peterson"}, command.arguments(),
+                "New command should split arguments by spaces");
+    }
+
+    @Test
+    void testNewCommandWithRepeatedSpaces() {
+        Command command = CommandCreator.newCommand("login  g.peterson   Parola123 ");
+
+        assertArrayEquals(new String[] {"g.peterson", "Parola123"}, command.arguments(),
+                "New command should ignore repeated spaces");
+    }
+
+    @Test
+    void testNewCommandWithQuotedMessage() {
+        Command command = CommandCreator.newCommand("send \"Hello there, \" g.peterson s.peterson 1");
+
+        assertEquals(CommandType.SEND_MESSAGE, command.type(), "New command should resolve send");
+        assertArrayEquals(new String[] {"Hello there, ", "g.peterson", "s.peterson", "1"}, command.arguments(),
+                "New command should keep the quoted message as a single argument");
+        assertEquals("1", command.argumentFromEnd(0), "Argument from end should count from the last argument");
+    }
+
+    @Test
+    void testNewCommandWithUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandCreator.newCommand("send \"Hello g.peterson s.peterson 1"),
+                "New command should throw if the message quote is not closed");
+    }
+
+    @Test
+    void testNewCommandWithUnquotedMessage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CommandCreator.newCommand("send Hello g.peterson s.peterson 1"),
+                "New command should throw if the message is not quoted");
+    }
+
+    @Test
+    void testNewCommandWithUnknownCommand() {
+        Command command = CommandCreator.newCommand("dance g.peterson");
+
+        assertEquals(CommandType.UNKNOWN, command.type(), "New command should resolve unknown commands");
+    }
+
+    @Test
+    void testNewCommandWithEmptyInput() {
+        Command command = CommandCreator.newCommand("");
+
+        assertEquals(CommandType.UNKNOWN, command.type(), "New command should resolve empty input as unknown");
+        assertEquals(0, command.argumentCount(), "New command should have no arguments for empty input");
+    }
+
+    @Test
+    void testNewCommandWithTokenizedArguments() {
+        Command command = CommandCreator.newCommand(CommandType.SEND_MESSAGE, "Hello \"there\"");
+
+        assertEquals("send", command.command(), "New command should name pre-tokenized commands by their type");
+        assertEquals("Hello \"there\"", command.argument(0), "New command should keep arguments as given");
+    }
+
+}
@@ -1,17 +1,30 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.command;
 
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.ClusterMessage;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.*;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.protocol.TextCodec;
 import bg.sofia.uni.fmi.mjt.chatty.server.repository.*;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
 import bg.sofia.uni.fmi.mjt.chatty.server.service.*;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CommandExecutorTest {
 
@@ -25,6 +38,8 @@ public class CommandExecutorTest {
 
     private static CommandExecutor executor;
 
+    private final Map<String, Session> sessions = new HashMap<>();
+
     @BeforeAll
     static void setupTests() {
         fRepo = FriendshipRepository.getInstance(new ByteArrayInputStream("".getBytes()));
@@ -84,7 +99,7 @@ public class CommandExecutorTest {
 
         String message = "Register should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
@@ -95,7 +110,7 @@ public class CommandExecutorTest {
 
         String message = "Register should show if data is incorrect";
 
-        assertNotEquals(unexpected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertNotEquals(unexpected, execute(input), message);
     }
 
     @Test
@@ -106,7 +121,7 @@ public class CommandExecutorTest {
 
         String message = "Register should show if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
@@ -117,7 +132,7 @@ public class CommandExecutorTest {
 
         String message = "Login should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
@@ -128,12 +143,12 @@ public class CommandExecutorTest {
 
         String message = "Login should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
     void testExecuteLoginWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
 
         String input = "login g.peterson Parola123";
 
@@ -141,743 +156,1024 @@ public class CommandExecutorTest {
 
         String message = "Login get session if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
     void testExecuteAddFriendWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "add-friend";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Add friend should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAddFriendWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "add-friend g.peterson s.peterson";
+        String input = "add-friend g.peterson";
 
         String expected = "You have already sent friend request to g.peterson";
 
         String message = "Add friend should show if request is already sent";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "s.peterson"), message);
     }
 
     @Test
     void testExecuteAddFriendWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        String input = "add-friend g.peterson s.peterson";
+        String input = "add-friend g.peterson";
 
         String expected = "Friend request sent to g.peterson";
 
         String message = "Add friend should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "s.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFriendWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "remove-friend";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Remove friend should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFriendWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "remove-friend g.peterson a.peterson";
+        String input = "remove-friend a.peterson";
 
         String expected = "User not found";
 
         String message = "Remove friend should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFriendWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "remove-friend g.peterson s.peterson";
+        String input = "remove-friend g.peterson";
 
         String expected = "Friend removed successfully";
 
         String message = "Remove friend should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "s.peterson"), message);
     }
 
     @Test
     void testExecuteCheckRequestsWithIncorrectArgsCount() {
-        String input = "check-requests";
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String input = "check-requests g.peterson";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Check requests should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteCheckRequestsWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "check-requests g.peterson";
+        String input = "check-requests";
 
         String expected = "[{\"fullName\":\"Steven Peterson\",\"username\":\"s.peterson\"}]";
 
         String message = "Check requests should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAcceptRequestWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "accept";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Accept friend should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAcceptRequestWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "accept s.pseterson g.peterson";
+        String input = "accept s.pseterson";
 
         String expected = "User not found";
 
         String message = "Accept friend should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAcceptRequestWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "accept s.peterson g.peterson";
+        String input = "accept s.peterson";
 
         String expected = "You are now friends with s.peterson";
 
         String message = "Accept friend should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeclineRequestWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "decline";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Decline friend should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeclineRequestWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "decline s.pseterson g.peterson";
+        String input = "decline s.pseterson";
 
         String expected = "User not found";
 
         String message = "Decline friend should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeclineRequestWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
 
-        String input = "decline s.peterson g.peterson";
+        String input = "decline s.peterson";
 
         String expected = "Request declined";
 
         String message = "Decline friend should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListFriendsWithIncorrectArgsCount() {
-        String input = "list-friends";
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String input = "list-friends g.peterson";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "List friends friend should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListFriendsWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "list-friends g.peterson";
+        String input = "list-friends";
 
         String expected = "[{\"fullName\":\"Steven Peterson\",\"username\":\"s.peterson\"}]";
 
         String message = "Decline friend should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteBlockWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "block";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Block should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteBlockWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "block s.pseterson g.peterson";
+        String input = "block s.pseterson";
 
         String expected = "User not found";
 
         String message = "Block should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteBlockWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "block s.peterson g.peterson";
+        String input = "block s.peterson";
 
         String expected = "s.peterson blocked";
 
         String message = "Block should return proper message if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteUnblockWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "unblock";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Unblock should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteUnblockWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
-        executor.execute(CommandCreator.newCommand("block s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+        execute("block s.peterson", "g.peterson");
 
-        String input = "unblock s.pesterson g.peterson";
+        String input = "unblock s.pesterson";
 
         String expected = "User not found";
 
         String message = "Unblock should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteUnblockWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
-        executor.execute(CommandCreator.newCommand("block s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+        execute("block s.peterson", "g.peterson");
 
-        String input = "unblock s.peterson g.peterson";
+        String input = "unblock s.peterson";
 
         String expected = "s.peterson unblocked";
 
         String message = "Unblock should show if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListBlockedWithIncorrectArgsCount() {
-        String input = "list-blocked";
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String input = "list-blocked g.peterson";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "List blocked should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListBlockedWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
-        executor.execute(CommandCreator.newCommand("block s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+        execute("block s.peterson", "g.peterson");
 
-        String input = "list-blocked g.peterson";
+        String input = "list-blocked";
 
         String expected = "[{\"fullName\":\"Steven Peterson\",\"username\":\"s.peterson\"}]";
 
         String message = "List blocked should show if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenChatWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "open-chat";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Open chat should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenChatWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "open-chat s.pesterson g.peterson";
+        String input = "open-chat s.pesterson";
 
         String expected = "User not found";
 
         String message = "Open chat should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenChatWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "open-chat s.peterson g.peterson";
+        String input = "open-chat s.peterson";
 
-        String expected = "{\"friend\":\"s.peterson\",\"messages\":[]}";
+        String expected = "{\"friend\":\"s.peterson\",\"messages\":[],\"cursor\":0}";
 
         String message = "Unblock should show if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
+    }
+
+    @Test
+    void testExecuteOpenChatWithLongHistory() {
+        openChatWithMessages(CommandExecutor.HISTORY_PAGE_SIZE + 10);
+
+        Response response = executor.execute(CommandCreator.newCommand("open-chat s.peterson"),
+                sessions.get("g.peterson"));
+        PersonalChatDTO chat = assertInstanceOf(Response.PersonalHistory.class, response,
+                "Open chat should return the chat history").chat();
+
+        assertEquals(CommandExecutor.HISTORY_PAGE_SIZE, chat.messages().size(),
+                "Open chat should return only the newest page");
+        assertEquals("m" + (CommandExecutor.HISTORY_PAGE_SIZE + 9), chat.messages().getLast().text(),
+                "Open chat should end with the newest message");
+        assertEquals(10, chat.cursor(), "Open chat should point the cursor at the oldest returned message");
+    }
+
+    @Test
+    void testExecuteHistoryWithIncorrectArgsCount() {
+        openChatWithMessages(1);
+
+        String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
+
+        assertEquals(expected, execute("history 1", "g.peterson"), "History should show if args count is incorrect");
+        assertEquals(expected, execute("history a 5", "g.peterson"), "History should reject non-numeric cursors");
+        assertEquals(expected, execute("history 1 0", "g.peterson"), "History should reject empty pages");
+    }
+
+    @Test
+    void testExecuteHistoryWithoutOpenChat() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String expected = "You need to be in chat to see its history";
+
+        assertEquals(expected, execute("history 0 10", "g.peterson"), "History should require an open chat");
+    }
+
+    @Test
+    void testExecuteHistoryWithCursorOutOfRange() {
+        openChatWithMessages(3);
+
+        String expected = "Position is out of range";
+
+        assertEquals(expected, execute("history 4 10", "g.peterson"), "History should reject cursors past the end");
+    }
+
+    @Test
+    void testExecuteHistoryWithCursor() {
+        openChatWithMessages(25);
+
+        Response response = executor.execute(CommandCreator.newCommand("history 15 10"), sessions.get("g.peterson"));
+        HistoryDTO page = assertInstanceOf(Response.History.class, response,
+                "History should return a history page").page();
+
+        assertEquals(5, page.cursor(), "History should move the cursor to the oldest returned message");
+        assertEquals("m5", page.messages().getFirst().text(), "History should start at the cursor");
+        assertEquals("m14", page.messages().getLast().text(), "History should stop before the given cursor");
+
+        String expected = "{\"messages\":[],\"cursor\":0}";
+
+        assertEquals(expected, execute("history 0 10", "g.peterson"), "History should be empty at the start");
+    }
+
+    @Test
+    void testExecuteHistoryWithGroupChat() {
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
+        execute("open-group chat-name", "g.peterson");
+        execute("send \"first\"", "g.peterson");
+        execute("send \"second\"", "g.peterson");
+
+        String expected = "{\"messages\":[{\"sender\":{\"firstName\":\"Gorge\",\"lastName\":\"Peterson\","
+                + "\"username\":\"g.peterson\",\"passwordHash\":\"%s\"},\"text\":\"first\"}],\"cursor\":0}";
+
+        assertEquals(String.format(expected, sessions.get("g.peterson").getUser().passwordHash()),
+                execute("history 1 5", "g.peterson"), "History should page through group chats");
     }
 
     @Test
     void testExecuteSendMessageWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "send \"dsa\" dsa";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Send should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteSendMessageWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "send \"dsadsas\" g.peterson dsadas 1";
+        String input = "send \"dsadsas\"";
 
-        String expected = "User not found";
+        String expected = "You need to be in chat to send message";
 
-        String message = "Send should show if data is incorrect";
+        String message = "Send should show if no chat is open";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteSendMessageWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
 
-        executor.execute(CommandCreator.newCommand("add-friend g.peterson s.peterson"));
-        executor.execute(CommandCreator.newCommand("accept s.peterson g.peterson"));
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
 
-        String input = "send \"dsadsas\" g.peterson s.peterson 1";
+        execute("open-chat s.peterson", "g.peterson");
+
+        String input = "send \"dsadsas\"";
 
         String expected = "[g.peterson] dsadsas";
 
         String message = "Send should show if data is correct";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteCreateGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "create-group";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Create group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteCreateGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
+        execute("register Gorge Peterson g.peterson Parola123");
 
-        String input = "create-group chat-name g.peterson";
+        String input = "create-group chat-name";
 
         String expected = "Group chat created with admin g.peterson";
 
         String message = "Create group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeleteGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "delete-group";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Delete group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeleteGroupWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "delete-group chat-namde g.peterson";
+        String input = "delete-group chat-namde";
 
         String expected = "Group chat does not exist";
 
         String message = "Delete group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteDeleteGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "delete-group chat-name g.peterson";
+        String input = "delete-group chat-name";
 
         String expected = "Group chat deleted";
 
         String message = "Delete group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAddToGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "add-to-group";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Add to group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAddToGroupWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "add-to-group chat-name g.peterson adas";
+        String input = "add-to-group adas chat-name";
 
         String expected = "User not found";
 
         String message = "Add to group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteAddToGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "add-to-group s.peterson chat-name g.peterson";
+        String input = "add-to-group s.peterson chat-name";
 
         String expected = "s.peterson added to chat-name";
 
         String message = "Add to group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFromGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "remove-from-group";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Remove from group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFromGroupWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group chat-name g.peterson adas"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "remove-from-group g.peterson chat-name adas";
+        String input = "remove-from-group adas chat-name";
 
         String expected = "User not found";
 
         String message = "Remove from group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteRemoveFromGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group chat-name g.peterson adas"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "remove-from-group chat-name s.peterson g.peterson";
+        String input = "remove-from-group chat-name s.peterson";
 
         String expected = "User not found";
 
         String message = "Remove from group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteLeaveGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "leave";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Leave group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteLeaveGroupWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group chat-name g.peterson adas"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "leave g.peterson chat-name";
+        String input = "leave g.peterson";
 
-        String expected = "User not found";
+        String expected = "Group chat does not exist";
 
         String message = "Leave group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteLeaveGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group chat-name g.peterson adas"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "leave chat-name g.peterson";
+        String input = "leave chat-name";
 
         String expected = "You left from chat-name";
 
         String message = "Leave group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenGroupWithIncorrectArgsCount() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
         String input = "open-group";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Open group should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenGroupWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "open-group g.peterson chat-name";
+        String input = "open-group g.peterson";
 
-        String expected = "User not found";
+        String expected = "Group chat does not exist";
 
         String message = "Open group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteOpenGroupWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group chat-name g.peterson adas"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "open-group chat-name g.peterson";
+        String input = "open-group chat-name";
 
-        String expected = "{\"name\":\"chat-name\",\"users\":[\"g.peterson\"],\"messages\":[]}";
+        String expected = "{\"name\":\"chat-name\",\"users\":[\"g.peterson\"],\"messages\":[],\"cursor\":0}";
 
         String message = "Open group should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListGroupsWithIncorrectArgsCount() {
-        String input = "list-groups";
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String input = "list-groups g.peterson";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "List groups should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteListGroupsWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "list-groups g.peterson";
+        String input = "list-groups";
 
         String expected = "[\"chat-name\"]";
 
         String message = "List groups should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteCheckInboxWithIncorrectArgsCount() {
-        String input = "check-inbox";
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        String input = "check-inbox g.peterson";
 
         String expected = CommandExecutor.INCORRECT_FORMAT_MESSAGE;
 
         String message = "Check inbox should show if args count is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "g.peterson"), message);
     }
 
     @Test
     void testExecuteCheckInboxWithIncorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
 
-        String input = "check-inbox user23424";
+        String input = "check-inbox";
 
-        String expected = "[]";
+        String expected = CommandExecutor.NOT_LOGGED_IN_MESSAGE;
 
-        String message = "Check inbox should show if data is incorrect";
+        String message = "Check inbox should show if user is not logged in";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input), message);
     }
 
     @Test
     void testExecuteCheckInboxWithCorrectData() {
-        executor.execute(CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("register Steven Peterson s.peterson Parola123"));
-        executor.execute(CommandCreator.newCommand("create-group chat-name g.peterson"));
-        executor.execute(CommandCreator.newCommand("add-to-group s.peterson chat-name g.peterson"));
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("create-group chat-name", "g.peterson");
+        execute("add-to-group s.peterson chat-name", "g.peterson");
 
-        String input = "check-inbox s.peterson";
+        String input = "check-inbox";
 
         String expected = "[{\"user\":{\"firstName\":\"Steven\",\"lastName\":\"Peterson\",\"username\":\"s.peterson\",\"passwordHash\":\"3a7306a7751a1079497609b718251c4a4d76a375f3d893280f1e50db6cbaf5a8\"},\"type\":\"OTHER\",\"content\":\"g.peterson added you to group chat-name\"}]";
 
         String message = "Check inbox should show if data is incorrect";
 
-        assertEquals(expected, executor.execute(CommandCreator.newCommand(input)), message);
+        assertEquals(expected, execute(input, "s.peterson"), message);
+    }
+
+    @Test
+    void testExecuteLoginWithBoundSession() {
+        execute("register Gorge Peterson g.peterson Parola123");
+        Session session = new Session();
+
+        executor.execute(CommandCreator.newCommand("login g.peterson Parola123"), session);
+
+        assertEquals("g.peterson", session.getUser().username(), "Login should bind the user to the session");
+        assertEquals(Response.text("You have no friends at this moment"),
+                executor.execute(CommandCreator.newCommand("list-friends"), session),
+                "Commands after login should use the session user");
+    }
+
+    @Test
+    void testExecuteWithoutLogin() {
+        String input = "list-friends";
+
+        String expected = CommandExecutor.NOT_LOGGED_IN_MESSAGE;
+
+        String message = "Commands other than register and login should require a session";
+
+        assertEquals(expected, execute(input), message);
+    }
+
+    @Test
+    void testExecuteLogoutWithOpenChat() {
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+        execute("open-chat s.peterson", "g.peterson");
+
+        Session session = sessions.get("g.peterson");
+
+        assertEquals("Logged out", execute("logout", "g.peterson"), "Logout should confirm the logout");
+        assertNull(session.getUser(), "Logout should unbind the user from the session");
+        assertNull(session.getOpenChat(), "Logout should close the open chat");
+    }
+
+    @Test
+    void testReplayWithRegisteredUserFromAnotherNode() {
+        User user = new User("Gorge", "Peterson", "g.peterson", SHA256.hashPassword("Parola123"));
+
+        assertEquals("Successful registration",
+                TextCodec.encode(executor.replay(new ClusterMessage.Registered("node-1", user))),
+                "Replay should register the replicated user");
+        assertEquals(user.passwordHash(), userRepo.getAll().iterator().next().passwordHash(),
+                "Replay should store the replicated password hash as it is");
+        assertInstanceOf(Response.Login.class,
+                executor.execute(CommandCreator.newCommand("login g.peterson Parola123"), new Session()),
+                "A replicated user should be able to log in with the original password");
+    }
+
+    @Test
+    void testReplayWithRegisterCommand() {
+        ClusterMessage message = new ClusterMessage.Executed("node-1", null, null,
+                CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
+
+        executor.replay(message);
+
+        assertEquals(0, userRepo.getAll().size(), "Replay should not register users from raw commands");
+    }
+
+    @Test
+    void testRunWithRegister() {
+        CommandResult result = executor.run(
+                CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"), new Session());
+
+        assertTrue(result.isApplied(), "A successful registration should be reported as applied");
+        assertEquals("g.peterson", result.registeredUser().username(),
+                "A successful registration should report the registered user");
+        assertEquals(SHA256.hashPassword("Parola123"), result.registeredUser().passwordHash(),
+                "The registered user should carry the password hash");
+    }
+
+    @Test
+    void testRunWithFailedCommand() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        CommandResult result = executor.run(
+                CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"), new Session());
+
+        assertFalse(result.isApplied(), "A failed command should not be reported as applied");
+        assertEquals("User with this username already exists", TextCodec.encode(result.response()),
+                "A failed command should still return its error");
+    }
+
+    @Test
+    void testRunWithLogin() {
+        execute("register Gorge Peterson g.peterson Parola123");
+
+        CommandResult result = executor.run(CommandCreator.newCommand("login g.peterson Parola123"), new Session());
+
+        assertFalse(result.isApplied(), "Login without notifications should not be reported as an applied change");
+    }
+
+    @Test
+    void testRunWithLoginClearingNotifications() {
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("add-friend s.peterson", "g.peterson");
+
+        CommandResult result = executor.run(CommandCreator.newCommand("login s.peterson Parola123"), new Session());
+
+        assertTrue(result.isApplied(), "Login that clears notifications should be reported as applied");
+        assertEquals(CommandType.CHECK_INBOX, result.replicatedCommand().type(),
+                "Login should be replicated as clearing the inbox");
+    }
+
+    @Test
+    void testReplayWithSendMessageInOpenChat() {
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+
+        ClusterMessage message = new ClusterMessage.Executed("node-1", "g.peterson",
+                ChatKey.personal("g.peterson", "s.peterson"), CommandCreator.newCommand("send \"hello\""));
+
+        assertEquals(new Response.ChatMessage("g.peterson", "hello"), executor.replay(message),
+                "Replay should send the message as the original user in the original chat");
+        assertEquals(1, pcRepo.getAll().iterator().next().getMessages().size(),
+                "Replay should store the replicated message");
+    }
+
+    @Test
+    void testReplayWithUnknownUser() {
+        ClusterMessage message = new ClusterMessage.Executed("node-1", "g.peterson", null,
+                CommandCreator.newCommand("add-friend s.peterson"));
+
+        assertEquals("User not found", TextCodec.encode(executor.replay(message)),
+                "Replay should report users that do not exist on this node");
+    }
+
+    private void openChatWithMessages(int count) {
+        execute("register Gorge Peterson g.peterson Parola123");
+        execute("register Steven Peterson s.peterson Parola123");
+
+        execute("add-friend g.peterson", "s.peterson");
+        execute("accept s.peterson", "g.peterson");
+        execute("open-chat s.peterson", "g.peterson");
+
+        for (int i = 0; i < count; i++) {
+            execute("send \"m" + i + "\"", "g.peterson");
+        }
+    }
+
+    private String execute(String input) {
+        return TextCodec.encode(executor.execute(CommandCreator.newCommand(input), new Session()));
+    }
+
+    private String execute(String input, String username) {
+        Session session = sessions.computeIfAbsent(username, CommandExecutorTest::sessionOf);
+
+        return TextCodec.encode(executor.execute(CommandCreator.newCommand(input), session));
+    }
+
+    private static Session sessionOf(String username) {
+        try {
+            Session session = new Session();
+            session.bind(UserService.getInstance().ensureUserExists(username));
+
+            return session;
+        } catch (ValueNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 }
@@ -0,0 +1,106 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.jfr;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChattyEventsTest {
+
+    @Test
+    void testCommandEventWithCompletedCommand() throws IOException {
+        List<RecordedEvent> events = record(CommandEvent.class, () -> {
+            CommandEvent event = new CommandEvent();
+            event.begin();
+            event.complete(CommandType.SEND_MESSAGE, "g.peterson", 42);
+        });
+
+        assertEquals(1, events.size(), "Completing a command should commit exactly one event");
+        assertEquals("send", events.getFirst().getString("command"), "Command event should contain the command name");
+        assertEquals("g.peterson", events.getFirst().getString("user"), "Command event should contain the user");
+        assertEquals(42, events.getFirst().getLong("responseBytes"), "Command event should contain the response size");
+    }
+
+    @Test
+    void testBroadcastEventWithGroupChat() throws IOException {
+        List<RecordedEvent> events = record(BroadcastEvent.class, () -> {
+            BroadcastEvent event = new BroadcastEvent();
+            event.begin();
+            event.complete(ChatKey.group("friends").id(), 3, 128);
+        });
+
+        assertEquals(1, events.size(), "Completing a broadcast should commit exactly one event");
+        assertEquals("group:friends", events.getFirst().getString("chat"), "Broadcast event should contain the chat");
+        assertEquals(3, events.getFirst().getInt("subscribers"), "Broadcast event should contain the recipients");
+        assertEquals(128, events.getFirst().getLong("bytes"), "Broadcast event should contain the frame size");
+    }
+
+    @Test
+    void testRepositoryEventsWithSaveAndLoad() throws IOException {
+        List<RecordedEvent> events = record(List.of(RepositorySaveEvent.class, RepositoryLoadEvent.class), () -> {
+            RepositorySaveEvent save = new RepositorySaveEvent();
+            save.begin();
+            save.complete("users.dat", 2, 512);
+
+            RepositoryLoadEvent load = new RepositoryLoadEvent();
+            load.begin();
+            load.complete("users.dat", 2, 512);
+        });
+
+        assertEquals(2, events.size(), "Save and load should each commit one event");
+        assertTrue(events.stream().allMatch(e -> "users.dat".equals(e.getString("repository"))
+                        && e.getInt("entityCount") == 2 && e.getLong("bytes") == 512),
+                "Repository events should contain the repository, entity count and file size");
+    }
+
+    @Test
+    void testCommandEventWithDisabledRecording() throws IOException {
+        List<RecordedEvent> events = record(BroadcastEvent.class, () -> {
+            CommandEvent event = new CommandEvent();
+            event.begin();
+            event.complete(CommandType.LOGIN, null, 0);
+        });
+
+        assertTrue(events.isEmpty(), "Disabled events should not be committed");
+    }
+
+    private static List<RecordedEvent> record(Class<? extends Event> type, Runnable action)
+            throws IOException {
+        return record(List.of(type), action);
+    }
+
+    private static List<RecordedEvent> record(List<Class<? extends Event>> types, Runnable action)
+            throws IOException {
+        Path file = Files.createTempFile("chatty", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            types.forEach(type -> recording.enable(type).withThreshold(Duration.ZERO));
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+
+            List<String> names = types.stream().map(type -> EventType.getEventType(type).getName()).toList();
+
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> names.contains(e.getEventType().getName()))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandMetricsTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private CommandMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new CommandMetrics();
+    }
+
+    @Test
+    void testRecordWithPhases() {
+        metrics.record(CommandType.SEND_MESSAGE, 3 * MILLI);
+        metrics.record(CommandType.SEND_MESSAGE, CommandPhase.PERSISTENCE, 2 * MILLI);
+        metrics.recordError(CommandType.SEND_MESSAGE);
+
+        assertEquals(1, metrics.getCount(CommandType.SEND_MESSAGE), "Record should count requests per type");
+        assertEquals(1, metrics.getErrors(CommandType.SEND_MESSAGE), "Record error should count errors per type");
+        assertEquals(2 * MILLI, metrics.getLatency(CommandType.SEND_MESSAGE, CommandPhase.PERSISTENCE).getMax(),
+                "Phases should be recorded separately");
+        assertEquals(0, metrics.getCount(CommandType.LIST_FRIENDS), "Other command types should stay empty");
+    }
+
+    @Test
+    void testReportWithRecordedTypesOnly() {
+        metrics.record(CommandType.LIST_FRIENDS, MILLI);
+
+        String report = metrics.report();
+
+        assertTrue(report.startsWith("list-friends: 1 requests, 0 errors"),
+                "Report should describe recorded command types but was " + report);
+        assertFalse(report.contains("send"), "Report should skip command types without requests");
+    }
+
+    @Test
+    void testRegisterWithMBeanServer() throws JMException {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("bg.sofia.uni.fmi.mjt.chatty:type=CommandStats,command=\"open-group\"");
+
+        metrics.record(CommandType.OPEN_GROUP, 5 * MILLI);
+        metrics.register(server);
+
+        assertEquals(1L, server.getAttribute(name, "Count"), "MBeans should expose the request count");
+        assertEquals(5.0, (double) server.getAttribute(name, "MaxMicros") / 1000, 0.1,
+                "MBeans should expose latencies in microseconds");
+
+        metrics.register(server);
+        metrics.unregister(server);
+        assertFalse(server.isRegistered(name), "Unregister should remove every MBean");
+    }
+
+    @Test
+    void testResetWithRecordedValues() throws JMException {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("bg.sofia.uni.fmi.mjt.chatty:type=CommandStats,command=\"send\"");
+
+        metrics.record(CommandType.SEND_MESSAGE, MILLI);
+        metrics.register(server);
+        server.invoke(name, "reset", new Object[0], new String[0]);
+
+        assertEquals(0, metrics.getCount(CommandType.SEND_MESSAGE), "Reset through JMX should clear the counters");
+    }
+
+}
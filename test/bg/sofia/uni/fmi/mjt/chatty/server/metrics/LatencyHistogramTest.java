@@ -0,0 +1,95 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private static final double MAX_RELATIVE_ERROR = 1.0 / 64;
+    private static final int WRITERS = 4;
+    private static final int RECORDS_PER_WRITER = 10_000;
+
+    @Test
+    void testGetPercentileWithSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(50, histogram.getPercentile(50), "Small values should be recorded exactly");
+        assertEquals(99, histogram.getPercentile(99), "Small values should be recorded exactly");
+        assertEquals(100, histogram.getPercentile(100), "The highest percentile should be the maximum");
+        assertEquals(1, histogram.getPercentile(0), "The lowest percentile should be the minimum");
+    }
+
+    @Test
+    void testGetPercentileWithLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1_000; value <= 1_000_000_000L; value *= 10) {
+            histogram.record(value);
+        }
+
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 1_000_000 && median <= 1_000_000 * (1 + MAX_RELATIVE_ERROR),
+                "Large values should be recorded within the bucket precision but was " + median);
+        assertEquals(1_000_000_000L, histogram.getPercentile(100), "The highest percentile should be the maximum");
+    }
+
+    @Test
+    void testIndexOfWithBucketBoundaries() {
+        for (long value = 0; value < 1 << 16; value++) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+
+            assertTrue(highest >= value && highest - value <= value * MAX_RELATIVE_ERROR,
+                    "Bucket of " + value + " should end at most 1/64 above it but ended at " + highest);
+        }
+
+        assertTrue(LatencyHistogram.indexOf(Long.MAX_VALUE) > LatencyHistogram.indexOf(Long.MAX_VALUE / 2),
+                "The largest values should still get their own buckets");
+    }
+
+    @Test
+    void testRecordWithConcurrentWriters() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> writers = new ArrayList<>();
+
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int value = 1; value <= RECORDS_PER_WRITER; value++) {
+                    histogram.record(value);
+                }
+            }));
+        }
+
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(WRITERS * RECORDS_PER_WRITER, histogram.getCount(), "Concurrent records should not be lost");
+        assertEquals(RECORDS_PER_WRITER, histogram.getMax(), "Concurrent records should keep the maximum");
+        assertEquals(1, histogram.getMin(), "Concurrent records should keep the minimum");
+    }
+
+    @Test
+    void testResetWithRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount(), "Reset should forget every recorded value");
+        assertEquals(0, histogram.getPercentile(99), "Percentiles of an empty histogram should be zero");
+    }
+
+    @Test
+    void testRecordWithNegativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().record(-1),
+                "Record should reject negative latencies");
+    }
+
+}
@@ -0,0 +1,77 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferPoolTest {
+
+    @Test
+    void testAcquireWithEmptyPool() {
+        BufferPool pool = new BufferPool();
+
+        ByteBuffer buffer = pool.acquire(100);
+
+        assertTrue(buffer.isDirect(), "Acquire should return direct buffers");
+        assertTrue(buffer.capacity() >= 100, "Acquire should return a buffer with at least the requested capacity");
+        assertEquals(1, pool.getMisses(), "Acquire should count a miss for an empty pool");
+        assertEquals(1, pool.getOutstandingLeases(), "Acquire should count the lease as outstanding");
+    }
+
+    @Test
+    void testAcquireWithReleasedBuffer() {
+        BufferPool pool = new BufferPool();
+
+        ByteBuffer buffer = pool.acquire(100);
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        ByteBuffer reused = pool.acquire(200);
+
+        assertSame(buffer, reused, "Acquire should reuse a released buffer of the same size class");
+        assertEquals(0, reused.position(), "Acquire should return cleared buffers");
+        assertEquals(1, pool.getHits(), "Acquire should count a hit for a reused buffer");
+    }
+
+    @Test
+    void testReleaseWithFullPool() {
+        BufferPool pool = new BufferPool(1);
+
+        ByteBuffer first = pool.acquire(100);
+        ByteBuffer second = pool.acquire(100);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.getPooledBuffers(), "Release should not pool more buffers than the limit");
+        assertEquals(0, pool.getOutstandingLeases(), "Release should return all leases");
+    }
+
+    @Test
+    void testReleaseWithFullByteBudget() {
+        int largest = new BufferPool().getMaxCapacity();
+        BufferPool pool = new BufferPool(1024, 2L * largest);
+
+        ByteBuffer first = pool.acquire(largest);
+        ByteBuffer second = pool.acquire(largest);
+        ByteBuffer third = pool.acquire(largest);
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(2, pool.getPooledBuffers(), "Release should not pool more bytes than the per class budget");
+    }
+
+    @Test
+    void testAcquireWithTooLargeCapacity() {
+        BufferPool pool = new BufferPool();
+
+        assertThrows(IllegalArgumentException.class, () -> pool.acquire(pool.getMaxCapacity() + 1),
+                "Acquire should throw for capacity larger than any size class");
+    }
+
+}
@@ -0,0 +1,111 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameDecoderTest {
+
+    private static byte[] framesOf(String... payloads) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (String payload : payloads) {
+            ByteBuffer frame = Frames.encode(payload);
+            out.write(frame.array(), 0, frame.limit());
+        }
+
+        return out.toByteArray();
+    }
+
+    private static List<String> feed(FrameDecoder decoder, byte[] bytes) throws IOException {
+        decoder.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        return decoder.decode();
+    }
+
+    @Test
+    void testDecodeWithPipelinedFrames() throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+
+        List<String> frames = feed(decoder, framesOf("login george Parola123", "list-friends george"));
+
+        assertEquals(List.of("login george Parola123", "list-friends george"), frames,
+                "Decode should return every complete frame from a single read");
+    }
+
+    @Test
+    void testDecodeWithSplitFrame() throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        byte[] bytes = framesOf("send \"Здравей, как си?\" george steven 1");
+        int split = 7;
+
+        List<String> first = feed(decoder, Arrays.copyOfRange(bytes, 0, split));
+        List<String> second = feed(decoder, Arrays.copyOfRange(bytes, split, bytes.length));
+
+        assertTrue(first.isEmpty(), "Decode should not return incomplete frames");
+        assertEquals(List.of("send \"Здравей, как си?\" george steven 1"), second,
+                "Decode should join a frame split across reads");
+    }
+
+    @Test
+    void testDecodeWithFrameLargerThanInitialBuffer() throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        String payload = "send \"" + "a".repeat(10_000) + "\" george steven 1";
+        byte[] bytes = framesOf(payload);
+
+        List<String> frames = List.of();
+        for (int offset = 0; offset < bytes.length; offset += 1024) {
+            frames = feed(decoder,
+                    Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 1024)));
+        }
+
+        assertEquals(List.of(payload), frames, "Decode should grow its buffer for long frames");
+    }
+
+    @Test
+    void testDecodeWithConsumedLargeFrame() throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        byte[] bytes = framesOf("send \"" + "a".repeat(10_000) + "\" george steven 1");
+
+        for (int offset = 0; offset < bytes.length; offset += 1024) {
+            feed(decoder, Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 1024)));
+        }
+
+        assertEquals(2048, decoder.getCapacity(),
+                "Decode should return to a small buffer once the large frame has been consumed");
+        assertEquals(List.of("list-friends"), feed(decoder, framesOf("list-friends")),
+                "Decode should keep working after shrinking its buffer");
+    }
+
+    @Test
+    void testDecodeWithInvalidLength() {
+        FrameDecoder decoder = new FrameDecoder();
+        byte[] bytes = ByteBuffer.allocate(Frames.LENGTH_FIELD_SIZE).putInt(-1).array();
+
+        assertThrows(MalformedFrameException.class, () -> feed(decoder, bytes),
+                "Decode should throw for negative frame length");
+    }
+
+    @Test
+    void testDecodeBinaryWithPipelinedFrames() throws IOException {
+        FrameDecoder decoder = new FrameDecoder();
+        decoder.readFrom(Channels.newChannel(new ByteArrayInputStream(framesOf("ping", "pong"))));
+
+        List<ByteBuffer> frames = decoder.decodeBinary();
+
+        assertEquals(2, frames.size(), "Decode binary should return every complete frame");
+        assertTrue(Frames.isHeartbeat(frames.get(1), Frames.HEARTBEAT_PONG),
+                "Decode binary should return the raw payload without the length field");
+    }
+
+}
@@ -0,0 +1,116 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameWriterTest {
+
+    private static List<ByteBuffer> drain(FrameWriter writer) {
+        List<ByteBuffer> frames = new ArrayList<>();
+
+        for (ByteBuffer frame = writer.poll(); frame != null; frame = writer.poll()) {
+            frames.add(frame);
+        }
+
+        return frames;
+    }
+
+    private static byte[] payloadsOf(List<ByteBuffer> frames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (ByteBuffer frame : frames) {
+            out.write(frame.array(), Frames.LENGTH_FIELD_SIZE, frame.remaining() - Frames.LENGTH_FIELD_SIZE);
+        }
+
+        return out.toByteArray();
+    }
+
+    @Test
+    void testCloseWithSmallPayload() throws IOException {
+        FrameWriter writer = new FrameWriter(64);
+
+        writer.write("[\"g.peterson\"]");
+        writer.close();
+
+        List<ByteBuffer> frames = drain(writer);
+
+        assertEquals(1, frames.size(), "Payloads smaller than a chunk should fit into one frame");
+        assertEquals(Frames.encode("[\"g.peterson\"]"), frames.getFirst(),
+                "A single chunk should match the regular frame encoding");
+    }
+
+    @Test
+    void testWriteWithPayloadLargerThanChunk() throws IOException {
+        String payload = "x".repeat(100);
+        FrameWriter writer = new FrameWriter(16);
+
+        writer.write(payload);
+        assertTrue(writer.hasFrames(), "Full chunks should be emitted before the writer is closed");
+        writer.close();
+
+        List<ByteBuffer> frames = drain(writer);
+
+        for (ByteBuffer frame : frames.subList(0, frames.size() - 1)) {
+            int lengthField = frame.getInt(0);
+
+            assertTrue(Frames.isContinued(lengthField), "Every chunk but the last should be marked as continued");
+            assertEquals(16, lengthField & ~Frames.CONTINUATION_FLAG, "Continued chunks should be full");
+        }
+
+        assertFalse(Frames.isContinued(frames.getLast().getInt(0)), "The last chunk should end the message");
+        assertArrayEquals(payload.getBytes(StandardCharsets.UTF_8), payloadsOf(frames),
+                "Chunks should carry the whole payload in order");
+    }
+
+    @Test
+    void testWriteWithMultiByteCharactersAcrossChunks() {
+        String payload = "Здравей, 😀 свят " + "ü".repeat(20);
+        FrameWriter writer = new FrameWriter(5);
+
+        for (char c : payload.toCharArray()) {
+            writer.write(c);
+        }
+        writer.close();
+
+        List<ByteBuffer> frames = drain(writer);
+
+        frames.forEach(frame -> assertTrue(frame.remaining() - Frames.LENGTH_FIELD_SIZE <= 5,
+                "Chunks should never exceed the chunk size"));
+        assertEquals(payload, new String(payloadsOf(frames), StandardCharsets.UTF_8),
+                "Characters should never be split between chunks");
+    }
+
+    @Test
+    void testWriteWithUnpairedSurrogates() throws IOException {
+        FrameWriter writer = new FrameWriter(64);
+
+        writer.write("a\uD83Db\uDE00");
+        writer.write('\uD83D');
+        writer.close();
+
+        assertEquals("a?b??", new String(payloadsOf(drain(writer)), StandardCharsets.UTF_8),
+                "Unpaired surrogates should be replaced like the regular frame encoding does");
+    }
+
+    @Test
+    void testWriteWithClosedWriter() {
+        FrameWriter writer = new FrameWriter(64);
+        writer.close();
+
+        assertThrows(IllegalStateException.class, () -> writer.write('a'),
+                "Writing after close should not be allowed");
+    }
+
+}
@@ -0,0 +1,81 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerialExecutorTest {
+
+    private static final int TASKS_COUNT = 1000;
+
+    @Test
+    void testExecuteKeepsSubmissionOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        SerialExecutor executor = new SerialExecutor(pool);
+
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(TASKS_COUNT);
+
+        for (int i = 0; i < TASKS_COUNT; i++) {
+            int task = i;
+            executor.execute(() -> {
+                executed.add(task);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "All tasks should be executed");
+        assertEquals(IntStream.range(0, TASKS_COUNT).boxed().toList(), executed,
+                "Tasks should be executed in the order they were submitted");
+
+        pool.shutdown();
+    }
+
+    @Test
+    void testExecuteWithShutDownDelegate() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        SerialExecutor executor = new SerialExecutor(pool);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        executor.execute(() -> executed.add(1));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "The first task should start");
+        pool.shutdown();
+        release.countDown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "The delegate should terminate");
+
+        assertTrue(executed.isEmpty(), "Queued tasks should be dropped once the delegate is shut down");
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> executed.add(2)),
+                "Submitting to a shut down delegate should be rejected to the caller");
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> executed.add(3)),
+                "The executor should not be left waiting for a task that will never run");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
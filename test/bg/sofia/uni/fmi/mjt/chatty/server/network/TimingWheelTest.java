@@ -0,0 +1,115 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.network;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimingWheelTest {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SIZE = 8;
+
+    private AtomicLong clock;
+    private TimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        wheel = new TimingWheel(TICK_NANOS, WHEEL_SIZE, clock::get);
+    }
+
+    @Test
+    void testAdvanceWithExpiredTimeout() {
+        AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 25, TimeUnit.MILLISECONDS);
+
+        advanceTo(20);
+        assertEquals(0, runs.get(), "Advance should not run timeouts before their deadline");
+
+        advanceTo(30);
+        assertEquals(1, runs.get(), "Advance should run timeouts once their deadline has passed");
+        assertEquals(0, wheel.pending(), "Advance should remove expired timeouts");
+    }
+
+    @Test
+    void testAdvanceWithDelayLongerThanWheel() {
+        AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(runs::incrementAndGet, 3 * WHEEL_SIZE * 10 + 5, TimeUnit.MILLISECONDS);
+
+        advanceTo(3 * WHEEL_SIZE * 10);
+        assertEquals(0, runs.get(), "Advance should keep timeouts for the remaining wheel rounds");
+
+        advanceTo(3 * WHEEL_SIZE * 10 + 10);
+        assertEquals(1, runs.get(), "Advance should run timeouts after all wheel rounds pass");
+    }
+
+    @Test
+    void testAdvanceWithCancelledTimeout() {
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+
+        timeout.cancel();
+        advanceTo(50);
+
+        assertEquals(0, runs.get(), "Advance should not run cancelled timeouts");
+        assertEquals(0, wheel.pending(), "Advance should drop cancelled timeouts");
+    }
+
+    @Test
+    void testAdvanceWithTimeoutsInDeadlineOrder() {
+        List<Integer> order = new ArrayList<>();
+        wheel.schedule(() -> order.add(2), 40, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> order.add(1), 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> order.add(3), 90, TimeUnit.MILLISECONDS);
+
+        advanceTo(100);
+
+        assertEquals(List.of(1, 2, 3), order, "Advance should run timeouts in deadline order");
+    }
+
+    @Test
+    void testAdvanceWithPeriodicTimeout() {
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Timeout timeout = wheel.scheduleAtFixedRate(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+
+        advanceTo(100);
+        assertEquals(5, runs.get(), "Advance should rerun periodic timeouts every period");
+
+        timeout.cancel();
+        advanceTo(200);
+        assertEquals(5, runs.get(), "Advance should stop periodic timeouts after cancellation");
+    }
+
+    @Test
+    void testAdvanceWithTimeoutScheduledFromTask() {
+        AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(() -> wheel.schedule(runs::incrementAndGet, 10, TimeUnit.MILLISECONDS),
+                10, TimeUnit.MILLISECONDS);
+
+        advanceTo(10);
+        assertEquals(0, runs.get(), "Advance should not run timeouts scheduled during the current tick");
+
+        advanceTo(20);
+        assertEquals(1, runs.get(), "Advance should run timeouts scheduled from other timeouts");
+    }
+
+    @Test
+    void testConstructorWithInvalidWheelSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(TICK_NANOS, 6, clock::get),
+                "Constructor should throw for wheel sizes that are not a power of two");
+    }
+
+    private void advanceTo(long millis) {
+        clock.set(TimeUnit.MILLISECONDS.toNanos(millis));
+        wheel.advance();
+    }
+
+}
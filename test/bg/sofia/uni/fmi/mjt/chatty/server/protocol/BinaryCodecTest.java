@@ -0,0 +1,265 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.cluster.ClusterMessage;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Command;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandCreator;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
+import bg.sofia.uni.fmi.mjt.chatty.server.subscription.ChatKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryCodecTest {
+
+    private static final User GEORGE = new User("Gorge", "Peterson", "g.peterson", "hash");
+
+    private static ByteBuffer payloadOf(ByteBuffer frame) {
+        frame.position(Frames.LENGTH_FIELD_SIZE);
+        return frame.slice();
+    }
+
+    private static Response roundTrip(Response response) throws MalformedFrameException {
+        return BinaryCodec.decodeResponse(payloadOf(BinaryCodec.encode(response)));
+    }
+
+    @Test
+    void testDecodeCommandWithEncodedCommand() throws MalformedFrameException {
+        String message = "Здравей, \"как си?\" ".repeat(20);
+
+        Command command = BinaryCodec.decodeCommand(
+                payloadOf(BinaryCodec.encodeCommand(CommandType.SEND_MESSAGE, message)));
+
+        assertEquals(CommandType.SEND_MESSAGE, command.type(), "Decode command should restore the command type");
+        assertArrayEquals(new String[] {message}, command.arguments(),
+                "Decode command should keep the message as a single argument without quoting");
+    }
+
+    @Test
+    void testEncodeCommandWithTextCommand() throws MalformedFrameException {
+        Command text = CommandCreator.newCommand("add-to-group s.peterson mjt-chat");
+
+        Command decoded = BinaryCodec.decodeCommand(payloadOf(BinaryCodec.encodeCommand(text)));
+
+        assertEquals(CommandType.ADD_TO_GROUP, decoded.type(), "Encode command should keep the type");
+        assertArrayEquals(text.arguments(), decoded.arguments(), "Encode command should keep every argument");
+    }
+
+    @Test
+    void testEncodeCommandIsSmallerThanText() {
+        String input = "add-to-group s.peterson mjt-chat";
+
+        ByteBuffer binary = BinaryCodec.encodeCommand(CommandCreator.newCommand(input));
+
+        assertTrue(binary.remaining() < Frames.encode(input).remaining(),
+                "Binary commands should take fewer bytes than their text form");
+    }
+
+    @Test
+    void testDecodeCommandWithUnknownOpcode() throws MalformedFrameException {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x7F, 0x00});
+
+        assertEquals(CommandType.UNKNOWN, BinaryCodec.decodeCommand(payload).type(),
+                "Decode command should map unknown opcodes to the unknown command");
+    }
+
+    @Test
+    void testDecodeCommandWithTruncatedPayload() {
+        ByteBuffer payload = payloadOf(BinaryCodec.encodeCommand(CommandType.LOGIN, "g.peterson", "Parola123"));
+        payload.limit(payload.limit() - 1);
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeCommand(payload),
+                "Decode command should reject truncated payloads");
+    }
+
+    @Test
+    void testDecodeCommandWithTrailingBytes() {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x03, 0x00, 0x01});
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeCommand(payload),
+                "Decode command should reject trailing bytes");
+    }
+
+    @Test
+    void testDecodeCommandWithOversizedCount() {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x04, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeCommand(payload),
+                "Decode command should reject counts larger than the payload");
+    }
+
+    @Test
+    void testDecodeClusterMessageWithEncodedMessage() throws MalformedFrameException {
+        ClusterMessage message = new ClusterMessage.Executed("node-1", "g.peterson", ChatKey.group("mjt-chat"),
+                CommandCreator.newCommand("send \"Здравей, как си?\""));
+
+        ClusterMessage.Executed decoded = assertInstanceOf(ClusterMessage.Executed.class,
+                BinaryCodec.decodeClusterMessage(payloadOf(BinaryCodec.encode(message))),
+                "Decode cluster message should keep the message kind");
+
+        assertEquals("node-1", decoded.origin(), "Decode cluster message should restore the origin node");
+        assertEquals("g.peterson", decoded.username(), "Decode cluster message should restore the user");
+        assertEquals(ChatKey.group("mjt-chat"), decoded.chat(), "Decode cluster message should restore the chat");
+        assertEquals(CommandType.SEND_MESSAGE, decoded.command().type(),
+                "Decode cluster message should restore the command type");
+        assertArrayEquals(new String[] {"Здравей, как си?"}, decoded.command().arguments(),
+                "Decode cluster message should restore the command arguments");
+    }
+
+    @Test
+    void testDecodeClusterMessageWithoutUserAndChat() throws MalformedFrameException {
+        ClusterMessage message = new ClusterMessage.Executed("node-1", null, null,
+                CommandCreator.newCommand("register Gorge Peterson g.peterson Parola123"));
+
+        ClusterMessage.Executed decoded = assertInstanceOf(ClusterMessage.Executed.class,
+                BinaryCodec.decodeClusterMessage(payloadOf(BinaryCodec.encode(message))),
+                "Decode cluster message should keep the message kind");
+
+        assertNull(decoded.username(), "Decode cluster message should keep a missing user missing");
+        assertNull(decoded.chat(), "Decode cluster message should keep a missing chat missing");
+    }
+
+    @Test
+    void testDecodeClusterMessageWithUnknownChatKind() {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x00, 0x01, 0x00, 0x7F, 0x00, 0x00, 0x01, 0x00});
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeClusterMessage(payload),
+                "Decode cluster message should reject unknown chat kinds");
+    }
+
+    @Test
+    void testDecodeClusterMessageWithUnknownKind() {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x00, 0x7F});
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeClusterMessage(payload),
+                "Decode cluster message should reject unknown message kinds");
+    }
+
+    @Test
+    void testDecodeClusterMessageWithRegisteredUser() throws MalformedFrameException {
+        User user = new User("Gorge", "Peterson", "g.peterson", SHA256.hashPassword("Parola123"));
+        ClusterMessage message = new ClusterMessage.Registered("node-1", user);
+
+        ClusterMessage.Registered decoded = assertInstanceOf(ClusterMessage.Registered.class,
+                BinaryCodec.decodeClusterMessage(payloadOf(BinaryCodec.encode(message))),
+                "Decode cluster message should keep the message kind");
+
+        assertEquals("node-1", decoded.origin(), "Decode cluster message should restore the origin node");
+        assertEquals(user, decoded.user(), "Decode cluster message should restore the registered user");
+        assertEquals(user.passwordHash(), decoded.user().passwordHash(),
+                "Decode cluster message should carry the password hash, not the password");
+    }
+
+    @Test
+    void testDecodeResponseWithText() throws MalformedFrameException {
+        Response response = Response.text("Friend request sent to s.peterson");
+
+        assertEquals(response, roundTrip(response), "Text responses should survive a round trip");
+    }
+
+    @Test
+    void testDecodeResponseWithLogin() throws MalformedFrameException {
+        Notification notification = new Notification(GEORGE, NotificationType.FRIEND_REQUEST, "s.peterson");
+        Response response = new Response.Login(
+                new SessionDTO(new UserDTO("Gorge Peterson", "g.peterson"), List.of(notification)));
+
+        Response.Login decoded = assertInstanceOf(Response.Login.class, roundTrip(response),
+                "Login responses should decode as login");
+
+        assertEquals(new UserDTO("Gorge Peterson", "g.peterson"), decoded.session().user(),
+                "Login responses should keep the user");
+        Notification decodedNotification = decoded.session().notifications().iterator().next();
+        assertEquals(NotificationType.FRIEND_REQUEST, decodedNotification.type(),
+                "Login responses should keep the notification type");
+        assertEquals("s.peterson", decodedNotification.content(), "Login responses should keep the content");
+    }
+
+    @Test
+    void testDecodeResponseWithUsersAndGroups() throws MalformedFrameException {
+        Response users = new Response.Users(List.of(new UserDTO("Gorge Peterson", "g.peterson"),
+                new UserDTO("Steven Peterson", "s.peterson")));
+        Response groups = new Response.Groups(List.of("mjt-chat", "java"));
+
+        assertEquals(users, roundTrip(users), "User lists should survive a round trip");
+        assertEquals(groups, roundTrip(groups), "Group lists should survive a round trip");
+    }
+
+    @Test
+    void testDecodeResponseWithHistories() throws MalformedFrameException {
+        List<Message> messages = List.of(new Message(GEORGE, "Hi"), new Message(GEORGE, "How are you?"));
+        Response personal = new Response.PersonalHistory(new PersonalChatDTO("s.peterson", messages, 40));
+        Response group = new Response.GroupHistory(
+                new GroupChatDTO("mjt-chat", new String[] {"g.peterson", "s.peterson"}, messages, 7));
+
+        PersonalChatDTO decodedPersonal = assertInstanceOf(Response.PersonalHistory.class, roundTrip(personal),
+                "Personal histories should decode as personal histories").chat();
+        GroupChatDTO decodedGroup = assertInstanceOf(Response.GroupHistory.class, roundTrip(group),
+                "Group histories should decode as group histories").chat();
+
+        assertEquals("s.peterson", decodedPersonal.friend(), "Personal histories should keep the friend");
+        assertEquals("How are you?", decodedPersonal.messages().getLast().text(),
+                "Personal histories should keep message order");
+        assertEquals("g.peterson", decodedGroup.messages().getFirst().sender().username(),
+                "Group histories should keep the sender username");
+        assertArrayEquals(new String[] {"g.peterson", "s.peterson"}, decodedGroup.users(),
+                "Group histories should keep the members");
+        assertEquals(40, decodedPersonal.cursor(), "Personal histories should keep the cursor");
+        assertEquals(7, decodedGroup.cursor(), "Group histories should keep the cursor");
+    }
+
+    @Test
+    void testDecodeResponseWithHistoryPage() throws MalformedFrameException {
+        List<Message> messages = List.of(new Message(GEORGE, "Older"), new Message(GEORGE, "Newer"));
+        Response response = new Response.History(new HistoryDTO(messages, 300));
+
+        HistoryDTO decoded = assertInstanceOf(Response.History.class, roundTrip(response),
+                "History pages should decode as history pages").page();
+
+        assertEquals(300, decoded.cursor(), "History pages should keep multi-byte cursors");
+        assertEquals("Older", decoded.messages().getFirst().text(), "History pages should keep message order");
+        assertEquals(2, decoded.messages().size(), "History pages should keep every message");
+    }
+
+    @Test
+    void testDecodeResponseWithRateLimited() throws MalformedFrameException {
+        Response response = new Response.RateLimited(1500);
+
+        assertEquals(response, roundTrip(response), "Rate limited replies should keep the retry delay");
+    }
+
+    @Test
+    void testDecodeResponseWithChatMessage() throws MalformedFrameException {
+        Response response = new Response.ChatMessage("g.peterson", "x".repeat(300));
+
+        assertEquals(response, roundTrip(response), "Chat messages with multi-byte lengths should round trip");
+    }
+
+    @Test
+    void testDecodeResponseWithUnknownTag() {
+        ByteBuffer payload = ByteBuffer.wrap(new byte[] {0x7F});
+
+        assertThrows(MalformedFrameException.class, () -> BinaryCodec.decodeResponse(payload),
+                "Decode response should reject unknown tags");
+    }
+
+}
@@ -0,0 +1,90 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.MalformedFrameException;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameCompressorTest {
+
+    private static final String HISTORY = "{\"sender\":\"g.peterson\",\"text\":\"Hello there!\"},".repeat(500);
+
+    private static ByteBuffer payloadOf(ByteBuffer frame) {
+        int lengthField = frame.getInt(frame.position());
+        assertTrue(FrameCompressor.isCompressed(lengthField), "Compressed frames should be flagged");
+        assertEquals(frame.remaining() - Frames.LENGTH_FIELD_SIZE, FrameCompressor.payloadLength(lengthField),
+                "Compressed frames should carry their compressed length");
+
+        return frame.slice(frame.position() + Frames.LENGTH_FIELD_SIZE, frame.remaining() - Frames.LENGTH_FIELD_SIZE);
+    }
+
+    @Test
+    void testCompressWithFrameBelowThreshold() {
+        FrameCompressor compressor = new FrameCompressor(1024);
+        ByteBuffer frame = Frames.encode("Friend request sent to s.peterson");
+
+        assertSame(frame, compressor.compress(frame), "Frames below the threshold should be sent as they are");
+    }
+
+    @Test
+    void testCompressWithIncompressibleFrame() {
+        FrameCompressor compressor = new FrameCompressor(16);
+        byte[] noise = new byte[4096];
+        new Random(42).nextBytes(noise);
+        ByteBuffer frame = ByteBuffer.allocate(Frames.LENGTH_FIELD_SIZE + noise.length)
+                .putInt(noise.length).put(noise).flip();
+
+        ByteBuffer result = compressor.compress(frame);
+
+        assertSame(frame, result, "Frames that do not shrink should be sent uncompressed");
+        assertFalse(FrameCompressor.isCompressed(result.getInt(0)), "Uncompressed frames should not be flagged");
+    }
+
+    @Test
+    void testDecompressWithCompressedFrame() throws MalformedFrameException {
+        FrameCompressor server = new FrameCompressor(1024);
+        FrameCompressor client = new FrameCompressor();
+
+        for (int i = 0; i < 3; i++) {
+            String payload = HISTORY + i;
+            ByteBuffer compressed = server.compress(Frames.encode(payload));
+
+            assertTrue(compressed.remaining() < payload.length() / 4, "Repetitive JSON should compress well");
+
+            ByteBuffer decompressed = client.decompress(payloadOf(compressed));
+            assertEquals(payload, StandardCharsets.UTF_8.decode(decompressed).toString(),
+                    "Decompress should restore the original payload with reused instances");
+        }
+
+        server.release();
+        client.release();
+    }
+
+    @Test
+    void testDecompressWithWrongLength() {
+        FrameCompressor compressor = new FrameCompressor(16);
+        ByteBuffer payload = payloadOf(compressor.compress(Frames.encode(HISTORY)));
+        payload.putInt(0, HISTORY.length() - 1);
+
+        assertThrows(MalformedFrameException.class, () -> compressor.decompress(payload),
+                "Decompress should reject frames that inflate past their declared length");
+    }
+
+    @Test
+    void testDecompressWithCorruptedData() {
+        ByteBuffer payload = ByteBuffer.allocate(16).putInt(100).putLong(-1L).putInt(-1).flip();
+
+        assertThrows(MalformedFrameException.class, () -> new FrameCompressor().decompress(payload),
+                "Decompress should reject corrupted data");
+    }
+
+}
@@ -0,0 +1,40 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HandshakeTest {
+
+    @Test
+    void testParseWithCompression() {
+        Handshake handshake = Handshake.parse("protocol binary deflate");
+
+        assertEquals(new Handshake(Protocol.BINARY, Compression.DEFLATE), handshake,
+                "Parse should read the protocol and the compression");
+        assertEquals("protocol binary deflate", handshake.toString(), "Handshake should format as it was parsed");
+    }
+
+    @Test
+    void testParseWithoutCompression() {
+        Handshake handshake = Handshake.parse("protocol binary");
+
+        assertEquals(Compression.NONE, handshake.compression(), "Parse should default to no compression");
+        assertEquals("protocol binary", handshake.toString(), "Handshake should omit disabled compression");
+    }
+
+    @Test
+    void testParseWithUnknownValues() {
+        assertEquals(new Handshake(Protocol.TEXT, Compression.NONE), Handshake.parse("protocol morse zstd"),
+                "Parse should fall back to text without compression for unknown values");
+    }
+
+    @Test
+    void testIsHandshakeWithCommand() {
+        assertTrue(Handshake.isHandshake("protocol binary"), "Handshake frames should be recognized");
+        assertFalse(Handshake.isHandshake("login g.peterson Parola123"), "Commands should not be handshakes");
+    }
+
+}
@@ -0,0 +1,153 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.command.Response;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.GroupChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.HistoryDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.PersonalChatDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.SessionDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.dto.UserDTO;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.FrameSource;
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Frames;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextCodecTest {
+
+    private static final int CHUNK_SIZE = 32;
+
+    private static final User GEORGE = new User("Gorge", "Peterson", "g.peterson", "hash");
+
+    private static List<ByteBuffer> framesOf(FrameSource source) {
+        List<ByteBuffer> frames = new ArrayList<>();
+
+        for (ByteBuffer frame = source.next(); frame != null; frame = source.next()) {
+            frames.add(frame);
+        }
+
+        return frames;
+    }
+
+    private static ByteArrayInputStream streamOf(List<ByteBuffer> frames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        frames.forEach(frame -> out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining()));
+
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static List<Response> largeResponses() {
+        List<Message> messages = new ArrayList<>();
+        List<UserDTO> users = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            messages.add(new Message(GEORGE, "Message <" + i + "> with \"quotes\" and ünicode"));
+            users.add(new UserDTO("Friend " + i, "friend." + i));
+            notifications.add(new Notification(GEORGE, NotificationType.PERSONAL_MESSAGE, "Notification " + i));
+        }
+
+        return List.of(
+                new Response.Login(new SessionDTO(new UserDTO("Gorge Peterson", "g.peterson"), notifications)),
+                new Response.Users(users),
+                new Response.PersonalHistory(new PersonalChatDTO("s.peterson", messages, 12)),
+                new Response.GroupHistory(new GroupChatDTO("mjt", new String[] {"g.peterson", "s.peterson"},
+                        messages, 3)),
+                new Response.History(new HistoryDTO(messages, 0)),
+                new Response.Groups(users.stream().map(UserDTO::username).toList()),
+                new Response.Notifications(notifications),
+                new Response.ChatMessage("g.peterson", "Hi"),
+                Response.text("Request declined"));
+    }
+
+    @Test
+    void testEncodeWithChatMessage() {
+        assertEquals("[g.peterson] Hi", TextCodec.encode(new Response.ChatMessage("g.peterson", "Hi")),
+                "Chat messages should keep the bracketed text format");
+    }
+
+    @Test
+    void testDecodeResponseWithJsonList() {
+        Response users = new Response.Users(List.of(new UserDTO("Gorge Peterson", "g.peterson")));
+
+        Response decoded = TextCodec.decodeResponse(CommandType.LIST_FRIENDS, TextCodec.encode(users));
+
+        assertEquals(users, decoded, "Decode response should parse JSON lists for list commands");
+    }
+
+    @Test
+    void testDecodeResponseWithPlainMessage() {
+        Response decoded = TextCodec.decodeResponse(CommandType.LIST_FRIENDS, "You have no friends at this moment");
+
+        assertInstanceOf(Response.Text.class, decoded, "Decode response should fall back to text for messages");
+    }
+
+    @Test
+    void testDecodeResponseWithLoginError() {
+        Response decoded = TextCodec.decodeResponse(CommandType.LOGIN, "Incorrect username or password");
+
+        assertEquals(Response.text("Incorrect username or password"), decoded,
+                "Decode response should keep login errors as text");
+    }
+
+    @Test
+    void testDecodeResponseWithRateLimited() {
+        Response response = new Response.RateLimited(250);
+
+        assertEquals("Too many requests, retry after 250 ms", TextCodec.encode(response),
+                "Rate limited replies should tell when to retry");
+        assertEquals(response, TextCodec.decodeResponse(CommandType.SEND_MESSAGE, TextCodec.encode(response)),
+                "Rate limited replies should decode for any command type");
+    }
+
+    @Test
+    void testStreamWithLargeResponses() throws IOException {
+        for (Response response : largeResponses()) {
+            List<ByteBuffer> frames = framesOf(TextCodec.stream(response, CHUNK_SIZE));
+
+            frames.forEach(frame -> assertTrue(frame.remaining() - Frames.LENGTH_FIELD_SIZE <= CHUNK_SIZE,
+                    "Streamed frames should never exceed the chunk size"));
+            assertEquals(TextCodec.encode(response), Frames.read(Channels.newChannel(streamOf(frames))),
+                    "Streamed chunks should reassemble into the regular encoding of " + response.getClass());
+        }
+    }
+
+    @Test
+    void testStreamWithSmallResponse() {
+        Response response = new Response.Users(List.of(new UserDTO("Gorge Peterson", "g.peterson")));
+
+        List<ByteBuffer> frames = framesOf(TextCodec.stream(response, 1024));
+
+        assertEquals(List.of(Frames.encode(TextCodec.encode(response))), frames,
+                "Responses that fit into one chunk should be sent as a single regular frame");
+    }
+
+    @Test
+    void testStreamWithCompressedChunks() throws IOException {
+        Response response = largeResponses().get(2);
+        FrameCompressor compressor = new FrameCompressor(0);
+
+        List<ByteBuffer> frames = framesOf(TextCodec.stream(response, 512).map(compressor::compress));
+        ByteBuffer payload = Frames.readPayload(Channels.newChannel(streamOf(frames)), new FrameCompressor());
+
+        assertTrue(frames.size() > 1, "Large responses should be split into several chunks");
+        assertEquals(TextCodec.encode(response), StandardCharsets.UTF_8.decode(payload).toString(),
+                "Compressed chunks should keep the continuation flag and reassemble in order");
+    }
+
+}
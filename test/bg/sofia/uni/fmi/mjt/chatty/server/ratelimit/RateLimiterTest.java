@@ -0,0 +1,114 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.command.CommandType;
+import bg.sofia.uni.fmi.mjt.chatty.server.metrics.RateLimitMetrics;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    private static final User GEORGE = new User("Gorge", "Peterson", "g.peterson", "hash");
+
+    private AtomicLong clock;
+    private RateLimitMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        metrics = new RateLimitMetrics();
+    }
+
+    private RateLimiter limiterOf(RateLimitPolicy policy) {
+        return new RateLimiter(policy, metrics, clock::get);
+    }
+
+    private static Session sessionOf(User user) {
+        Session session = new Session();
+        if (user != null) {
+            session.bind(user);
+        }
+
+        return session;
+    }
+
+    @Test
+    void testAcquireWithDisabledPolicy() {
+        RateLimiter limiter = limiterOf(RateLimitPolicy.disabled());
+        Session session = sessionOf(GEORGE);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.acquire(session, CommandType.OPEN_GROUP),
+                    "Acquire should never reject when rate limiting is disabled");
+        }
+
+        assertEquals(0, metrics.getRejections(), "Disabled rate limiting should not record rejections");
+    }
+
+    @Test
+    void testAcquireWithExhaustedConnection() {
+        RateLimiter limiter = limiterOf(new RateLimitPolicy(1, 3, 0, 3, 3));
+        Session session = sessionOf(null);
+
+        assertEquals(0, limiter.acquire(session, CommandType.LIST_FRIENDS), "Cheap commands should cost one token");
+        assertTrue(limiter.acquire(session, CommandType.OPEN_GROUP) > 0,
+                "Heavy commands should be rejected when the connection has too few tokens");
+        assertEquals(0, limiter.acquire(sessionOf(null), CommandType.OPEN_GROUP),
+                "Each connection should have its own bucket");
+        assertEquals(1, metrics.getRejections(CommandType.OPEN_GROUP, RateLimitScope.CONNECTION),
+                "Connection rejections should be counted per command type");
+    }
+
+    @Test
+    void testAcquireWithSharedUser() {
+        RateLimiter limiter = limiterOf(new RateLimitPolicy(0, 2, 1, 2, 1));
+
+        assertEquals(0, limiter.acquire(sessionOf(GEORGE), CommandType.SEND_MESSAGE), "First request should pass");
+        assertEquals(0, limiter.acquire(sessionOf(GEORGE), CommandType.SEND_MESSAGE), "Second request should pass");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.acquire(sessionOf(GEORGE), CommandType.SEND_MESSAGE),
+                "Connections of the same user should share the user bucket");
+        assertEquals(1, metrics.getRejections(CommandType.SEND_MESSAGE, RateLimitScope.USER),
+                "User rejections should be counted per command type");
+    }
+
+    @Test
+    void testAcquireWithRejectedUserRefundsConnection() {
+        RateLimiter limiter = limiterOf(new RateLimitPolicy(1, 2, 1, 1, 1));
+        Session session = sessionOf(GEORGE);
+
+        limiter.acquire(session, CommandType.SEND_MESSAGE);
+        assertTrue(limiter.acquire(session, CommandType.SEND_MESSAGE) > 0,
+                "User bucket should reject the second request");
+
+        session.clear();
+        assertEquals(0, limiter.acquire(session, CommandType.LIST_FRIENDS),
+                "Requests rejected by the user bucket should not consume connection tokens");
+    }
+
+    @Test
+    void testAcquireWithRefilledBucket() {
+        RateLimiter limiter = limiterOf(new RateLimitPolicy(2, 2, 0, 2, 2));
+        Session session = sessionOf(GEORGE);
+
+        limiter.acquire(session, CommandType.SEND_MESSAGE);
+        assertTrue(limiter.acquire(session, CommandType.SEND_MESSAGE) > 0, "Exhausted buckets should reject requests");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.acquire(session, CommandType.SEND_MESSAGE), "Refilled buckets should accept requests");
+    }
+
+    @Test
+    void testRateLimitPolicyWithSmallBurst() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPolicy(1, 2, 1, 10, 5),
+                "Policies should reject bursts that cannot fit a heavy command");
+    }
+
+}
@@ -0,0 +1,62 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquireWithBurst() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(1, 0), "Try acquire should allow requests up to the burst");
+        }
+
+        assertEquals(SECOND, bucket.tryAcquire(1, 0), "Try acquire should return the time until a token refills");
+    }
+
+    @Test
+    void testTryAcquireWithRefill() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.tryAcquire(2, 0);
+
+        assertEquals(0, bucket.tryAcquire(1, SECOND / 2), "Try acquire should refill tokens over time");
+        assertEquals(2, bucket.getTokens(10 * SECOND), 0.0001, "Refill should not exceed the capacity");
+    }
+
+    @Test
+    void testTryAcquireWithHeavyCost() {
+        TokenBucket bucket = new TokenBucket(5, 1, 0);
+        bucket.tryAcquire(3, 0);
+
+        assertEquals(3 * SECOND, bucket.tryAcquire(5, 0), "Try acquire should wait for the whole missing cost");
+        assertEquals(0, bucket.tryAcquire(2, 0), "Rejected requests should not consume tokens");
+    }
+
+    @Test
+    void testTryAcquireWithInvalidCost() {
+        TokenBucket bucket = new TokenBucket(5, 1, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(0, 0),
+                "Try acquire should reject non-positive costs");
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(6, 0),
+                "Try acquire should reject costs above the capacity");
+    }
+
+    @Test
+    void testRefundWithFullBucket() {
+        TokenBucket bucket = new TokenBucket(4, 1, 0);
+        bucket.tryAcquire(1, 0);
+        bucket.refund(3);
+
+        assertEquals(4, bucket.getTokens(0), 0.0001, "Refund should not exceed the capacity");
+    }
+
+}
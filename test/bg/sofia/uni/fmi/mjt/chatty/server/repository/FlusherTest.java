@@ -0,0 +1,131 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlusherTest {
+
+    private static final Duration LONG_INTERVAL = Duration.ofMinutes(1);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void stopFlusher() {
+        Flusher.getInstance().stop();
+    }
+
+    private static User userOf(int index) {
+        return new User("User", "Number" + index, "user" + index, SHA256.hashPassword("Password123"));
+    }
+
+    private Repository<User> usersOf(String name) throws IOException {
+        return new Repository<>(Files.createFile(directory.resolve(name)), PersistenceMode.SNAPSHOT) { };
+    }
+
+    private static Collection<User> savedUsersOf(Path file) throws IOException {
+        try (var stream = new FileInputStream(file.toFile())) {
+            return new Repository<User>(stream) { }.getAll();
+        }
+    }
+
+    @Test
+    void testAddWithDeferredFlush() throws IOException {
+        Repository<User> users = usersOf("users.dat");
+        Flusher.getInstance().start(new FlushPolicy(LONG_INTERVAL, 1000, Durability.ASYNC));
+
+        for (int i = 0; i < 100; i++) {
+            users.add(userOf(i));
+        }
+
+        assertEquals(0, Files.size(directory.resolve("users.dat")),
+                "Mutations should not rewrite the file before the flush interval elapses");
+
+        Flusher.getInstance().stop();
+
+        assertEquals(100, savedUsersOf(directory.resolve("users.dat")).size(),
+                "Stopping the flusher should flush every dirty repository");
+    }
+
+    @Test
+    void testAwaitFlushWithSyncDurability() throws IOException {
+        Repository<User> users = usersOf("users.dat");
+        Flusher.getInstance().start(new FlushPolicy(Duration.ofMillis(10), 1000, Durability.SYNC));
+
+        users.add(userOf(1));
+        users.add(userOf(2));
+        Flusher.getInstance().awaitFlush();
+
+        assertEquals(2, savedUsersOf(directory.resolve("users.dat")).size(),
+                "Sync durability should wait for the flush covering the caller's mutations");
+    }
+
+    @Test
+    void testAwaitFlushWithFullBatch() throws IOException {
+        Repository<User> users = usersOf("users.dat");
+        Repository<User> others = usersOf("others.dat");
+        Flusher.getInstance().start(new FlushPolicy(LONG_INTERVAL, 10, Durability.SYNC));
+
+        for (int i = 0; i < 10; i++) {
+            (i % 2 == 0 ? users : others).add(userOf(i));
+        }
+
+        Flusher.getInstance().awaitFlush();
+
+        assertEquals(5, savedUsersOf(directory.resolve("users.dat")).size(),
+                "A full batch should be flushed without waiting for the interval");
+        assertEquals(5, savedUsersOf(directory.resolve("others.dat")).size(),
+                "A flush should cover every dirty repository");
+    }
+
+    @Test
+    void testAddWithStoppedFlusher() throws IOException {
+        Repository<User> users = usersOf("users.dat");
+
+        users.add(userOf(1));
+
+        assertTrue(Files.size(directory.resolve("users.dat")) > 0,
+                "Mutations should be saved immediately when the flusher is not running");
+    }
+
+    @Test
+    void testAddWithDeferredFlushes() throws IOException {
+        Repository<User> users = usersOf("users.dat");
+
+        Flusher.getInstance().deferFlushes();
+        users.add(userOf(1));
+        users.add(userOf(2));
+
+        assertEquals(0, Files.size(directory.resolve("users.dat")),
+                "Deferred mutations should not be saved while the caller is still executing");
+
+        Flusher.getInstance().flushDeferred();
+
+        assertEquals(2, savedUsersOf(directory.resolve("users.dat")).size(),
+                "Flushing the deferred repositories should save every deferred mutation");
+    }
+
+    @Test
+    void testStartWhenAlreadyStarted() {
+        Flusher.getInstance().start(new FlushPolicy(LONG_INTERVAL, 1000, Durability.ASYNC));
+
+        assertThrows(IllegalStateException.class,
+                () -> Flusher.getInstance().start(new FlushPolicy(LONG_INTERVAL, 1000, Durability.ASYNC)),
+                "Starting the flusher twice should be rejected");
+    }
+
+}
@@ -1,15 +1,27 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.repository;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
 import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.codec.StorageFormat;
 import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +29,9 @@ public class RepositoryTest {
 
     private static Repository<User> repo;
 
+    @TempDir
+    Path directory;
+
     @BeforeAll
     static void setupTests() {
         repo = UserRepository.getInstance(new ByteArrayInputStream("".getBytes(StandardCharsets.UTF_8)));
@@ -164,4 +179,141 @@ public class RepositoryTest {
                 "Remove with correct value should return correct result");
     }
 
+    @Test
+    void testReopenWithWriteAheadLog() throws IOException, ValueNotFoundException {
+        Path file = emptyFile("users.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+        User steven = new User("Steven", "Johnson", "s.jonson", SHA256.hashPassword("Password123"));
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.WAL) { };
+        users.add(george);
+        users.add(steven);
+        users.remove(george);
+
+        assertEquals(0, Files.size(file), "Write-ahead log mode should not rewrite the repository file");
+        assertEquals(Set.of(steven), new HashSet<>(new Repository<User>(file, PersistenceMode.WAL) { }.getAll()),
+                "Reopening should rebuild the repository by replaying the log");
+    }
+
+    @Test
+    void testUpdateWithWriteAheadLog() throws IOException {
+        Path file = emptyFile("group_chats.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+
+        Repository<GroupChat> chats = groupChatsOf(file, PersistenceMode.WAL);
+        GroupChat chat = new GroupChat("mjt-chat", george);
+        chats.add(chat);
+        chats.update(chat, ChatMutations.addMessage(new Message(george, "hello")));
+        long sizeAfterFirst = Files.size(Path.of(file + ".wal"));
+        chats.update(chat, ChatMutations.addMessage(new Message(george, "hello")));
+        long secondRecordSize = Files.size(Path.of(file + ".wal")) - sizeAfterFirst;
+
+        GroupChat reopened = groupChatsOf(file, PersistenceMode.WAL).getAll().iterator().next();
+
+        assertEquals(2, reopened.getMessageCount(), "Reopening should replay in-place updates");
+        assertTrue(secondRecordSize < sizeAfterFirst,
+                "Appending a message should log only the change and not the whole chat");
+    }
+
+    @Test
+    void testSaveEntitiesWithWriteAheadLog() throws IOException {
+        Path file = emptyFile("users.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+        User steven = new User("Steven", "Johnson", "s.jonson", SHA256.hashPassword("Password123"));
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.WAL) { };
+        users.add(george);
+        users.saveEntities();
+        users.add(steven);
+
+        assertEquals(Set.of(george, steven),
+                new HashSet<>(new Repository<User>(file, PersistenceMode.WAL) { }.getAll()),
+                "Reopening should combine the snapshot with the records logged after it");
+    }
+
+    @Test
+    void testReopenInSnapshotModeWithLeftoverLog() throws IOException {
+        Path file = emptyFile("users.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+
+        new Repository<User>(file, PersistenceMode.WAL) { }.add(george);
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.SNAPSHOT) { };
+
+        assertEquals(Set.of(george), new HashSet<>(users.getAll()), "Snapshot mode should replay a leftover log");
+        assertFalse(Files.exists(Path.of(file + ".wal")), "Snapshot mode should fold the log into the snapshot");
+    }
+
+    @Test
+    void testSnapshotWithWriteAheadLog() throws IOException {
+        Path file = emptyFile("users.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+        User steven = new User("Steven", "Johnson", "s.jonson", SHA256.hashPassword("Password123"));
+        User martin = new User("Martin", "Ivanov", "m.ivanov", SHA256.hashPassword("Password123"));
+        SnapshotPolicy policy = new SnapshotPolicy(0, 2, Duration.ofSeconds(1));
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.WAL) { };
+        users.add(george);
+        assertFalse(users.needsSnapshot(policy), "Snapshot should not be needed below the record limit");
+
+        users.add(steven);
+        assertTrue(users.needsSnapshot(policy), "Snapshot should be needed once the record limit is reached");
+
+        users.snapshot();
+        users.add(martin);
+
+        assertFalse(users.needsSnapshot(policy), "Snapshot should compact the records it covers");
+        try (var files = Files.list(directory)) {
+            assertEquals(Set.of("users.dat", "users.dat.wal"),
+                    files.map(path -> path.getFileName().toString()).collect(Collectors.toSet()),
+                    "Snapshot should swap in the new file and delete the sealed log segments");
+        }
+        assertEquals(Set.of(george, steven, martin),
+                new HashSet<>(new Repository<User>(file, PersistenceMode.WAL) { }.getAll()),
+                "Reopening should combine the snapshot with the records logged after it");
+        try (var snapshot = new FileInputStream(file.toFile())) {
+            assertEquals(Set.of(george, steven), new HashSet<>(new Repository<User>(snapshot) { }.getAll()),
+                    "Snapshot should contain exactly the records logged before it");
+        }
+    }
+
+    @Test
+    void testSnapshotWithEmptyLog() throws IOException {
+        Path file = emptyFile("users.dat");
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.WAL) { };
+        users.snapshot();
+
+        assertEquals(0, Files.size(file), "Snapshot should not rewrite the file when nothing was logged");
+    }
+
+    @Test
+    void testReopenWithSerializedFile() throws IOException {
+        Path file = directory.resolve("users.dat");
+        User george = new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+
+        try (var stream = new ObjectOutputStream(Files.newOutputStream(file))) {
+            stream.writeInt(1);
+            stream.writeObject(george);
+        }
+
+        Repository<User> users = new Repository<>(file, PersistenceMode.SNAPSHOT) { };
+
+        assertEquals(Set.of(george), new HashSet<>(users.getAll()), "Serialized files should still be readable");
+        try (var stream = new BufferedInputStream(Files.newInputStream(file))) {
+            assertEquals(StorageFormat.BINARY, StorageFormat.of(stream),
+                    "Serialized files should be migrated to the binary format on load");
+        }
+        assertEquals(Set.of(george), new HashSet<>(new Repository<User>(file, PersistenceMode.SNAPSHOT) { }.getAll()),
+                "Migrated files should hold the same entities");
+    }
+
+    private Path emptyFile(String name) throws IOException {
+        return Files.createFile(directory.resolve(name));
+    }
+
+    private static Repository<GroupChat> groupChatsOf(Path file, PersistenceMode mode) {
+        return new Repository<>(file, mode, GroupChat::getName) { };
+    }
+
 }
@@ -0,0 +1,139 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserRepositoryTest {
+
+    private static final User GEORGE =
+            new User("George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+    private static final User STEVEN =
+            new User("Steven", "Johnson", "s.jonson", SHA256.hashPassword("Password123"));
+    private static final User MARTIN =
+            new User("Martin", "Ivanov", "m.ivanov", SHA256.hashPassword("Password123"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAddWithIdAssignment() throws IOException {
+        UserRepository users = new UserRepository(emptyFile(), PersistenceMode.SNAPSHOT);
+        users.add(GEORGE);
+        users.add(STEVEN);
+
+        User george = users.getByUsername("g.peterson").orElseThrow();
+        User steven = users.getByUsername("s.jonson").orElseThrow();
+
+        assertNotEquals(User.NO_ID, george.id(), "Added users should get an id");
+        assertNotEquals(george.id(), steven.id(), "Added users should get distinct ids");
+        assertEquals(GEORGE, george, "Ids should not take part in user equality");
+        assertSame(george, users.getById(george.id()).orElseThrow(), "Users should be found by their id");
+    }
+
+    @Test
+    void testReopenWithStableIds() throws IOException, ValueNotFoundException {
+        Path file = emptyFile();
+        UserRepository users = new UserRepository(file, PersistenceMode.SNAPSHOT);
+        users.add(GEORGE);
+        users.add(STEVEN);
+        users.remove(GEORGE);
+        int stevenId = users.getByUsername("s.jonson").orElseThrow().id();
+
+        UserRepository reopened = new UserRepository(file, PersistenceMode.SNAPSHOT);
+        reopened.add(MARTIN);
+
+        assertEquals(stevenId, reopened.getByUsername("s.jonson").orElseThrow().id(),
+                "Ids should survive reopening the repository");
+        assertTrue(reopened.getByUsername("m.ivanov").orElseThrow().id() > stevenId,
+                "New users should not reuse ids of existing users");
+    }
+
+    @Test
+    void testReopenWithRemovedNewestUser() throws IOException, ValueNotFoundException {
+        Path file = emptyFile();
+        UserRepository users = new UserRepository(file, PersistenceMode.SNAPSHOT);
+        users.add(GEORGE);
+        users.add(STEVEN);
+        int stevenId = users.getByUsername("s.jonson").orElseThrow().id();
+        users.remove(STEVEN);
+
+        UserRepository reopened = new UserRepository(file, PersistenceMode.SNAPSHOT);
+        reopened.add(MARTIN);
+
+        assertTrue(reopened.getByUsername("m.ivanov").orElseThrow().id() > stevenId,
+                "Ids of removed users should not be reused after reopening the repository");
+    }
+
+    @Test
+    void testReopenWithWriteAheadLog() throws IOException {
+        Path file = emptyFile();
+        UserRepository users = new UserRepository(file, PersistenceMode.WAL);
+        users.add(GEORGE);
+        int georgeId = users.getByUsername("g.peterson").orElseThrow().id();
+
+        assertEquals(georgeId, new UserRepository(file, PersistenceMode.WAL).getByUsername("g.peterson")
+                .orElseThrow().id(), "Ids should survive replaying the log");
+    }
+
+    @Test
+    void testReopenWithSerializedFile() throws IOException {
+        Path file = directory.resolve("users.dat");
+
+        try (var stream = new ObjectOutputStream(Files.newOutputStream(file))) {
+            stream.writeInt(2);
+            stream.writeObject(GEORGE);
+            stream.writeObject(STEVEN);
+        }
+
+        List<Integer> ids = new UserRepository(file, PersistenceMode.SNAPSHOT).getAll().stream()
+                .map(User::id)
+                .toList();
+
+        assertEquals(List.of(1, 2), ids, "Users stored without ids should get them in load order");
+        assertEquals(ids, new UserRepository(file, PersistenceMode.SNAPSHOT).getAll().stream()
+                .map(User::id)
+                .toList(), "Assigned ids should be saved");
+    }
+
+    @Test
+    void testCanonicalOfWithRegisteredUser() throws IOException {
+        UserRepository users = new UserRepository(emptyFile(), PersistenceMode.SNAPSHOT);
+        users.add(GEORGE);
+        User stored = users.getByUsername("g.peterson").orElseThrow();
+
+        assertSame(stored, users.canonicalOf(GEORGE), "Registered users should map to the stored instance");
+        assertSame(stored, users.resolve(stored.id()), "Ids should resolve to the stored instance");
+        assertSame(MARTIN, users.canonicalOf(MARTIN), "Unknown users should be returned unchanged");
+    }
+
+    @Test
+    void testAddWithTakenUsername() throws IOException {
+        UserRepository users = new UserRepository(emptyFile(), PersistenceMode.SNAPSHOT);
+        users.add(GEORGE);
+
+        users.add(new User("Other", "Person", "g.peterson", SHA256.hashPassword("Other123")));
+
+        assertEquals(1, users.getAll().size(), "Users should be identified by their username");
+        assertEquals("George", users.getByUsername("g.peterson").orElseThrow().firstName(),
+                "Adding a taken username should keep the stored user");
+    }
+
+    private Path emptyFile() throws IOException {
+        return Files.createFile(directory.resolve("users.dat"));
+    }
+
+}
@@ -0,0 +1,205 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.WriteAheadLog.LogRecord;
+import bg.sofia.uni.fmi.mjt.chatty.server.repository.WriteAheadLog.RecordType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytesOf(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<LogRecord> replay(Path file, long afterSequence) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(afterSequence, records::add);
+        }
+
+        return records;
+    }
+
+    @Test
+    void testReplayWithAppendedRecords() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("george"));
+            log.append(RecordType.REMOVE, bytesOf("steven"));
+        }
+
+        List<LogRecord> records = replay(file, 0);
+
+        assertEquals(List.of(1L, 2L), records.stream().map(LogRecord::sequence).toList(),
+                "Replay should return records in append order with increasing sequence numbers");
+        assertEquals(RecordType.REMOVE, records.get(1).type(), "Replay should restore the record type");
+        assertArrayEquals(bytesOf("steven"), records.get(1).payload(), "Replay should restore the payload");
+    }
+
+    @Test
+    void testReplayWithRecordsCoveredBySnapshot() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            log.append(RecordType.ADD, bytesOf("second"));
+            log.append(RecordType.ADD, bytesOf("third"));
+        }
+
+        assertEquals(List.of(3L), replay(file, 2).stream().map(LogRecord::sequence).toList(),
+                "Replay should skip records already covered by the snapshot");
+    }
+
+    @Test
+    void testReplayWithTornTail() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("complete"));
+            log.append(RecordType.ADD, bytesOf("torn"));
+        }
+
+        long fullSize = Files.size(file);
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(fullSize - 2);
+        }
+
+        assertEquals(1, replay(file, 0).size(), "Replay should stop before a partially written record");
+        assertEquals(fullSize - WriteAheadLog.HEADER_SIZE - WriteAheadLog.TRAILER_SIZE
+                        - Long.BYTES - Byte.BYTES - bytesOf("torn").length, Files.size(file),
+                "Replay should cut the torn record off the log");
+    }
+
+    @Test
+    void testReplayWithCorruptedRecord() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            log.append(RecordType.ADD, bytesOf("second"));
+        }
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(Files.size(file) - WriteAheadLog.TRAILER_SIZE - 1);
+            raw.write('X');
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+
+            assertEquals(1, log.getLastSequence(), "Replay should stop at a record with a bad checksum");
+            assertEquals(2, log.append(RecordType.ADD, bytesOf("again")),
+                    "Appends after recovery should continue from the last valid record");
+        }
+
+        assertEquals(2, replay(file, 0).size(), "Recovered log should contain only valid records");
+    }
+
+    @Test
+    void testReplayWithCorruptedRecordBeforeTail() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            log.append(RecordType.ADD, bytesOf("second"));
+        }
+
+        corruptFirstRecord(file);
+
+        assertThrows(StreamCorruptedException.class, () -> replay(file, 0),
+                "Replay should fail on a corrupted record that is followed by other records");
+    }
+
+    @Test
+    void testReplayWithCorruptedSealedSegment() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            log.rotate();
+            log.append(RecordType.ADD, bytesOf("second"));
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            corruptFirstRecord(log.sealedSegments().get(0));
+        }
+
+        assertThrows(StreamCorruptedException.class, () -> replay(file, 0),
+                "Replay should fail instead of skipping a corrupted sealed segment");
+    }
+
+    private static void corruptFirstRecord(Path file) throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(WriteAheadLog.HEADER_SIZE + Long.BYTES + Byte.BYTES);
+            raw.write('X');
+        }
+    }
+
+    @Test
+    void testRotateWithReplayAcrossSegments() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            log.append(RecordType.ADD, bytesOf("second"));
+
+            assertEquals(2, log.rotate(), "Rotation should return the last sequence of the sealed segment");
+            assertEquals(0, log.getRecordCount(), "Rotation should start an empty current segment");
+
+            log.append(RecordType.ADD, bytesOf("third"));
+            assertEquals(1, log.sealedSegments().size(), "Rotation should leave one sealed segment");
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), replay(file, 0).stream().map(LogRecord::sequence).toList(),
+                "Replay should read sealed segments before the current one");
+        assertEquals(List.of(3L), replay(file, 2).stream().map(LogRecord::sequence).toList(),
+                "Replay should skip sealed segments covered by the snapshot");
+    }
+
+    @Test
+    void testDeleteSealedSegmentsWithSnapshotSequence() throws IOException {
+        Path file = directory.resolve("users.dat.wal");
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.replay(0, record -> { });
+            log.append(RecordType.ADD, bytesOf("first"));
+            long firstSealed = log.rotate();
+            log.append(RecordType.ADD, bytesOf("second"));
+            log.rotate();
+
+            log.deleteSealedSegments(firstSealed);
+
+            assertEquals(1, log.sealedSegments().size(),
+                    "Only segments covered by the snapshot sequence should be deleted");
+        }
+
+        assertEquals(List.of(2L), replay(file, 1).stream().map(LogRecord::sequence).toList(),
+                "Remaining sealed segments should still be replayed");
+    }
+
+}
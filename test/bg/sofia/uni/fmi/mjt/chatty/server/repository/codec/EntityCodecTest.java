@@ -0,0 +1,256 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.repository.codec;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Block;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Entity;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.FriendRequest;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Friendship;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.GroupChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Message;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.Notification;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.NotificationType;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.PersonalChat;
+import bg.sofia.uni.fmi.mjt.chatty.server.model.User;
+import bg.sofia.uni.fmi.mjt.chatty.server.security.SHA256;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityCodecTest {
+
+    private static final User GEORGE =
+            new User(1, "George", "Peterson", "g.peterson", SHA256.hashPassword("Password123"));
+    private static final User STEVEN =
+            new User(2, "Steven", "Johnson", "s.jonson", SHA256.hashPassword("Password123"));
+    private static final User MARTIN =
+            new User("Martin", "Ivanov", "m.ivanov", SHA256.hashPassword("Password123"));
+    private static final Map<Integer, User> REGISTERED = Map.of(GEORGE.id(), GEORGE, STEVEN.id(), STEVEN);
+
+    private static byte[] encode(Collection<? extends Entity> entities, long sequence) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EntityCodec.write(entities, new EntityCodec.Header(sequence, 0), bytes);
+
+        return bytes.toByteArray();
+    }
+
+    private static <T extends Entity> List<T> decode(byte[] bytes) throws IOException {
+        List<T> entities = new ArrayList<>();
+        EntityCodec.<T>read(new ByteArrayInputStream(bytes), REGISTERED::get, entities::add);
+
+        return entities;
+    }
+
+    private static <T extends Entity> List<T> roundTrip(List<T> entities) throws IOException {
+        return decode(encode(entities, 0));
+    }
+
+    @Test
+    void testRoundTripWithRecords() throws IOException {
+        assertEquals(List.of(GEORGE, STEVEN), roundTrip(List.of(GEORGE, STEVEN)), "Users should survive encoding");
+        assertEquals(List.of(new Message(GEORGE, "Hello")), roundTrip(List.of(new Message(GEORGE, "Hello"))),
+                "Messages should survive encoding");
+        assertEquals(List.of(new FriendRequest(GEORGE, STEVEN)), roundTrip(List.of(new FriendRequest(GEORGE, STEVEN))),
+                "Friend requests should survive encoding");
+        assertEquals(List.of(new Block(STEVEN, GEORGE)), roundTrip(List.of(new Block(STEVEN, GEORGE))),
+                "Blocks should survive encoding");
+        assertEquals(List.of(new Notification(GEORGE, NotificationType.GROUP_MESSAGE, "hi")),
+                roundTrip(List.of(new Notification(GEORGE, NotificationType.GROUP_MESSAGE, "hi"))),
+                "Notifications should survive encoding");
+    }
+
+    @Test
+    void testRoundTripWithChats() throws IOException {
+        PersonalChat personal = new PersonalChat(GEORGE, STEVEN, List.of(new Message(GEORGE, "Здравей")));
+        GroupChat group = new GroupChat("colleagues", GEORGE);
+        group.addUser(MARTIN);
+        group.addMessage(new Message(MARTIN, "Hi all"));
+        group.removeUser(GEORGE);
+
+        PersonalChat decodedPersonal = roundTrip(List.of(personal)).getFirst();
+        GroupChat decodedGroup = roundTrip(List.of(group)).getFirst();
+
+        assertEquals(personal.getUsers(), decodedPersonal.getUsers(), "Personal chat users should survive encoding");
+        assertEquals(List.copyOf(personal.getMessages()), List.copyOf(decodedPersonal.getMessages()),
+                "Personal chat messages should survive encoding");
+        assertEquals("colleagues", decodedGroup.getName(), "Group name should survive encoding");
+        assertEquals(GEORGE, decodedGroup.getAdmin(), "Group admin should survive encoding");
+        assertEquals(List.of(MARTIN), List.copyOf(decodedGroup.getUsers()),
+                "Group members should survive encoding even without the admin");
+        assertEquals(List.copyOf(group.getMessages()), List.copyOf(decodedGroup.getMessages()),
+                "Group messages should survive encoding");
+    }
+
+    @Test
+    void testRoundTripWithFriendship() throws IOException {
+        Friendship decoded = roundTrip(List.of(new Friendship(GEORGE, STEVEN))).getFirst();
+
+        assertEquals(STEVEN, decoded.getFriendOf(GEORGE).orElseThrow(), "Friendship users should survive encoding");
+    }
+
+    @Test
+    void testReadWithUserIds() throws IOException {
+        User copy = GEORGE.withId(GEORGE.id());
+        List<Notification> notifications = new ArrayList<>();
+        List<Notification> unregistered = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            notifications.add(new Notification(copy, NotificationType.OTHER, "notification " + i));
+            unregistered.add(new Notification(MARTIN, NotificationType.OTHER, "notification " + i));
+        }
+
+        byte[] shared = encode(notifications, 0);
+        byte[] inline = encode(unregistered, 0);
+        List<Notification> decoded = decode(shared);
+
+        assertSame(GEORGE, decoded.get(0).user(), "User ids should resolve to the registered instance");
+        assertSame(GEORGE, decoded.get(99).user(), "Repeated user ids should resolve to one instance");
+        assertEquals(GEORGE.id(), decoded.get(99).user().id(), "Resolved users should keep their id");
+        assertTrue(shared.length < inline.length / 2, "Registered users should be written as ids");
+    }
+
+    @Test
+    void testReadWithUnregisteredUsers() throws IOException {
+        Message decoded = roundTrip(List.of(new Message(MARTIN, "Hi"))).getFirst();
+
+        assertEquals(MARTIN, decoded.sender(), "Users without an id should be written inline");
+        assertEquals(User.NO_ID, decoded.sender().id(), "Inline users should not get an id");
+    }
+
+    @Test
+    void testReadWithUnknownUserId() throws IOException {
+        byte[] bytes = encode(List.of(new Message(GEORGE, "Hi")), 0);
+
+        assertThrows(StreamCorruptedException.class,
+                () -> EntityCodec.read(new ByteArrayInputStream(bytes), id -> null, m -> { }),
+                "Ids of unknown users should be rejected");
+    }
+
+    @Test
+    void testReadWithVersionOneFile() throws IOException {
+        User inline = GEORGE.withId(User.NO_ID);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (var stream = new DataOutputStream(bytes)) {
+            stream.writeInt(StorageFormat.MAGIC);
+            stream.writeByte(1);
+            stream.writeLong(5);
+            stream.writeByte(2);
+            stream.writeByte(0x08);
+            stream.writeByte(1);
+            stream.writeByte(0);
+            for (String field : List.of(inline.firstName(), inline.lastName(), inline.username(),
+                    inline.passwordHash())) {
+                writeVersionOneString(stream, field);
+            }
+            stream.writeByte(NotificationType.OTHER.ordinal());
+            writeVersionOneString(stream, "first");
+            stream.writeByte(1);
+            stream.writeByte(NotificationType.OTHER.ordinal());
+            writeVersionOneString(stream, "second");
+        }
+
+        UserResolver resolver = new UserResolver() {
+            @Override
+            public User resolve(int id) {
+                return REGISTERED.get(id);
+            }
+
+            @Override
+            public User canonicalOf(User user) {
+                return user.equals(GEORGE) ? GEORGE : user;
+            }
+        };
+
+        List<Notification> decoded = new ArrayList<>();
+        EntityCodec.Header header = EntityCodec.<Notification>read(new ByteArrayInputStream(bytes.toByteArray()),
+                resolver, decoded::add);
+
+        assertEquals(5, header.sequence(), "Version one files should keep their sequence number");
+        assertEquals(0, header.nextId(), "Version one files should have no stored next id");
+        assertEquals(List.of("first", "second"), decoded.stream().map(Notification::content).toList(),
+                "Version one files should still be readable");
+        assertSame(GEORGE, decoded.get(0).user(), "Inline users should be replaced by the registered instance");
+        assertSame(GEORGE, decoded.get(1).user(), "Shared users should be replaced by the registered instance");
+    }
+
+    private static void writeVersionOneString(DataOutputStream stream, String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+
+        stream.writeByte(encoded.length + 1);
+        stream.write(encoded);
+    }
+
+    @Test
+    void testReadWithSequence() throws IOException {
+        assertEquals(42, EntityCodec.read(new ByteArrayInputStream(encode(List.of(GEORGE), 42)), REGISTERED::get,
+                u -> { }).sequence(),
+                "Reading should return the stored sequence number");
+        assertEquals(List.of(), decode(encode(List.of(), 7)), "Empty collections should be encoded");
+    }
+
+    @Test
+    void testReadWithNextId() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EntityCodec.write(List.of(GEORGE, STEVEN), new EntityCodec.Header(3, 17), bytes);
+
+        EntityCodec.Header header = EntityCodec.read(new ByteArrayInputStream(bytes.toByteArray()),
+                REGISTERED::get, u -> { });
+
+        assertEquals(new EntityCodec.Header(3, 17), header, "Reading should return the stored next id");
+    }
+
+    @Test
+    void testWriteWithMixedTypes() {
+        assertThrows(IllegalArgumentException.class, () -> encode(List.of(GEORGE, new Message(GEORGE, "hi")), 0),
+                "Files should hold a single entity type");
+    }
+
+    @Test
+    void testReadWithCorruptedData() throws IOException {
+        byte[] bytes = encode(List.of(GEORGE), 0);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        bytes[0] = 'X';
+
+        assertThrows(StreamCorruptedException.class, () -> decode(bytes), "Unknown magic should be rejected");
+        assertThrows(IOException.class, () -> decode(truncated), "Truncated files should be rejected");
+    }
+
+    @Test
+    void testStorageFormatWithKnownFormats() throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (var stream = new ObjectOutputStream(serialized)) {
+            stream.writeInt(0);
+        }
+
+        assertEquals(StorageFormat.EMPTY, formatOf(new byte[0]), "Empty files should be detected");
+        assertEquals(StorageFormat.SERIALIZED, formatOf(serialized.toByteArray()),
+                "Java serialization streams should be detected");
+        assertEquals(StorageFormat.BINARY, formatOf(encode(List.of(GEORGE), 0)), "Binary files should be detected");
+        assertThrows(StreamCorruptedException.class, () -> formatOf(new byte[] {1, 2, 3, 4}),
+                "Unknown formats should be rejected");
+    }
+
+    private static StorageFormat formatOf(byte[] bytes) throws IOException {
+        BufferedInputStream stream = new BufferedInputStream(new ByteArrayInputStream(bytes));
+        StorageFormat format = StorageFormat.of(stream);
+
+        assertEquals(bytes.length, stream.readAllBytes().length, "Detection should not consume the stream");
+        return format;
+    }
+
+}
@@ -78,6 +78,10 @@ public class BlockServiceTest {
         }
     }
 
+    private static User userOf(String username) throws ValueNotFoundException {
+        return userService.ensureUserExists(username);
+    }
+
     @Test
     void testBlockWithExistingBlock() throws UserAlreadyExistsException, ValueNotFoundException, UserBlockedException {
         String blockerUsername = "g.patrick";
@@ -92,9 +96,9 @@ public class BlockServiceTest {
         fRepo.add(new Friendship(blocker, blocked));
         pcRepo.add(new PersonalChat(blocker, blocked));
 
-        service.block(blockerUsername, blockedUsername);
+        service.block(userOf(blockerUsername), blockedUsername);
 
-        assertThrows(UserBlockedException.class, () -> service.block(blockerUsername, blockedUsername),
+        assertThrows(UserBlockedException.class, () -> service.block(userOf(blockerUsername), blockedUsername),
                 "Block should throw if block already exists");
     }
 
@@ -112,14 +116,14 @@ public class BlockServiceTest {
         fRepo.add(new Friendship(blocker, blocked));
         pcRepo.add(new PersonalChat(blocker, blocked));
 
-        service.block(blockerUsername, blockedUsername);
+        service.block(userOf(blockerUsername), blockedUsername);
 
         assertEquals(Collections.EMPTY_SET,
-                new HashSet<>(friendshipService.getFriendsOf(blockerUsername)),
+                new HashSet<>(friendshipService.getFriendsOf(userOf(blockerUsername))),
                 "Block should remove friendship");
 
         assertEquals(Collections.EMPTY_SET,
-                new HashSet<>(friendshipService.getFriendsOf(blockedUsername)),
+                new HashSet<>(friendshipService.getFriendsOf(userOf(blockedUsername))),
                 "Block should remove friendship");
 
         assertEquals(Collections.EMPTY_SET,
@@ -141,7 +145,7 @@ public class BlockServiceTest {
         fRepo.add(new Friendship(blocker, blocked));
         pcRepo.add(new PersonalChat(blocker, blocked));
 
-        assertThrows(ValueNotFoundException.class, () -> service.unblock(blockerUsername, blockedUsername),
+        assertThrows(ValueNotFoundException.class, () -> service.unblock(userOf(blockerUsername), blockedUsername),
                 "Unlock should throw if no block");
     }
 
@@ -159,9 +163,9 @@ public class BlockServiceTest {
         fRepo.add(new Friendship(unblocker, unblocked));
         pcRepo.add(new PersonalChat(unblocker, unblocked));
 
-        service.block(unblockerUsername, unblockedUsername);
+        service.block(userOf(unblockerUsername), unblockedUsername);
 
-        service.unblock(unblockerUsername, unblockedUsername);
+        service.unblock(userOf(unblockerUsername), unblockedUsername);
 
         assertEquals(Collections.EMPTY_SET,
                 new HashSet<>(bRepo.get(b -> b.blocker().equals(unblocker) && b.blocked().equals(unblocked))),
@@ -182,9 +186,10 @@ public class BlockServiceTest {
         fRepo.add(new Friendship(blocker, blocked));
         pcRepo.add(new PersonalChat(blocker, blocked));
 
-        service.block(blockerUsername, blockedUsername);
+        service.block(userOf(blockerUsername), blockedUsername);
 
-        assertEquals(Set.of(new UserDTO(blocked.getFullName(), blockedUsername)), service.getBlockedBy(blockerUsername),
+        assertEquals(Set.of(new UserDTO(blocked.getFullName(), blockedUsername)),
+                service.getBlockedBy(userOf(blockerUsername)),
                 "Get blocked should return proper collection of blocked users");
     }
 
@@ -1,6 +1,7 @@
 package bg.sofia.uni.fmi.mjt.chatty.server.service;
 
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.AccessDeniedException;
+import bg.sofia.uni.fmi.mjt.chatty.server.exception.GroupChatAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.UserAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.UserAlreadyInGroupException;
 import bg.sofia.uni.fmi.mjt.chatty.server.exception.ValueNotFoundException;
@@ -77,6 +78,10 @@ public class ChatServiceTest {
         }
     }
 
+    private static User userOf(String username) throws ValueNotFoundException {
+        return userService.ensureUserExists(username);
+    }
+
     @Test
     void testGetPersonalChatWithNoChat() throws UserAlreadyExistsException {
         String leftUsername = "g.patrick";
@@ -90,7 +95,7 @@ public class ChatServiceTest {
 
         fRepo.add(new Friendship(left, right));
 
-        assertThrows(ValueNotFoundException.class, () -> service.getPersonalChat(leftUsername, rightUsername),
+        assertThrows(ValueNotFoundException.class, () -> service.getPersonalChat(userOf(leftUsername), rightUsername),
                 "Get chat should throw in case of no chat");
     }
 
@@ -111,7 +116,7 @@ public class ChatServiceTest {
         fRepo.add(new Friendship(left, right));
         pcRepo.add(chat);
 
-        assertEquals(chat, service.getPersonalChat(leftUsername, rightUsername),
+        assertEquals(chat, service.getPersonalChat(userOf(leftUsername), rightUsername),
                 "Get chat should return proper chat in case of correct input data");
     }
 
@@ -128,7 +133,8 @@ public class ChatServiceTest {
 
         fRepo.add(new Friendship(left, right));
 
-        assertThrows(ValueNotFoundException.class, () -> service.deletePersonalChat(leftUsername, rightUsername),
+        assertThrows(ValueNotFoundException.class,
+                () -> service.deletePersonalChat(userOf(leftUsername), rightUsername),
                 "Delete should throw in case of no chat");
     }
 
@@ -149,7 +155,7 @@ public class ChatServiceTest {
         fRepo.add(new Friendship(left, right));
         pcRepo.add(chat);
 
-        service.deletePersonalChat(leftUsername, rightUsername);
+        service.deletePersonalChat(userOf(leftUsername), rightUsername);
 
         assertFalse(pcRepo.contains(chat), "Delete should have proper result in case of correct input data");
     }
@@ -168,7 +174,7 @@ public class ChatServiceTest {
         fRepo.add(new Friendship(left, right));
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.sendPersonalMessage(leftUsername, rightUsername, "Some message"),
+                () -> service.sendPersonalMessage(userOf(leftUsername), rightUsername, "Some message"),
                 "Send should throw in case of incorrect data");
     }
 
@@ -189,7 +195,7 @@ public class ChatServiceTest {
         fRepo.add(new Friendship(left, right));
         pcRepo.add(chat);
 
-        service.sendPersonalMessage(leftUsername, rightUsername, "Some message");
+        service.sendPersonalMessage(userOf(leftUsername), rightUsername, "Some message");
 
         assertEquals(3, chat.getMessages().size(), "Send should add message to the chat");
     }
@@ -204,18 +210,32 @@ public class ChatServiceTest {
 
         gcRepo.add(new GroupChat("chat-name", user));
 
-        assertThrows(UserAlreadyInGroupException.class, () -> service.createGroupChat("chat-name", username),
+        assertThrows(UserAlreadyInGroupException.class, () -> service.createGroupChat("chat-name", userOf(username)),
                 "Create should throw if group exists for user");
     }
 
     @Test
-    void testCreateGroupChatForCorrectResult()
-            throws UserAlreadyExistsException, ValueNotFoundException, UserAlreadyInGroupException {
+    void testCreateGroupChatWithNameTakenByOtherAdmin() throws UserAlreadyExistsException {
+        User admin = new User("George", "Patrick", "g.patrick", SHA256.hashPassword("Parola123"));
+
+        userService.register("George", "Patrick", "g.patrick", "Parola123");
+        userService.register("Steven", "Patrick", "s.patrick", "Parola123");
+
+        gcRepo.add(new GroupChat("chat-name", admin));
+
+        assertThrows(GroupChatAlreadyExistsException.class,
+                () -> service.createGroupChat("chat-name", userOf("s.patrick")),
+                "Create should throw if another admin already has a group with this name");
+    }
+
+    @Test
+    void testCreateGroupChatForCorrectResult() throws UserAlreadyExistsException, ValueNotFoundException,
+            UserAlreadyInGroupException, GroupChatAlreadyExistsException {
         String username = "g.patrick";
 
         userService.register("George", "Patrick", username, "Parola123");
 
-        service.createGroupChat("chat-name", username);
+        service.createGroupChat("chat-name", userOf(username));
 
         assertTrue(gcRepo.contains(c -> c.getName().equals("chat-name")), "Create group should add group chat");
     }
@@ -228,7 +248,7 @@ public class ChatServiceTest {
 
         userService.register("George", "Patrick", username, "Parola123");
 
-        assertThrows(ValueNotFoundException.class, () -> service.deleteGroupChat("chat-name", username),
+        assertThrows(ValueNotFoundException.class, () -> service.deleteGroupChat("chat-name", userOf(username)),
                 "Delete should throw if group does not exist");
     }
 
@@ -243,7 +263,7 @@ public class ChatServiceTest {
 
         gcRepo.add(new GroupChat("chat-name", user));
 
-        service.deleteGroupChat("chat-name", username);
+        service.deleteGroupChat("chat-name", userOf(username));
 
         assertFalse(gcRepo.contains(c -> c.getName().equals("chat-name")), "Delete should remove group chat");
     }
@@ -254,7 +274,7 @@ public class ChatServiceTest {
 
         userService.register("George", "Patrick", username, "Parola123");
 
-        assertThrows(ValueNotFoundException.class, () -> service.getGroupChat("chat-name", username),
+        assertThrows(ValueNotFoundException.class, () -> service.getGroupChat("chat-name", userOf(username)),
                 "Get should throw if group does not exist");
     }
 
@@ -271,7 +291,7 @@ public class ChatServiceTest {
 
         gcRepo.add(chat);
 
-        assertEquals(chat, service.getGroupChat("chat-name", username),
+        assertEquals(chat, service.getGroupChat("chat-name", userOf(username)),
                 "Get should return proper group chat");
     }
 
@@ -293,7 +313,7 @@ public class ChatServiceTest {
 
         gcRepo.add(chat);
 
-        assertEquals(Set.of("chat-name"), service.getGroupChatsForUser(secondUsername),
+        assertEquals(Set.of("chat-name"), service.getGroupChatsForUser(userOf(secondUsername)),
                 "Get for user should return proper group chats");
     }
 
@@ -306,7 +326,7 @@ public class ChatServiceTest {
         userService.register("Steven", "Patrick", secondUsername, "Parola123");
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.addToGroupChat("chat-name", firstUsername, secondUsername),
+                () -> service.addToGroupChat("chat-name", userOf(firstUsername), secondUsername),
                 "Add to group should throw if group does not exist");
     }
 
@@ -329,7 +349,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(AccessDeniedException.class,
-                () -> service.addToGroupChat("chat-name", secondUsername, thirdUsername),
+                () -> service.addToGroupChat("chat-name", userOf(secondUsername), thirdUsername),
                 "Add to group should throw if adder is not admin");
     }
 
@@ -350,7 +370,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(UserAlreadyInGroupException.class,
-                () -> service.addToGroupChat("chat-name", firstUsername, secondUsername),
+                () -> service.addToGroupChat("chat-name", userOf(firstUsername), secondUsername),
                 "Add to group should throw if added is already in");
     }
 
@@ -370,7 +390,7 @@ public class ChatServiceTest {
 
         gcRepo.add(chat);
 
-        service.addToGroupChat("chat-name", firstUsername, secondUsername);
+        service.addToGroupChat("chat-name", userOf(firstUsername), secondUsername);
 
         assertTrue(chat.getUsers().contains(secondUser),
                 "Add to group should return proper result for correct data");
@@ -385,7 +405,7 @@ public class ChatServiceTest {
         userService.register("Steven", "Patrick", secondUsername, "Parola123");
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.removeFromGroupChat("chat-name", firstUsername, secondUsername),
+                () -> service.removeFromGroupChat("chat-name", userOf(firstUsername), secondUsername),
                 "Remove from group should throw if group does not exist");
     }
 
@@ -410,7 +430,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(AccessDeniedException.class,
-                () -> service.removeFromGroupChat("chat-name", secondUsername, thirdUsername),
+                () -> service.removeFromGroupChat("chat-name", userOf(secondUsername), thirdUsername),
                 "Remove from group should throw if adder is not admin");
     }
 
@@ -428,7 +448,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.removeFromGroupChat("chat-name", firstUsername, secondUsername),
+                () -> service.removeFromGroupChat("chat-name", userOf(firstUsername), secondUsername),
                 "Remove from group should throw if removed user is not in the chat");
     }
 
@@ -448,7 +468,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
         chat.addUser(secondUser);
 
-        service.removeFromGroupChat("chat-name", firstUsername, secondUsername);
+        service.removeFromGroupChat("chat-name", userOf(firstUsername), secondUsername);
 
         assertFalse(chat.getUsers().contains(secondUser),
                 "Remove from group should return proper result for correct data");
@@ -463,7 +483,7 @@ public class ChatServiceTest {
         userService.register("Steven", "Patrick", secondUsername, "Parola123");
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.leaveGroupChat("chat-name", firstUsername),
+                () -> service.leaveGroupChat("chat-name", userOf(firstUsername)),
                 "Leave chat should throw if chat does not exist");
     }
 
@@ -482,7 +502,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.leaveGroupChat("chat-name", secondUsername),
+                () -> service.leaveGroupChat("chat-name", userOf(secondUsername)),
                 "Leave chat should throw if user not in chat");
     }
 
@@ -502,7 +522,7 @@ public class ChatServiceTest {
 
         gcRepo.add(chat);
 
-        service.leaveGroupChat("chat-name", secondUsername);
+        service.leaveGroupChat("chat-name", userOf(secondUsername));
 
         assertFalse(chat.getUsers().contains(secondUser));
     }
@@ -516,7 +536,7 @@ public class ChatServiceTest {
         userService.register("Steven", "Patrick", secondUsername, "Parola123");
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.sendGroupMessage("chat-name", firstUsername, "Some message"),
+                () -> service.sendGroupMessage("chat-name", userOf(firstUsername), "Some message"),
                 "Send to group should throw if group does not exist");
     }
 
@@ -534,7 +554,7 @@ public class ChatServiceTest {
         gcRepo.add(chat);
 
         assertThrows(ValueNotFoundException.class,
-                () -> service.sendGroupMessage("chat-name", secondUsername, "Some message"),
+                () -> service.sendGroupMessage("chat-name", userOf(secondUsername), "Some message"),
                 "Send to group should throw if user not in chat");
     }
 
@@ -549,7 +569,7 @@ public class ChatServiceTest {
         GroupChat chat = new GroupChat("chat-name", firstUser);
         gcRepo.add(chat);
 
-        service.sendGroupMessage("chat-name", firstUsername, "Some message");
+        service.sendGroupMessage("chat-name", userOf(firstUsername), "Some message");
 
         assertTrue(chat.getMessages().contains(new Message(firstUser, "Some message")),
                 "Send message should add the message to the chat");
@@ -68,6 +68,10 @@ public class FriendshipServiceTest {
         }
     }
 
+    private static User userOf(String username) throws ValueNotFoundException {
+        return userService.ensureUserExists(username);
+    }
+
     @Test
     void testAddFriendForExistingFriendship() throws UserAlreadyExistsException {
         String senderUsername = "g.patrick";
@@ -81,7 +85,8 @@ public class FriendshipServiceTest {
 
         fRepo.add(new Friendship(sender, receiver));
 
-        assertThrows(FriendshipAlreadyExistsException.class, () -> service.addFriend(senderUsername, receiverUsername),
+        assertThrows(FriendshipAlreadyExistsException.class,
+                () -> service.addFriend(userOf(senderUsername), receiverUsername),
                 "Add friend should throw if friendship exists");
     }
 
@@ -98,7 +103,8 @@ public class FriendshipServiceTest {
 
         frRepo.add(new FriendRequest(sender, receiver));
 
-        assertThrows(FriendRequestAlreadySentException.class, () -> service.addFriend(senderUsername, receiverUsername),
+        assertThrows(FriendRequestAlreadySentException.class,
+                () -> service.addFriend(userOf(senderUsername), receiverUsername),
                 "Add friend should throw if friend request already sent");
     }
 
@@ -115,7 +121,8 @@ public class FriendshipServiceTest {
 
         frRepo.add(new FriendRequest(receiver, sender));
 
-        assertThrows(FriendRequestAlreadySentException.class, () -> service.addFriend(senderUsername, receiverUsername),
+        assertThrows(FriendRequestAlreadySentException.class,
+                () -> service.addFriend(userOf(senderUsername), receiverUsername),
                 "Add friend should throw if friend request already sent from receiver");
     }
 
@@ -132,7 +139,7 @@ public class FriendshipServiceTest {
 
         bRepo.add(new Block(receiver, sender));
 
-        assertThrows(UserBlockedException.class, () -> service.addFriend(senderUsername, receiverUsername),
+        assertThrows(UserBlockedException.class, () -> service.addFriend(userOf(senderUsername), receiverUsername),
                 "Add friend should throw if receiver blocked sender");
     }
 
@@ -149,7 +156,7 @@ public class FriendshipServiceTest {
 
         bRepo.add(new Block(sender, receiver));
 
-        assertThrows(UserBlockedException.class, () -> service.addFriend(senderUsername, receiverUsername),
+        assertThrows(UserBlockedException.class, () -> service.addFriend(userOf(senderUsername), receiverUsername),
                 "Add friend should throw if sender blocked receiver");
     }
 
@@ -166,7 +173,7 @@ public class FriendshipServiceTest {
         userService.register("George", "Patrick", senderUsername, "Parola123");
         userService.register("Steven", "Johnson", receiverUsername, "Parola123");
 
-        service.addFriend(senderUsername, receiverUsername);
+        service.addFriend(userOf(senderUsername), receiverUsername);
 
         assertEquals(Set.of(new FriendRequest(sender, receiver)),
                 new HashSet<>(frRepo.get(fr -> fr.sender().equals(sender) && fr.receiver().equals(receiver))),
@@ -181,7 +188,7 @@ public class FriendshipServiceTest {
         userService.register("George", "Patrick", removerUsername, "Parola123");
         userService.register("Steven", "Johnson", removedUsername, "Parola123");
 
-        assertThrows(ValueNotFoundException.class, () -> service.removeFriend(removerUsername, removedUsername),
+        assertThrows(ValueNotFoundException.class, () -> service.removeFriend(userOf(removerUsername), removedUsername),
                 "Remove friend should throw if no friendship");
     }
 
@@ -198,7 +205,7 @@ public class FriendshipServiceTest {
 
         fRepo.add(new Friendship(remover, removed));
 
-        service.removeFriend(removerUsername, removedUsername);
+        service.removeFriend(userOf(removerUsername), removedUsername);
 
         assertEquals(Collections.EMPTY_SET,
                 new HashSet<>(fRepo.get(f -> f.containsUser(remover) && f.containsUser(removed))),
@@ -218,7 +225,8 @@ public class FriendshipServiceTest {
 
         fRepo.add(new Friendship(left, right));
 
-        assertEquals(Set.of(new UserDTO(right.getFullName(), rightUsername)), service.getFriendsOf(leftUsername),
+        assertEquals(Set.of(new UserDTO(right.getFullName(), rightUsername)),
+                service.getFriendsOf(userOf(leftUsername)),
                 "Get friends should return correct set of user friends");
     }
 
@@ -235,7 +243,8 @@ public class FriendshipServiceTest {
 
         frRepo.add(new FriendRequest(requester, receiver));
 
-        assertEquals(Set.of(new UserDTO(requester.getFullName(), requesterUsername)), service.getRequests(receiverUsername),
+        assertEquals(Set.of(new UserDTO(requester.getFullName(), requesterUsername)),
+                service.getRequests(userOf(receiverUsername)),
                 "Get requests should return correct set of user requesters");
     }
 
@@ -247,7 +256,8 @@ public class FriendshipServiceTest {
         userService.register("George", "Patrick", requesterUsername, "Parola123");
         userService.register("Steven", "Johnson", receiverUsername, "Parola123");
 
-        assertThrows(ValueNotFoundException.class, () -> service.acceptRequest(receiverUsername, requesterUsername));
+        assertThrows(ValueNotFoundException.class,
+                () -> service.acceptRequest(userOf(receiverUsername), requesterUsername));
     }
 
     @Test
@@ -263,7 +273,7 @@ public class FriendshipServiceTest {
 
         frRepo.add(new FriendRequest(requester, receiver));
 
-        service.acceptRequest(receiverUsername, requesterUsername);
+        service.acceptRequest(userOf(receiverUsername), requesterUsername);
 
         Collection<User> usersInFriendship = Objects.requireNonNull(
                 fRepo.get(f -> f.containsUser(requester) && f.containsUser(receiver))
@@ -286,7 +296,7 @@ public class FriendshipServiceTest {
                 "Accept request should create personal chat");
 
         assertEquals(Collections.EMPTY_SET,
-                new HashSet<>(service.getRequests(receiverUsername)),
+                new HashSet<>(service.getRequests(userOf(receiverUsername))),
                 "Accept request should remove request");
     }
 
@@ -298,7 +308,8 @@ public class FriendshipServiceTest {
         userService.register("George", "Patrick", requesterUsername, "Parola123");
         userService.register("Steven", "Johnson", receiverUsername, "Parola123");
 
-        assertThrows(ValueNotFoundException.class, () -> service.declineRequest(receiverUsername, requesterUsername));
+        assertThrows(ValueNotFoundException.class,
+                () -> service.declineRequest(userOf(receiverUsername), requesterUsername));
     }
 
     @Test
@@ -314,10 +325,10 @@ public class FriendshipServiceTest {
 
         frRepo.add(new FriendRequest(requester, receiver));
 
-        service.declineRequest(receiverUsername, requesterUsername);
+        service.declineRequest(userOf(receiverUsername), requesterUsername);
 
         assertEquals(Collections.EMPTY_SET,
-                new HashSet<>(service.getRequests(receiverUsername)),
+                new HashSet<>(service.getRequests(userOf(receiverUsername))),
                 "Accept request should remove request");
     }
 
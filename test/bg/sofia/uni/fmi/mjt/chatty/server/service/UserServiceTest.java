@@ -66,6 +66,15 @@ public class UserServiceTest {
                 "Register should create user in case of correct input data");
     }
 
+    @Test
+    void testRegisterWithAssignedId() throws UserAlreadyExistsException {
+        User registered = service.register("George", "Peterson", "g.peterson", "Password123");
+
+        assertNotEquals(User.NO_ID, registered.id(), "Register should return the user with its assigned id");
+        assertSame(UserRepository.getInstance().getByUsername("g.peterson").orElseThrow(), registered,
+                "Register should return the stored user");
+    }
+
     @Test
     void testLoginWithNotExistingUser() {
         String username = "g.peterson";
@@ -0,0 +1,109 @@
+package bg.sofia.uni.fmi.mjt.chatty.server.subscription;
+
+import bg.sofia.uni.fmi.mjt.chatty.server.network.Connection;
+import bg.sofia.uni.fmi.mjt.chatty.server.session.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SubscriptionRegistryTest {
+
+    private SubscriptionRegistry registry;
+    private Connection first;
+    private Connection second;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SubscriptionRegistry();
+        first = new TestConnection();
+        second = new TestConnection();
+    }
+
+    @Test
+    void testPersonalKeyWithSwappedUsernames() {
+        assertEquals(ChatKey.personal("g.peterson", "s.peterson"), ChatKey.personal("s.peterson", "g.peterson"),
+                "Personal chat keys should not depend on the order of the usernames");
+    }
+
+    @Test
+    void testSubscribersOfWithBothParticipants() {
+        registry.subscribe(ChatKey.personal("g.peterson", "s.peterson"), first);
+        registry.subscribe(ChatKey.personal("s.peterson", "g.peterson"), second);
+
+        assertEquals(List.of(first, second), registry.subscribersOf(ChatKey.personal("g.peterson", "s.peterson")),
+                "Subscribers of should return both participants of a personal chat");
+    }
+
+    @Test
+    void testSubscribeWithSameConnectionTwice() {
+        registry.subscribe(ChatKey.group("mjt"), first);
+        registry.subscribe(ChatKey.group("mjt"), first);
+
+        assertEquals(List.of(first), registry.subscribersOf(ChatKey.group("mjt")),
+                "Subscribe should not add the same connection twice");
+    }
+
+    @Test
+    void testUnsubscribeWithLastSubscriber() {
+        registry.subscribe(ChatKey.group("mjt"), first);
+        registry.unsubscribe(ChatKey.group("mjt"), first);
+
+        assertTrue(registry.subscribersOf(ChatKey.group("mjt")).isEmpty(),
+                "Unsubscribe should remove the connection from the chat");
+        assertEquals(0, registry.chatCount(), "Unsubscribe should drop chats without subscribers");
+        assertTrue(registry.subscriptionsOf(first).isEmpty(),
+                "Unsubscribe should remove the chat from the connection subscriptions");
+    }
+
+    @Test
+    void testUnsubscribeAllWithSeveralChats() {
+        registry.subscribe(ChatKey.group("mjt"), first);
+        registry.subscribe(ChatKey.personal("g.peterson", "s.peterson"), first);
+        registry.subscribe(ChatKey.group("mjt"), second);
+
+        registry.unsubscribeAll(first);
+
+        assertEquals(List.of(second), registry.subscribersOf(ChatKey.group("mjt")),
+                "Unsubscribe all should keep the other subscribers");
+        assertEquals(1, registry.chatCount(), "Unsubscribe all should drop chats left without subscribers");
+        assertEquals(Set.of(), registry.subscriptionsOf(first),
+                "Unsubscribe all should forget the connection subscriptions");
+    }
+
+    @Test
+    void testGroupKeyWithSameNameAsPersonalKey() {
+        registry.subscribe(ChatKey.group("g.peterson"), first);
+
+        assertTrue(registry.subscribersOf(ChatKey.personal("g.peterson", "")).isEmpty(),
+                "Group and personal chat keys should never collide");
+    }
+
+    private static class TestConnection implements Connection {
+
+        @Override
+        public void send(ByteBuffer frame) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void closeQuietly() {
+        }
+
+        @Override
+        public Session getSession() {
+            return null;
+        }
+
+    }
+
+}